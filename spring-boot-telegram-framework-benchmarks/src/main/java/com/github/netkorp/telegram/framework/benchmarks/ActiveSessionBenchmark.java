@@ -0,0 +1,127 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.benchmarks.commands.SurveyCommand;
+import com.github.netkorp.telegram.framework.commands.interfaces.MultistageCommand;
+import com.github.netkorp.telegram.framework.exceptions.CommandNotActive;
+import com.github.netkorp.telegram.framework.managers.CommandManager;
+import com.github.netkorp.telegram.framework.sessions.InMemorySessionStore;
+import com.github.netkorp.telegram.framework.sessions.SessionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the lookup of the active command of a chat in the {@link InMemorySessionStore} with the map of boxed
+ * chat identifications that the {@link CommandManager} used before it, and with a {@link ConcurrentHashMap},
+ * which would be the straightforward way of making that map thread-safe.
+ * Half of the chats looked up have an active command.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActiveSessionBenchmark {
+
+    /**
+     * The amount of chats looked up. It's a power of two.
+     */
+    private static final int LOOKUPS = 1 << 16;
+
+    /**
+     * The amount of chats with an active command.
+     */
+    @Param({"1000", "100000"})
+    private int sessions;
+
+    private AnnotationConfigApplicationContext context;
+
+    private CommandManager commandManager;
+
+    private SessionStore sessionStore;
+
+    private Map<Long, MultistageCommand> hashMap;
+
+    private Map<Long, MultistageCommand> concurrentHashMap;
+
+    private long[] chats;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        commandManager = context.getBean(CommandManager.class);
+        MultistageCommand command = context.getBean(SurveyCommand.class);
+
+        sessionStore = new InMemorySessionStore();
+        hashMap = new HashMap<>();
+        concurrentHashMap = new ConcurrentHashMap<>();
+
+        Random random = new Random(42);
+        long[] active = new long[sessions];
+        for (int i = 0; i < sessions; i++) {
+            active[i] = 100_000_000L + random.nextInt(Integer.MAX_VALUE);
+            commandManager.setActiveCommand(active[i], command);
+            sessionStore.put(active[i], "/survey");
+            hashMap.put(active[i], command);
+            concurrentHashMap.put(active[i], command);
+        }
+
+        chats = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            chats[i] = i % 2 == 0 ? active[random.nextInt(sessions)] : -1 - random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long nextChat() {
+        return chats[next++ & (LOOKUPS - 1)];
+    }
+
+    @Benchmark
+    public String sessionStore() {
+        return sessionStore.get(nextChat());
+    }
+
+    @Benchmark
+    public MultistageCommand hashMap() {
+        return hashMap.get(nextChat());
+    }
+
+    @Benchmark
+    public MultistageCommand concurrentHashMap() {
+        return concurrentHashMap.get(nextChat());
+    }
+
+    /**
+     * Looks up the active command through the {@link CommandManager}, as the {@code UpdateManager} does.
+     */
+    @Benchmark
+    public MultistageCommand commandManager() throws CommandNotActive {
+        long chatId = nextChat();
+        return commandManager.hasActiveCommand(chatId) ? commandManager.getActiveCommand(chatId) : null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.benchmarks.commands.EchoCommand;
+import com.github.netkorp.telegram.framework.commands.basic.WhoAmICommand;
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.managers.SecurityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SecurityManager#isAuthorized(Long, Command)} for the authorized and the unauthorized chats.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private SecurityManager securityManager;
+
+    private Command secureCommand;
+
+    private Command nonSecureCommand;
+
+    private Long authorizedChat;
+
+    private Long unauthorizedChat;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        securityManager = context.getBean(SecurityManager.class);
+        secureCommand = context.getBean(EchoCommand.class);
+        nonSecureCommand = context.getBean(WhoAmICommand.class);
+        authorizedChat = BenchmarkContext.AUTHORIZED_CHAT;
+        unauthorizedChat = BenchmarkContext.UNAUTHORIZED_CHAT;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean authorizedChat() {
+        return securityManager.isAuthorized(authorizedChat, secureCommand);
+    }
+
+    @Benchmark
+    public boolean unauthorizedChat() {
+        return securityManager.isAuthorized(unauthorizedChat, secureCommand);
+    }
+
+    @Benchmark
+    public boolean nonSecureCommand() {
+        return securityManager.isAuthorized(unauthorizedChat, nonSecureCommand);
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.SpringBootTelegramFrameworkConfiguration;
+import com.github.netkorp.telegram.framework.configuration.BasicCommandConfiguration;
+import com.github.netkorp.telegram.framework.dedup.UpdateDeduplicator;
+import com.github.netkorp.telegram.framework.limiters.InboundFloodLimiter;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.telegram.telegrambots.ApiContextInitializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts the framework with the commands of the benchmarks and a {@link StubTelegramBot}, so nothing is sent
+ * to Telegram. The updates are processed by the thread that receives them: the dispatcher, the outbound queue
+ * and the detection of duplicates are disabled, so the benchmarks measure the framework alone.
+ */
+public final class BenchmarkContext {
+
+    /**
+     * The username of the bot.
+     */
+    public static final String BOT_USERNAME = "BenchmarkBot";
+
+    /**
+     * The chat authorized to execute the secure commands.
+     */
+    public static final long AUTHORIZED_CHAT = 1000;
+
+    /**
+     * A chat that is not authorized.
+     */
+    public static final long UNAUTHORIZED_CHAT = 2000;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Starts the framework.
+     *
+     * @return the started context. It must be closed at the end of the benchmark.
+     */
+    public static AnnotationConfigApplicationContext start() {
+        ApiContextInitializer.init();
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmarks", properties()));
+        context.register(BenchmarkConfiguration.class);
+        context.refresh();
+
+        return context;
+    }
+
+    /**
+     * Returns the properties of the framework for the benchmarks.
+     *
+     * @return the properties.
+     */
+    private static Map<String, Object> properties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("telegram.bots.username", BOT_USERNAME);
+        properties.put("telegram.bots.token", "0:benchmark");
+        properties.put("telegram.authorized.idChat", String.valueOf(AUTHORIZED_CHAT));
+        properties.put("telegram.dispatcher.enabled", "false");
+        properties.put("telegram.outbound.enabled", "false");
+        properties.put("telegram.dedup.enabled", "false");
+        return properties;
+    }
+
+    /**
+     * Contains the configuration of the framework for the benchmarks.
+     */
+    @Configuration
+    @Import({SpringBootTelegramFrameworkConfiguration.class, BasicCommandConfiguration.class})
+    @ComponentScan("com.github.netkorp.telegram.framework.benchmarks.commands")
+    static class BenchmarkConfiguration {
+
+        /**
+         * Returns the bot that processes the updates without sending anything to Telegram.
+         *
+         * @param updateDeduplicator   the {@link UpdateDeduplicator} instance.
+         * @param inboundFloodLimiter  the {@link InboundFloodLimiter} instance.
+         * @param updateSink           the {@link UpdateSink} instance.
+         * @param outboundMessageQueue the {@link OutboundMessageQueue} instance.
+         * @param metrics              the {@link TelegramMetrics} instance.
+         * @return the {@link StubTelegramBot} instance.
+         */
+        @Bean
+        public StubTelegramBot telegramBot(UpdateDeduplicator updateDeduplicator,
+                                           InboundFloodLimiter inboundFloodLimiter,
+                                           UpdateSink updateSink,
+                                           OutboundMessageQueue outboundMessageQueue,
+                                           TelegramMetrics metrics) {
+            return new StubTelegramBot(BOT_USERNAME, updateDeduplicator, inboundFloodLimiter, updateSink,
+                    outboundMessageQueue, metrics);
+        }
+    }
+}
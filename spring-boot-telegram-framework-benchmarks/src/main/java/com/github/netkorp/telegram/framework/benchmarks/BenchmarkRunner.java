@@ -0,0 +1,42 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result reports the allocation rate
+ * and the bytes allocated per operation next to the throughput.
+ * It takes the same arguments as the JMH runner, for instance a regular expression for the benchmarks to run.
+ * On Java 9 and later the forks open {@code java.lang} to the injector used by the Telegram library.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks selected by the arguments.
+     *
+     * @param args the arguments of the JMH runner.
+     * @throws CommandLineOptionException if the arguments are not valid.
+     * @throws RunnerException            if a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class);
+
+        if (!System.getProperty("java.specification.version").startsWith("1.")
+                && !commandLineOptions.getJvmArgsAppend().hasValue()) {
+            builder.jvmArgsAppend("--add-opens=java.base/java.lang=ALL-UNNAMED");
+        }
+
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.exceptions.CommandNotFound;
+import com.github.netkorp.telegram.framework.managers.CommandManager;
+import com.github.netkorp.telegram.framework.parsers.CommandParser;
+import com.github.netkorp.telegram.framework.parsers.ParsedCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup of the commands by their name in the {@link CommandManager}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandLookupBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private CommandManager commandManager;
+
+    private ParsedCommand known;
+
+    private ParsedCommand unknown;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        commandManager = context.getBean(CommandManager.class);
+
+        CommandParser parser = new CommandParser(BenchmarkContext.BOT_USERNAME);
+        known = parser.parse(Updates.message(1, BenchmarkContext.AUTHORIZED_CHAT,
+                "/Echo@" + BenchmarkContext.BOT_USERNAME + " Hello World").getMessage());
+        unknown = parser.parse(Updates.message(1, BenchmarkContext.AUTHORIZED_CHAT, "/ecoh Hello World").getMessage());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Looks up a command by its full name.
+     */
+    @Benchmark
+    public Command getCommand() throws CommandNotFound {
+        return commandManager.getCommand("/echo");
+    }
+
+    /**
+     * Looks up the command invoked in a message, without copying its name.
+     */
+    @Benchmark
+    public Command findCommand() {
+        return commandManager.findCommand(known.getText(), known.getNameStart(), known.getNameEnd());
+    }
+
+    /**
+     * Looks up a command that doesn't exist.
+     */
+    @Benchmark
+    public Command findUnknownCommand() {
+        return commandManager.findCommand(unknown.getText(), unknown.getNameStart(), unknown.getNameEnd());
+    }
+
+    /**
+     * Suggests the commands with a name similar to a command that doesn't exist.
+     */
+    @Benchmark
+    public List<String> suggestCommands() {
+        return commandManager.suggestCommands(unknown.getText(), unknown.getNameStart(), unknown.getNameEnd(), 3);
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.parsers.CommandParser;
+import com.github.netkorp.telegram.framework.parsers.ParsedCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link CommandParser} with the parsing that was done by the bot before it,
+ * which lowercased, replaced and split the whole text of every command.
+ * The bytes allocated per operation are reported by the GC profiler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandParsingBenchmark {
+
+    /**
+     * The text of the message.
+     */
+    @Param({"/help", "/Echo@BenchmarkBot Hello World", "/echo one two three four five six"})
+    private String text;
+
+    private CommandParser parser;
+
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        parser = new CommandParser(BenchmarkContext.BOT_USERNAME);
+        message = Updates.message(1, BenchmarkContext.AUTHORIZED_CHAT, text).getMessage();
+    }
+
+    /**
+     * Parses the command and its parameters, as the {@code UpdateManager} does before executing a command.
+     * The name is not copied, since the command is looked up by the range of its name in the text.
+     */
+    @Benchmark
+    public void parser(Blackhole blackhole) {
+        ParsedCommand parsedCommand = parser.parse(message);
+        blackhole.consume(parsedCommand.getNameStart());
+        blackhole.consume(parsedCommand.getNameEnd());
+        if (parsedCommand.hasArgs()) {
+            blackhole.consume(parsedCommand.getArgs());
+        }
+    }
+
+    /**
+     * Checks the name of the command, as the {@code UpdateManager} does for the messages of an active session.
+     */
+    @Benchmark
+    public boolean parserNameOnly() {
+        return parser.parse(message).nameEquals("/echo");
+    }
+
+    /**
+     * Parses the command and its parameters as the bot did before the {@link CommandParser}.
+     */
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        Map.Entry<String, String[]> commandAndArgs = getCleanedCommandAndArgs(message);
+        blackhole.consume(commandAndArgs.getKey());
+        blackhole.consume(commandAndArgs.getValue());
+    }
+
+    /**
+     * Checks the name of the command as the bot did for the messages of an active session before the {@link CommandParser}.
+     */
+    @Benchmark
+    public boolean legacyNameOnly() {
+        return getCleanedCommand(message).equals("/echo");
+    }
+
+    private static Map.Entry<String, String[]> getCleanedCommandAndArgs(Message message) {
+        String cleanedCommand = getCleanedCommand(message);
+
+        String[] dividedText = cleanedCommand.split(" ");
+
+        return new AbstractMap.SimpleEntry<>(dividedText[0],
+                Arrays.copyOfRange(dividedText, 1, dividedText.length));
+    }
+
+    private static String getCleanedCommand(Message message) {
+        return message.getText().toLowerCase()
+                .replace(String.format("@%s", BenchmarkContext.BOT_USERNAME.toLowerCase()), "");
+    }
+}
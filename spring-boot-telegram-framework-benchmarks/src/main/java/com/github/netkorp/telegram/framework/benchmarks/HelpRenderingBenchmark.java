@@ -0,0 +1,68 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.commands.basic.BasicHelpCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link BasicHelpCommand}, both with the help already rendered and rendering it on every request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelpRenderingBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+
+    private BasicHelpCommand helpCommand;
+
+    private Update update;
+
+    private Update commandHelp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        helpCommand = context.getBean(BasicHelpCommand.class);
+        update = Updates.message(1, BenchmarkContext.AUTHORIZED_CHAT, "/help");
+        commandHelp = Updates.message(1, BenchmarkContext.AUTHORIZED_CHAT, "/help echo survey");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void cached() {
+        helpCommand.execute(update);
+    }
+
+    @Benchmark
+    public void cachedCommands() {
+        helpCommand.execute(commandHelp, new String[]{"echo", "survey"});
+    }
+
+    @Benchmark
+    public void rendered() {
+        helpCommand.clearCache();
+        helpCommand.execute(update);
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.descriptors.CommandIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of the framework, with the commands described by the {@link CommandIndex}
+ * and by reflecting on their annotations. Every fork starts the framework once, so the classes are loaded
+ * and the annotations are parsed as they are when a new instance of the bot starts.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(CommandIndex.IGNORE_INDEX, String.valueOf(!indexed));
+    }
+
+    @Benchmark
+    public int start() {
+        try (AnnotationConfigApplicationContext context = BenchmarkContext.start()) {
+            return context.getBeanDefinitionCount();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.bots.PollingTelegramBot;
+import com.github.netkorp.telegram.framework.dedup.UpdateDeduplicator;
+import com.github.netkorp.telegram.framework.limiters.InboundFloodLimiter;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+
+import java.io.Serializable;
+
+/**
+ * Provides a {@link PollingTelegramBot} whose requests are counted instead of being sent to Telegram.
+ */
+public class StubTelegramBot extends PollingTelegramBot {
+
+    /**
+     * The amount of requests that would have been sent to Telegram.
+     */
+    private long requests;
+
+    /**
+     * Constructs a new {@link StubTelegramBot} instance with the username of the bot and the components of the pipeline.
+     *
+     * @param botUsername          the username of the bot.
+     * @param updateDeduplicator   the {@link UpdateDeduplicator} instance.
+     * @param inboundFloodLimiter  the {@link InboundFloodLimiter} instance.
+     * @param updateSink           the {@link UpdateSink} instance.
+     * @param outboundMessageQueue the {@link OutboundMessageQueue} instance.
+     * @param metrics              the {@link TelegramMetrics} instance.
+     */
+    public StubTelegramBot(String botUsername,
+                           UpdateDeduplicator updateDeduplicator,
+                           InboundFloodLimiter inboundFloodLimiter,
+                           UpdateSink updateSink,
+                           OutboundMessageQueue outboundMessageQueue,
+                           TelegramMetrics metrics) {
+        super(botUsername, "0:benchmark", "", updateDeduplicator, inboundFloodLimiter, updateSink, outboundMessageQueue,
+                metrics);
+    }
+
+    /**
+     * Counts the request instead of sending it.
+     *
+     * @param method the request.
+     * @param <T>    the type of the response.
+     * @param <M>    the type of the request.
+     * @return {@code null}, since there is no response.
+     */
+    @Override
+    public <T extends Serializable, M extends BotApiMethod<T>> T execute(M method) {
+        requests++;
+        return null;
+    }
+
+    /**
+     * Returns the amount of requests that would have been sent to Telegram.
+     *
+     * @return the amount of requests.
+     */
+    public long getRequestCount() {
+        return requests;
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.github.netkorp.telegram.framework.benchmarks.commands.SurveyCommand;
+import com.github.netkorp.telegram.framework.managers.CommandManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StubTelegramBot#onUpdateReceived(Update)} from the reception of the update
+ * to the request that would be sent to Telegram.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdatePipelineBenchmark {
+
+    /**
+     * The kind of update: a secure command with parameters, the help, a message for the active command
+     * of the chat, or a command that doesn't exist.
+     */
+    @Param({"command", "help", "session", "unknown"})
+    private String scenario;
+
+    private AnnotationConfigApplicationContext context;
+
+    private StubTelegramBot bot;
+
+    private Update update;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bot = context.getBean(StubTelegramBot.class);
+
+        long chatId = BenchmarkContext.AUTHORIZED_CHAT;
+        switch (scenario) {
+            case "command":
+                update = Updates.message(1, chatId, "/echo@" + BenchmarkContext.BOT_USERNAME + " Hello World");
+                break;
+            case "help":
+                update = Updates.message(1, chatId, "/help");
+                break;
+            case "session":
+                context.getBean(CommandManager.class).setActiveCommand(chatId, context.getBean(SurveyCommand.class));
+                update = Updates.message(1, chatId, "An answer");
+                break;
+            case "unknown":
+                update = Updates.message(1, chatId, "/ecoh Hello World");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long onUpdateReceived() {
+        bot.onUpdateReceived(update);
+        return bot.getRequestCount();
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.netkorp.telegram.framework.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Creates the updates used by the benchmarks, as Telegram would send them.
+ */
+public final class Updates {
+
+    /**
+     * The mapper that reads the updates.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Updates() {
+    }
+
+    /**
+     * Returns an update with a text message from a private chat. If the text starts with a slash,
+     * the first word is marked as a {@code bot_command} entity.
+     *
+     * @param updateId the update identification.
+     * @param chatId   the chat identification.
+     * @param text     the text of the message.
+     * @return the update.
+     */
+    public static Update message(long updateId, long chatId, String text) {
+        StringBuilder json = new StringBuilder()
+                .append("{\"update_id\":").append(updateId)
+                .append(",\"message\":{\"message_id\":").append(updateId)
+                .append(",\"date\":0")
+                .append(",\"from\":{\"id\":").append(chatId).append(",\"is_bot\":false,\"first_name\":\"Benchmark\"}")
+                .append(",\"chat\":{\"id\":").append(chatId).append(",\"type\":\"private\",\"first_name\":\"Benchmark\"}")
+                .append(",\"text\":").append(quote(text));
+
+        if (text.startsWith("/")) {
+            int length = text.indexOf(' ') < 0 ? text.length() : text.indexOf(' ');
+            json.append(",\"entities\":[{\"type\":\"bot_command\",\"offset\":0,\"length\":").append(length).append("}]");
+        }
+
+        try {
+            return MAPPER.readValue(json.append("}}").toString(), Update.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the text as a JSON string.
+     *
+     * @param text the text.
+     * @return the JSON string.
+     */
+    private static String quote(String text) {
+        try {
+            return MAPPER.writeValueAsString(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.netkorp.telegram.framework.benchmarks.commands;
+
+import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
+import com.github.netkorp.telegram.framework.commands.abstracts.AbstractSimpleCommand;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Sends back the parameters. It's a secure command, so the authorization is part of its execution.
+ */
+@TelegramCommand(name = {"echo", "repeat"}, group = "Benchmarks", description = "Sends back the parameters")
+public class EchoCommand extends AbstractSimpleCommand {
+
+    /**
+     * Processes the data sent by the users.
+     *
+     * @param update the received message.
+     * @param args   the parameters passed to the command execution.
+     */
+    @Override
+    public void execute(Update update, String[] args) {
+        bot.sendMessage(String.join(" ", args), update.getMessage().getChatId());
+    }
+}
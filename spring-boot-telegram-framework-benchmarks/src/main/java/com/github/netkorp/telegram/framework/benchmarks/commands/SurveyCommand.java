@@ -0,0 +1,56 @@
+package com.github.netkorp.telegram.framework.benchmarks.commands;
+
+import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
+import com.github.netkorp.telegram.framework.commands.abstracts.AbstractMultistageCommand;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Asks for answers until it's closed. It's used to measure the messages of an active session.
+ */
+@TelegramCommand(name = "survey", group = "Benchmarks", description = "Asks for answers")
+public class SurveyCommand extends AbstractMultistageCommand {
+
+    /**
+     * Initializes the command.
+     *
+     * @param update the received message.
+     * @return {@code true}, so the command becomes the active one.
+     */
+    @Override
+    public boolean init(Update update) {
+        bot.sendMessage("Answer the questions", update.getMessage().getChatId());
+        return true;
+    }
+
+    /**
+     * Processes an answer.
+     *
+     * @param update the received message.
+     */
+    @Override
+    public void execute(Update update) {
+        bot.sendMessage("Noted", update.getMessage().getChatId());
+    }
+
+    /**
+     * Finishes the survey.
+     *
+     * @param update the received message.
+     * @return {@code true}, so the command is no longer the active one.
+     */
+    @Override
+    public boolean done(Update update) {
+        return true;
+    }
+
+    /**
+     * Cancels the survey.
+     *
+     * @param update the received message.
+     * @return {@code true}, so the command is no longer the active one.
+     */
+    @Override
+    public boolean close(Update update) {
+        return true;
+    }
+}
@@ -1,11 +1,52 @@
 package com.github.netkorp.telegram.framework;
 
-import org.springframework.context.annotation.ComponentScan;
+import com.github.netkorp.telegram.framework.configuration.BasicCommandConfiguration;
+import com.github.netkorp.telegram.framework.configuration.BotConfiguration;
+import com.github.netkorp.telegram.framework.configuration.LocaleConfiguration;
+import com.github.netkorp.telegram.framework.configuration.MetricsConfiguration;
+import com.github.netkorp.telegram.framework.configuration.SessionStoreConfiguration;
+import com.github.netkorp.telegram.framework.configuration.UpdateQueueConfiguration;
+import com.github.netkorp.telegram.framework.dedup.UpdateDeduplicator;
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.executors.CommandExecutor;
+import com.github.netkorp.telegram.framework.limiters.InboundFloodLimiter;
+import com.github.netkorp.telegram.framework.managers.CommandManager;
+import com.github.netkorp.telegram.framework.managers.SecurityManager;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import com.github.netkorp.telegram.framework.properties.AuthorizedProperties;
+import com.github.netkorp.telegram.framework.properties.CommandProperties;
+import com.github.netkorp.telegram.framework.properties.DedupProperties;
+import com.github.netkorp.telegram.framework.properties.DispatcherProperties;
+import com.github.netkorp.telegram.framework.properties.ExecutionProperties;
+import com.github.netkorp.telegram.framework.properties.FloodProperties;
+import com.github.netkorp.telegram.framework.properties.MessagesProperties;
+import com.github.netkorp.telegram.framework.properties.MetricsProperties;
+import com.github.netkorp.telegram.framework.properties.OutboundProperties;
+import com.github.netkorp.telegram.framework.properties.QueueProperties;
+import com.github.netkorp.telegram.framework.properties.RoleProperties;
+import com.github.netkorp.telegram.framework.properties.SessionProperties;
+import com.github.netkorp.telegram.framework.properties.WebhookProperties;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 
+/**
+ * Auto-configures the core of the framework: the properties, the managers and the update pipeline.
+ * The components are imported one by one instead of being found by scanning the packages of the framework.
+ * The bot and the basic commands are configured afterwards by {@link BotConfiguration} and
+ * {@link BasicCommandConfiguration}, so they can see the beans declared by the application.
+ * Both {@link CommandManager} and {@link SecurityManager} are replaced by declaring a bean of their type.
+ */
 @Configuration
-@ComponentScan
 @PropertySource({"classpath:spring-boot-telegram-framework.properties"})
+@EnableConfigurationProperties({AuthorizedProperties.class, CommandProperties.class, DedupProperties.class,
+        DispatcherProperties.class, ExecutionProperties.class, FloodProperties.class, MessagesProperties.class,
+        MetricsProperties.class, OutboundProperties.class, QueueProperties.class, RoleProperties.class,
+        SessionProperties.class, WebhookProperties.class})
+@Import({LocaleConfiguration.class, SessionStoreConfiguration.class, MetricsConfiguration.class,
+        UpdateQueueConfiguration.class, SecurityManager.class, CommandManager.class, CommandExecutor.class,
+        UpdateManager.class, UpdateDeduplicator.class, InboundFloodLimiter.class, UpdateDispatcher.class, OutboundMessageQueue.class})
 public class SpringBootTelegramFrameworkConfiguration {
 }
@@ -13,6 +13,8 @@ import java.lang.annotation.Target;
  * Indicates that the annotated element represents a command that could be executed by the user.
  * It should be used in classes that implement the
  * {@link com.github.netkorp.telegram.framework.commands.interfaces.Command} interface.
+ * The commands that are rarely used and expensive to create can be annotated with
+ * {@link org.springframework.context.annotation.Lazy}, so they are instantiated on their first invocation.
  *
  * @see com.github.netkorp.telegram.framework.commands.abstracts.AbstractSimpleCommand
  * @see com.github.netkorp.telegram.framework.commands.abstracts.AbstractMultistageCommand
@@ -51,4 +53,31 @@ public @interface TelegramCommand {
      * @return {@code true} if the command is secure; {@code false} otherwise. By default the command is secure.
      */
     boolean secure() default true;
+
+    /**
+     * Returns the roles whose users can invoke the command, if the command is secure.
+     * If there are no roles, every authorized user can invoke the command.
+     *
+     * @return the roles of the command.
+     * @see com.github.netkorp.telegram.framework.managers.SecurityManager
+     */
+    String[] roles() default {};
+
+    /**
+     * Returns the maximum time in milliseconds that an execution of the command may take.
+     * The execution is cancelled once the time is over. It can be overridden by the properties.
+     *
+     * @return the maximum time of an execution, or {@code 0} to use the one of the properties.
+     * @see com.github.netkorp.telegram.framework.executors.CommandExecutor
+     */
+    long timeout() default 0;
+
+    /**
+     * Returns the maximum amount of executions of the command at the same time.
+     * The invocations beyond the limit are rejected. It can be overridden by the properties.
+     *
+     * @return the maximum amount of executions at the same time, or {@code 0} to use the one of the properties.
+     * @see com.github.netkorp.telegram.framework.executors.CommandExecutor
+     */
+    int maxConcurrent() default 0;
 }
\ No newline at end of file
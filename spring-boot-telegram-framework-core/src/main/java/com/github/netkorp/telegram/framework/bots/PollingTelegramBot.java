@@ -1,42 +1,39 @@
 package com.github.netkorp.telegram.framework.bots;
 
-import com.github.netkorp.telegram.framework.commands.interfaces.Command;
-import com.github.netkorp.telegram.framework.commands.interfaces.MultistageCommand;
-import com.github.netkorp.telegram.framework.commands.interfaces.SimpleCommand;
-import com.github.netkorp.telegram.framework.commands.multistage.MultistageCloseCommand;
-import com.github.netkorp.telegram.framework.commands.multistage.MultistageDoneCommand;
-import com.github.netkorp.telegram.framework.exceptions.CommandNotActive;
-import com.github.netkorp.telegram.framework.exceptions.CommandNotFound;
-import com.github.netkorp.telegram.framework.exceptions.UserNotAuthorized;
-import com.github.netkorp.telegram.framework.managers.CommandManager;
-import com.github.netkorp.telegram.framework.managers.SecurityManager;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.github.netkorp.telegram.framework.dedup.UpdateDeduplicator;
+import com.github.netkorp.telegram.framework.limiters.InboundFloodLimiter;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
-import java.lang.invoke.MethodHandles;
-import java.util.AbstractMap;
-import java.util.Arrays;
-import java.util.Map;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Provides the component for sharing information with Telegram using
  * <a href="https://core.telegram.org/bots/api#getupdates">long-polling</a> method.
- * It has the responsibility to execute the proper command when an incoming message is received.
+ * It hands the accepted updates to the {@link UpdateSink}, so the next updates are requested without waiting
+ * for the commands.
+ * It's the default mode of the bot, and it's disabled by setting {@code telegram.bots.mode} to another mode.
+ * The requests are sent to the Bot API of Telegram unless {@code telegram.bots.api-url} points to another server,
+ * for instance a fake one for load testing.
+ *
+ * @see WebhookTelegramBot
  */
 @Component
-public class PollingTelegramBot extends TelegramLongPollingBot {
-
-    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+@ConditionalOnProperty(name = "telegram.bots.mode", havingValue = "polling", matchIfMissing = true)
+public class PollingTelegramBot extends TelegramLongPollingBot implements TelegramBot {
 
     /**
      * The bot's username.
@@ -49,116 +46,117 @@ public class PollingTelegramBot extends TelegramLongPollingBot {
     private String botToken;
 
     /**
-     * The component to know which user is authorized.
+     * The component for discarding the updates received more than once.
+     */
+    private final UpdateDeduplicator updateDeduplicator;
+
+    /**
+     * The component for limiting the updates of the chats that send too many of them.
+     */
+    private final InboundFloodLimiter inboundFloodLimiter;
+
+    /**
+     * The component that receives the accepted updates to be processed.
      */
-    private final SecurityManager securityManager;
+    private final UpdateSink updateSink;
 
     /**
-     * The component for managing all of the available commands in the bot.
+     * The component for delivering the outgoing messages.
      */
-    private final CommandManager commandManager;
+    private final OutboundMessageQueue outboundMessageQueue;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
 
     /**
      * Constructs a new {@link PollingTelegramBot} instance with both username and token of the bot,
-     * the {@link SecurityManager} component instance and the {@link CommandManager} instance.
+     * the URL of the Bot API, the {@link UpdateDeduplicator} instance,
+     * the {@link InboundFloodLimiter} instance,
+     * the {@link UpdateSink} instance,
+     * the {@link OutboundMessageQueue} instance
+     * and the {@link TelegramMetrics} instance.
      *
-     * @param botUsername     the username of the bot.
-     * @param botToken        the token of the bot.
-     * @param securityManager the {@link SecurityManager} component instance.
-     * @param commandManager  the {@link CommandManager} instance.
+     * @param botUsername          the username of the bot.
+     * @param botToken             the token of the bot.
+     * @param apiUrl               the URL of the Bot API, followed by the token and the method name,
+     *                             or an empty String for the one of Telegram.
+     * @param updateDeduplicator   the {@link UpdateDeduplicator} instance.
+     * @param inboundFloodLimiter  the {@link InboundFloodLimiter} instance.
+     * @param updateSink           the {@link UpdateSink} instance.
+     * @param outboundMessageQueue the {@link OutboundMessageQueue} instance.
+     * @param metrics              the {@link TelegramMetrics} instance.
      */
     @Autowired
     public PollingTelegramBot(@Value("${telegram.bots.username}") String botUsername,
                               @Value("${telegram.bots.token}") String botToken,
-                              SecurityManager securityManager,
-                              @Lazy CommandManager commandManager) {
+                              @Value("${telegram.bots.api-url:}") String apiUrl,
+                              UpdateDeduplicator updateDeduplicator,
+                              InboundFloodLimiter inboundFloodLimiter,
+                              UpdateSink updateSink,
+                              OutboundMessageQueue outboundMessageQueue,
+                              TelegramMetrics metrics) {
         this.botUsername = botUsername;
         this.botToken = botToken;
-        this.securityManager = securityManager;
-        this.commandManager = commandManager;
+        if (!apiUrl.isEmpty()) {
+            getOptions().setBaseUrl(apiUrl);
+        }
+        this.updateDeduplicator = updateDeduplicator;
+        this.inboundFloodLimiter = inboundFloodLimiter;
+        this.updateSink = updateSink;
+        this.outboundMessageQueue = outboundMessageQueue;
+        this.metrics = metrics;
     }
 
     /**
      * This method is called when receiving updates via GetUpdates method.
+     * The updates received more than once are discarded, and the rest go through the {@link InboundFloodLimiter}
+     * before being handed to the {@link UpdateSink}.
      *
      * @param update Update received.
      */
     @Override
     public void onUpdateReceived(Update update) {
-        // We check if the update has a message and the message has text
-        if (update.hasMessage()) {
-            Long chatId = update.getMessage().getChatId();
-
-            if (commandManager.hasActiveCommand(chatId)) {
-                if (!update.getMessage().isCommand()
-                        || !reservedCommands(getCleanedCommand(update), update)) {
-                    try {
-                        commandManager.getActiveCommand(chatId).execute(update);
-                    } catch (CommandNotActive commandNotActive) {
-                        // Do nothing. This point is impossible to reach.
-                    }
-                }
-
-                return;
-            }
-
-            // Checking if this is a command
-            if (update.getMessage().isCommand()) {
-                try {
-                    Map.Entry<String, String[]> commandAndArgs = getCleanedCommandAndArgs(update);
-                    Command command = commandManager.getCommand(commandAndArgs.getKey());
-
-                    if (!securityManager.isAuthorized(chatId, command)) {
-                        throw new UserNotAuthorized();
-                    }
-
-                    if (command instanceof MultistageCommand && ((MultistageCommand) command).init(update)) {
-                        commandManager.setActiveCommand(chatId, ((MultistageCommand) command));
-                    } else if (command instanceof SimpleCommand) {
-                        if (commandAndArgs.getValue().length == 0) {
-                            ((SimpleCommand) command).execute(update);
-                        } else {
-                            ((SimpleCommand) command).execute(update, commandAndArgs.getValue());
-                        }
-                    }
-                } catch (CommandNotFound commandNotFound) {
-                    sendMessage(commandNotFound.getMessage(), chatId);
-                    commandManager.getHelpCommand()
-                            .filter(command -> securityManager.isAuthorized(chatId, command))
-                            .ifPresent(command -> command.execute(update));
-                } catch (UserNotAuthorized userNotAuthorized) {
-                    sendMessage(userNotAuthorized.getMessage(), chatId);
-                }
-            } else {
-                sendMessage("That is not a command", chatId);
-            }
+        metrics.updateReceived();
+        if (!updateDeduplicator.isDuplicate(update)) {
+            inboundFloodLimiter.submit(update, this::dispatch);
         }
     }
 
     /**
-     * Returns the command invoked by the user and the parameters, cleaning the text and deleting the bot's username.
+     * This method is called when receiving the updates of a request via GetUpdates method, up to 100 at once.
+     * Each update is deduplicated and limited as in {@link #onUpdateReceived(Update)}, and the accepted updates
+     * are handed to the {@link UpdateSink} together, so they can be grouped by chat.
+     * The updates delayed by the {@link InboundFloodLimiter} are handed on their own once the wait is over.
      *
-     * @param update the received update.
-     * @return the command and the parameters.
+     * @param updates the updates received.
      */
-    private Map.Entry<String, String[]> getCleanedCommandAndArgs(Update update) {
-        String cleanedCommand = getCleanedCommand(update);
-
-        String[] dividedText = cleanedCommand.split(" ");
+    @Override
+    public void onUpdatesReceived(List<Update> updates) {
+        AcceptedUpdates accepted = new AcceptedUpdates(updates.size());
+        for (Update update : updates) {
+            metrics.updateReceived();
+            if (!updateDeduplicator.isDuplicate(update)) {
+                inboundFloodLimiter.submit(update, accepted);
+            }
+        }
 
-        return new AbstractMap.SimpleEntry<>(dividedText[0],
-                Arrays.copyOfRange(dividedText, 1, dividedText.length));
+        List<Update> handed = accepted.close();
+        updateSink.appendAll(handed);
+        for (Update update : handed) {
+            updateDeduplicator.confirm(update);
+        }
     }
 
     /**
-     * Returns the command invoked by the user, cleaning the text and deleting the bot's username.
+     * Hands the update to the {@link UpdateSink} to be processed, and confirms it to the {@link UpdateDeduplicator}.
      *
      * @param update the received update.
-     * @return the command.
      */
-    private String getCleanedCommand(Update update) {
-        return update.getMessage().getText().toLowerCase()
-                .replace(String.format("@%s", getBotUsername().toLowerCase()), "");
+    private void dispatch(Update update) {
+        updateSink.append(update);
+        updateDeduplicator.confirm(update);
     }
 
     /**
@@ -181,60 +179,83 @@ public class PollingTelegramBot extends TelegramLongPollingBot {
         return botToken;
     }
 
-    /**
-     * Checks if the entered text matches with some reserved command.
-     * If this is the case it will execute the corresponding command.
-     *
-     * @param commandText the text entered by the user.
-     * @param update      the message sent by the user.
-     * @return {@code true} if some reserved command was executed; {@code false} otherwise.
-     */
-    private boolean reservedCommands(String commandText, Update update) {
-        Optional<MultistageCloseCommand> closeCommand = commandManager.getCloseCommand()
-                .filter(command -> CommandManager.getCommandFullNames(command).get(0).equals(commandText));
-
-        if (closeCommand.isPresent()) {
-            closeCommand.get().execute(update);
-            return true;
-        }
-
-        Optional<MultistageDoneCommand> doneCommand = commandManager.getDoneCommand()
-                .filter(command -> CommandManager.getCommandFullNames(command).get(0).equals(commandText));
-
-        if (doneCommand.isPresent()) {
-            doneCommand.get().execute(update);
-            return true;
-        }
-
-        return false;
-    }
-
     /**
      * Sends a text message to Telegram.
      * This is a shortcut for {@link #sendMessage(String, Long, boolean)} with HTML format disabled.
      *
      * @param content the message content.
      * @param idChat  the chat identification to which the message should be sent.
+     * @return the future message sent.
      */
-    public void sendMessage(String content, Long idChat) {
-        sendMessage(content, idChat, false);
+    @Override
+    public CompletableFuture<Message> sendMessage(String content, Long idChat) {
+        return sendMessage(content, idChat, false);
     }
 
     /**
-     * Sends a text message to Telegram. This is a shortcut for {@link #execute(BotApiMethod)}.
+     * Sends a text message to Telegram through the {@link OutboundMessageQueue}, so it returns immediately
+     * while the queue paces the delivery according to the limits of Telegram.
+     * The message is sent by {@link #execute(BotApiMethod)}.
      *
      * @param content the message content.
      * @param idChat  the chat identification to which the message should be sent.
      * @param html    {@code true} if HTML format is enabled or {@code false} otherwise.
+     * @return the future message sent.
      */
-    public void sendMessage(String content, Long idChat, boolean html) {
+    @Override
+    public CompletableFuture<Message> sendMessage(String content, Long idChat, boolean html) {
         SendMessage message = new SendMessage() // Create a SendMessage object with mandatory fields
                 .setChatId(idChat).setText(content).enableHtml(html);
 
-        try {
-            this.execute(message); // Call method to send the message
-        } catch (TelegramApiException e) {
-            LOG.error(e.getMessage(), e);
+        return outboundMessageQueue.enqueue(idChat, () -> this.execute(message));
+    }
+
+    /**
+     * Collects the updates of a request accepted by the {@link InboundFloodLimiter}. Once it's closed,
+     * the updates accepted later are handed on their own to the {@link UpdateSink}.
+     */
+    private final class AcceptedUpdates implements Consumer<Update> {
+
+        /**
+         * The accepted updates, or {@code null} once it's closed.
+         */
+        private List<Update> updates;
+
+        /**
+         * Constructs a new {@link AcceptedUpdates} instance with the amount of received updates.
+         *
+         * @param size the amount of received updates.
+         */
+        private AcceptedUpdates(int size) {
+            this.updates = new ArrayList<>(size);
+        }
+
+        /**
+         * Adds the accepted update, or hands it to the {@link UpdateSink} if it's already closed.
+         *
+         * @param update the accepted update.
+         */
+        @Override
+        public void accept(Update update) {
+            synchronized (this) {
+                if (updates != null) {
+                    updates.add(update);
+                    return;
+                }
+            }
+
+            dispatch(update);
+        }
+
+        /**
+         * Stops collecting the updates.
+         *
+         * @return the accepted updates, in the order they were received.
+         */
+        private synchronized List<Update> close() {
+            List<Update> accepted = updates;
+            updates = null;
+            return accepted;
         }
     }
 }
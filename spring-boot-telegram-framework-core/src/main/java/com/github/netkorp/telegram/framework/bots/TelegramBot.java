@@ -0,0 +1,56 @@
+package com.github.netkorp.telegram.framework.bots;
+
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shares information with Telegram regardless of the way in which the updates are received.
+ *
+ * @see PollingTelegramBot
+ * @see WebhookTelegramBot
+ * @see WorkerTelegramBot
+ */
+public interface TelegramBot {
+
+    /**
+     * Returns the bot's username.
+     *
+     * @return the bot's username.
+     */
+    String getBotUsername();
+
+    /**
+     * Sends a text message to Telegram.
+     * This is a shortcut for {@link #sendMessage(String, Long, boolean)} with HTML format disabled.
+     *
+     * @param content the message content.
+     * @param idChat  the chat identification to which the message should be sent.
+     * @return the future message sent.
+     */
+    CompletableFuture<Message> sendMessage(String content, Long idChat);
+
+    /**
+     * Sends a text message to Telegram.
+     *
+     * @param content the message content.
+     * @param idChat  the chat identification to which the message should be sent.
+     * @param html    {@code true} if HTML format is enabled or {@code false} otherwise.
+     * @return the future message sent.
+     */
+    CompletableFuture<Message> sendMessage(String content, Long idChat, boolean html);
+
+    /**
+     * Executes a method of the Bot API synchronously.
+     *
+     * @param method   the method to execute.
+     * @param <T>      the type of the response.
+     * @param <Method> the type of the method.
+     * @return the response of Telegram.
+     * @throws TelegramApiException if the execution fails.
+     */
+    <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method) throws TelegramApiException;
+}
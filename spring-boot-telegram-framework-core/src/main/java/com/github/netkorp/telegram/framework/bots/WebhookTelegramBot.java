@@ -0,0 +1,471 @@
+package com.github.netkorp.telegram.framework.bots;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.netkorp.telegram.framework.dedup.UpdateDeduplicator;
+import com.github.netkorp.telegram.framework.limiters.InboundFloodLimiter;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import com.github.netkorp.telegram.framework.properties.WebhookProperties;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the component for sharing information with Telegram using a
+ * <a href="https://core.telegram.org/bots/api#setwebhook">webhook</a>.
+ * It runs an embedded HTTP server that receives the updates, validates the secret token and acknowledges
+ * the request before discarding the duplicates and handing the update to the {@link InboundFloodLimiter}
+ * and the {@link UpdateSink},
+ * so Telegram never waits for the commands. When the sink is durable, the request is acknowledged once the update
+ * is added to it instead, so Telegram delivers the update again if the bot stops before. The updates delayed by
+ * the {@link InboundFloodLimiter} are acknowledged when they are delayed, since they are not kept meanwhile.
+ * The requests are handled by a small pool of blocking threads, which is enough since each one only reads
+ * a body of limited size. The larger bodies are rejected.
+ * It's enabled by setting {@code telegram.bots.mode} to {@code webhook}.
+ * The requests are sent to the Bot API of Telegram unless {@code telegram.bots.api-url} points to another server.
+ *
+ * @see PollingTelegramBot
+ */
+@Component
+@ConditionalOnProperty(name = "telegram.bots.mode", havingValue = "webhook")
+public class WebhookTelegramBot extends DefaultAbsSender implements TelegramBot, SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The header in which Telegram sends the secret token.
+     */
+    private static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    /**
+     * The bot's username.
+     */
+    private final String botUsername;
+
+    /**
+     * The bot's token.
+     */
+    private final String botToken;
+
+    /**
+     * The properties of the webhook.
+     */
+    private final WebhookProperties webhookProperties;
+
+    /**
+     * The component for discarding the updates received more than once.
+     */
+    private final UpdateDeduplicator updateDeduplicator;
+
+    /**
+     * The component for limiting the updates of the chats that send too many of them.
+     */
+    private final InboundFloodLimiter inboundFloodLimiter;
+
+    /**
+     * The component that receives the accepted updates to be processed.
+     */
+    private final UpdateSink updateSink;
+
+    /**
+     * The component for delivering the outgoing messages.
+     */
+    private final OutboundMessageQueue outboundMessageQueue;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * The mapper for reading the updates.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The embedded HTTP server. It's {@code null} while the bot is stopped.
+     */
+    private HttpServer server;
+
+    /**
+     * The threads of the embedded HTTP server.
+     */
+    private ExecutorService serverThreads;
+
+    /**
+     * Constructs a new {@link WebhookTelegramBot} instance with both username and token of the bot,
+     * the URL of the Bot API, the properties of the webhook, the {@link UpdateDeduplicator} instance,
+     * the {@link InboundFloodLimiter} instance,
+     * the {@link UpdateSink} instance,
+     * the {@link OutboundMessageQueue} instance
+     * and the {@link TelegramMetrics} instance.
+     *
+     * @param botUsername          the username of the bot.
+     * @param botToken             the token of the bot.
+     * @param apiUrl               the URL of the Bot API, followed by the token and the method name,
+     *                             or an empty String for the one of Telegram.
+     * @param webhookProperties    the properties of the webhook.
+     * @param updateDeduplicator   the {@link UpdateDeduplicator} instance.
+     * @param inboundFloodLimiter  the {@link InboundFloodLimiter} instance.
+     * @param updateSink           the {@link UpdateSink} instance.
+     * @param outboundMessageQueue the {@link OutboundMessageQueue} instance.
+     * @param metrics              the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public WebhookTelegramBot(@Value("${telegram.bots.username}") String botUsername,
+                              @Value("${telegram.bots.token}") String botToken,
+                              @Value("${telegram.bots.api-url:}") String apiUrl,
+                              WebhookProperties webhookProperties,
+                              UpdateDeduplicator updateDeduplicator,
+                              InboundFloodLimiter inboundFloodLimiter,
+                              UpdateSink updateSink,
+                              OutboundMessageQueue outboundMessageQueue,
+                              TelegramMetrics metrics) {
+        super(new DefaultBotOptions());
+        this.botUsername = botUsername;
+        this.botToken = botToken;
+        if (!apiUrl.isEmpty()) {
+            getOptions().setBaseUrl(apiUrl);
+        }
+        this.webhookProperties = webhookProperties;
+        this.updateDeduplicator = updateDeduplicator;
+        this.inboundFloodLimiter = inboundFloodLimiter;
+        this.updateSink = updateSink;
+        this.outboundMessageQueue = outboundMessageQueue;
+        this.metrics = metrics;
+        this.objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Starts the embedded HTTP server and registers the webhook in Telegram if the external URL is established.
+     */
+    @Override
+    public synchronized void start() {
+        if (webhookProperties.getSecretToken().isEmpty()) {
+            LOG.warn("There is no secret token for the webhook. Every request will be accepted.");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        serverThreads = Executors.newFixedThreadPool(Math.max(1, webhookProperties.getThreads()),
+                runnable -> new Thread(runnable, "telegram-webhook-" + threadNumber.incrementAndGet()));
+
+        try {
+            server = HttpServer.create(new InetSocketAddress(webhookProperties.getHost(), webhookProperties.getPort()), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        server.createContext(webhookProperties.getPath(), this::handle);
+        server.setExecutor(serverThreads);
+        server.start();
+        LOG.info("Receiving updates on port {} and path {}", getPort(), webhookProperties.getPath());
+
+        if (!webhookProperties.getExternalUrl().isEmpty()) {
+            registerWebhook();
+        }
+    }
+
+    /**
+     * Stops the embedded HTTP server.
+     */
+    @Override
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            serverThreads.shutdown();
+            server = null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the embedded HTTP server is running.
+     *
+     * @return {@code true} if the server is running; {@code false} otherwise.
+     */
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Returns the port in which the embedded HTTP server listens, or {@code -1} if it's stopped.
+     * It's useful when the port is chosen by the system.
+     *
+     * @return the port of the server.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Receives a request from Telegram. The request is acknowledged before the update is dispatched,
+     * or after it if the {@link UpdateSink} is durable, and it's rejected if its body is larger than the maximum size.
+     *
+     * @param exchange the HTTP request and response.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            respond(exchange, 405);
+            return;
+        }
+
+        if (!isValidSecretToken(exchange.getRequestHeaders().getFirst(SECRET_TOKEN_HEADER))) {
+            respond(exchange, 401);
+            return;
+        }
+
+        byte[] body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = readBody(exchange, input);
+        }
+
+        if (body == null) {
+            LOG.warn("A request was rejected because its body is larger than {} bytes",
+                    webhookProperties.getMaxBodySize());
+            respond(exchange, 413);
+            return;
+        }
+
+        Update update;
+        try {
+            update = objectMapper.readValue(body, Update.class);
+        } catch (IOException e) {
+            LOG.warn("The update could not be read: {}", e.getMessage());
+            respond(exchange, 400);
+            return;
+        }
+
+        metrics.updateReceived();
+        if (!updateSink.isDurable()) {
+            respond(exchange, 200);
+            accept(update);
+            return;
+        }
+
+        accept(update);
+        respond(exchange, 200);
+    }
+
+    /**
+     * Discards the update if it's a duplicate, or hands it to the {@link InboundFloodLimiter} otherwise.
+     *
+     * @param update the received update.
+     */
+    private void accept(Update update) {
+        if (!updateDeduplicator.isDuplicate(update)) {
+            inboundFloodLimiter.submit(update, this::dispatch);
+        }
+    }
+
+    /**
+     * Reads the body of the request, as long as it's not larger than the maximum size.
+     *
+     * @param exchange the HTTP request and response.
+     * @param input    the body of the request.
+     * @return the body, or {@code null} if it's larger than the maximum size.
+     * @throws IOException if an I/O error occurs.
+     */
+    private byte[] readBody(HttpExchange exchange, InputStream input) throws IOException {
+        int maxBodySize = webhookProperties.getMaxBodySize();
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > maxBodySize) {
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                // The body is measured while it's read
+            }
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            if (output.size() + read > maxBodySize) {
+                return null;
+            }
+
+            output.write(buffer, 0, read);
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Hands the update to the {@link UpdateSink} to be processed, and confirms it to the {@link UpdateDeduplicator}.
+     *
+     * @param update the received update.
+     */
+    private void dispatch(Update update) {
+        updateSink.append(update);
+        updateDeduplicator.confirm(update);
+    }
+
+    /**
+     * Returns {@code true} if the token matches the secret token of the webhook.
+     * The tokens are compared in constant time.
+     *
+     * @param token the token received in the request.
+     * @return {@code true} if the token is valid; {@code false} otherwise.
+     */
+    private boolean isValidSecretToken(String token) {
+        String secretToken = webhookProperties.getSecretToken();
+        if (secretToken.isEmpty()) {
+            return true;
+        }
+
+        return token != null && MessageDigest.isEqual(secretToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends an empty response with the status code and closes the exchange.
+     *
+     * @param exchange   the HTTP request and response.
+     * @param statusCode the status code.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void respond(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.sendResponseHeaders(statusCode, -1);
+        exchange.close();
+    }
+
+    /**
+     * Registers the webhook in the Bot API, including the secret token.
+     * The request is sent directly since the Bot API library doesn't support the secret token.
+     */
+    private void registerWebhook() {
+        String url = webhookProperties.getExternalUrl().replaceAll("/+$", "") + webhookProperties.getPath();
+
+        try {
+            StringBuilder form = new StringBuilder()
+                    .append("url=").append(URLEncoder.encode(url, "UTF-8"))
+                    .append("&max_connections=").append(webhookProperties.getMaxConnections());
+            if (!webhookProperties.getSecretToken().isEmpty()) {
+                form.append("&secret_token=").append(URLEncoder.encode(webhookProperties.getSecretToken(), "UTF-8"));
+            }
+
+            HttpURLConnection connection = (HttpURLConnection) new URL(getBaseUrl() + "setWebhook").openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(form.toString().getBytes(StandardCharsets.UTF_8));
+            }
+
+            if (connection.getResponseCode() == 200) {
+                LOG.info("The webhook {} was registered", url);
+            } else {
+                LOG.error("The webhook {} could not be registered: {}", url, readError(connection));
+            }
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the body of an unsuccessful response.
+     *
+     * @param connection the connection.
+     * @return the body of the response.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static String readError(HttpURLConnection connection) throws IOException {
+        InputStream error = connection.getErrorStream();
+        if (error == null) {
+            return String.valueOf(connection.getResponseCode());
+        }
+
+        try (InputStream input = error) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the bot's username.
+     *
+     * @return the bot's username.
+     */
+    @Override
+    public String getBotUsername() {
+        return botUsername;
+    }
+
+    /**
+     * Returns the bot's token.
+     *
+     * @return the bot's token.
+     */
+    @Override
+    public String getBotToken() {
+        return botToken;
+    }
+
+    /**
+     * Sends a text message to Telegram.
+     * This is a shortcut for {@link #sendMessage(String, Long, boolean)} with HTML format disabled.
+     *
+     * @param content the message content.
+     * @param idChat  the chat identification to which the message should be sent.
+     * @return the future message sent.
+     */
+    @Override
+    public CompletableFuture<Message> sendMessage(String content, Long idChat) {
+        return sendMessage(content, idChat, false);
+    }
+
+    /**
+     * Sends a text message to Telegram through the {@link OutboundMessageQueue}.
+     * The message is sent by {@link #execute(BotApiMethod)}.
+     *
+     * @param content the message content.
+     * @param idChat  the chat identification to which the message should be sent.
+     * @param html    {@code true} if HTML format is enabled or {@code false} otherwise.
+     * @return the future message sent.
+     */
+    @Override
+    public CompletableFuture<Message> sendMessage(String content, Long idChat, boolean html) {
+        SendMessage message = new SendMessage().setChatId(idChat).setText(content).enableHtml(html);
+
+        return outboundMessageQueue.enqueue(idChat, () -> this.execute(message));
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.netkorp.telegram.framework.bots;
+
+import com.github.netkorp.telegram.framework.cluster.ClusterWorker;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Provides the component for sending information to Telegram from a worker instance of the cluster.
+ * It doesn't receive updates from Telegram, since they are received by the ingest instance and handed
+ * to the {@link ClusterWorker} of the instance that owns the chat.
+ * The {@link OutboundMessageQueue} of each worker paces its own messages, so the global limit of the bot
+ * should be divided among the workers.
+ * It's enabled by setting {@code telegram.cluster.role} to {@code worker}.
+ *
+ * @see PollingTelegramBot
+ * @see WebhookTelegramBot
+ */
+@Component
+@ConditionalOnProperty(name = "telegram.cluster.role", havingValue = "worker")
+@ConditionalOnMissingBean(TelegramBot.class)
+public class WorkerTelegramBot extends DefaultAbsSender implements TelegramBot {
+
+    /**
+     * The bot's username.
+     */
+    private final String botUsername;
+
+    /**
+     * The bot's token.
+     */
+    private final String botToken;
+
+    /**
+     * The component for delivering the outgoing messages.
+     */
+    private final OutboundMessageQueue outboundMessageQueue;
+
+    /**
+     * Constructs a new {@link WorkerTelegramBot} instance with both username and token of the bot,
+     * the URL of the Bot API and the {@link OutboundMessageQueue} instance.
+     *
+     * @param botUsername          the username of the bot.
+     * @param botToken             the token of the bot.
+     * @param apiUrl               the URL of the Bot API, followed by the token and the method name,
+     *                             or an empty String for the one of Telegram.
+     * @param outboundMessageQueue the {@link OutboundMessageQueue} instance.
+     */
+    @Autowired
+    public WorkerTelegramBot(@Value("${telegram.bots.username}") String botUsername,
+                             @Value("${telegram.bots.token}") String botToken,
+                             @Value("${telegram.bots.api-url:}") String apiUrl,
+                             OutboundMessageQueue outboundMessageQueue) {
+        super(new DefaultBotOptions());
+        this.botUsername = botUsername;
+        this.botToken = botToken;
+        if (!apiUrl.isEmpty()) {
+            getOptions().setBaseUrl(apiUrl);
+        }
+        this.outboundMessageQueue = outboundMessageQueue;
+    }
+
+    /**
+     * Returns the bot's username.
+     *
+     * @return the bot's username.
+     */
+    @Override
+    public String getBotUsername() {
+        return botUsername;
+    }
+
+    /**
+     * Returns the bot's token.
+     *
+     * @return the bot's token.
+     */
+    @Override
+    public String getBotToken() {
+        return botToken;
+    }
+
+    /**
+     * Sends a text message to Telegram.
+     * This is a shortcut for {@link #sendMessage(String, Long, boolean)} with HTML format disabled.
+     *
+     * @param content the message content.
+     * @param idChat  the chat identification to which the message should be sent.
+     * @return the future message sent.
+     */
+    @Override
+    public CompletableFuture<Message> sendMessage(String content, Long idChat) {
+        return sendMessage(content, idChat, false);
+    }
+
+    /**
+     * Sends a text message to Telegram through the {@link OutboundMessageQueue}.
+     * The message is sent by {@link #execute(BotApiMethod)}.
+     *
+     * @param content the message content.
+     * @param idChat  the chat identification to which the message should be sent.
+     * @param html    {@code true} if HTML format is enabled or {@code false} otherwise.
+     * @return the future message sent.
+     */
+    @Override
+    public CompletableFuture<Message> sendMessage(String content, Long idChat, boolean html) {
+        SendMessage message = new SendMessage().setChatId(idChat).setText(content).enableHtml(html);
+
+        return outboundMessageQueue.enqueue(idChat, () -> this.execute(message));
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.netkorp.telegram.framework.cluster;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Coordinates the instances of the bot that share the chats: it keeps the workers that are members of the cluster
+ * and it carries the updates from the ingest instance to them.
+ * It's possible to provide another implementation, for instance one backed by a coordination service,
+ * by declaring a {@link ClusterCoordinator} bean.
+ *
+ * @see InProcessClusterCoordinator
+ * @see LoopbackClusterCoordinator
+ */
+public interface ClusterCoordinator extends AutoCloseable {
+
+    /**
+     * Adds the worker to the cluster. The updates sent together to the worker are handed to the receiver
+     * along with the callback that acknowledges them, which the receiver runs once the updates are done with.
+     *
+     * @param nodeId   the identification of the worker.
+     * @param receiver the logic that processes the updates of the worker.
+     */
+    void join(String nodeId, BiConsumer<List<Update>, Runnable> receiver);
+
+    /**
+     * Removes the worker from the cluster.
+     *
+     * @param nodeId the identification of the worker.
+     */
+    void leave(String nodeId);
+
+    /**
+     * Starts watching the members of the cluster. The listener is called with the current members and then
+     * every time a worker joins or leaves the cluster.
+     *
+     * @param listener the logic that receives the identifications of the members.
+     */
+    void watch(Consumer<Set<String>> listener);
+
+    /**
+     * Sends the updates to the worker, which receives them together. The updates sent to the same worker arrive
+     * in the same order. Once the updates are sent, exactly one of the callbacks runs: {@code acknowledged} when
+     * the worker is done with the updates, or {@code lost} when the worker leaves the cluster before
+     * acknowledging them. The lost updates are reported in the order they were sent, before the updates sent
+     * afterwards to any other worker.
+     *
+     * @param nodeId       the identification of the worker.
+     * @param updates      the updates.
+     * @param acknowledged the logic that runs once the worker is done with the updates.
+     * @param lost         the logic that runs if the worker leaves the cluster before acknowledging the updates.
+     * @return {@code true} if the updates were sent; {@code false} if the worker is not reachable,
+     * in which case none of the callbacks runs.
+     */
+    boolean send(String nodeId, List<Update> updates, Runnable acknowledged, Runnable lost);
+
+    /**
+     * Releases the resources of the coordination.
+     */
+    @Override
+    void close();
+}
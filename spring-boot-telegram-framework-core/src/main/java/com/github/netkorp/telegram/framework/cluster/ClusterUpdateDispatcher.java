@@ -0,0 +1,250 @@
+package com.github.netkorp.telegram.framework.cluster;
+
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.ClusterProperties;
+import com.github.netkorp.telegram.framework.properties.DispatcherProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSource;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches the incoming updates of the ingest instance to the workers of the cluster.
+ * Each chat is assigned to a worker by a {@link ConsistentHashRing}, so the updates of a chat are processed
+ * by the same worker, where its multistage command session is kept, and in the same order they were received.
+ * The ring is rebuilt when a worker joins or leaves the cluster, which only moves the chats of that worker.
+ * The updates are processed by the ingest instance itself while there are no workers.
+ * The updates of a chat grouped together are forwarded together, so the worker processes them as a group.
+ * A forwarded update is done with once its worker acknowledges it. If the worker leaves the cluster before,
+ * the update is dispatched again to the new owner of its chat, so the updates are delivered at least once.
+ * <p>
+ * The multistage command sessions are not moved with their chats: when the ring is rebuilt, the session
+ * of a chat that changed its worker stays in the previous worker, and the new owner processes the next updates
+ * of the chat as if there were no session. The session is resumed only if the chat is assigned back to
+ * the previous worker, which is why the workers should join and leave the cluster as seldom as possible.
+ */
+public class ClusterUpdateDispatcher extends UpdateDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The amount of chats sampled to estimate the share of chats that change their owner.
+     */
+    private static final int REBALANCE_SAMPLES = 4096;
+
+    /**
+     * The coordination of the cluster.
+     */
+    private final ClusterCoordinator coordinator;
+
+    /**
+     * The amount of points of each worker in the ring.
+     */
+    private final int virtualNodes;
+
+    /**
+     * The current assignment of the chats to the workers.
+     */
+    private volatile ConsistentHashRing ring = ConsistentHashRing.EMPTY;
+
+    /**
+     * The amount of updates forwarded to the workers.
+     */
+    private final LongAdder forwarded = new LongAdder();
+
+    /**
+     * The amount of updates processed by the ingest instance because no worker was reachable.
+     */
+    private final LongAdder processedLocally = new LongAdder();
+
+    /**
+     * The amount of forwarded updates that were dispatched again because their worker left the cluster
+     * before acknowledging them.
+     */
+    private final LongAdder redelivered = new LongAdder();
+
+    /**
+     * Constructs a new {@link ClusterUpdateDispatcher} instance with the properties of the dispatcher,
+     * the collaborators of the {@link UpdateDispatcher} for the updates processed locally,
+     * the {@link ClusterCoordinator} instance and the properties of the cluster.
+     * It starts watching the members of the cluster.
+     *
+     * @param dispatcherProperties the properties of the dispatcher.
+     * @param updateManager        the {@link UpdateManager} instance.
+     * @param bot                  the {@link TelegramBot} instance.
+     * @param messageSource        the {@link MessageSource} instance.
+     * @param metrics              the {@link TelegramMetrics} instance.
+     * @param coordinator          the {@link ClusterCoordinator} instance.
+     * @param clusterProperties    the properties of the cluster.
+     */
+    public ClusterUpdateDispatcher(DispatcherProperties dispatcherProperties,
+                                   UpdateManager updateManager,
+                                   TelegramBot bot,
+                                   MessageSource messageSource,
+                                   TelegramMetrics metrics,
+                                   ClusterCoordinator coordinator,
+                                   ClusterProperties clusterProperties) {
+        super(dispatcherProperties, updateManager, bot, messageSource, metrics);
+        this.coordinator = coordinator;
+        this.virtualNodes = clusterProperties.getVirtualNodes();
+        coordinator.watch(this::rebalance);
+    }
+
+    /**
+     * Forwards the update to the worker that owns its chat. If the worker is not reachable the update is sent
+     * to the new owner of the chat, or processed by the handler when there are no workers.
+     * A forwarded update is done with once the worker acknowledges it, and it's dispatched again
+     * if the worker leaves the cluster before.
+     *
+     * @param update  the received update.
+     * @param handler the logic that processes the update when there are no workers.
+     * @param done    the logic that runs once the update is done with.
+     */
+    @Override
+    public void dispatch(Update update, Consumer<Update> handler, Runnable done) {
+        List<Update> updates = Collections.singletonList(update);
+        if (!forward(getChatId(update), updates, done, () -> {
+            redeliver(updates);
+            dispatch(update, handler, done);
+        })) {
+            processedLocally.increment();
+            super.dispatch(update, handler, done);
+        }
+    }
+
+    /**
+     * Forwards the updates of the same chat together to the worker that owns the chat, which processes them
+     * as a group. The updates are processed together by the handler when there are no workers.
+     *
+     * @param updates the received updates of the same chat, in the order they were received.
+     * @param handler the logic that processes the updates when there are no workers.
+     * @param done    the logic that runs once every update is done with.
+     */
+    @Override
+    public void dispatch(UpdateManager.ChatUpdates updates, Consumer<UpdateManager.ChatUpdates> handler,
+                         Runnable done) {
+        if (updates.size() == 0 || !forward(getChatId(updates.getUpdates().get(0)), updates.getUpdates(), done,
+                () -> {
+                    redeliver(updates.getUpdates());
+                    dispatch(updates, handler, done);
+                })) {
+            processedLocally.add(updates.size());
+            super.dispatch(updates, handler, done);
+        }
+    }
+
+    /**
+     * Sends the updates of a chat to the worker that owns the chat. If the worker is not reachable the updates are
+     * sent to the new owner of the chat.
+     *
+     * @param chatId  the identification of the chat.
+     * @param updates the updates of the chat.
+     * @param done    the logic that runs once the worker acknowledges the updates.
+     * @param lost    the logic that runs if the worker leaves the cluster before acknowledging the updates.
+     * @return {@code true} if the updates were forwarded; {@code false} if there are no reachable workers.
+     */
+    private boolean forward(long chatId, List<Update> updates, Runnable done, Runnable lost) {
+        String owner = ring.getOwner(chatId);
+        while (owner != null) {
+            if (coordinator.send(owner, updates, done, lost)) {
+                forwarded.add(updates.size());
+                return true;
+            }
+
+            // The coordinator drops the unreachable workers, so the chat gets another owner
+            String next = ring.getOwner(chatId);
+            owner = owner.equals(next) ? null : next;
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the updates that are dispatched again because their worker left the cluster before acknowledging them.
+     *
+     * @param updates the forwarded updates.
+     */
+    private void redeliver(List<Update> updates) {
+        redelivered.add(updates.size());
+        LOG.debug("The updates {} are dispatched again because their worker left the cluster",
+                updates.get(0).getUpdateId());
+    }
+
+    /**
+     * Replaces the ring with one built from the current members. The multistage command sessions of the chats
+     * that change their worker are not moved, so they stay in the previous worker.
+     *
+     * @param members the identifications of the workers.
+     */
+    private synchronized void rebalance(Set<String> members) {
+        ConsistentHashRing previous = ring;
+        if (previous.getMembers().equals(members)) {
+            return;
+        }
+
+        ConsistentHashRing next = new ConsistentHashRing(members, virtualNodes);
+        ring = next;
+
+        if (next.isEmpty()) {
+            LOG.warn("There are no workers in the cluster. The updates are processed by this instance.");
+        } else if (previous.isEmpty()) {
+            LOG.info("The chats are assigned to the workers {}", members);
+        } else {
+            int moved = 0;
+            for (long chatId = 1; chatId <= REBALANCE_SAMPLES; chatId++) {
+                if (!previous.getOwner(chatId).equals(next.getOwner(chatId))) {
+                    moved++;
+                }
+            }
+
+            LOG.info("The chats are assigned to the workers {}. About {}% of the chats changed their worker.",
+                    members, moved * 100 / REBALANCE_SAMPLES);
+        }
+    }
+
+    /**
+     * Returns the current assignment of the chats to the workers.
+     *
+     * @return the {@link ConsistentHashRing} instance.
+     */
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Returns the amount of updates forwarded to the workers.
+     *
+     * @return the amount of forwarded updates.
+     */
+    public long getForwardedCount() {
+        return forwarded.sum();
+    }
+
+    /**
+     * Returns the amount of updates processed by this instance because no worker was reachable.
+     *
+     * @return the amount of updates processed locally.
+     */
+    public long getProcessedLocallyCount() {
+        return processedLocally.sum();
+    }
+
+    /**
+     * Returns the amount of forwarded updates that were dispatched again because their worker left the cluster.
+     *
+     * @return the amount of redelivered updates.
+     */
+    public long getRedeliveredCount() {
+        return redelivered.sum();
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.netkorp.telegram.framework.cluster;
+
+import com.github.netkorp.telegram.framework.properties.ClusterProperties;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provides the component that receives the updates of a worker instance from the ingest instance of the cluster.
+ * The updates have already been deduplicated and limited by the ingest instance, so they are handed to the
+ * {@link UpdateSink} straight away, together as they were sent, and they are acknowledged to the ingest instance
+ * once the sink is done with them. The worker joins the cluster when the application starts and it leaves
+ * the cluster when the application stops.
+ * It's enabled by setting {@code telegram.cluster.role} to {@code worker}.
+ */
+@Component
+@ConditionalOnProperty(name = "telegram.cluster.role", havingValue = "worker")
+public class ClusterWorker implements SmartLifecycle {
+
+    /**
+     * The coordination of the cluster.
+     */
+    private final ClusterCoordinator coordinator;
+
+    /**
+     * The identification of this worker.
+     */
+    private final String nodeId;
+
+    /**
+     * The component that receives the updates to be processed.
+     */
+    private final UpdateSink updateSink;
+
+    /**
+     * Indicates whether the worker is a member of the cluster.
+     */
+    private boolean running;
+
+    /**
+     * Constructs a new {@link ClusterWorker} instance with the {@link ClusterCoordinator} instance,
+     * the properties of the cluster and the {@link UpdateSink} instance.
+     *
+     * @param coordinator       the {@link ClusterCoordinator} instance.
+     * @param clusterProperties the properties of the cluster.
+     * @param updateSink        the {@link UpdateSink} instance.
+     */
+    @Autowired
+    public ClusterWorker(ClusterCoordinator coordinator,
+                         ClusterProperties clusterProperties,
+                         UpdateSink updateSink) {
+        this.coordinator = coordinator;
+        this.nodeId = clusterProperties.getNodeId();
+        this.updateSink = updateSink;
+    }
+
+    /**
+     * Joins the cluster.
+     */
+    @Override
+    public synchronized void start() {
+        coordinator.join(nodeId, updateSink::appendAll);
+        running = true;
+    }
+
+    /**
+     * Leaves the cluster, so its chats are assigned to the other workers.
+     */
+    @Override
+    public synchronized void stop() {
+        coordinator.leave(nodeId);
+        running = false;
+    }
+
+    /**
+     * Returns {@code true} if the worker is a member of the cluster.
+     *
+     * @return {@code true} if the worker is a member of the cluster; {@code false} otherwise.
+     */
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+}
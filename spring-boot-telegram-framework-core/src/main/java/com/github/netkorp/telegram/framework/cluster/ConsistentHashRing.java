@@ -0,0 +1,135 @@
+package com.github.netkorp.telegram.framework.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Assigns the chats to the workers by consistent hashing. Each worker owns several points of a ring of hashes,
+ * and a chat belongs to the worker that owns the first point after the hash of the chat.
+ * When a worker joins or leaves the cluster only the chats of its points change their owner.
+ * The ring is immutable, so it's replaced when the members change.
+ */
+public final class ConsistentHashRing {
+
+    /**
+     * The ring without workers.
+     */
+    public static final ConsistentHashRing EMPTY = new ConsistentHashRing(Collections.emptySet(), 1);
+
+    /**
+     * The sorted hashes of the points.
+     */
+    private final long[] points;
+
+    /**
+     * The owner of each point.
+     */
+    private final String[] owners;
+
+    /**
+     * The workers of the ring.
+     */
+    private final Set<String> members;
+
+    /**
+     * Constructs a new {@link ConsistentHashRing} instance with the workers and the amount of points of each one.
+     *
+     * @param members      the identifications of the workers.
+     * @param virtualNodes the amount of points of each worker.
+     */
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        String[] memberArray = this.members.toArray(new String[0]);
+        int perMember = Math.max(1, virtualNodes);
+
+        // Each pair is the hash of a point and the index of its owner, sorted by hash
+        long[][] pairs = new long[memberArray.length * perMember][];
+        int i = 0;
+        for (int member = 0; member < memberArray.length; member++) {
+            for (int point = 0; point < perMember; point++) {
+                pairs[i++] = new long[]{hash(memberArray[member] + '#' + point), member};
+            }
+        }
+
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[pairs.length];
+        this.owners = new String[pairs.length];
+        for (i = 0; i < pairs.length; i++) {
+            points[i] = pairs[i][0];
+            owners[i] = memberArray[(int) pairs[i][1]];
+        }
+    }
+
+    /**
+     * Returns the worker that owns the chat.
+     *
+     * @param chatId the chat identification.
+     * @return the identification of the worker, or {@code null} if the ring has no workers.
+     */
+    public String getOwner(long chatId) {
+        if (points.length == 0) {
+            return null;
+        }
+
+        int index = Arrays.binarySearch(points, mix(chatId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Returns the workers of the ring.
+     *
+     * @return the sorted identifications of the workers.
+     */
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * Returns {@code true} if the ring has no workers.
+     *
+     * @return {@code true} if the ring has no workers; {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /**
+     * Returns the hash of a point of a worker.
+     *
+     * @param text the name of the point.
+     * @return the hash of the point.
+     */
+    private static long hash(String text) {
+        // FNV-1a, then mixed so close names are spread across the ring
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * Spreads the bits of the value, as the finalizer of MurmurHash3 does.
+     *
+     * @param value the value.
+     * @return the mixed value.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.netkorp.telegram.framework.cluster;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Coordinates the instances of the bot that run in the same process, for instance in the tests.
+ * The instances created with the same cluster name share the members, and the updates are handed to the workers
+ * by the thread that sends them.
+ */
+public class InProcessClusterCoordinator implements ClusterCoordinator {
+
+    /**
+     * The clusters of the process by name.
+     */
+    private static final Map<String, Group> GROUPS = new ConcurrentHashMap<>();
+
+    /**
+     * The cluster shared by this instance.
+     */
+    private final Group group;
+
+    /**
+     * The workers that joined the cluster through this instance.
+     */
+    private final Set<String> joined = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The listeners registered through this instance.
+     */
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a new {@link InProcessClusterCoordinator} instance that shares the members with
+     * the other instances of the same cluster.
+     *
+     * @param name the name of the cluster.
+     */
+    public InProcessClusterCoordinator(String name) {
+        this.group = GROUPS.computeIfAbsent(name, key -> new Group());
+    }
+
+    /**
+     * Adds the worker to the cluster. The updates sent to the worker are handed to the receiver
+     * along with the callback that acknowledges them.
+     *
+     * @param nodeId   the identification of the worker.
+     * @param receiver the logic that processes the updates of the worker.
+     */
+    @Override
+    public void join(String nodeId, BiConsumer<List<Update>, Runnable> receiver) {
+        joined.add(nodeId);
+        group.members.put(nodeId, receiver);
+        group.notifyListeners();
+    }
+
+    /**
+     * Removes the worker from the cluster.
+     *
+     * @param nodeId the identification of the worker.
+     */
+    @Override
+    public void leave(String nodeId) {
+        joined.remove(nodeId);
+        if (group.members.remove(nodeId) != null) {
+            group.notifyListeners();
+        }
+    }
+
+    /**
+     * Starts watching the members of the cluster. The listener is called with the current members and then
+     * every time a worker joins or leaves the cluster.
+     *
+     * @param listener the logic that receives the identifications of the members.
+     */
+    @Override
+    public void watch(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+        group.listeners.add(listener);
+        listener.accept(group.getMembers());
+    }
+
+    /**
+     * Hands the updates to the worker in the current thread. The worker acknowledges the updates through
+     * the callback, and the updates are never lost because the worker shares the process.
+     *
+     * @param nodeId       the identification of the worker.
+     * @param updates      the updates.
+     * @param acknowledged the logic that runs once the worker is done with the updates.
+     * @param lost         the logic that runs if the worker leaves the cluster before acknowledging the updates.
+     * @return {@code true} if the updates were handed; {@code false} if the worker is not a member.
+     */
+    @Override
+    public boolean send(String nodeId, List<Update> updates, Runnable acknowledged, Runnable lost) {
+        BiConsumer<List<Update>, Runnable> receiver = group.members.get(nodeId);
+        if (receiver == null) {
+            return false;
+        }
+
+        receiver.accept(updates, acknowledged);
+        return true;
+    }
+
+    /**
+     * Removes the workers and the listeners of this instance from the cluster.
+     */
+    @Override
+    public void close() {
+        group.listeners.removeAll(listeners);
+        listeners.clear();
+        for (String nodeId : joined) {
+            leave(nodeId);
+        }
+    }
+
+    /**
+     * Contains the members and the listeners of a cluster.
+     */
+    private static final class Group {
+
+        /**
+         * The receivers of the workers by identification.
+         */
+        private final Map<String, BiConsumer<List<Update>, Runnable>> members = new ConcurrentHashMap<>();
+
+        /**
+         * The listeners of the members.
+         */
+        private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+        /**
+         * Returns the identifications of the members.
+         *
+         * @return the sorted identifications of the members.
+         */
+        private Set<String> getMembers() {
+            return Collections.unmodifiableSet(new TreeSet<>(members.keySet()));
+        }
+
+        /**
+         * Tells the listeners the current members.
+         */
+        private synchronized void notifyListeners() {
+            Set<String> current = getMembers();
+            for (Consumer<Set<String>> listener : listeners) {
+                listener.accept(current);
+            }
+        }
+    }
+}
@@ -0,0 +1,657 @@
+package com.github.netkorp.telegram.framework.cluster;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Coordinates the instances of the bot through sockets: the ingest instance accepts the connections of the workers,
+ * and a worker is a member of the cluster while its connection is open.
+ * The updates sent together are written as a JSON array, one per line after their sequence number, so the updates
+ * sent to the same worker arrive in the same order. The workers send back the sequence number of the updates they
+ * are done with, and the updates that a worker didn't acknowledge are lost when its connection is closed.
+ * The lost updates are reported in the order they were sent while the sending is held, so they are sent again
+ * before the updates that follow them.
+ * Each connection is introduced and read by its own thread, so a slow worker doesn't hold up the others.
+ * The workers connect again when the connection is lost.
+ */
+public class LoopbackClusterCoordinator implements ClusterCoordinator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The time that a worker waits before connecting again, in milliseconds.
+     */
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    /**
+     * The time that the ingest instance waits for a new worker to introduce itself, in milliseconds.
+     */
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * The type of the updates sent together.
+     */
+    private static final TypeReference<List<Update>> UPDATES_TYPE = new TypeReference<List<Update>>() {
+    };
+
+    /**
+     * The address of the ingest instance.
+     */
+    private final String host;
+
+    /**
+     * The port of the ingest instance. {@code 0} lets the system choose a free port.
+     */
+    private final int port;
+
+    /**
+     * The mapper for writing and reading the updates.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The connections of the workers by identification. It's only used by the ingest instance.
+     */
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * The listeners of the members. They are only used by the ingest instance.
+     */
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The lock that holds the sending while the lost updates of a worker are reported.
+     * The updates are sent with the read lock, and the connections are removed with the write lock.
+     */
+    private final ReadWriteLock sending = new ReentrantReadWriteLock();
+
+    /**
+     * The workers of this instance by identification.
+     */
+    private final Map<String, Worker> workers = new ConcurrentHashMap<>();
+
+    /**
+     * The socket that accepts the workers. It's {@code null} until the members are watched.
+     */
+    private ServerSocket server;
+
+    /**
+     * Constructs a new {@link LoopbackClusterCoordinator} instance with the address of the ingest instance.
+     *
+     * @param host the address of the ingest instance.
+     * @param port the port of the ingest instance.
+     */
+    public LoopbackClusterCoordinator(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    /**
+     * Connects the worker to the ingest instance. The updates sent to the worker are handed to the receiver
+     * by the thread that reads the connection, along with the callback that acknowledges them
+     * through the same connection.
+     *
+     * @param nodeId   the identification of the worker.
+     * @param receiver the logic that processes the updates of the worker.
+     */
+    @Override
+    public void join(String nodeId, BiConsumer<List<Update>, Runnable> receiver) {
+        Worker worker = new Worker(nodeId, receiver);
+        Worker previous = workers.put(nodeId, worker);
+        if (previous != null) {
+            previous.close();
+        }
+
+        worker.thread.start();
+    }
+
+    /**
+     * Disconnects the worker from the ingest instance.
+     *
+     * @param nodeId the identification of the worker.
+     */
+    @Override
+    public void leave(String nodeId) {
+        Worker worker = workers.remove(nodeId);
+        if (worker != null) {
+            worker.close();
+        }
+    }
+
+    /**
+     * Starts accepting the workers. The listener is called with the current members and then
+     * every time a worker connects or disconnects.
+     *
+     * @param listener the logic that receives the identifications of the members.
+     */
+    @Override
+    public synchronized void watch(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+        if (server == null) {
+            try {
+                server = new ServerSocket();
+                server.bind(new InetSocketAddress(InetAddress.getByName(host), port));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Thread acceptor = new Thread(this::accept, "telegram-cluster-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            LOG.info("Accepting the workers of the cluster on port {}", getPort());
+        }
+
+        listener.accept(getMembers());
+    }
+
+    /**
+     * Sends the updates to the worker through its connection. The updates are pending until the worker
+     * acknowledges them, and they are lost if the connection is closed before.
+     *
+     * @param nodeId       the identification of the worker.
+     * @param updates      the updates.
+     * @param acknowledged the logic that runs once the worker is done with the updates.
+     * @param lost         the logic that runs if the worker leaves the cluster before acknowledging the updates.
+     * @return {@code true} if the updates were sent; {@code false} if the worker is not connected.
+     */
+    @Override
+    public boolean send(String nodeId, List<Update> updates, Runnable acknowledged, Runnable lost) {
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(updates);
+        } catch (IOException e) {
+            LOG.error("The updates couldn't be sent to the worker {}", nodeId, e);
+            return false;
+        }
+
+        Connection connection;
+        long sequence;
+        sending.readLock().lock();
+        try {
+            connection = connections.get(nodeId);
+            if (connection == null) {
+                return false;
+            }
+
+            // The updates are pending before they are written, so an acknowledgement can't arrive before
+            sequence = connection.sequence.incrementAndGet();
+            connection.pending.put(sequence, new Pending(acknowledged, lost));
+            try {
+                synchronized (connection) {
+                    connection.writer.write(Long.toString(sequence));
+                    connection.writer.write(' ');
+                    connection.writer.write(line);
+                    connection.writer.write('\n');
+                    connection.writer.flush();
+                }
+
+                return true;
+            } catch (IOException e) {
+                LOG.warn("The worker {} is not reachable: {}", nodeId, e.getMessage());
+            }
+        } finally {
+            sending.readLock().unlock();
+        }
+
+        // If the connection was already closed by its reader, the updates have been reported as lost
+        boolean reported = connection.pending.remove(sequence) == null;
+        disconnect(connection);
+        return reported;
+    }
+
+    /**
+     * Returns the port on which the workers are accepted.
+     *
+     * @return the port, or {@code -1} if the workers are not accepted.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    /**
+     * Stops accepting the workers and closes every connection.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closeQuietly(server);
+            listeners.clear();
+        }
+
+        for (Connection connection : connections.values()) {
+            closeQuietly(connection.socket);
+        }
+
+        for (String nodeId : workers.keySet()) {
+            leave(nodeId);
+        }
+    }
+
+    /**
+     * Accepts the workers while the socket is open. Each accepted connection is served by its own thread,
+     * so a worker that doesn't introduce itself doesn't hold up the others.
+     */
+    private void accept() {
+        ServerSocket current;
+        synchronized (this) {
+            current = server;
+        }
+
+        while (!current.isClosed()) {
+            try {
+                Socket socket = current.accept();
+                Thread reader = new Thread(() -> serve(socket), "telegram-cluster-handshake");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!current.isClosed()) {
+                    LOG.warn("A worker couldn't join the cluster: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the worker to introduce itself, adds its connection and reads the acknowledgements
+     * until the worker disconnects.
+     *
+     * @param socket the accepted socket.
+     */
+    private void serve(Socket socket) {
+        Connection connection;
+        BufferedReader reader;
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String nodeId = reader.readLine();
+            if (nodeId == null || nodeId.isEmpty()) {
+                closeQuietly(socket);
+                return;
+            }
+
+            socket.setSoTimeout(0);
+            connection = new Connection(nodeId, socket);
+        } catch (IOException e) {
+            LOG.warn("A worker couldn't join the cluster: {}", e.getMessage());
+            closeQuietly(socket);
+            return;
+        }
+
+        Thread.currentThread().setName("telegram-cluster-" + connection.nodeId);
+        connect(connection);
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                acknowledge(connection, line);
+            }
+        } catch (IOException e) {
+            // The connection was closed
+        }
+
+        disconnect(connection);
+    }
+
+    /**
+     * Adds the connection of a worker, replacing its previous connection.
+     *
+     * @param connection the connection of the worker.
+     */
+    private void connect(Connection connection) {
+        Connection previous = connections.put(connection.nodeId, connection);
+        if (previous != null) {
+            closeQuietly(previous.socket);
+        }
+
+        LOG.info("The worker {} joined the cluster", connection.nodeId);
+        notifyListeners();
+    }
+
+    /**
+     * Runs the callback of the updates acknowledged by the worker.
+     *
+     * @param connection the connection of the worker.
+     * @param line       the sequence number of the updates.
+     */
+    private void acknowledge(Connection connection, String line) {
+        Pending pending;
+        try {
+            pending = connection.pending.remove(Long.parseLong(line));
+        } catch (NumberFormatException e) {
+            LOG.warn("The worker {} sent an invalid acknowledgement: {}", connection.nodeId, line);
+            return;
+        }
+
+        if (pending != null) {
+            run(pending.acknowledged);
+        }
+    }
+
+    /**
+     * Removes the connection of a worker, unless the worker connected again, and reports the updates that the worker
+     * didn't acknowledge as lost, in the order they were sent. The listeners are told before, so the lost updates
+     * can be sent to the new owner of their chats, and the sending is held meanwhile, so they are sent before
+     * the updates that follow them.
+     *
+     * @param connection the connection of the worker.
+     */
+    private void disconnect(Connection connection) {
+        closeQuietly(connection.socket);
+        sending.writeLock().lock();
+        try {
+            if (connections.remove(connection.nodeId, connection)) {
+                LOG.info("The worker {} left the cluster", connection.nodeId);
+                notifyListeners();
+            }
+
+            Map.Entry<Long, Pending> entry;
+            while ((entry = connection.pending.pollFirstEntry()) != null) {
+                run(entry.getValue().lost);
+            }
+        } finally {
+            sending.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the callback of the updates, logging the errors.
+     *
+     * @param callback the callback.
+     */
+    private static void run(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            LOG.error("The callback of the sent updates failed", e);
+        }
+    }
+
+    /**
+     * Returns the identifications of the connected workers.
+     *
+     * @return the sorted identifications of the workers.
+     */
+    private Set<String> getMembers() {
+        return Collections.unmodifiableSet(new TreeSet<>(connections.keySet()));
+    }
+
+    /**
+     * Tells the listeners the current members.
+     */
+    private synchronized void notifyListeners() {
+        Set<String> members = getMembers();
+        for (Consumer<Set<String>> listener : listeners) {
+            listener.accept(members);
+        }
+    }
+
+    /**
+     * Closes the resource, ignoring the errors.
+     *
+     * @param closeable the resource, or {@code null}.
+     */
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // There is nothing else to do
+        }
+    }
+
+    /**
+     * Contains the connection of a worker in the ingest instance.
+     */
+    private static final class Connection {
+
+        /**
+         * The identification of the worker.
+         */
+        private final String nodeId;
+
+        /**
+         * The socket of the connection.
+         */
+        private final Socket socket;
+
+        /**
+         * The writer of the updates.
+         */
+        private final Writer writer;
+
+        /**
+         * The sequence number of the last updates sent.
+         */
+        private final AtomicLong sequence = new AtomicLong();
+
+        /**
+         * The updates that the worker didn't acknowledge yet by sequence number.
+         */
+        private final NavigableMap<Long, Pending> pending = new ConcurrentSkipListMap<>();
+
+        /**
+         * Constructs a new {@link Connection} instance with the identification of the worker and the socket.
+         *
+         * @param nodeId the identification of the worker.
+         * @param socket the socket of the connection.
+         * @throws IOException if the socket can't be written.
+         */
+        private Connection(String nodeId, Socket socket) throws IOException {
+            this.nodeId = nodeId;
+            this.socket = socket;
+            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Contains the callbacks of the updates that the worker didn't acknowledge yet.
+     */
+    private static final class Pending {
+
+        /**
+         * The logic that runs once the worker is done with the updates.
+         */
+        private final Runnable acknowledged;
+
+        /**
+         * The logic that runs if the worker leaves the cluster before acknowledging the updates.
+         */
+        private final Runnable lost;
+
+        /**
+         * Constructs a new {@link Pending} instance with the callbacks of the updates.
+         *
+         * @param acknowledged the logic that runs once the worker is done with the updates.
+         * @param lost         the logic that runs if the worker leaves the cluster before acknowledging the updates.
+         */
+        private Pending(Runnable acknowledged, Runnable lost) {
+            this.acknowledged = acknowledged;
+            this.lost = lost;
+        }
+    }
+
+    /**
+     * Keeps a worker connected to the ingest instance, hands the received updates to its receiver and
+     * acknowledges them once the receiver is done with them.
+     */
+    private final class Worker {
+
+        /**
+         * The identification of the worker.
+         */
+        private final String nodeId;
+
+        /**
+         * The logic that processes the updates of the worker.
+         */
+        private final BiConsumer<List<Update>, Runnable> receiver;
+
+        /**
+         * The thread that reads the connection.
+         */
+        private final Thread thread;
+
+        /**
+         * Indicates whether the worker left the cluster.
+         */
+        private volatile boolean closed;
+
+        /**
+         * The current socket. It's {@code null} while the worker is not connected.
+         */
+        private volatile Socket socket;
+
+        /**
+         * Constructs a new {@link Worker} instance with the identification of the worker and its receiver.
+         *
+         * @param nodeId   the identification of the worker.
+         * @param receiver the logic that processes the updates of the worker.
+         */
+        private Worker(String nodeId, BiConsumer<List<Update>, Runnable> receiver) {
+            this.nodeId = nodeId;
+            this.receiver = receiver;
+            this.thread = new Thread(this::run, "telegram-cluster-worker-" + nodeId);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Reads the updates, connecting again when the connection is lost, until the worker leaves the cluster.
+         */
+        private void run() {
+            while (!closed) {
+                try (Socket current = new Socket()) {
+                    socket = current;
+                    current.setTcpNoDelay(true);
+                    current.connect(new InetSocketAddress(host, port));
+                    Writer writer = new OutputStreamWriter(current.getOutputStream(), StandardCharsets.UTF_8);
+                    writer.write(nodeId);
+                    writer.write('\n');
+                    writer.flush();
+
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(current.getInputStream(),
+                            StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        receive(line, writer);
+                    }
+                } catch (IOException e) {
+                    if (!closed) {
+                        LOG.warn("The worker {} is not connected to the cluster: {}", nodeId, e.getMessage());
+                    }
+                }
+
+                if (!closed) {
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Hands the updates written in the line to the receiver. The updates that can't be read or
+         * processed are acknowledged as well, since sending them again wouldn't help.
+         *
+         * @param line   the sequence number and the updates in JSON.
+         * @param writer the writer of the connection on which the updates are acknowledged.
+         */
+        private void receive(String line, Writer writer) {
+            int separator = line.indexOf(' ');
+            long sequence;
+            try {
+                sequence = Long.parseLong(line.substring(0, Math.max(separator, 0)));
+            } catch (NumberFormatException e) {
+                LOG.warn("The worker {} received updates without sequence number", nodeId);
+                return;
+            }
+
+            Runnable acknowledge = () -> acknowledge(writer, sequence);
+            List<Update> updates;
+            try {
+                updates = objectMapper.readValue(line.substring(separator + 1), UPDATES_TYPE);
+            } catch (IOException e) {
+                LOG.warn("The worker {} received an invalid update: {}", nodeId, e.getMessage());
+                acknowledge.run();
+                return;
+            }
+
+            try {
+                receiver.accept(updates, acknowledge);
+            } catch (RuntimeException e) {
+                LOG.error("The worker {} couldn't process the updates {}", nodeId, sequence, e);
+                acknowledge.run();
+            }
+        }
+
+        /**
+         * Tells the ingest instance that the worker is done with the updates. If the connection was lost,
+         * the ingest instance has already reported the updates as lost.
+         *
+         * @param writer   the writer of the connection on which the updates were received.
+         * @param sequence the sequence number of the updates.
+         */
+        private void acknowledge(Writer writer, long sequence) {
+            try {
+                synchronized (writer) {
+                    writer.write(Long.toString(sequence));
+                    writer.write('\n');
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                // The connection was lost
+            }
+        }
+
+        /**
+         * Disconnects the worker and stops connecting again.
+         */
+        private void close() {
+            closed = true;
+            closeQuietly(socket);
+            thread.interrupt();
+        }
+    }
+}
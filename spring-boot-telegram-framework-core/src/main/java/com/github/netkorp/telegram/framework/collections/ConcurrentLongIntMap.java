@@ -0,0 +1,484 @@
+package com.github.netkorp.telegram.framework.collections;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Provides a thread-safe map from primitive {@code long} keys to primitive {@code int} values.
+ * The keys are distributed into segments, each one being an open-addressing table guarded by its own lock.
+ * The lookups are lock-free in the absence of concurrent writes to the same segment and none of the operations
+ * box the keys or the values.
+ */
+public final class ConcurrentLongIntMap {
+
+    /**
+     * The default amount of segments.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The default amount of entries that the map can hold before resizing a segment.
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The key that marks a free slot in the tables. The entry of this key is stored apart.
+     */
+    private static final long FREE_KEY = 0L;
+
+    /**
+     * The segments in which the keys are distributed.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The amount of bits to shift the hash of a key to obtain its segment.
+     */
+    private final int segmentShift;
+
+    /**
+     * Constructs a new {@link ConcurrentLongIntMap} instance with the default concurrency level and capacity.
+     */
+    public ConcurrentLongIntMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new {@link ConcurrentLongIntMap} instance with the amount of segments and the initial capacity.
+     *
+     * @param concurrencyLevel the amount of segments. It's rounded up to a power of two.
+     * @param initialCapacity  the amount of entries that the map can hold before resizing.
+     */
+    public ConcurrentLongIntMap(int concurrencyLevel, int initialCapacity) {
+        int segmentCount = nextPowerOfTwo(Math.max(1, concurrencyLevel));
+        int segmentCapacity = nextPowerOfTwo(Math.max(4, 2 * initialCapacity / segmentCount));
+
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Returns the value associated to the key, or the default value if the key is not present.
+     *
+     * @param key          the key.
+     * @param defaultValue the value to return if the key is not present.
+     * @return the value associated to the key, if any; the default value otherwise.
+     */
+    public int get(long key, int defaultValue) {
+        long hash = hash(key);
+        return segmentFor(hash).get(key, hash, defaultValue);
+    }
+
+    /**
+     * Returns {@code true} if the key is present.
+     *
+     * @param key the key.
+     * @return {@code true} if the key is present; {@code false} otherwise.
+     */
+    public boolean containsKey(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).containsKey(key, hash);
+    }
+
+    /**
+     * Associates the value to the key, replacing the previous value if any.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(long key, int value) {
+        long hash = hash(key);
+        segmentFor(hash).put(key, hash, value);
+    }
+
+    /**
+     * Removes the key and its value.
+     *
+     * @param key the key.
+     * @return {@code true} if the key was present; {@code false} otherwise.
+     */
+    public boolean remove(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Returns the amount of entries.
+     *
+     * @return the amount of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Removes all of the entries.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Performs the action for each entry. Every segment is locked while its entries are visited,
+     * so the action must not modify the map.
+     *
+     * @param action the action to perform.
+     */
+    public void forEach(EntryConsumer action) {
+        for (Segment segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    /**
+     * Returns the segment in which the hash is included.
+     *
+     * @param hash the hash of the key.
+     * @return the segment of the key.
+     */
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * Returns the mixed hash of the key, so consecutive chat identifications are spread over the tables.
+     *
+     * @param key the key.
+     * @return the hash of the key.
+     */
+    private static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the smallest power of two greater than or equal to the value.
+     *
+     * @param value the value.
+     * @return the power of two.
+     */
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Represents an action that receives an entry of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Performs the action for the entry.
+         *
+         * @param key   the key of the entry.
+         * @param value the value of the entry.
+         */
+        void accept(long key, int value);
+    }
+
+    /**
+     * Contains the keys and the values of a segment. Both arrays are replaced together when the segment grows.
+     */
+    private static final class Table {
+
+        /**
+         * The keys of the entries. The free slots contain {@link #FREE_KEY}.
+         */
+        private final long[] keys;
+
+        /**
+         * The values of the entries, in the same slot as their keys.
+         */
+        private final int[] values;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+    }
+
+    /**
+     * An open-addressing table with linear probing guarded by a {@link StampedLock}.
+     */
+    private static final class Segment {
+
+        /**
+         * The lock that guards the segment.
+         */
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * The current table of the segment.
+         */
+        private volatile Table table;
+
+        /**
+         * The amount of entries in the segment.
+         */
+        private int size;
+
+        /**
+         * Indicates whether the segment contains the {@link #FREE_KEY}.
+         */
+        private boolean hasFreeKey;
+
+        /**
+         * The value of the {@link #FREE_KEY}, if it's present.
+         */
+        private int freeKeyValue;
+
+        private Segment(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        /**
+         * Reads the value without locking and falls back to the read lock if a write happened meanwhile.
+         */
+        private int get(long key, long hash, int defaultValue) {
+            long stamp = lock.tryOptimisticRead();
+            int value = read(key, hash, defaultValue);
+
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = read(key, hash, defaultValue);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            return value;
+        }
+
+        private boolean containsKey(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            boolean found = find(key, hash) >= 0;
+
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    found = find(key, hash) >= 0;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            return found;
+        }
+
+        /**
+         * Returns the value of the key in the current table without any synchronization.
+         */
+        private int read(long key, long hash, int defaultValue) {
+            if (key == FREE_KEY) {
+                return hasFreeKey ? freeKeyValue : defaultValue;
+            }
+
+            Table current = table;
+            int index = indexOf(current, key, hash);
+            return index >= 0 ? current.values[index] : defaultValue;
+        }
+
+        /**
+         * Returns the slot of the key, {@code Integer.MAX_VALUE} for the free key, or a negative number if it's not present.
+         */
+        private int find(long key, long hash) {
+            if (key == FREE_KEY) {
+                return hasFreeKey ? Integer.MAX_VALUE : -1;
+            }
+
+            return indexOf(table, key, hash);
+        }
+
+        /**
+         * Returns the slot of the key in the table, or {@code -1} if it's not present.
+         */
+        private static int indexOf(Table table, long key, long hash) {
+            long[] keys = table.keys;
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+
+            for (int probes = 0; probes < keys.length; probes++) {
+                long current = keys[index];
+                if (current == key) {
+                    return index;
+                }
+                if (current == FREE_KEY) {
+                    return -1;
+                }
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private void put(long key, long hash, int value) {
+            long stamp = lock.writeLock();
+            try {
+                if (key == FREE_KEY) {
+                    if (!hasFreeKey) {
+                        hasFreeKey = true;
+                        size++;
+                    }
+                    freeKeyValue = value;
+                    return;
+                }
+
+                Table current = table;
+                long[] keys = current.keys;
+                int mask = keys.length - 1;
+                int index = (int) hash & mask;
+
+                while (keys[index] != FREE_KEY) {
+                    if (keys[index] == key) {
+                        current.values[index] = value;
+                        return;
+                    }
+                    index = (index + 1) & mask;
+                }
+
+                keys[index] = key;
+                current.values[index] = value;
+
+                // The load factor is kept under 0.5 for short probe sequences
+                if (++size * 2 > keys.length) {
+                    resize();
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private boolean remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                if (key == FREE_KEY) {
+                    if (hasFreeKey) {
+                        hasFreeKey = false;
+                        size--;
+                        return true;
+                    }
+                    return false;
+                }
+
+                Table current = table;
+                int index = indexOf(current, key, hash);
+                if (index < 0) {
+                    return false;
+                }
+
+                shiftBackward(current, index);
+                size--;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Frees the slot by moving back the following entries of the probe sequence, so no tombstones are needed.
+         */
+        private static void shiftBackward(Table table, int freed) {
+            long[] keys = table.keys;
+            int[] values = table.values;
+            int mask = keys.length - 1;
+            int gap = freed;
+            int index = freed;
+
+            while (true) {
+                index = (index + 1) & mask;
+                long key = keys[index];
+                if (key == FREE_KEY) {
+                    break;
+                }
+
+                int ideal = (int) hash(key) & mask;
+                boolean movable = gap <= index ? (ideal <= gap || ideal > index) : (ideal <= gap && ideal > index);
+                if (movable) {
+                    keys[gap] = key;
+                    values[gap] = values[index];
+                    gap = index;
+                }
+            }
+
+            keys[gap] = FREE_KEY;
+            values[gap] = 0;
+        }
+
+        /**
+         * Doubles the capacity of the segment. It must be invoked while holding the write lock.
+         */
+        private void resize() {
+            Table current = table;
+            Table resized = new Table(current.keys.length * 2);
+            int mask = resized.keys.length - 1;
+
+            for (int i = 0; i < current.keys.length; i++) {
+                long key = current.keys[i];
+                if (key != FREE_KEY) {
+                    int index = (int) hash(key) & mask;
+                    while (resized.keys[index] != FREE_KEY) {
+                        index = (index + 1) & mask;
+                    }
+                    resized.keys[index] = key;
+                    resized.values[index] = current.values[i];
+                }
+            }
+
+            table = resized;
+        }
+
+        private int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(table.keys.length);
+                hasFreeKey = false;
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void forEach(EntryConsumer action) {
+            long stamp = lock.readLock();
+            try {
+                if (hasFreeKey) {
+                    action.accept(FREE_KEY, freeKeyValue);
+                }
+
+                Table current = table;
+                for (int i = 0; i < current.keys.length; i++) {
+                    if (current.keys[i] != FREE_KEY) {
+                        action.accept(current.keys[i], current.values[i]);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.netkorp.telegram.framework.collections;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Provides a set of primitive {@code long} values kept into an open-addressing table with linear probing,
+ * so the lookups neither box the values nor follow references. It's not thread-safe: it must be filled before
+ * being shared, and it must not be modified while it's being read.
+ */
+public final class LongHashSet implements LongSet {
+
+    /**
+     * The value that marks a free slot in the table. Its presence is stored apart.
+     */
+    private static final long FREE_VALUE = 0L;
+
+    /**
+     * The values. The free slots contain {@link #FREE_VALUE}.
+     */
+    private long[] values;
+
+    /**
+     * The amount of values, including the {@link #FREE_VALUE}.
+     */
+    private int size;
+
+    /**
+     * Indicates whether the set contains the {@link #FREE_VALUE}.
+     */
+    private boolean hasFreeValue;
+
+    /**
+     * Constructs a new empty {@link LongHashSet} instance.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Constructs a new empty {@link LongHashSet} instance that holds the amount of values before resizing.
+     *
+     * @param expectedSize the expected amount of values.
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Math.max(4, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Adds the value.
+     *
+     * @param value the value.
+     * @return {@code true} if the value was not present; {@code false} otherwise.
+     */
+    public boolean add(long value) {
+        if (value == FREE_VALUE) {
+            if (hasFreeValue) {
+                return false;
+            }
+            hasFreeValue = true;
+            size++;
+            return true;
+        }
+
+        int mask = values.length - 1;
+        int index = hash(value) & mask;
+
+        while (values[index] != FREE_VALUE) {
+            if (values[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        values[index] = value;
+
+        // The load factor is kept under 0.5 for short probe sequences
+        if (++size * 2 > values.length) {
+            resize();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the value is present.
+     *
+     * @param value the value.
+     * @return {@code true} if the value is present; {@code false} otherwise.
+     */
+    @Override
+    public boolean contains(long value) {
+        if (value == FREE_VALUE) {
+            return hasFreeValue;
+        }
+
+        long[] table = values;
+        int mask = table.length - 1;
+        int index = hash(value) & mask;
+
+        for (long current = table[index]; current != FREE_VALUE; current = table[index]) {
+            if (current == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the amount of values.
+     *
+     * @return the amount of values.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the approximate amount of heap used by the table, in bytes.
+     *
+     * @return the heap used by the table.
+     */
+    @Override
+    public long getHeapSize() {
+        return (long) values.length * Long.BYTES;
+    }
+
+    /**
+     * Performs the action for each value, in no particular order.
+     *
+     * @param action the action to perform.
+     */
+    public void forEach(LongConsumer action) {
+        if (hasFreeValue) {
+            action.accept(FREE_VALUE);
+        }
+
+        for (long value : values) {
+            if (value != FREE_VALUE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void resize() {
+        long[] resized = new long[values.length * 2];
+        int mask = resized.length - 1;
+
+        for (long value : values) {
+            if (value != FREE_VALUE) {
+                int index = hash(value) & mask;
+                while (resized[index] != FREE_VALUE) {
+                    index = (index + 1) & mask;
+                }
+                resized[index] = value;
+            }
+        }
+
+        values = resized;
+    }
+
+    /**
+     * Returns the mixed hash of the value, so consecutive chat identifications are spread over the table.
+     *
+     * @param value the value.
+     * @return the hash of the value.
+     */
+    private static int hash(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
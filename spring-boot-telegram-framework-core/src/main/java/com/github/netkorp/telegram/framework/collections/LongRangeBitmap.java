@@ -0,0 +1,91 @@
+package com.github.netkorp.telegram.framework.collections;
+
+/**
+ * Provides a set of primitive {@code long} values kept as one bit per value of the range between the smallest
+ * and the largest value. It uses less memory than a {@link LongHashSet} when the values are dense, such as
+ * consecutive user identifications. It's immutable.
+ */
+public final class LongRangeBitmap implements LongSet {
+
+    /**
+     * The smallest value, which is represented by the first bit.
+     */
+    private final long offset;
+
+    /**
+     * The bits of the range.
+     */
+    private final long[] words;
+
+    /**
+     * The amount of values.
+     */
+    private final int size;
+
+    /**
+     * Constructs a new {@link LongRangeBitmap} instance with the values of the set.
+     *
+     * @param values the values. They must be within a range of {@link #maxRange()} values.
+     * @param min    the smallest value.
+     * @param max    the largest value.
+     */
+    LongRangeBitmap(LongHashSet values, long min, long max) {
+        if (max - min < 0 || max - min >= maxRange()) {
+            throw new IllegalArgumentException(String.format("The range [%d, %d] is too large for a bitmap", min, max));
+        }
+
+        this.offset = min;
+        this.words = new long[(int) ((max - min) >>> 6) + 1];
+        this.size = values.size();
+
+        values.forEach(value -> {
+            long bit = value - offset;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        });
+    }
+
+    /**
+     * Returns the amount of values that a bitmap can cover.
+     *
+     * @return the maximum range of a bitmap.
+     */
+    static long maxRange() {
+        return (long) Integer.MAX_VALUE << 6;
+    }
+
+    /**
+     * Returns {@code true} if the value is present.
+     *
+     * @param value the value.
+     * @return {@code true} if the value is present; {@code false} otherwise.
+     */
+    @Override
+    public boolean contains(long value) {
+        long bit = value - offset;
+        if (bit < 0 || (bit >>> 6) >= words.length) {
+            return false;
+        }
+
+        return (words[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Returns the amount of values.
+     *
+     * @return the amount of values.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the approximate amount of heap used by the bits, in bytes.
+     *
+     * @return the heap used by the bits.
+     */
+    @Override
+    public long getHeapSize() {
+        return (long) words.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.netkorp.telegram.framework.collections;
+
+/**
+ * Represents a read-only set of primitive {@code long} values.
+ *
+ * @see LongSets
+ */
+public interface LongSet {
+
+    /**
+     * Returns {@code true} if the value is present.
+     *
+     * @param value the value.
+     * @return {@code true} if the value is present; {@code false} otherwise.
+     */
+    boolean contains(long value);
+
+    /**
+     * Returns the amount of values.
+     *
+     * @return the amount of values.
+     */
+    int size();
+
+    /**
+     * Returns the approximate amount of heap used by the values, in bytes.
+     *
+     * @return the heap used by the values.
+     */
+    long getHeapSize();
+}
@@ -0,0 +1,164 @@
+package com.github.netkorp.telegram.framework.collections;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Contains the operations for building and loading the {@link LongSet} instances.
+ */
+public final class LongSets {
+
+    private LongSets() {
+    }
+
+    /**
+     * Returns the smallest representation of the values: the set itself or a {@link LongRangeBitmap}
+     * if the values are dense enough.
+     *
+     * @param values the values.
+     * @return the set with the values.
+     */
+    public static LongSet compact(LongHashSet values) {
+        if (values.size() == 0) {
+            return values;
+        }
+
+        long[] bounds = {Long.MAX_VALUE, Long.MIN_VALUE};
+        values.forEach(value -> {
+            bounds[0] = Math.min(bounds[0], value);
+            bounds[1] = Math.max(bounds[1], value);
+        });
+
+        long range = bounds[1] - bounds[0];
+        if (range < 0 || range >= LongRangeBitmap.maxRange()) {
+            return values;
+        }
+
+        long bitmapSize = ((range >>> 6) + 1) * Long.BYTES;
+        return bitmapSize < values.getHeapSize() ? new LongRangeBitmap(values, bounds[0], bounds[1]) : values;
+    }
+
+    /**
+     * Reads the values of a text file into the set. The values are separated by whitespaces or commas,
+     * and the text that follows a hash sign (#) until the end of the line is ignored.
+     * The file is either memory-mapped or read into the heap, and the values are parsed from its bytes
+     * without creating any String.
+     *
+     * @param file   the file.
+     * @param mapped {@code true} if the file is memory-mapped; {@code false} if it's read into the heap.
+     * @param values the set in which the values are added.
+     * @return the amount of tokens that are not valid values and were discarded.
+     * @throws IOException if the file can't be read.
+     */
+    public static int read(Path file, boolean mapped, LongHashSet values) throws IOException {
+        if (!mapped) {
+            return parse(ByteBuffer.wrap(Files.readAllBytes(file)), values);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("%s is larger than 2 GB", file));
+            }
+
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), values);
+        }
+    }
+
+    /**
+     * Parses the values of the buffer into the set.
+     *
+     * @param buffer the content of the file.
+     * @param values the set in which the values are added.
+     * @return the amount of tokens that are not valid values and were discarded.
+     */
+    private static int parse(ByteBuffer buffer, LongHashSet values) {
+        int discarded = 0;
+
+        while (buffer.hasRemaining()) {
+            byte current = buffer.get();
+
+            if (current == '#') {
+                skipLine(buffer);
+            } else if (!isSeparator(current)) {
+                buffer.position(buffer.position() - 1);
+                if (!parseValue(buffer, values)) {
+                    discarded++;
+                }
+            }
+        }
+
+        return discarded;
+    }
+
+    /**
+     * Parses the token at the position of the buffer, leaving the position after the token.
+     *
+     * @param buffer the content of the file.
+     * @param values the set in which the value is added.
+     * @return {@code true} if the token is a valid value; {@code false} otherwise.
+     */
+    private static boolean parseValue(ByteBuffer buffer, LongHashSet values) {
+        boolean negative = false;
+        boolean valid = true;
+        int digits = 0;
+        long value = 0;
+
+        if (buffer.get(buffer.position()) == '-') {
+            negative = true;
+            buffer.get();
+        }
+
+        while (buffer.hasRemaining()) {
+            byte current = buffer.get(buffer.position());
+            if (isSeparator(current) || current == '#') {
+                break;
+            }
+
+            buffer.get();
+            if (current < '0' || current > '9') {
+                valid = false;
+                continue;
+            }
+
+            // The value is accumulated as a negative number, so Long.MIN_VALUE can be parsed
+            int digit = current - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                valid = false;
+            }
+            value = value * 10 - digit;
+            digits++;
+        }
+
+        if (!valid || digits == 0 || (!negative && value == Long.MIN_VALUE)) {
+            return false;
+        }
+
+        values.add(negative ? value : -value);
+        return true;
+    }
+
+    /**
+     * Moves the position of the buffer to the next line.
+     *
+     * @param buffer the content of the file.
+     */
+    private static void skipLine(ByteBuffer buffer) {
+        while (buffer.hasRemaining() && buffer.get() != '\n') {
+            // Skipping the comment
+        }
+    }
+
+    /**
+     * Returns {@code true} if the byte separates the values.
+     *
+     * @param current the byte.
+     * @return {@code true} if the byte is a separator; {@code false} otherwise.
+     */
+    private static boolean isSeparator(byte current) {
+        return current == ',' || current == ' ' || current == '\n' || current == '\r' || current == '\t';
+    }
+}
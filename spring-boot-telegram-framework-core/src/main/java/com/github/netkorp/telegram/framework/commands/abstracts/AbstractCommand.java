@@ -1,6 +1,6 @@
 package com.github.netkorp.telegram.framework.commands.abstracts;
 
-import com.github.netkorp.telegram.framework.bots.PollingTelegramBot;
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
 import com.github.netkorp.telegram.framework.commands.interfaces.Command;
 import com.github.netkorp.telegram.framework.managers.CommandManager;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +16,7 @@ abstract class AbstractCommand implements Command {
     /**
      * The bot that the command can use to share information with Telegram.
      */
-    protected PollingTelegramBot bot;
+    protected TelegramBot bot;
 
     /**
      * The component for managing all of the commands available in the bot.
@@ -34,7 +34,7 @@ abstract class AbstractCommand implements Command {
      * @param bot the Telegram bot.
      */
     @Autowired
-    public void setBot(PollingTelegramBot bot) {
+    public void setBot(TelegramBot bot) {
         this.bot = bot;
     }
 
@@ -5,31 +5,42 @@ import com.github.netkorp.telegram.framework.commands.abstracts.AbstractSimpleCo
 import com.github.netkorp.telegram.framework.commands.interfaces.Command;
 import com.github.netkorp.telegram.framework.commands.interfaces.HelpCommand;
 import com.github.netkorp.telegram.framework.condition.ExcludeCondition;
+import com.github.netkorp.telegram.framework.descriptors.CommandDescriptor;
 import com.github.netkorp.telegram.framework.exceptions.CommandNotFound;
 import com.github.netkorp.telegram.framework.managers.CommandManager;
 import com.github.netkorp.telegram.framework.managers.SecurityManager;
+import com.github.netkorp.telegram.framework.properties.MessagesProperties;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.NoSuchMessageException;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.StringJoiner;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 
 /**
  * Displays the bot's help.
+ * The help is rendered once for each locale and mask of roles, and it's rendered again when the application context
+ * is refreshed or the cache duration of the messages is over, so it follows the messages reloaded meanwhile.
  */
 @TelegramCommand(name = "help", group = "commands.groups.help", description = "commands.description.help")
 @Conditional(ExcludeCondition.class)
-@ConditionalOnSingleCandidate(HelpCommand.class)
+@ConditionalOnMissingBean(HelpCommand.class)
 public class BasicHelpCommand extends AbstractSimpleCommand implements HelpCommand {
 
     /**
@@ -38,13 +49,29 @@ public class BasicHelpCommand extends AbstractSimpleCommand implements HelpComma
     private final SecurityManager securityManager;
 
     /**
-     * Constructs a new {@link BasicHelpCommand} instance with the {@link SecurityManager} component instance.
+     * The time in nanoseconds that the rendered help is kept, or {@code 0} if it's kept until the cache is cleared.
+     */
+    private final long cacheNanos;
+
+    /**
+     * The help rendered for each locale. It's rendered on the first request for the locale.
+     */
+    private final Map<Locale, RenderedHelp> renderedHelp = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link BasicHelpCommand} instance with the {@link SecurityManager} component instance
+     * and the properties of the messages.
      *
-     * @param securityManager the {@link SecurityManager} component instance.
+     * @param securityManager    the {@link SecurityManager} component instance.
+     * @param messagesProperties the properties of the messages.
      */
     @Autowired
-    public BasicHelpCommand(SecurityManager securityManager) {
+    public BasicHelpCommand(SecurityManager securityManager, MessagesProperties messagesProperties) {
         this.securityManager = securityManager;
+
+        Duration cacheDuration = messagesProperties.getCacheDuration();
+        this.cacheNanos = cacheDuration == null || cacheDuration.isNegative() ? 0
+                : Math.max(1, cacheDuration.toNanos());
     }
 
     /**
@@ -61,11 +88,12 @@ public class BasicHelpCommand extends AbstractSimpleCommand implements HelpComma
                 return;
             }
 
+            RenderedHelp help = getRenderedHelp();
             StringJoiner stringJoiner = new StringJoiner(System.lineSeparator());
 
             for (String arg : args) {
                 try {
-                    stringJoiner.add(helpForCommand(commandManager.getCommand(CommandManager.getCommandFullName(arg))));
+                    stringJoiner.add(help.forCommand(commandManager.getCommand(CommandManager.getCommandFullName(arg))));
                 } catch (CommandNotFound commandNotFound) {
                     bot.sendMessage(String.format("%s: %s", commandNotFound.getMessage(), arg), update.getMessage().getChatId(), true);
                     execute(update);
@@ -86,146 +114,209 @@ public class BasicHelpCommand extends AbstractSimpleCommand implements HelpComma
      */
     @Override
     public void execute(Update update) {
-        StringJoiner stringJoiner = new StringJoiner(System.lineSeparator());
+        Long chatId = update.getMessage().getChatId();
+        RenderedHelp help = getRenderedHelp();
 
-        stringJoiner.add(String.format("%s:", messageSource.getMessage("commands.basic.help.title", null,
-                LocaleContextHolder.getLocale())));
-
-        commandsByGroup(getAvailableCommands(update.getMessage().getChatId()))
-                .forEach((group, commands) -> stringJoiner.add(helpForGroup(group, commands)));
+        bot.sendMessage(help.forRoles(securityManager.getRoles(chatId), roles -> helpForCommands(help,
+                securityManager.getAvailableCommands(roles))), chatId, true);
+    }
 
-        bot.sendMessage(stringJoiner.toString(), update.getMessage().getChatId(), true);
+    /**
+     * Discards the rendered help, so it's rendered again on the next request.
+     * It's invoked when the application context is refreshed, and it should be invoked after reloading the messages
+     * of a {@link org.springframework.context.MessageSource} that doesn't follow the cache duration of the messages.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void clearCache() {
+        renderedHelp.clear();
     }
 
     /**
-     * Returns the help for the group of commands.
+     * Returns the help rendered for the current locale, rendering it if it's the first request for the locale
+     * or the cache duration of the messages is over.
      *
-     * @param group    the name of the group.
-     * @param commands the commands into the group.
-     * @return the help for the group.
+     * @return the rendered help.
      */
-    private String helpForGroup(String group, List<Command> commands) {
-        StringJoiner stringJoiner = new StringJoiner(System.lineSeparator());
-        if (!Strings.isEmpty(group)) {
-            stringJoiner.add(String.format("<b>%s</b>", group));
+    private RenderedHelp getRenderedHelp() {
+        Locale locale = LocaleContextHolder.getLocale();
+        RenderedHelp help = renderedHelp.get(locale);
+        if (help == null || (cacheNanos > 0 && System.nanoTime() - help.renderedAt >= cacheNanos)) {
+            // Rendering the help twice at the same time is harmless, so the map is not locked meanwhile
+            help = render(locale);
+            renderedHelp.put(locale, help);
         }
-        commands.forEach(command -> stringJoiner.add(helpForCommand(command)));
-        return System.lineSeparator() + stringJoiner.toString();
+
+        return help;
     }
 
     /**
-     * Returns the help for a single command.
+     * Renders the help of every command. The full help is rendered on the first request for each mask of roles.
      *
-     * @param command the command.
-     * @return the help of the command.
+     * @param locale the locale of the messages.
+     * @return the rendered help.
      */
-    private String helpForCommand(Command command) {
-        StringJoiner stringJoiner = new StringJoiner(", ");
-        CommandManager.getCommandFullNames(command).forEach(stringJoiner::add);
-        return String.format("%s - %s", stringJoiner.toString(), getDescription(command));
+    private RenderedHelp render(Locale locale) {
+        Map<Command, String> commandHelp = new IdentityHashMap<>();
+        Map<Command, String> groups = new IdentityHashMap<>();
+
+        for (CommandDescriptor descriptor : commandManager.getDescriptors()) {
+            commandHelp.put(descriptor.getCommand(), helpForCommand(descriptor, locale));
+            groups.put(descriptor.getCommand(), getGroupName(descriptor, locale));
+        }
+
+        return new RenderedHelp(messageSource.getMessage("commands.basic.help.title", null, locale) + ":",
+                commandHelp, groups);
     }
 
     /**
-     * Organizes the available commands into groups.
+     * Returns the help for the commands, organized into groups sorted by the group's name.
      *
-     * @param commands the list with all the available commands.
-     * @return the available commands in groups sorted by the group's name.
+     * @param renderedHelp the help rendered for the locale.
+     * @param commands     the commands to be included.
+     * @return the help for the commands.
      */
-    private SortedMap<String, List<Command>> commandsByGroup(Collection<Command> commands) {
-        SortedMap<String, List<Command>> commandsByGroup = new TreeMap<>();
-
-        commands.forEach(command -> {
-            String group = getGroupName(command);
+    private String helpForCommands(RenderedHelp renderedHelp, Collection<Command> commands) {
+        StringBuilder help = new StringBuilder(renderedHelp.title);
 
-            List<Command> commandList = commandsByGroup.getOrDefault(group, new LinkedList<>());
-            commandList.add(command);
+        commandsByGroup(commands, renderedHelp.groups).forEach((group, commandList) -> {
+            help.append(System.lineSeparator()).append(System.lineSeparator());
+            if (!Strings.isEmpty(group)) {
+                help.append("<b>").append(group).append("</b>").append(System.lineSeparator());
+            }
 
-            commandsByGroup.put(group, commandList);
+            StringJoiner stringJoiner = new StringJoiner(System.lineSeparator());
+            commandList.forEach(command -> stringJoiner.add(renderedHelp.forCommand(command)));
+            help.append(stringJoiner.toString());
         });
 
-        return commandsByGroup;
+        return help.toString();
     }
 
     /**
-     * Cleans the class name by removing the word "command" from it.
+     * Returns the help for a single command.
      *
-     * @param commandClass the class to be cleaned.
-     * @return the cleaned class name.
+     * @param descriptor the descriptor of the command.
+     * @param locale     the locale of the messages.
+     * @return the help of the command.
      */
-    private String cleanCommandClassName(Class<?> commandClass) {
-        String className = commandClass.getSimpleName().toLowerCase();
-        if (!"command".equals(className) && className.endsWith("command")) {
-            className = className.substring(0, className.length() - 7);
-        }
+    private String helpForCommand(CommandDescriptor descriptor, Locale locale) {
+        return String.join(", ", descriptor.getFullNames()) + " - " + getDescription(descriptor, locale);
+    }
 
-        return className;
+    /**
+     * Organizes the available commands into groups.
+     *
+     * @param commands the list with all the available commands.
+     * @param groups   the group's name of every command.
+     * @return the available commands in groups sorted by the group's name.
+     */
+    private SortedMap<String, List<Command>> commandsByGroup(Collection<Command> commands, Map<Command, String> groups) {
+        SortedMap<String, List<Command>> commandsByGroup = new TreeMap<>();
+
+        commands.forEach(command -> commandsByGroup.computeIfAbsent(groups.get(command), group -> new LinkedList<>())
+                .add(command));
+
+        return commandsByGroup;
     }
 
     /**
      * Returns the group's name of the command.
      *
-     * @param command the command from which the group's name will be retrieved.
+     * @param descriptor the descriptor of the command from which the group's name will be retrieved.
+     * @param locale     the locale of the messages.
      * @return the group's name.
      */
-    private String getGroupName(Command command) {
-        String groupName = command.getClass().getAnnotation(TelegramCommand.class).group().trim();
-
-        // If there is no an explicit group, we'll try to generate a key to retrieve a message
-        String key = "";
-        if (groupName.isEmpty()) {
-            key = "commands.groups." + cleanCommandClassName(command.getClass());
-            groupName = key;
-        }
-
+    private String getGroupName(CommandDescriptor descriptor, Locale locale) {
         try {
-            groupName = messageSource.getMessage(groupName, null, LocaleContextHolder.getLocale());
+            return messageSource.getMessage(descriptor.getGroupKey(), null, locale);
         } catch (NoSuchMessageException exception) {
-            if (Objects.equals(key, groupName)) {
-                groupName = "";
-            }
+            // If there is no an explicit group, the generated key is not shown
+            return descriptor.getGroup();
         }
-
-        return groupName;
     }
 
     /**
      * Returns the description of the command.
      *
-     * @param command the command from which the description will be retrieved.
+     * @param descriptor the descriptor of the command from which the description will be retrieved.
+     * @param locale     the locale of the messages.
      * @return the command's description.
      */
-    private String getDescription(Command command) {
-        String description = command.getClass().getAnnotation(TelegramCommand.class).description().trim();
-
-        // If there is no explicit description, we'll try to generate a description key to retrieve a message
-        String key = "";
-        if (description.isEmpty()) {
-            key = "commands.description." + cleanCommandClassName(command.getClass());
-            description = key;
-        }
-
+    private String getDescription(CommandDescriptor descriptor, Locale locale) {
         try {
-            description = messageSource.getMessage(description, null, LocaleContextHolder.getLocale());
+            return messageSource.getMessage(descriptor.getDescriptionKey(), null, locale);
         } catch (NoSuchMessageException exception) {
-            if (Objects.equals(key, description)) {
-                description = messageSource.getMessage("commands.basic.help.default-description", null, LocaleContextHolder.getLocale());
+            if (descriptor.getDescription().isEmpty()) {
+                return messageSource.getMessage("commands.basic.help.default-description", null, locale);
             }
-        }
 
-        return description;
+            return descriptor.getDescription();
+        }
     }
 
     /**
-     * Returns the list of available commands for the user. It takes into account whether the user is authorized or not.
-     *
-     * @param chatId the identification of the user's chat.
-     * @return the list of available commands.
+     * Contains the help rendered for a locale.
      */
-    private Collection<Command> getAvailableCommands(Long chatId) {
-        if (securityManager.isAuthorized(chatId)) {
-            return commandManager.getAvailableCommands();
+    private static final class RenderedHelp {
+
+        /**
+         * The title of the help.
+         */
+        private final String title;
+
+        /**
+         * The help of every command.
+         */
+        private final Map<Command, String> commandHelp;
+
+        /**
+         * The group's name of every command.
+         */
+        private final Map<Command, String> groups;
+
+        /**
+         * The help with the commands available for each mask of roles.
+         */
+        private final Map<Integer, String> helpByRoles = new ConcurrentHashMap<>();
+
+        /**
+         * The moment in which the help was rendered, in nanoseconds.
+         */
+        private final long renderedAt = System.nanoTime();
+
+        /**
+         * Constructs a new {@link RenderedHelp} instance with the title, the help and the group's name
+         * of every command.
+         *
+         * @param title       the title of the help.
+         * @param commandHelp the help of every command.
+         * @param groups      the group's name of every command.
+         */
+        private RenderedHelp(String title, Map<Command, String> commandHelp, Map<Command, String> groups) {
+            this.title = title;
+            this.commandHelp = commandHelp;
+            this.groups = groups;
         }
 
-        return commandManager.getAvailableNonSecureCommands();
+        /**
+         * Returns the help of the command.
+         *
+         * @param command the command.
+         * @return the help of the command.
+         */
+        private String forCommand(Command command) {
+            return commandHelp.get(command);
+        }
+
+        /**
+         * Returns the help with the commands available for the mask of roles, rendering it on the first request.
+         *
+         * @param roles    the mask of roles of the user.
+         * @param renderer the function that renders the help for a mask of roles.
+         * @return the help for the user.
+         */
+        private String forRoles(int roles, IntFunction<String> renderer) {
+            return helpByRoles.computeIfAbsent(roles, renderer::apply);
+        }
     }
 }
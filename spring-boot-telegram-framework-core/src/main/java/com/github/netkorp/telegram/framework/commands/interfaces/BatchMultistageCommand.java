@@ -0,0 +1,22 @@
+package com.github.netkorp.telegram.framework.commands.interfaces;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.List;
+
+/**
+ * Contains the logic of a multistage command that processes at once several consecutive messages of the same chat,
+ * such as the lines of a list pasted by the user.
+ *
+ * @see MultistageCommand
+ */
+public interface BatchMultistageCommand extends MultistageCommand {
+
+    /**
+     * Processes the data sent by the users. It's invoked instead of {@link #execute(Update)} when the bot receives
+     * several consecutive messages for the command at once.
+     *
+     * @param updates the received messages, in the order they were sent.
+     */
+    void execute(final List<Update> updates);
+}
@@ -1,10 +1,12 @@
 package com.github.netkorp.telegram.framework.condition;
 
 import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
+import com.github.netkorp.telegram.framework.descriptors.CommandIndex;
 import org.springframework.context.annotation.Condition;
 import org.springframework.context.annotation.ConditionContext;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.ClassMetadata;
 import org.springframework.core.type.MethodMetadata;
 import org.springframework.stereotype.Component;
 
@@ -31,9 +33,8 @@ public class ExcludeCondition implements Condition {
     public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
         List excludeValue = context.getEnvironment().getProperty("telegram.commands.exclude", List.class);
         if (excludeValue != null && context.getBeanFactory() != null) {
-            Map<String, Object> attributes = metadata.getAnnotationAttributes(TelegramCommand.class.getName());
-            if (attributes != null) {
-                String[] commandNames = (String[]) attributes.get("name");
+            String[] commandNames = getCommandNames(context, metadata);
+            if (commandNames != null) {
                 for (String commandName : commandNames) {
                     if (excludeValue.contains(commandName)) {
                         return false;
@@ -44,4 +45,26 @@ public class ExcludeCondition implements Condition {
 
         return true;
     }
+
+    /**
+     * Returns the names of the command, from the {@link CommandIndex} if the command is indexed
+     * and from its {@link TelegramCommand} annotation otherwise.
+     *
+     * @param context  the condition context
+     * @param metadata metadata of the {@link AnnotationMetadata class}
+     *                 or {@link MethodMetadata method} being checked
+     * @return the names of the command, or {@code null} if it's not a command.
+     */
+    private String[] getCommandNames(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        if (metadata instanceof ClassMetadata) {
+            CommandIndex.Entry entry = CommandIndex.load(context.getClassLoader())
+                    .find(((ClassMetadata) metadata).getClassName());
+            if (entry != null) {
+                return entry.getNames();
+            }
+        }
+
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(TelegramCommand.class.getName());
+        return attributes == null ? null : (String[]) attributes.get("name");
+    }
 }
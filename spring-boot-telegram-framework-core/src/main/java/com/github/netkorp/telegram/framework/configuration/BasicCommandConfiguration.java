@@ -0,0 +1,23 @@
+package com.github.netkorp.telegram.framework.configuration;
+
+import com.github.netkorp.telegram.framework.SpringBootTelegramFrameworkConfiguration;
+import com.github.netkorp.telegram.framework.commands.basic.BasicHelpCommand;
+import com.github.netkorp.telegram.framework.commands.basic.WhoAmICommand;
+import com.github.netkorp.telegram.framework.commands.multistage.MultistageCloseCommand;
+import com.github.netkorp.telegram.framework.commands.multistage.MultistageDoneCommand;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Auto-configures the basic commands, after the commands of the application are known.
+ * The {@link BasicHelpCommand} is left out when the application declares another
+ * {@link com.github.netkorp.telegram.framework.commands.interfaces.HelpCommand}, the commands of the multistage
+ * command flow are left out when there are no multistage commands, and both the help and the whoami commands
+ * are left out when their names are listed in {@code telegram.commands.exclude}.
+ */
+@Configuration
+@AutoConfigureAfter(SpringBootTelegramFrameworkConfiguration.class)
+@Import({BasicHelpCommand.class, WhoAmICommand.class, MultistageCloseCommand.class, MultistageDoneCommand.class})
+public class BasicCommandConfiguration {
+}
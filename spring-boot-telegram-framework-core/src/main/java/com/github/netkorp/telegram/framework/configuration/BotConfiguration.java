@@ -0,0 +1,21 @@
+package com.github.netkorp.telegram.framework.configuration;
+
+import com.github.netkorp.telegram.framework.SpringBootTelegramFrameworkConfiguration;
+import com.github.netkorp.telegram.framework.bots.PollingTelegramBot;
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.bots.WebhookTelegramBot;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Auto-configures the bot established by {@code telegram.bots.mode}.
+ * It's possible to provide another implementation by declaring a {@link TelegramBot} bean.
+ */
+@Configuration
+@AutoConfigureAfter(SpringBootTelegramFrameworkConfiguration.class)
+@ConditionalOnMissingBean(TelegramBot.class)
+@Import({PollingTelegramBot.class, WebhookTelegramBot.class})
+public class BotConfiguration {
+}
@@ -0,0 +1,126 @@
+package com.github.netkorp.telegram.framework.configuration;
+
+import com.github.netkorp.telegram.framework.SpringBootTelegramFrameworkConfiguration;
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.bots.WorkerTelegramBot;
+import com.github.netkorp.telegram.framework.cluster.ClusterCoordinator;
+import com.github.netkorp.telegram.framework.cluster.ClusterUpdateDispatcher;
+import com.github.netkorp.telegram.framework.cluster.ClusterWorker;
+import com.github.netkorp.telegram.framework.cluster.InProcessClusterCoordinator;
+import com.github.netkorp.telegram.framework.cluster.LoopbackClusterCoordinator;
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.ClusterProperties;
+import com.github.netkorp.telegram.framework.properties.DispatcherProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Auto-configures the distribution of the chats across several instances of the bot, according to
+ * {@code telegram.cluster.role}. The ingest instance receives the updates from Telegram and forwards them
+ * through the {@link ClusterUpdateDispatcher}, while the worker instances receive them through the
+ * {@link ClusterWorker} and send the answers through the {@link WorkerTelegramBot}.
+ * It runs before the rest of the framework, so its components replace the default ones.
+ */
+@Configuration
+@AutoConfigureBefore({SpringBootTelegramFrameworkConfiguration.class, BotConfiguration.class})
+@EnableConfigurationProperties(ClusterProperties.class)
+@Conditional(ClusterConfiguration.ClusterRoleCondition.class)
+public class ClusterConfiguration {
+
+    /**
+     * Returns the {@link ClusterCoordinator} established in the properties.
+     *
+     * @param clusterProperties the properties of the cluster.
+     * @return the {@link ClusterCoordinator} instance.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ClusterCoordinator.class)
+    public ClusterCoordinator clusterCoordinator(ClusterProperties clusterProperties) {
+        if (clusterProperties.getCoordinator() == ClusterProperties.Coordinator.IN_PROCESS) {
+            return new InProcessClusterCoordinator(clusterProperties.getName());
+        }
+
+        return new LoopbackClusterCoordinator(clusterProperties.getHost(), clusterProperties.getPort());
+    }
+
+    /**
+     * Contains the configuration of the ingest instance.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "telegram.cluster.role", havingValue = "ingest")
+    static class IngestConfiguration {
+
+        /**
+         * Returns the {@link UpdateDispatcher} that forwards the updates to the workers.
+         *
+         * @param dispatcherProperties the properties of the dispatcher.
+         * @param updateManager        the {@link UpdateManager} instance.
+         * @param bot                  the {@link TelegramBot} instance.
+         * @param messageSource        the {@link MessageSource} instance.
+         * @param metrics              the {@link TelegramMetrics} instance.
+         * @param coordinator          the {@link ClusterCoordinator} instance.
+         * @param clusterProperties    the properties of the cluster.
+         * @return the {@link ClusterUpdateDispatcher} instance.
+         */
+        @Bean
+        public ClusterUpdateDispatcher updateDispatcher(
+                DispatcherProperties dispatcherProperties,
+                UpdateManager updateManager,
+                @Lazy TelegramBot bot,
+                @Qualifier("TelegramFrameworkMessageSource") MessageSource messageSource,
+                TelegramMetrics metrics,
+                ClusterCoordinator coordinator,
+                ClusterProperties clusterProperties) {
+            return new ClusterUpdateDispatcher(dispatcherProperties, updateManager, bot, messageSource, metrics,
+                    coordinator, clusterProperties);
+        }
+    }
+
+    /**
+     * Contains the configuration of the worker instances.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "telegram.cluster.role", havingValue = "worker")
+    @Import({ClusterWorker.class, WorkerTelegramBot.class})
+    static class WorkerConfiguration {
+    }
+
+    /**
+     * Matches when this instance is a member of a cluster.
+     */
+    static class ClusterRoleCondition extends AnyNestedCondition {
+
+        /**
+         * Constructs a new {@link ClusterRoleCondition} instance, evaluated when the beans are registered.
+         */
+        ClusterRoleCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        /**
+         * Matches the ingest instance.
+         */
+        @ConditionalOnProperty(name = "telegram.cluster.role", havingValue = "ingest")
+        static class Ingest {
+        }
+
+        /**
+         * Matches the worker instances.
+         */
+        @ConditionalOnProperty(name = "telegram.cluster.role", havingValue = "worker")
+        static class Worker {
+        }
+    }
+}
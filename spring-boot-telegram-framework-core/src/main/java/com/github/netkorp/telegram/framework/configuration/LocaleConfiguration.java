@@ -1,5 +1,7 @@
 package com.github.netkorp.telegram.framework.configuration;
 
+import com.github.netkorp.telegram.framework.properties.MessagesProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,15 +14,22 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 public class LocaleConfiguration {
 
     /**
-     * Returns a custom {@link MessageSource} for resolving the Telegram Framework messages.
+     * Returns a custom {@link MessageSource} for resolving the Telegram Framework messages,
+     * unless the application declares its own bean with the same name.
+     * The messages are reloaded once the cache duration of the properties is over, if it's set.
      *
+     * @param messagesProperties the properties of the messages.
      * @return the custom {@link MessageSource} instance.
      */
     @Bean("TelegramFrameworkMessageSource")
-    public MessageSource messageSource() {
+    @ConditionalOnMissingBean(name = "TelegramFrameworkMessageSource")
+    public MessageSource messageSource(MessagesProperties messagesProperties) {
         ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
         messageSource.setBasenames("classpath:default/messages", "classpath:messages/messages");
         messageSource.setDefaultEncoding("UTF-8");
+        if (messagesProperties.getCacheDuration() != null) {
+            messageSource.setCacheMillis(messagesProperties.getCacheDuration().toMillis());
+        }
         return messageSource;
     }
 }
@@ -0,0 +1,59 @@
+package com.github.netkorp.telegram.framework.configuration;
+
+import com.github.netkorp.telegram.framework.managers.CommandManager;
+import com.github.netkorp.telegram.framework.metrics.MicrometerTelegramMetrics;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Contains the configuration of the metrics of the bot.
+ * The metrics are recorded in Micrometer when {@code telegram.metrics.enabled} is {@code true} and Micrometer is
+ * in the classpath; otherwise nothing is recorded. It's possible to provide another implementation by declaring
+ * a {@link TelegramMetrics} bean.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Returns the {@link TelegramMetrics} that records nothing.
+     *
+     * @return the {@link TelegramMetrics} instance.
+     */
+    @Bean
+    @ConditionalOnMissingBean(TelegramMetrics.class)
+    public TelegramMetrics telegramMetrics() {
+        return TelegramMetrics.NOOP;
+    }
+
+    /**
+     * Contains the configuration of the metrics recorded in Micrometer.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(name = "telegram.metrics.enabled", havingValue = "true")
+    static class MicrometerMetricsConfiguration {
+
+        /**
+         * Returns the {@link TelegramMetrics} that records in the {@link MeterRegistry} of the application,
+         * or in the global registry of Micrometer if the application has none.
+         *
+         * @param registry       the registry of the application.
+         * @param commandManager the {@link CommandManager} instance.
+         * @return the {@link TelegramMetrics} instance.
+         */
+        @Bean
+        @ConditionalOnMissingBean(TelegramMetrics.class)
+        public TelegramMetrics micrometerTelegramMetrics(ObjectProvider<MeterRegistry> registry,
+                                                         @Lazy CommandManager commandManager) {
+            return new MicrometerTelegramMetrics(registry.getIfAvailable(() -> Metrics.globalRegistry), commandManager);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.netkorp.telegram.framework.configuration;
+
+import com.github.netkorp.telegram.framework.properties.SessionProperties;
+import com.github.netkorp.telegram.framework.sessions.FileSessionStore;
+import com.github.netkorp.telegram.framework.sessions.InMemorySessionStore;
+import com.github.netkorp.telegram.framework.sessions.SessionStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Contains the configuration of the storage for the multistage command sessions.
+ * It's possible to provide another implementation by declaring a {@link SessionStore} bean.
+ */
+@Configuration
+public class SessionStoreConfiguration {
+
+    /**
+     * Returns the {@link SessionStore} established in the properties.
+     *
+     * @param sessionProperties the properties of the sessions.
+     * @return the {@link SessionStore} instance.
+     * @throws IOException if the log file can't be opened.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SessionStore.class)
+    public SessionStore sessionStore(SessionProperties sessionProperties) throws IOException {
+        if (sessionProperties.getStore() == SessionProperties.Store.FILE) {
+            return new FileSessionStore(Paths.get(sessionProperties.getFile()), sessionProperties.getFileSize(),
+                    sessionProperties.isSync());
+        }
+
+        return new InMemorySessionStore();
+    }
+}
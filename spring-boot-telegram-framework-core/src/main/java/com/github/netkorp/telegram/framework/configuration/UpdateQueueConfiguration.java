@@ -0,0 +1,83 @@
+package com.github.netkorp.telegram.framework.configuration;
+
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.QueueProperties;
+import com.github.netkorp.telegram.framework.queue.DirectUpdateSink;
+import com.github.netkorp.telegram.framework.queue.MappedUpdateQueue;
+import com.github.netkorp.telegram.framework.queue.UpdateQueueConsumer;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import com.github.netkorp.telegram.framework.queue.UpdateSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Contains the configuration of the way in which the accepted updates reach the commands.
+ * They are handed straight to the {@link UpdateDispatcher} unless {@code telegram.queue.enabled} is {@code true},
+ * in which case they are kept in a {@link MappedUpdateQueue} until they are processed.
+ * It's possible to provide another implementation by declaring an {@link UpdateSink} bean, which is consumed
+ * as well if it's an {@link UpdateSource}.
+ */
+@Configuration
+public class UpdateQueueConfiguration {
+
+    /**
+     * Returns the {@link UpdateSink} that hands the updates straight to the {@link UpdateDispatcher}.
+     *
+     * @param updateDispatcher the {@link UpdateDispatcher} instance.
+     * @param updateManager    the {@link UpdateManager} instance.
+     * @return the {@link DirectUpdateSink} instance.
+     */
+    @Bean
+    @ConditionalOnMissingBean(UpdateSink.class)
+    public UpdateSink updateSink(UpdateDispatcher updateDispatcher, UpdateManager updateManager) {
+        return new DirectUpdateSink(updateDispatcher, updateManager);
+    }
+
+    /**
+     * Returns the consumer that hands the queued updates to the {@link UpdateDispatcher}.
+     *
+     * @param source           the {@link UpdateSource} instance.
+     * @param updateDispatcher the {@link UpdateDispatcher} instance.
+     * @param updateManager    the {@link UpdateManager} instance.
+     * @return the {@link UpdateQueueConsumer} instance.
+     */
+    @Bean
+    @ConditionalOnBean(UpdateSource.class)
+    public UpdateQueueConsumer updateQueueConsumer(UpdateSource source,
+                                                   UpdateDispatcher updateDispatcher,
+                                                   UpdateManager updateManager) {
+        return new UpdateQueueConsumer(source, updateDispatcher, updateManager);
+    }
+
+    /**
+     * Contains the configuration of the durable queue.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "telegram.queue.enabled", havingValue = "true")
+    static class MappedUpdateQueueConfiguration {
+
+        /**
+         * Returns the durable queue established in the properties.
+         *
+         * @param queueProperties the properties of the queue.
+         * @param metrics         the {@link TelegramMetrics} instance.
+         * @return the {@link MappedUpdateQueue} instance.
+         * @throws IOException if the queue can't be read.
+         */
+        @Bean
+        @ConditionalOnMissingBean(UpdateSink.class)
+        public MappedUpdateQueue updateQueue(QueueProperties queueProperties, TelegramMetrics metrics)
+                throws IOException {
+            return new MappedUpdateQueue(Paths.get(queueProperties.getDirectory()), queueProperties.getSegmentSize(),
+                    queueProperties.isSync(), metrics);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.netkorp.telegram.framework.dedup;
+
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.DedupProperties;
+import com.github.netkorp.telegram.framework.properties.SessionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provides the component for discarding the updates that Telegram delivers more than once, which happens
+ * when the bot is restarted before confirming the updates or when a webhook request is retried.
+ * The most recent update identifications are remembered in an {@link UpdateWindow}, which is optionally
+ * persisted next to the log of the sessions so the duplicates are detected across restarts.
+ * An update is recorded in the persisted window only once it's confirmed, after it's handed off to be processed,
+ * so an update received right before a crash is not discarded when Telegram delivers it again.
+ */
+@Component
+public class UpdateDeduplicator implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The window of the most recent update identifications. It's {@code null} if the detection is disabled.
+     */
+    private final UpdateWindow window;
+
+    /**
+     * The window of the most recent confirmed update identifications, kept in a file.
+     * It's {@code null} unless the window is persisted.
+     */
+    private final UpdateWindow persisted;
+
+    /**
+     * The amount of updates discarded.
+     */
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * Constructs a new {@link UpdateDeduplicator} instance with the properties of the detection
+     * the properties of the sessions, next to which the window is persisted, and the {@link TelegramMetrics} instance.
+     *
+     * @param dedupProperties   the properties of the detection.
+     * @param sessionProperties the properties of the sessions.
+     * @param metrics           the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public UpdateDeduplicator(DedupProperties dedupProperties, SessionProperties sessionProperties,
+                              TelegramMetrics metrics) {
+        this.metrics = metrics;
+
+        if (!dedupProperties.isEnabled()) {
+            this.window = null;
+            this.persisted = null;
+            return;
+        }
+
+        if (!dedupProperties.isPersist()) {
+            this.window = new UpdateWindow(dedupProperties.getWindow());
+            this.persisted = null;
+            return;
+        }
+
+        Path file = dedupProperties.getFile().isEmpty()
+                ? Paths.get(sessionProperties.getFile() + ".updates")
+                : Paths.get(dedupProperties.getFile());
+
+        try {
+            this.persisted = new UpdateWindow(dedupProperties.getWindow(), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("The window of updates could not be mapped: " + file, e);
+        }
+
+        this.window = new UpdateWindow(persisted);
+
+        LOG.info("Update window restored from {}, highest update {}", file, window.getHighest());
+    }
+
+    /**
+     * Returns {@code true} if the update was already received, recording it otherwise.
+     *
+     * @param update the received update.
+     * @return {@code true} if the update must be discarded; {@code false} otherwise.
+     */
+    public boolean isDuplicate(Update update) {
+        if (window == null || update.getUpdateId() == null || window.add(update.getUpdateId())) {
+            return false;
+        }
+
+        duplicates.increment();
+        metrics.updateRejected(TelegramMetrics.Rejection.DUPLICATE);
+        LOG.debug("Update {} discarded because it was already received", update.getUpdateId());
+        return true;
+    }
+
+    /**
+     * Records in the persisted window that the update was handed off to be processed, so it's discarded
+     * if Telegram delivers it again after a restart.
+     *
+     * @param update the accepted update.
+     */
+    public void confirm(Update update) {
+        if (persisted != null && update.getUpdateId() != null) {
+            persisted.add(update.getUpdateId());
+        }
+    }
+
+    /**
+     * Returns the amount of updates discarded.
+     *
+     * @return the amount of duplicates.
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * Flushes the window to its file, if it's persisted.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void destroy() throws IOException {
+        if (persisted != null) {
+            persisted.close();
+        }
+    }
+}
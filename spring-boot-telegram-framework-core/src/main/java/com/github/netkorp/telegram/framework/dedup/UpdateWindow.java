@@ -0,0 +1,239 @@
+package com.github.netkorp.telegram.framework.dedup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the most recent update identifications in a sliding bitmap of fixed size.
+ * The bit of an update is the remainder of its identification, so the window slides by clearing
+ * the bits of the identifications that are skipped. The bitmap lives either in the heap or in a
+ * memory-mapped file, in which case it survives the restarts of the bot. The file is flushed to the storage device
+ * at most once per second while identifications are recorded, and when the window is closed.
+ */
+public final class UpdateWindow implements Closeable {
+
+    /**
+     * The first bytes of a window file.
+     */
+    private static final long MAGIC = 0x5447555044415445L;
+
+    /**
+     * The size of the header: the magic number, the size of the window and the highest identification.
+     */
+    private static final int HEADER_SIZE = 3 * Long.BYTES;
+
+    /**
+     * The position of the highest identification in the header.
+     */
+    private static final int HIGHEST_POSITION = 2 * Long.BYTES;
+
+    /**
+     * The minimum time between two flushes of the file, in nanoseconds.
+     */
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The size of the window, which is a multiple of 64.
+     */
+    private final int size;
+
+    /**
+     * The header and the bitmap.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The bitmap, after the header.
+     */
+    private final LongBuffer words;
+
+    /**
+     * The channel of the file, if the window is persisted.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The highest identification seen, or {@code -1} if there is none.
+     */
+    private long highest;
+
+    /**
+     * The instant of the last flush of the file, in nanoseconds.
+     */
+    private long forcedAt = System.nanoTime();
+
+    /**
+     * Constructs a new {@link UpdateWindow} instance kept in the heap.
+     *
+     * @param size the amount of identifications remembered. It's rounded up to a multiple of 64.
+     */
+    public UpdateWindow(int size) {
+        this.size = roundSize(size);
+        this.channel = null;
+        this.buffer = ByteBuffer.allocate(HEADER_SIZE + this.size / Byte.SIZE);
+        this.words = slice(buffer);
+        this.highest = -1;
+    }
+
+    /**
+     * Constructs a new {@link UpdateWindow} instance kept in the heap with the content of another window.
+     *
+     * @param source the window whose size and identifications are copied.
+     */
+    public UpdateWindow(UpdateWindow source) {
+        synchronized (source) {
+            this.size = source.size;
+            this.channel = null;
+            this.buffer = ByteBuffer.allocate(HEADER_SIZE + this.size / Byte.SIZE);
+            this.words = slice(buffer);
+            for (int i = 0; i < words.capacity(); i++) {
+                words.put(i, source.words.get(i));
+            }
+            this.highest = source.highest;
+        }
+    }
+
+    /**
+     * Constructs a new {@link UpdateWindow} instance kept in a memory-mapped file, restoring its content
+     * if the file was created with the same size.
+     *
+     * @param size the amount of identifications remembered. It's rounded up to a multiple of 64.
+     * @param file the file of the window.
+     * @throws IOException if the file can't be mapped.
+     */
+    public UpdateWindow(int size, Path file) throws IOException {
+        this.size = roundSize(size);
+
+        Path absolute = file.toAbsolutePath();
+        if (absolute.getParent() != null) {
+            Files.createDirectories(absolute.getParent());
+        }
+
+        this.channel = FileChannel.open(absolute, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean restored = channel.size() == HEADER_SIZE + this.size / Byte.SIZE;
+
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + this.size / Byte.SIZE);
+        this.buffer = mapped;
+        this.words = slice(mapped);
+
+        if (restored && mapped.getLong(0) == MAGIC && mapped.getLong(Long.BYTES) == this.size) {
+            this.highest = mapped.getLong(HIGHEST_POSITION);
+        } else {
+            for (int i = 0; i < words.capacity(); i++) {
+                words.put(i, 0);
+            }
+            mapped.putLong(0, MAGIC).putLong(Long.BYTES, this.size);
+            this.highest = -1;
+            mapped.putLong(HIGHEST_POSITION, highest);
+        }
+    }
+
+    /**
+     * Records the identification and returns {@code true} if it was not recorded before.
+     * An identification that is lower than the highest one by the size of the window or more restarts the window,
+     * since Telegram starts the identifications again from a random value after a week without updates.
+     *
+     * @param updateId the update identification.
+     * @return {@code true} if it's the first time that the identification is seen; {@code false} otherwise.
+     */
+    public synchronized boolean add(long updateId) {
+        if (updateId < 0) {
+            return true;
+        }
+
+        if (updateId > highest || highest - updateId >= size) {
+            slide(updateId);
+        }
+
+        int bit = (int) (updateId % size);
+        long word = words.get(bit >>> 6);
+        long mask = 1L << bit;
+
+        if ((word & mask) != 0) {
+            return false;
+        }
+
+        words.put(bit >>> 6, word | mask);
+        if (channel != null && System.nanoTime() - forcedAt >= FORCE_INTERVAL_NANOS) {
+            ((MappedByteBuffer) buffer).force();
+            forcedAt = System.nanoTime();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the highest identification seen, or {@code -1} if there is none.
+     *
+     * @return the highest identification.
+     */
+    public synchronized long getHighest() {
+        return highest;
+    }
+
+    /**
+     * Flushes the window to the file, if it's persisted, and closes it.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            ((MappedByteBuffer) buffer).force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Moves the window to the identification, clearing the bits of the skipped identifications,
+     * or every bit if the window moves back or beyond its size.
+     *
+     * @param updateId the new highest identification.
+     */
+    private void slide(long updateId) {
+        if (highest < 0 || updateId < highest || updateId - highest >= size) {
+            for (int i = 0; i < words.capacity(); i++) {
+                words.put(i, 0);
+            }
+        } else {
+            for (long id = highest + 1; id <= updateId; id++) {
+                int bit = (int) (id % size);
+                words.put(bit >>> 6, words.get(bit >>> 6) & ~(1L << bit));
+            }
+        }
+
+        highest = updateId;
+        buffer.putLong(HIGHEST_POSITION, highest);
+    }
+
+    /**
+     * Returns the bitmap that follows the header of the buffer.
+     *
+     * @param buffer the header and the bitmap.
+     * @return the bitmap.
+     */
+    private static LongBuffer slice(ByteBuffer buffer) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(HEADER_SIZE);
+        return duplicate.slice().asLongBuffer();
+    }
+
+    /**
+     * Returns the size rounded up to a multiple of 64.
+     *
+     * @param size the requested size.
+     * @return the size of the window.
+     */
+    private static int roundSize(int size) {
+        return Math.max(Long.SIZE, (size + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+    }
+}
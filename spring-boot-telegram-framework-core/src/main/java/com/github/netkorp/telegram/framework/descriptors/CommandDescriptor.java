@@ -0,0 +1,409 @@
+package com.github.netkorp.telegram.framework.descriptors;
+
+import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.commands.interfaces.HelpCommand;
+import com.github.netkorp.telegram.framework.commands.interfaces.MultistageCommand;
+import com.github.netkorp.telegram.framework.commands.multistage.MultistageCloseCommand;
+import com.github.netkorp.telegram.framework.commands.multistage.MultistageDoneCommand;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a command from its {@link TelegramCommand} annotation. It's built once per command when the bot starts,
+ * so the framework doesn't reflect on the annotation while the updates are processed.
+ * The annotation is read from the {@link CommandIndex} if the command was indexed at compile time.
+ *
+ * @see com.github.netkorp.telegram.framework.managers.CommandManager#getDescriptor(Command)
+ */
+public final class CommandDescriptor {
+
+    /**
+     * The command described.
+     */
+    private final Command command;
+
+    /**
+     * The names of the command, as they are declared on {@link TelegramCommand#name()}.
+     */
+    private final List<String> names;
+
+    /**
+     * The names of the command. They include the slash (/).
+     */
+    private final List<String> fullNames;
+
+    /**
+     * The group declared on {@link TelegramCommand#group()}, trimmed.
+     */
+    private final String group;
+
+    /**
+     * The key of the message with the name of the group.
+     */
+    private final String groupKey;
+
+    /**
+     * The description declared on {@link TelegramCommand#description()}, trimmed.
+     */
+    private final String description;
+
+    /**
+     * The key of the message with the description.
+     */
+    private final String descriptionKey;
+
+    /**
+     * Indicates whether only the authorized users can invoke the command.
+     */
+    private final boolean secure;
+
+    /**
+     * The roles whose users can invoke the command, in lower case.
+     */
+    private final List<String> roles;
+
+    /**
+     * The maximum time in milliseconds declared on {@link TelegramCommand#timeout()}.
+     */
+    private final long timeout;
+
+    /**
+     * The maximum amount of executions at the same time declared on {@link TelegramCommand#maxConcurrent()}.
+     */
+    private final int maxConcurrent;
+
+    /**
+     * The position of the command among the available commands.
+     */
+    private final int index;
+
+    /**
+     * The kind of the command.
+     */
+    private final Kind kind;
+
+    /**
+     * Constructs a new {@link CommandDescriptor} instance.
+     *
+     * @param command       the command described.
+     * @param names         the names declared on {@link TelegramCommand#name()}.
+     * @param group         the group declared on {@link TelegramCommand#group()}.
+     * @param description   the description declared on {@link TelegramCommand#description()}.
+     * @param roles         the roles declared on {@link TelegramCommand#roles()}.
+     * @param secure        {@code true} if only the authorized users can invoke the command; {@code false} otherwise.
+     * @param timeout       the maximum time declared on {@link TelegramCommand#timeout()}.
+     * @param maxConcurrent the maximum amount of executions declared on {@link TelegramCommand#maxConcurrent()}.
+     * @param index         the position of the command among the available commands.
+     * @param kind          the kind of the command.
+     */
+    private CommandDescriptor(Command command, String[] names, String group, String description, String[] roles,
+                              boolean secure, long timeout, int maxConcurrent, int index, Kind kind) {
+        String baseKey = cleanCommandClassName(ClassUtils.getUserClass(AopUtils.getTargetClass(command)));
+
+        List<String> commandFullNames = new ArrayList<>(names.length);
+        for (String name : names) {
+            commandFullNames.add(name.startsWith("/") ? name : "/" + name);
+        }
+
+        this.command = command;
+        this.names = Collections.unmodifiableList(Arrays.asList(names));
+        this.fullNames = Collections.unmodifiableList(commandFullNames);
+        this.group = group.trim();
+        this.groupKey = this.group.isEmpty() ? "commands.groups." + baseKey : this.group;
+        this.description = description.trim();
+        this.descriptionKey = this.description.isEmpty() ? "commands.description." + baseKey : this.description;
+        this.secure = secure;
+        this.timeout = Math.max(0, timeout);
+        this.maxConcurrent = Math.max(0, maxConcurrent);
+        this.index = index;
+        this.kind = kind;
+
+        List<String> commandRoles = new ArrayList<>(roles.length);
+        for (String role : roles) {
+            if (!role.trim().isEmpty()) {
+                commandRoles.add(role.trim().toLowerCase());
+            }
+        }
+        this.roles = Collections.unmodifiableList(commandRoles);
+    }
+
+    /**
+     * Returns a new {@link CommandDescriptor} instance for the command.
+     * The command is secure unless its annotation says otherwise or any of its names is declared as non-secure.
+     * The command is described by the {@link CommandIndex} if it's indexed, and by its annotation otherwise.
+     * The class of a proxy is the class of the command behind it, so describing a lazy command doesn't create it.
+     *
+     * @param command        the command, which must be annotated with {@link TelegramCommand}.
+     * @param nonSecureNames the names of the non-secure commands, if any.
+     * @param index          the position of the command among the available commands.
+     * @return the descriptor of the command.
+     */
+    public static CommandDescriptor of(Command command, Collection<String> nonSecureNames, int index) {
+        Class<?> commandClass = ClassUtils.getUserClass(AopUtils.getTargetClass(command));
+        CommandIndex.Entry entry = CommandIndex.load(commandClass.getClassLoader()).find(commandClass);
+        if (entry != null) {
+            String[] names = entry.getNames();
+            return new CommandDescriptor(command, names, entry.getGroup(), entry.getDescription(), entry.getRoles(),
+                    isSecure(entry.isSecure(), names, nonSecureNames), entry.getTimeout(), entry.getMaxConcurrent(),
+                    index, entry.getKind());
+        }
+
+        TelegramCommand annotation = commandClass.getAnnotation(TelegramCommand.class);
+        if (annotation == null) {
+            throw new IllegalArgumentException(String.format("%s is not annotated with @TelegramCommand",
+                    commandClass.getName()));
+        }
+
+        String[] names = annotation.name().clone();
+        return new CommandDescriptor(command, names, annotation.group(), annotation.description(), annotation.roles(),
+                isSecure(annotation.secure(), names, nonSecureNames), annotation.timeout(), annotation.maxConcurrent(),
+                index, Kind.of(command));
+    }
+
+    /**
+     * Returns {@code true} if the command can be described, either by the {@link CommandIndex}
+     * or by its {@link TelegramCommand} annotation.
+     *
+     * @param command the command.
+     * @return {@code true} if the command is indexed or annotated; {@code false} otherwise.
+     */
+    public static boolean isDescribed(Command command) {
+        Class<?> commandClass = ClassUtils.getUserClass(AopUtils.getTargetClass(command));
+        return CommandIndex.load(commandClass.getClassLoader()).find(commandClass) != null
+                || commandClass.isAnnotationPresent(TelegramCommand.class);
+    }
+
+    /**
+     * Returns {@code true} if the command is secure according to its annotation and none of its names
+     * is declared as non-secure.
+     *
+     * @param secure         the value declared on {@link TelegramCommand#secure()}.
+     * @param names          the names of the command.
+     * @param nonSecureNames the names of the non-secure commands, if any.
+     * @return {@code true} if the command is secure; {@code false} otherwise.
+     */
+    private static boolean isSecure(boolean secure, String[] names, Collection<String> nonSecureNames) {
+        if (nonSecureNames != null) {
+            for (String name : names) {
+                secure &= !nonSecureNames.contains(name);
+            }
+        }
+
+        return secure;
+    }
+
+    /**
+     * Returns the class name of the command in lower case without the word "command".
+     *
+     * @param commandClass the class of the command.
+     * @return the cleaned class name.
+     */
+    private static String cleanCommandClassName(Class<?> commandClass) {
+        String className = commandClass.getSimpleName().toLowerCase();
+        if (!"command".equals(className) && className.endsWith("command")) {
+            className = className.substring(0, className.length() - 7);
+        }
+
+        return className;
+    }
+
+    /**
+     * Returns the command described.
+     *
+     * @return the command.
+     */
+    public Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the names of the command, as they are declared on {@link TelegramCommand#name()}.
+     * The names may include the slash (/).
+     *
+     * @return the names of the command.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the names of the command. They include the slash (/).
+     *
+     * @return the names of the command.
+     */
+    public List<String> getFullNames() {
+        return fullNames;
+    }
+
+    /**
+     * Returns the first name of the command, which identifies it. It includes the slash (/).
+     *
+     * @return the name of the command.
+     */
+    public String getFullName() {
+        return fullNames.get(0);
+    }
+
+    /**
+     * Returns the group declared on {@link TelegramCommand#group()}, if any; empty String otherwise.
+     *
+     * @return the group of the command.
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Returns the key of the message with the name of the group. If there is no an explicit group,
+     * the key is generated from the class name, such as {@code commands.groups.help} for {@code HelpCommand}.
+     *
+     * @return the key of the group.
+     */
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    /**
+     * Returns the description declared on {@link TelegramCommand#description()}, if any; empty String otherwise.
+     *
+     * @return the description of the command.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the key of the message with the description. If there is no an explicit description,
+     * the key is generated from the class name, such as {@code commands.description.help} for {@code HelpCommand}.
+     *
+     * @return the key of the description.
+     */
+    public String getDescriptionKey() {
+        return descriptionKey;
+    }
+
+    /**
+     * Returns {@code true} if only the authorized users can invoke the command.
+     *
+     * @return {@code true} if the command is secure; {@code false} otherwise.
+     */
+    public boolean isSecure() {
+        return secure;
+    }
+
+    /**
+     * Returns the roles whose users can invoke the command, in lower case. They only apply to the secure commands,
+     * and there are no roles if every authorized user can invoke the command.
+     *
+     * @return the roles of the command.
+     */
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds that an execution of the command may take,
+     * as it's declared on {@link TelegramCommand#timeout()}.
+     *
+     * @return the maximum time of an execution, or {@code 0} if it's not declared.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns the maximum amount of executions of the command at the same time,
+     * as it's declared on {@link TelegramCommand#maxConcurrent()}.
+     *
+     * @return the maximum amount of executions at the same time, or {@code 0} if it's not declared.
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Returns the position of the command among the available commands, which goes from zero to the amount
+     * of available commands. It's useful for keeping information about the commands in arrays or bit sets.
+     *
+     * @return the index of the command.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the kind of the command.
+     *
+     * @return the kind of the command.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Indicates the role of a command in the framework.
+     */
+    public enum Kind {
+
+        /**
+         * A {@link com.github.netkorp.telegram.framework.commands.interfaces.SimpleCommand}.
+         */
+        SIMPLE,
+
+        /**
+         * A {@link MultistageCommand}.
+         */
+        MULTISTAGE,
+
+        /**
+         * The {@link HelpCommand}.
+         */
+        HELP,
+
+        /**
+         * The {@link MultistageCloseCommand}.
+         */
+        CLOSE,
+
+        /**
+         * The {@link MultistageDoneCommand}.
+         */
+        DONE;
+
+        /**
+         * Returns {@code true} if the kind is a reserved command of the multistage flow.
+         *
+         * @return {@code true} if the kind is reserved; {@code false} otherwise.
+         */
+        public boolean isReserved() {
+            return this == CLOSE || this == DONE;
+        }
+
+        /**
+         * Returns the kind of the command.
+         *
+         * @param command the command.
+         * @return the kind of the command.
+         */
+        private static Kind of(Command command) {
+            if (command instanceof MultistageCloseCommand) {
+                return CLOSE;
+            } else if (command instanceof MultistageDoneCommand) {
+                return DONE;
+            } else if (command instanceof HelpCommand) {
+                return HELP;
+            } else if (command instanceof MultistageCommand) {
+                return MULTISTAGE;
+            }
+
+            return SIMPLE;
+        }
+    }
+}
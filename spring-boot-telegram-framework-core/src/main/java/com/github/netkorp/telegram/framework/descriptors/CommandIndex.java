@@ -0,0 +1,293 @@
+package com.github.netkorp.telegram.framework.descriptors;
+
+import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Contains the commands described by the index that {@code spring-boot-telegram-framework-processor} generates
+ * at compile time. Every jar may contain its own index, so the indexes of the classpath are merged.
+ * The commands without an index are described by reflecting on their {@link TelegramCommand} annotation.
+ * The indexes are ignored if the {@value #IGNORE_INDEX} system property is {@code true}.
+ *
+ * @see CommandDescriptor
+ */
+public final class CommandIndex {
+
+    /**
+     * The location of the indexes in the classpath.
+     */
+    public static final String LOCATION = "META-INF/telegram-commands.properties";
+
+    /**
+     * The property that ignores the indexes.
+     */
+    public static final String IGNORE_INDEX = "telegram.commands.index.ignore";
+
+    /**
+     * The suffix of the key with the names of a command, which is present for every indexed command.
+     */
+    private static final String NAMES = ".names";
+
+    /**
+     * The index without commands.
+     */
+    private static final CommandIndex EMPTY = new CommandIndex(Collections.emptyMap());
+
+    /**
+     * The index loaded for each class loader.
+     */
+    private static final ConcurrentMap<ClassLoader, CommandIndex> CACHE = new ConcurrentReferenceHashMap<>();
+
+    /**
+     * The entries of the indexed commands by class name.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Constructs a new {@link CommandIndex} instance with the entries of the indexed commands.
+     *
+     * @param entries the entries by class name.
+     */
+    private CommandIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the index of the classpath of the class loader, loading it on the first call.
+     *
+     * @param classLoader the class loader, or {@code null} for the default one.
+     * @return the index, which is empty if there is no index or the indexes are ignored.
+     * @throws IllegalStateException if an index can't be loaded.
+     */
+    public static CommandIndex load(ClassLoader classLoader) {
+        if (SpringProperties.getFlag(IGNORE_INDEX)) {
+            return EMPTY;
+        }
+
+        ClassLoader loader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+        if (loader == null) {
+            return EMPTY;
+        }
+
+        return CACHE.computeIfAbsent(loader, CommandIndex::doLoad);
+    }
+
+    /**
+     * Loads and merges the indexes of the classpath of the class loader.
+     *
+     * @param classLoader the class loader.
+     * @return the index.
+     * @throws IllegalStateException if an index can't be loaded.
+     */
+    private static CommandIndex doLoad(ClassLoader classLoader) {
+        Map<String, Entry> entries = new HashMap<>();
+
+        try {
+            Enumeration<URL> urls = classLoader.getResources(LOCATION);
+            while (urls.hasMoreElements()) {
+                Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(urls.nextElement()));
+                for (String key : properties.stringPropertyNames()) {
+                    if (key.endsWith(NAMES)) {
+                        String className = key.substring(0, key.length() - NAMES.length());
+                        entries.put(className, new Entry(className, properties));
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException(String.format("Unable to load the index of the commands from %s",
+                    LOCATION), e);
+        }
+
+        return entries.isEmpty() ? EMPTY : new CommandIndex(Collections.unmodifiableMap(entries));
+    }
+
+    /**
+     * Returns the entry of the command class, if it's indexed; {@code null} otherwise.
+     * The proxies generated by Spring are looked up by the class of the command.
+     *
+     * @param commandClass the class of the command.
+     * @return the entry of the command, if any; {@code null} otherwise.
+     */
+    public Entry find(Class<?> commandClass) {
+        return entries.isEmpty() ? null : entries.get(ClassUtils.getUserClass(commandClass).getName());
+    }
+
+    /**
+     * Returns the entry of the command class, if it's indexed; {@code null} otherwise.
+     *
+     * @param className the name of the class of the command.
+     * @return the entry of the command, if any; {@code null} otherwise.
+     */
+    public Entry find(String className) {
+        return entries.get(className);
+    }
+
+    /**
+     * Returns the amount of indexed commands.
+     *
+     * @return the amount of commands.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Contains the attributes of the {@link TelegramCommand} annotation of an indexed command, and its kind.
+     */
+    public static final class Entry {
+
+        /**
+         * The names of the command, as they are declared on {@link TelegramCommand#name()}.
+         */
+        private final String[] names;
+
+        /**
+         * The group declared on {@link TelegramCommand#group()}.
+         */
+        private final String group;
+
+        /**
+         * The description declared on {@link TelegramCommand#description()}.
+         */
+        private final String description;
+
+        /**
+         * The value declared on {@link TelegramCommand#secure()}.
+         */
+        private final boolean secure;
+
+        /**
+         * The roles declared on {@link TelegramCommand#roles()}.
+         */
+        private final String[] roles;
+
+        /**
+         * The value declared on {@link TelegramCommand#timeout()}.
+         */
+        private final long timeout;
+
+        /**
+         * The value declared on {@link TelegramCommand#maxConcurrent()}.
+         */
+        private final int maxConcurrent;
+
+        /**
+         * The kind of the command.
+         */
+        private final CommandDescriptor.Kind kind;
+
+        /**
+         * Constructs a new {@link Entry} instance from the index.
+         *
+         * @param className  the name of the class of the command.
+         * @param properties the index.
+         * @throws IllegalArgumentException if the kind or the limits of the command are not valid.
+         */
+        private Entry(String className, Properties properties) {
+            this.names = split(properties.getProperty(className + NAMES));
+            this.group = properties.getProperty(className + ".group", "");
+            this.description = properties.getProperty(className + ".description", "");
+            this.secure = Boolean.parseBoolean(properties.getProperty(className + ".secure", "true"));
+            this.roles = split(properties.getProperty(className + ".roles", ""));
+            this.timeout = Long.parseLong(properties.getProperty(className + ".timeout", "0"));
+            this.maxConcurrent = Integer.parseInt(properties.getProperty(className + ".maxConcurrent", "0"));
+            this.kind = CommandDescriptor.Kind.valueOf(properties.getProperty(className + ".kind",
+                    CommandDescriptor.Kind.SIMPLE.name()));
+        }
+
+        /**
+         * Returns the values separated by commas.
+         *
+         * @param values the values separated by commas.
+         * @return the values.
+         */
+        private static String[] split(String values) {
+            return values.isEmpty() ? new String[0] : values.split(",", -1);
+        }
+
+        /**
+         * Returns the names of the command, as they are declared on {@link TelegramCommand#name()}.
+         *
+         * @return the names of the command.
+         */
+        public String[] getNames() {
+            return names.clone();
+        }
+
+        /**
+         * Returns the group declared on {@link TelegramCommand#group()}.
+         *
+         * @return the group of the command.
+         */
+        public String getGroup() {
+            return group;
+        }
+
+        /**
+         * Returns the description declared on {@link TelegramCommand#description()}.
+         *
+         * @return the description of the command.
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * Returns the value declared on {@link TelegramCommand#secure()}.
+         *
+         * @return {@code true} if the command is secure; {@code false} otherwise.
+         */
+        public boolean isSecure() {
+            return secure;
+        }
+
+        /**
+         * Returns the roles declared on {@link TelegramCommand#roles()}.
+         *
+         * @return the roles of the command.
+         */
+        public String[] getRoles() {
+            return roles.clone();
+        }
+
+        /**
+         * Returns the value declared on {@link TelegramCommand#timeout()}.
+         *
+         * @return the maximum time of an execution in milliseconds, or {@code 0} if it's not declared.
+         */
+        public long getTimeout() {
+            return timeout;
+        }
+
+        /**
+         * Returns the value declared on {@link TelegramCommand#maxConcurrent()}.
+         *
+         * @return the maximum amount of executions at the same time, or {@code 0} if it's not declared.
+         */
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        /**
+         * Returns the kind of the command.
+         *
+         * @return the kind of the command.
+         */
+        public CommandDescriptor.Kind getKind() {
+            return kind;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.netkorp.telegram.framework.dispatchers;
+
+/**
+ * Indicates how the workers that execute the commands are created.
+ */
+public enum ExecutionMode {
+
+    /**
+     * A fixed amount of platform threads. Suitable for commands that don't block.
+     */
+    PLATFORM,
+
+    /**
+     * Platform threads that are created on demand up to a maximum and are discarded after being idle for a while.
+     * Suitable for commands that block on the Bot API or on databases.
+     */
+    ELASTIC,
+
+    /**
+     * A virtual thread for every task. It requires Java 21 or later; on older runtimes the
+     * {@link #ELASTIC} mode is used instead.
+     * Since a stripe is processed by one worker at a time, the amount of stripes bounds the concurrency.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,696 @@
+package com.github.netkorp.telegram.framework.dispatchers;
+
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.collections.ConcurrentLongIntMap;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.DispatcherProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Provides the component for dispatching the incoming updates to a pool of workers.
+ * The chats are distributed into stripes by their identification, so the updates of the same chat are processed
+ * in the same order they were received while the updates of different stripes are processed in parallel.
+ * Each stripe is bounded and has two lanes: the updates of the authorized chats and the reserved commands
+ * of the multistage flow are in the priority lane, which is emptied first, and the rest of the updates
+ * are in the normal lane. When an update of a chat enters the priority lane the waiting updates of the same chat
+ * are moved along with it, so the updates of a chat are never reordered. When a stripe is full the updates
+ * are shed according to the {@link DispatcherProperties.Overload} policy.
+ * It's possible to provide another implementation by declaring an {@link UpdateDispatcher} bean.
+ */
+@Component
+@ConditionalOnMissingBean(UpdateDispatcher.class)
+public class UpdateDispatcher implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The maximum amount of updates that a worker processes from a stripe before giving the chance to other stripes.
+     */
+    private static final int BATCH_SIZE = 32;
+
+    /**
+     * The time to wait for the pending updates when the dispatcher is stopped.
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    /**
+     * The callback of the updates whose end doesn't matter.
+     */
+    private static final Runnable NOTHING = () -> {
+    };
+
+    /**
+     * The pool of workers that process the updates and execute the commands.
+     * It's {@code null} if the dispatcher is disabled.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * The stripes in which the chats are distributed.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * What to do with the incoming updates when their stripe is full.
+     */
+    private final DispatcherProperties.Overload overload;
+
+    /**
+     * The component for knowing which updates have priority.
+     */
+    private final UpdateManager updateManager;
+
+    /**
+     * The bot for telling the chats that the bot is busy.
+     */
+    private final TelegramBot bot;
+
+    /**
+     * The component for resolving messages.
+     */
+    private final MessageSource messageSource;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * The amount of updates discarded because their stripe was full.
+     */
+    private final LongAdder shed = new LongAdder();
+
+    /**
+     * Constructs a new {@link UpdateDispatcher} instance with the properties of the dispatcher,
+     * the {@link UpdateManager} instance, the {@link TelegramBot} instance, the {@link MessageSource} instance
+     * and the {@link TelegramMetrics} instance.
+     *
+     * @param dispatcherProperties the properties of the dispatcher.
+     * @param updateManager        the {@link UpdateManager} instance.
+     * @param bot                  the {@link TelegramBot} instance.
+     * @param messageSource        the {@link MessageSource} instance.
+     * @param metrics              the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public UpdateDispatcher(DispatcherProperties dispatcherProperties,
+                            UpdateManager updateManager,
+                            @Lazy TelegramBot bot,
+                            @Qualifier("TelegramFrameworkMessageSource") MessageSource messageSource,
+                            TelegramMetrics metrics) {
+        this.overload = dispatcherProperties.getOverload();
+        this.updateManager = updateManager;
+        this.bot = bot;
+        this.messageSource = messageSource;
+        this.metrics = metrics;
+
+        if (!dispatcherProperties.isEnabled()) {
+            this.workers = null;
+            this.stripes = new Stripe[0];
+            return;
+        }
+
+        this.workers = WorkerPoolFactory.create(dispatcherProperties);
+
+        this.stripes = new Stripe[Math.max(1, dispatcherProperties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(Math.max(1, dispatcherProperties.getQueueDepth()));
+        }
+
+        ExecutionMode mode = dispatcherProperties.getMode();
+        int maxWorkers = mode == ExecutionMode.PLATFORM ? dispatcherProperties.getWorkers()
+                : mode == ExecutionMode.ELASTIC ? dispatcherProperties.getMaxWorkers() : 0;
+        if (maxWorkers > stripes.length) {
+            LOG.info("Only {} of the {} workers process updates at the same time, one for each stripe. "
+                    + "Increase telegram.dispatcher.stripes to use the rest.", stripes.length, maxWorkers);
+        }
+    }
+
+    /**
+     * Dispatches the update to be processed by the handler.
+     * If the dispatcher is disabled the update is processed by the current thread.
+     * Otherwise, the update is queued in the stripe of the chat according to the overload policy.
+     *
+     * @param update  the received update.
+     * @param handler the logic that processes the update.
+     */
+    public void dispatch(Update update, Consumer<Update> handler) {
+        dispatch(update, handler, NOTHING);
+    }
+
+    /**
+     * Dispatches the update to be processed by the handler, and runs the callback once the update is done with.
+     * The callback is also run if the update is shed because its stripe is full,
+     * but it isn't run if the update is rejected because the dispatcher is stopped.
+     *
+     * @param update  the received update.
+     * @param handler the logic that processes the update.
+     * @param done    the logic that runs once the update is done with, even if the handler fails.
+     */
+    public void dispatch(Update update, Consumer<Update> handler, Runnable done) {
+        if (workers == null) {
+            process(update, handler, done);
+            return;
+        }
+
+        enqueue(new Task(update, 1, handler, done, updateManager.isPriority(update), metrics.start()));
+    }
+
+    /**
+     * Dispatches the updates of the same chat to be processed together by the handler.
+     * If the dispatcher is disabled the updates are processed by the current thread.
+     * Otherwise, they take a single place in the stripe of the chat, which is in the priority lane
+     * if any of the updates has priority. The messages parsed to know it are not parsed again by the handler.
+     *
+     * @param updates the received updates of the same chat, in the order they were received.
+     * @param handler the logic that processes the updates.
+     * @see UpdateManager#group(List)
+     */
+    public void dispatch(UpdateManager.ChatUpdates updates, Consumer<UpdateManager.ChatUpdates> handler) {
+        dispatch(updates, handler, NOTHING);
+    }
+
+    /**
+     * Dispatches the updates of the same chat to be processed together by the handler,
+     * and runs the callback once the updates are done with.
+     *
+     * @param updates the received updates of the same chat, in the order they were received.
+     * @param handler the logic that processes the updates.
+     * @param done    the logic that runs once the updates are done with, even if the handler fails.
+     * @see #dispatch(Update, Consumer, Runnable)
+     */
+    public void dispatch(UpdateManager.ChatUpdates updates, Consumer<UpdateManager.ChatUpdates> handler,
+                         Runnable done) {
+        if (updates.size() == 0) {
+            done.run();
+            return;
+        }
+
+        Consumer<Update> groupHandler = first -> handler.accept(updates);
+        if (workers == null) {
+            process(updates.get(0), groupHandler, done);
+            return;
+        }
+
+        enqueue(new Task(updates.get(0), updates.size(), groupHandler, done, updateManager.isPriority(updates),
+                metrics.start()));
+    }
+
+    /**
+     * Queues the task in the stripe of its chat, shedding the task discarded to make room, if any.
+     *
+     * @param task the task to be queued.
+     */
+    private void enqueue(Task task) {
+        try {
+            Task discarded = getStripe(task.chatId).submit(task);
+            if (discarded != null) {
+                shed(discarded);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("The dispatching of the update {} was interrupted", task.update.getUpdateId());
+        } catch (RejectedExecutionException e) {
+            LOG.warn("The update {} was rejected because the dispatcher is stopped", task.update.getUpdateId());
+        }
+    }
+
+    /**
+     * Processes the update with the handler and runs the callback.
+     *
+     * @param update  the received update.
+     * @param handler the logic that processes the update.
+     * @param done    the logic that runs once the update is done with.
+     */
+    private static void process(Update update, Consumer<Update> handler, Runnable done) {
+        try {
+            handler.accept(update);
+        } finally {
+            done.run();
+        }
+    }
+
+    /**
+     * Discards the task because its stripe was full, telling the chat that the bot is busy if the policy says so.
+     *
+     * @param task the discarded task.
+     */
+    private void shed(Task task) {
+        shed.add(task.size);
+        for (int i = 0; i < task.size; i++) {
+            metrics.updateRejected(TelegramMetrics.Rejection.OVERLOAD);
+        }
+
+        LOG.debug("The update {} was discarded because the dispatcher is overloaded", task.update.getUpdateId());
+
+        try {
+            if (overload == DispatcherProperties.Overload.REPLY_BUSY && task.chatId != 0) {
+                bot.sendMessage(messageSource.getMessage("dispatcher.busy", null, LocaleContextHolder.getLocale()),
+                        task.chatId);
+            }
+        } finally {
+            task.done.run();
+        }
+    }
+
+    /**
+     * Returns the amount of updates discarded because their stripe was full.
+     *
+     * @return the amount of discarded updates.
+     */
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * Returns the chat identification related to the update, if any; {@code 0} otherwise.
+     *
+     * @param update the received update.
+     * @return the chat identification.
+     */
+    public static long getChatId(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+
+        if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId();
+        }
+
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getMessage() != null) {
+            return update.getCallbackQuery().getMessage().getChatId();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the stripe in which the chat is included.
+     *
+     * @param chatId the chat identification.
+     * @return the stripe of the chat.
+     */
+    private Stripe getStripe(long chatId) {
+        int hash = Long.hashCode(chatId);
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    /**
+     * Stops the pool of workers, waiting for the pending updates to be processed.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (workers == null) {
+            return;
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("There are updates that were not processed after {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Contains an update, or several updates of the same chat, waiting to be processed.
+     */
+    private static final class Task {
+
+        /**
+         * The received update, or the first one of the updates processed together.
+         */
+        private final Update update;
+
+        /**
+         * The chat identification related to the update.
+         */
+        private final long chatId;
+
+        /**
+         * The amount of updates processed together.
+         */
+        private final int size;
+
+        /**
+         * The logic that processes the update.
+         */
+        private final Consumer<Update> handler;
+
+        /**
+         * The logic that runs once the update is done with.
+         */
+        private final Runnable done;
+
+        /**
+         * Indicates whether the update is in the priority lane.
+         * It changes when the update is moved along with a later update of its chat.
+         */
+        private boolean priority;
+
+        /**
+         * The instant returned by {@link TelegramMetrics#start()} when the update was queued.
+         */
+        private final long queuedAt;
+
+        /**
+         * Constructs a new {@link Task} instance.
+         *
+         * @param update   the received update, or the first one of the updates processed together.
+         * @param size     the amount of updates processed together.
+         * @param handler  the logic that processes the update.
+         * @param done     the logic that runs once the update is done with.
+         * @param priority {@code true} if the update is in the priority lane; {@code false} otherwise.
+         * @param queuedAt the instant in which the update was queued.
+         */
+        private Task(Update update, int size, Consumer<Update> handler, Runnable done, boolean priority,
+                     long queuedAt) {
+            this.update = update;
+            this.chatId = getChatId(update);
+            this.size = size;
+            this.handler = handler;
+            this.done = done;
+            this.priority = priority;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    /**
+     * Contains the updates waiting to be processed for a group of chats.
+     * A stripe is processed by one worker at a time.
+     */
+    private final class Stripe implements Runnable {
+
+        /**
+         * The lock that guards the lanes.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * The condition for waiting until there is room in the stripe.
+         */
+        private final Condition notFull = lock.newCondition();
+
+        /**
+         * The updates of the priority lane.
+         */
+        private final ArrayDeque<Task> priority = new ArrayDeque<>();
+
+        /**
+         * The rest of the updates.
+         */
+        private final ArrayDeque<Task> normal = new ArrayDeque<>();
+
+        /**
+         * The amount of updates of each chat in the normal lane.
+         */
+        private final ConcurrentLongIntMap normalByChat = new ConcurrentLongIntMap(1, 64);
+
+        /**
+         * The maximum amount of updates waiting to be processed in both lanes.
+         */
+        private final int queueDepth;
+
+        /**
+         * Indicates whether the stripe was handed to a worker.
+         */
+        private final AtomicBoolean scheduled;
+
+        /**
+         * Constructs a new {@link Stripe} instance with the maximum amount of updates waiting to be processed.
+         *
+         * @param queueDepth the maximum amount of updates waiting to be processed.
+         */
+        private Stripe(int queueDepth) {
+            this.queueDepth = queueDepth;
+            this.scheduled = new AtomicBoolean();
+        }
+
+        /**
+         * Adds the task to its lane. If the stripe is full a task is discarded or the current thread waits,
+         * according to the overload policy.
+         *
+         * @param task the task to be added.
+         * @return the task discarded to make room, the given task if it was discarded itself,
+         * or {@code null} if nothing was discarded.
+         * @throws InterruptedException if the current thread is interrupted while waiting.
+         */
+        private Task submit(Task task) throws InterruptedException {
+            Task discarded = null;
+
+            lock.lock();
+            try {
+                if (task.priority) {
+                    promote(task.chatId);
+                }
+
+                while (discarded == null && priority.size() + normal.size() >= queueDepth) {
+                    discarded = selectDiscarded(task);
+                    if (discarded == null) {
+                        notFull.await();
+                    }
+                }
+
+                if (discarded == task) {
+                    return task;
+                }
+
+                if (task.priority) {
+                    priority.add(task);
+                } else {
+                    normal.add(task);
+                    normalByChat.put(task.chatId, normalByChat.get(task.chatId, 0) + 1);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                schedule();
+            } catch (RejectedExecutionException e) {
+                remove(task);
+                throw e;
+            }
+
+            return discarded;
+        }
+
+        /**
+         * Moves the waiting tasks of the chat from the normal lane to the end of the priority lane,
+         * keeping their order, so they are processed before the incoming task of the same chat.
+         * It must be called while holding the lock.
+         *
+         * @param chatId the chat identification.
+         */
+        private void promote(long chatId) {
+            if (!normalByChat.remove(chatId)) {
+                return;
+            }
+
+            Iterator<Task> iterator = normal.iterator();
+            while (iterator.hasNext()) {
+                Task waiting = iterator.next();
+                if (waiting.chatId == chatId) {
+                    iterator.remove();
+                    waiting.priority = true;
+                    priority.add(waiting);
+                }
+            }
+        }
+
+        /**
+         * Removes the next task of the normal lane. It must be called while holding the lock.
+         *
+         * @return the removed task, or {@code null} if the normal lane is empty.
+         */
+        private Task pollNormal() {
+            Task task = normal.poll();
+            if (task != null) {
+                forgetNormal(task.chatId);
+            }
+
+            return task;
+        }
+
+        /**
+         * Counts that a task of the chat left the normal lane. It must be called while holding the lock.
+         *
+         * @param chatId the chat identification.
+         */
+        private void forgetNormal(long chatId) {
+            int count = normalByChat.get(chatId, 0);
+            if (count > 1) {
+                normalByChat.put(chatId, count - 1);
+            } else {
+                normalByChat.remove(chatId);
+            }
+        }
+
+        /**
+         * Removes the task from its lane, if it's still waiting.
+         *
+         * @param task the task to be removed.
+         */
+        private void remove(Task task) {
+            lock.lock();
+            try {
+                boolean removed = task.priority ? priority.remove(task) : normal.remove(task);
+                if (removed) {
+                    if (!task.priority) {
+                        forgetNormal(task.chatId);
+                    }
+
+                    notFull.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Removes the task to be discarded for making room in the full stripe.
+         * The waiting tasks of the chat of an incoming priority task were already moved to the priority lane,
+         * so the tasks discarded from the normal lane belong to other chats.
+         * It must be called while holding the lock.
+         *
+         * @param incoming the task to be added.
+         * @return the removed task, the incoming task if it must be discarded itself,
+         * or {@code null} if the current thread must wait.
+         */
+        private Task selectDiscarded(Task incoming) {
+            switch (overload) {
+                case DROP_OLDEST:
+                    Task oldest = pollNormal();
+                    return oldest != null ? oldest : priority.poll();
+                case DROP_UNAUTHORIZED:
+                    if (!normal.isEmpty()) {
+                        return pollNormal();
+                    }
+
+                    return incoming.priority ? null : incoming;
+                case REPLY_BUSY:
+                    return incoming.priority ? pollNormal() : incoming;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Removes the next task to be processed: the oldest of the priority lane, if any;
+         * the oldest of the normal lane otherwise.
+         *
+         * @return the next task, or {@code null} if the stripe is empty.
+         */
+        private Task poll() {
+            lock.lock();
+            try {
+                Task task = priority.poll();
+                if (task == null) {
+                    task = pollNormal();
+                }
+
+                if (task != null) {
+                    notFull.signal();
+                }
+
+                return task;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns {@code true} if there are no tasks waiting in the stripe.
+         *
+         * @return {@code true} if the stripe is empty; {@code false} otherwise.
+         */
+        private boolean isEmpty() {
+            lock.lock();
+            try {
+                return priority.isEmpty() && normal.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Hands the stripe to a worker if it isn't already.
+         *
+         * @throws RejectedExecutionException if the pool of workers is stopped.
+         */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        /**
+         * Hands the stripe again to a worker after a batch. If the pool of workers is stopping
+         * the current worker goes on with the stripe, so the waiting updates are processed before it's terminated.
+         */
+        private void resume() {
+            try {
+                schedule();
+            } catch (RejectedExecutionException e) {
+                if (scheduled.compareAndSet(false, true)) {
+                    run();
+                }
+            }
+        }
+
+        /**
+         * Processes the waiting tasks, the priority lane first.
+         * The stripe is released even if a handler throws an {@link Error}, so its chats are not stuck.
+         */
+        @Override
+        public void run() {
+            try {
+                Task task;
+                int processed = 0;
+
+                while (processed++ < BATCH_SIZE && (task = poll()) != null) {
+                    metrics.updateWaited(task.priority, task.queuedAt);
+                    try {
+                        process(task.update, task.handler, task.done);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!isEmpty()) {
+                    resume();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.netkorp.telegram.framework.dispatchers;
+
+import com.github.netkorp.telegram.framework.properties.DispatcherProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the pool of workers that execute the commands according to the {@link ExecutionMode}.
+ */
+public final class WorkerPoolFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The prefix of the name of the worker threads.
+     */
+    private static final String THREAD_NAME_PREFIX = "telegram-worker-";
+
+    private WorkerPoolFactory() {
+    }
+
+    /**
+     * Returns a new pool of workers for the execution mode established in the properties.
+     *
+     * @param dispatcherProperties the properties of the dispatcher.
+     * @return the pool of workers.
+     */
+    public static ExecutorService create(DispatcherProperties dispatcherProperties) {
+        return create(dispatcherProperties, THREAD_NAME_PREFIX, false);
+    }
+
+    /**
+     * Returns a new pool for the execution mode established in the properties, whose platform threads are named
+     * after the prefix. The daemon threads don't keep the application alive when it's stopping.
+     *
+     * @param dispatcherProperties the properties of the dispatcher.
+     * @param threadNamePrefix     the prefix of the name of the threads.
+     * @param daemon               {@code true} if the threads are daemon threads; {@code false} otherwise.
+     * @return the pool of threads.
+     */
+    public static ExecutorService create(DispatcherProperties dispatcherProperties, String threadNamePrefix,
+                                         boolean daemon) {
+        ThreadFactory threadFactory = newThreadFactory(threadNamePrefix, daemon);
+        int workers = Math.max(1, dispatcherProperties.getWorkers());
+
+        switch (dispatcherProperties.getMode()) {
+            case VIRTUAL:
+                ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+                if (virtualThreads != null) {
+                    return virtualThreads;
+                }
+
+                LOG.warn("Virtual threads are not supported by this runtime. The {} mode will be used instead.",
+                        ExecutionMode.ELASTIC);
+                return newElasticPool(workers, dispatcherProperties, threadFactory);
+            case ELASTIC:
+                return newElasticPool(workers, dispatcherProperties, threadFactory);
+            case PLATFORM:
+            default:
+                return Executors.newFixedThreadPool(workers, threadFactory);
+        }
+    }
+
+    /**
+     * Returns a pool that keeps the minimum amount of workers, creates more of them on demand up to the maximum
+     * and discards the extra ones when they have been idle longer than the keep-alive time.
+     * A task is handed to an idle worker, or to a new one while the maximum is not reached, and it only waits
+     * in the queue while all the workers are busy.
+     *
+     * @param workers              the minimum amount of workers.
+     * @param dispatcherProperties the properties of the dispatcher.
+     * @param threadFactory        the factory of the threads.
+     * @return the elastic pool.
+     */
+    private static ExecutorService newElasticPool(int workers, DispatcherProperties dispatcherProperties,
+                                                  ThreadFactory threadFactory) {
+        int maxWorkers = Math.max(workers, dispatcherProperties.getMaxWorkers());
+
+        // A plain queue would never be full, so the pool wouldn't grow beyond the minimum
+        ElasticQueue queue = new ElasticQueue();
+        return new ThreadPoolExecutor(workers, maxWorkers,
+                dispatcherProperties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+                queue, threadFactory, queue);
+    }
+
+    /**
+     * Returns the executor that starts a new virtual thread for each task,
+     * or {@code null} if the runtime doesn't support virtual threads.
+     * The executor is obtained through reflection because the framework is compiled for Java 8.
+     *
+     * @return the executor of virtual threads, if any; {@code null} otherwise.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the factory of named platform threads.
+     *
+     * @param threadNamePrefix the prefix of the name of the threads.
+     * @param daemon           {@code true} if the threads are daemon threads; {@code false} otherwise.
+     * @return the factory of threads.
+     */
+    private static ThreadFactory newThreadFactory(String threadNamePrefix, boolean daemon) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        };
+    }
+
+    /**
+     * The queue of the elastic pool. It only accepts a task if an idle worker takes it right away,
+     * so the pool creates a new worker instead, and it keeps the tasks rejected by the pool once
+     * the maximum amount of workers is reached.
+     */
+    private static final class ElasticQueue extends LinkedTransferQueue<Runnable> implements RejectedExecutionHandler {
+
+        /**
+         * Hands the task to an idle worker, if any.
+         *
+         * @param task the task.
+         * @return {@code true} if an idle worker took the task; {@code false} otherwise.
+         */
+        @Override
+        public boolean offer(Runnable task) {
+            return tryTransfer(task);
+        }
+
+        /**
+         * Keeps the task until a worker is free, since all the workers are busy.
+         *
+         * @param task     the task.
+         * @param executor the pool.
+         */
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The pool of workers is stopped");
+            }
+
+            super.offer(task);
+        }
+    }
+}
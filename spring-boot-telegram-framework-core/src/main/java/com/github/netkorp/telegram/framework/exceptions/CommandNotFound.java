@@ -5,12 +5,17 @@ package com.github.netkorp.telegram.framework.exceptions;
  */
 public class CommandNotFound extends Exception {
 
+    /**
+     * The detail message of the exception.
+     */
+    public static final String MESSAGE = "This command is not valid";
+
     /**
      * Constructs a new exception with {@code null} as its detail message.
      * The cause is not initialized, and may subsequently be initialized by a
      * call to {@link #initCause}.
      */
     public CommandNotFound() {
-        super("This command is not valid");
+        super(MESSAGE);
     }
 }
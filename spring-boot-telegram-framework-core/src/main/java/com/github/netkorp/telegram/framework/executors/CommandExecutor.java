@@ -0,0 +1,491 @@
+package com.github.netkorp.telegram.framework.executors;
+
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.collections.ConcurrentLongIntMap;
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.descriptors.CommandDescriptor;
+import com.github.netkorp.telegram.framework.dispatchers.ExecutionMode;
+import com.github.netkorp.telegram.framework.dispatchers.WorkerPoolFactory;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.DispatcherProperties;
+import com.github.netkorp.telegram.framework.properties.ExecutionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provides the component for executing the commands within their limits.
+ * A command with a maximum amount of executions at the same time has a bulkhead, so an expensive command
+ * can't take every worker: the invocations beyond the limit are rejected right away.
+ * A command with a timeout is executed by another thread while the worker waits for it, and it's interrupted
+ * once the time is over, so the worker goes on with the next update even if the command ignores the interruption.
+ * Those threads are created like the workers, according to the {@link ExecutionMode} of the dispatcher, so they are
+ * as many as the workers waiting for them. An execution that doesn't start within its timeout, because the threads
+ * are still busy with executions that ignored their interruption, is cancelled like the rest.
+ * The result of a cancelled execution is discarded, and the chat is fenced until the execution really ends:
+ * the rest of its commands are rejected meanwhile, so a command never runs at the same time as a previous one
+ * of the same chat. The reserved commands of the multistage flow are not fenced, so the chat can always leave.
+ * In every case the chat is told, unless {@code telegram.execution.reply} is {@code false}.
+ * The commands without limits are executed by the worker itself.
+ */
+@Component
+public class CommandExecutor implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The prefix of the name of the threads that execute the commands with a timeout.
+     */
+    private static final String THREAD_NAME_PREFIX = "telegram-command-";
+
+    /**
+     * The properties of the limits of the execution.
+     */
+    private final ExecutionProperties executionProperties;
+
+    /**
+     * The bot for telling the chats that their command was rejected or cancelled.
+     */
+    private final TelegramBot bot;
+
+    /**
+     * The component for resolving messages.
+     */
+    private final MessageSource messageSource;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * The limits of each command, which are resolved on its first execution.
+     */
+    private final Map<Command, Limits> limits = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of cancelled executions that are still running by chat.
+     * It's only modified while holding its own lock, since the executions are rarely cancelled.
+     */
+    private final ConcurrentLongIntMap fencedChats = new ConcurrentLongIntMap();
+
+    /**
+     * The threads that execute the commands with a timeout, which are created like the workers.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new {@link CommandExecutor} instance with the properties of the limits of the execution,
+     * the properties of the dispatcher, the {@link TelegramBot} instance, the {@link MessageSource} instance
+     * and the {@link TelegramMetrics} instance.
+     *
+     * @param executionProperties  the properties of the limits of the execution.
+     * @param dispatcherProperties the properties of the dispatcher.
+     * @param bot                  the {@link TelegramBot} instance.
+     * @param messageSource        the {@link MessageSource} instance.
+     * @param metrics              the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public CommandExecutor(ExecutionProperties executionProperties,
+                           DispatcherProperties dispatcherProperties,
+                           @Lazy TelegramBot bot,
+                           @Qualifier("TelegramFrameworkMessageSource") MessageSource messageSource,
+                           TelegramMetrics metrics) {
+        this.executionProperties = executionProperties;
+        this.bot = bot;
+        this.messageSource = messageSource;
+        this.metrics = metrics;
+        this.executor = WorkerPoolFactory.create(dispatcherProperties, THREAD_NAME_PREFIX, true);
+    }
+
+    /**
+     * Executes the command within its limits. The execution is skipped if the bulkhead of the command is full
+     * or the chat is fenced, and it's cancelled if it takes longer than the timeout of the command.
+     * The exceptions thrown by the execution are thrown by this method.
+     *
+     * @param descriptor the descriptor of the command.
+     * @param chatId     the chat that invoked the command.
+     * @param execution  the execution of the command.
+     * @return {@code true} if the execution ended within the limits, so its result can be applied;
+     * {@code false} if it was skipped or cancelled.
+     */
+    public boolean execute(CommandDescriptor descriptor, long chatId, Runnable execution) {
+        Limits commandLimits = limits.computeIfAbsent(descriptor.getCommand(), command -> new Limits(descriptor));
+
+        if (!descriptor.getKind().isReserved() && fencedChats.containsKey(chatId)) {
+            commandLimits.rejected.increment();
+            metrics.commandRejected(descriptor.getCommand());
+            LOG.debug("The command {} was rejected because a cancelled command of the chat is still running",
+                    descriptor.getFullName());
+            reply("execution.pending", chatId);
+            return false;
+        }
+
+        if (commandLimits.permits != null && !commandLimits.permits.tryAcquire()) {
+            commandLimits.rejected.increment();
+            metrics.commandRejected(descriptor.getCommand());
+            LOG.debug("The command {} was rejected because it reached its maximum of executions",
+                    descriptor.getFullName());
+            reply("execution.rejected", chatId);
+            return false;
+        }
+
+        if (commandLimits.timeout == 0) {
+            try {
+                execution.run();
+            } finally {
+                commandLimits.release();
+            }
+
+            return true;
+        }
+
+        Execution timed = new Execution(execution, commandLimits, chatId);
+        Future<?> future;
+        try {
+            future = executor.submit(timed);
+        } catch (RejectedExecutionException e) {
+            commandLimits.release();
+            LOG.warn("The command {} was discarded because the bot is stopping", descriptor.getFullName());
+            return false;
+        }
+
+        return await(descriptor, commandLimits, timed, future, chatId);
+    }
+
+    /**
+     * Waits for the execution of the command, cancelling it once the timeout is over.
+     *
+     * @param descriptor    the descriptor of the command.
+     * @param commandLimits the limits of the command.
+     * @param timed         the execution of the command.
+     * @param future        the result of the execution.
+     * @param chatId        the chat that invoked the command.
+     * @return {@code true} if the execution ended in time; {@code false} if it was cancelled.
+     */
+    private boolean await(CommandDescriptor descriptor, Limits commandLimits, Execution timed, Future<?> future,
+                          long chatId) {
+        try {
+            try {
+                future.get(commandLimits.timeout, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                if (!timed.abandon()) {
+                    // The execution ended right after the timeout, so its result is still valid
+                    future.get();
+                    return true;
+                }
+
+                future.cancel(true);
+                commandLimits.timedOut.increment();
+                metrics.commandTimedOut(descriptor.getCommand());
+                LOG.warn("The command {} was cancelled after {} ms", descriptor.getFullName(),
+                        TimeUnit.NANOSECONDS.toMillis(commandLimits.timeout));
+                reply("execution.timed-out", chatId);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            if (timed.abandon()) {
+                future.cancel(true);
+            }
+
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (CancellationException e) {
+            // The bot is stopping
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Fences the chat until a cancelled execution really ends.
+     *
+     * @param chatId the chat identification.
+     */
+    private void fence(long chatId) {
+        synchronized (fencedChats) {
+            fencedChats.put(chatId, fencedChats.get(chatId, 0) + 1);
+        }
+    }
+
+    /**
+     * Lifts one fence of the chat, once a cancelled execution really ended.
+     *
+     * @param chatId the chat identification.
+     */
+    private void unfence(long chatId) {
+        synchronized (fencedChats) {
+            int count = fencedChats.get(chatId, 0);
+            if (count > 1) {
+                fencedChats.put(chatId, count - 1);
+            } else {
+                fencedChats.remove(chatId);
+            }
+        }
+    }
+
+    /**
+     * Tells the chat why its command was not executed, if the replies are enabled.
+     *
+     * @param key    the key of the message.
+     * @param chatId the chat identification.
+     */
+    private void reply(String key, long chatId) {
+        if (executionProperties.isReply()) {
+            bot.sendMessage(messageSource.getMessage(key, null, LocaleContextHolder.getLocale()), chatId);
+        }
+    }
+
+    /**
+     * Returns the amount of invocations of the command that were rejected because of its bulkhead.
+     *
+     * @param command the command.
+     * @return the amount of rejected invocations.
+     */
+    public long getRejectedCount(Command command) {
+        Limits commandLimits = limits.get(command);
+        return commandLimits == null ? 0 : commandLimits.rejected.sum();
+    }
+
+    /**
+     * Returns the amount of executions of the command that were cancelled because of its timeout.
+     *
+     * @param command the command.
+     * @return the amount of cancelled executions.
+     */
+    public long getTimedOutCount(Command command) {
+        Limits commandLimits = limits.get(command);
+        return commandLimits == null ? 0 : commandLimits.timedOut.sum();
+    }
+
+    /**
+     * Returns {@code true} if the chat has a cancelled execution that is still running.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat is fenced; {@code false} otherwise.
+     */
+    public boolean isFenced(long chatId) {
+        return fencedChats.containsKey(chatId);
+    }
+
+    /**
+     * Interrupts the executions of the commands with a timeout.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Contains an execution of a command with a timeout, which is run by another thread.
+     * Either the execution ends or the worker abandons it, and only the first one of them wins.
+     */
+    private final class Execution implements Runnable {
+
+        /**
+         * The execution has not started yet.
+         */
+        private static final int PENDING = 0;
+
+        /**
+         * The execution is running.
+         */
+        private static final int RUNNING = 1;
+
+        /**
+         * The execution ended before being abandoned.
+         */
+        private static final int ENDED = 2;
+
+        /**
+         * The execution was abandoned by the worker.
+         */
+        private static final int ABANDONED = 3;
+
+        /**
+         * The execution of the command.
+         */
+        private final Runnable execution;
+
+        /**
+         * The limits of the command.
+         */
+        private final Limits commandLimits;
+
+        /**
+         * The chat that invoked the command.
+         */
+        private final long chatId;
+
+        /**
+         * The state of the execution.
+         */
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        /**
+         * Constructs a new {@link Execution} instance.
+         *
+         * @param execution     the execution of the command.
+         * @param commandLimits the limits of the command.
+         * @param chatId        the chat that invoked the command.
+         */
+        private Execution(Runnable execution, Limits commandLimits, long chatId) {
+            this.execution = execution;
+            this.commandLimits = commandLimits;
+            this.chatId = chatId;
+        }
+
+        /**
+         * Runs the execution, unless it was abandoned before starting. The permit is given back once it ends,
+         * and the chat is unfenced if it was abandoned meanwhile.
+         */
+        @Override
+        public void run() {
+            if (!state.compareAndSet(PENDING, RUNNING)) {
+                return;
+            }
+
+            try {
+                execution.run();
+            } finally {
+                commandLimits.release();
+                if (!state.compareAndSet(RUNNING, ENDED)) {
+                    unfence(chatId);
+                    LOG.debug("A cancelled execution of the chat {} ended", chatId);
+                }
+            }
+        }
+
+        /**
+         * Abandons the execution. If it's running the chat is fenced until it ends,
+         * and if it didn't start its permit is given back.
+         *
+         * @return {@code true} if the execution was abandoned; {@code false} if it already ended.
+         */
+        private boolean abandon() {
+            // The fence is set before the state changes, so the execution can't lift it before it's set
+            fence(chatId);
+            if (state.compareAndSet(RUNNING, ABANDONED)) {
+                return true;
+            }
+
+            unfence(chatId);
+            if (state.compareAndSet(PENDING, ABANDONED)) {
+                commandLimits.release();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Contains the limits of the execution of a command and the amount of times they were reached.
+     */
+    private final class Limits {
+
+        /**
+         * The maximum time of an execution in nanoseconds, or {@code 0} if there is no limit.
+         */
+        private final long timeout;
+
+        /**
+         * The permits of the executions at the same time, or {@code null} if there is no limit.
+         */
+        private final Semaphore permits;
+
+        /**
+         * The amount of invocations rejected because of the bulkhead.
+         */
+        private final LongAdder rejected = new LongAdder();
+
+        /**
+         * The amount of executions cancelled because of the timeout.
+         */
+        private final LongAdder timedOut = new LongAdder();
+
+        /**
+         * Constructs a new {@link Limits} instance with the limits of the command.
+         * The properties of the command take precedence over its annotation, and the annotation over the defaults.
+         * The defaults don't apply to the reserved commands of the multistage flow, so a chat can always leave.
+         *
+         * @param descriptor the descriptor of the command.
+         */
+        private Limits(CommandDescriptor descriptor) {
+            ExecutionProperties.Limits configured = findConfiguredLimits(descriptor);
+            boolean reserved = descriptor.getKind().isReserved();
+
+            Duration commandTimeout = configured == null ? null : configured.getTimeout();
+            if (commandTimeout == null) {
+                commandTimeout = descriptor.getTimeout() > 0 ? Duration.ofMillis(descriptor.getTimeout())
+                        : reserved ? Duration.ZERO : executionProperties.getTimeout();
+            }
+
+            Integer commandMaxConcurrent = configured == null ? null : configured.getMaxConcurrent();
+            if (commandMaxConcurrent == null) {
+                commandMaxConcurrent = descriptor.getMaxConcurrent() > 0 ? descriptor.getMaxConcurrent()
+                        : reserved ? 0 : executionProperties.getMaxConcurrent();
+            }
+
+            this.timeout = commandTimeout == null || commandTimeout.isNegative() ? 0 : commandTimeout.toNanos();
+            this.permits = commandMaxConcurrent > 0 ? new Semaphore(commandMaxConcurrent) : null;
+        }
+
+        /**
+         * Returns the limits of the command set in the properties by any of its names, if any; {@code null} otherwise.
+         *
+         * @param descriptor the descriptor of the command.
+         * @return the limits of the command in the properties.
+         */
+        private ExecutionProperties.Limits findConfiguredLimits(CommandDescriptor descriptor) {
+            for (String fullName : descriptor.getFullNames()) {
+                ExecutionProperties.Limits configured = executionProperties.getCommands().get(fullName.substring(1));
+                if (configured != null) {
+                    return configured;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Gives back the permit of an execution, if the command has a bulkhead.
+         */
+        private void release() {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+}
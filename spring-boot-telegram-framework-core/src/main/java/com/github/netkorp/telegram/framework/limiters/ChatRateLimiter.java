@@ -0,0 +1,249 @@
+package com.github.netkorp.telegram.framework.limiters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of the updates of each chat as a token bucket, keeping only the theoretical arrival time
+ * of the next update per chat (the generic cell rate algorithm). The chats are distributed into segments,
+ * each one being an open-addressing table guarded by its own monitor, so the state of a chat takes two
+ * primitive values. The chats whose bucket is full again are evicted when a segment runs out of space.
+ */
+public final class ChatRateLimiter {
+
+    /**
+     * The chat identification that marks a free slot in the tables. This chat is never limited.
+     */
+    private static final long FREE_KEY = 0L;
+
+    /**
+     * The time between two updates at the sustained rate, in nanoseconds.
+     */
+    private final long interval;
+
+    /**
+     * How far the theoretical arrival time can be ahead of the current time, which allows the bursts.
+     */
+    private final long tolerance;
+
+    /**
+     * The segments in which the chats are distributed.
+     */
+    private final Segment[] segments;
+
+    /**
+     * Constructs a new {@link ChatRateLimiter} instance with the rate and the burst size of every chat.
+     *
+     * @param updatesPerSecond the sustained amount of updates per second of a chat.
+     * @param burst            the amount of updates that a chat can send at once.
+     * @param concurrencyLevel the amount of segments. It's rounded up to a power of two.
+     */
+    public ChatRateLimiter(double updatesPerSecond, int burst, int concurrencyLevel) {
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / updatesPerSecond));
+        this.tolerance = interval * (Math.max(1, burst) - 1);
+
+        int segmentCount = concurrencyLevel <= 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(16);
+        }
+    }
+
+    /**
+     * Admits an update of the chat if the chat is within its rate, or if the update can be delayed
+     * no longer than the maximum delay.
+     *
+     * @param chatId   the chat identification.
+     * @param now      the current time, in nanoseconds.
+     * @param maxDelay the maximum time that the update can be delayed, in nanoseconds.
+     * @return the time to wait before processing the update, in nanoseconds, if it's admitted;
+     * a negative number whose absolute value is the time until the chat is within its rate otherwise.
+     */
+    public long acquire(long chatId, long now, long maxDelay) {
+        if (chatId == FREE_KEY) {
+            return 0;
+        }
+
+        long hash = hash(chatId);
+        return segments[(int) hash & (segments.length - 1)].acquire(chatId, hash, now, maxDelay);
+    }
+
+    /**
+     * Marks the chat as notified about the limit, returning {@code true} if it was not notified since
+     * its last admitted update.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat has to be notified; {@code false} otherwise.
+     */
+    public boolean markNotified(long chatId) {
+        if (chatId == FREE_KEY) {
+            return false;
+        }
+
+        long hash = hash(chatId);
+        return segments[(int) hash & (segments.length - 1)].markNotified(chatId, hash);
+    }
+
+    /**
+     * Returns the amount of chats whose state is kept.
+     *
+     * @return the amount of chats.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the mixed hash of the chat identification. The low bits choose the segment and the high bits the slot.
+     *
+     * @param key the chat identification.
+     * @return the hash of the chat.
+     */
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * An open-addressing table with linear probing of the chats and their theoretical arrival times.
+     */
+    private final class Segment {
+
+        /**
+         * The chat identifications. The free slots contain {@link #FREE_KEY}.
+         */
+        private long[] keys;
+
+        /**
+         * The theoretical arrival time of the next update of each chat.
+         */
+        private long[] arrivals;
+
+        /**
+         * Indicates whether each chat was notified about the limit since its last admitted update.
+         */
+        private boolean[] notified;
+
+        /**
+         * The amount of chats in the segment.
+         */
+        private int size;
+
+        private Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        private synchronized long acquire(long chatId, long hash, long now, long maxDelay) {
+            int index = indexOf(chatId, hash);
+            if (index < 0) {
+                index = insert(chatId, hash, now);
+            }
+
+            long arrival = arrivals[index] - now < 0 ? now : arrivals[index];
+            long wait = arrival - now - tolerance;
+
+            if (wait > maxDelay) {
+                return -wait;
+            }
+
+            arrivals[index] = arrival + interval;
+            notified[index] = false;
+            return Math.max(0, wait);
+        }
+
+        private synchronized boolean markNotified(long chatId, long hash) {
+            int index = indexOf(chatId, hash);
+            if (index < 0 || notified[index]) {
+                return false;
+            }
+
+            notified[index] = true;
+            return true;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Returns the slot of the chat, or {@code -1} if it's not present.
+         */
+        private int indexOf(long chatId, long hash) {
+            int mask = keys.length - 1;
+            int index = (int) (hash >>> 32) & mask;
+
+            while (keys[index] != FREE_KEY) {
+                if (keys[index] == chatId) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        /**
+         * Adds the chat with a full bucket, making room for it if needed, and returns its slot.
+         */
+        private int insert(long chatId, long hash, long now) {
+            // The load factor is kept under 0.5 for short probe sequences
+            if ((size + 1) * 2 > keys.length) {
+                rebuild(now);
+            }
+
+            int mask = keys.length - 1;
+            int index = (int) (hash >>> 32) & mask;
+            while (keys[index] != FREE_KEY) {
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = chatId;
+            arrivals[index] = now;
+            size++;
+            return index;
+        }
+
+        /**
+         * Evicts the chats whose bucket is full again and doubles the capacity if the segment is still half full.
+         */
+        private void rebuild(long now) {
+            long[] oldKeys = keys;
+            long[] oldArrivals = arrivals;
+            boolean[] oldNotified = notified;
+
+            int live = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE_KEY && oldArrivals[i] - now > 0) {
+                    live++;
+                }
+            }
+
+            allocate((live + 1) * 2 > oldKeys.length / 2 ? oldKeys.length * 2 : oldKeys.length);
+            int mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE_KEY && oldArrivals[i] - now > 0) {
+                    int index = (int) (hash(oldKeys[i]) >>> 32) & mask;
+                    while (keys[index] != FREE_KEY) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    arrivals[index] = oldArrivals[i];
+                    notified[index] = oldNotified[i];
+                    size++;
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            arrivals = new long[capacity];
+            notified = new boolean[capacity];
+            size = 0;
+        }
+    }
+}
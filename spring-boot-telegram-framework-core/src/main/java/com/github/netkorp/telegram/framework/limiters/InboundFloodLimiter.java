@@ -0,0 +1,205 @@
+package com.github.netkorp.telegram.framework.limiters;
+
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.FloodProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Provides the component for protecting the bot from the chats that send too many updates.
+ * It's the first step of the update pipeline: the updates of each chat are limited by a token bucket
+ * before being dispatched, and the updates that exceed the limit are dropped, delayed or answered
+ * with a request to slow down, according to the {@link FloodProperties.Policy}.
+ */
+@Component
+public class InboundFloodLimiter implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The properties of the flood protection.
+     */
+    private final FloodProperties floodProperties;
+
+    /**
+     * The limiter of the chats. It's {@code null} if the protection is disabled.
+     */
+    private final ChatRateLimiter limiter;
+
+    /**
+     * The thread that processes the delayed updates. It's {@code null} unless the policy is {@link FloodProperties.Policy#DELAY}.
+     */
+    private final ScheduledExecutorService delayer;
+
+    /**
+     * The bot for asking the chats to slow down.
+     */
+    private final TelegramBot bot;
+
+    /**
+     * The component for resolving messages.
+     */
+    private final MessageSource messageSource;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * The amount of updates that exceeded the limit.
+     */
+    private final LongAdder limited = new LongAdder();
+
+    /**
+     * The amount of updates that were delayed.
+     */
+    private final LongAdder delayed = new LongAdder();
+
+    /**
+     * Constructs a new {@link InboundFloodLimiter} instance with the properties of the flood protection,
+     * the {@link TelegramBot} instance, the {@link MessageSource} instance and the {@link TelegramMetrics} instance.
+     *
+     * @param floodProperties the properties of the flood protection.
+     * @param bot             the {@link TelegramBot} instance.
+     * @param messageSource   the {@link MessageSource} instance.
+     * @param metrics         the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public InboundFloodLimiter(FloodProperties floodProperties,
+                               @Lazy TelegramBot bot,
+                               @Qualifier("TelegramFrameworkMessageSource") MessageSource messageSource,
+                               TelegramMetrics metrics) {
+        this.floodProperties = floodProperties;
+        this.bot = bot;
+        this.messageSource = messageSource;
+        this.metrics = metrics;
+
+        if (!floodProperties.isEnabled()) {
+            this.limiter = null;
+            this.delayer = null;
+            return;
+        }
+
+        this.limiter = new ChatRateLimiter(floodProperties.getRate(), floodProperties.getBurst(),
+                Runtime.getRuntime().availableProcessors() * 4);
+
+        if (floodProperties.getPolicy() == FloodProperties.Policy.DELAY) {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "telegram-flood-delayer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            this.delayer = executor;
+        } else {
+            this.delayer = null;
+        }
+    }
+
+    /**
+     * Hands the update to the next step of the pipeline if its chat is within the limit.
+     * Otherwise the update is dropped, delayed or answered according to the policy.
+     *
+     * @param update the received update.
+     * @param next   the next step of the pipeline.
+     */
+    public void submit(Update update, Consumer<Update> next) {
+        if (limiter == null) {
+            next.accept(update);
+            return;
+        }
+
+        long chatId = UpdateDispatcher.getChatId(update);
+        long maxDelay = delayer == null ? 0 : floodProperties.getMaxDelay().toNanos();
+        long wait = limiter.acquire(chatId, System.nanoTime(), maxDelay);
+
+        if (wait == 0) {
+            next.accept(update);
+            return;
+        }
+
+        if (wait > 0) {
+            delay(update, next, wait);
+            return;
+        }
+
+        limited.increment();
+        metrics.updateRejected(TelegramMetrics.Rejection.FLOOD);
+        if (floodProperties.getPolicy() == FloodProperties.Policy.REPLY && limiter.markNotified(chatId)) {
+            bot.sendMessage(messageSource.getMessage("flood.slow-down", null, LocaleContextHolder.getLocale()), chatId);
+        }
+    }
+
+    /**
+     * Hands the update to the next step of the pipeline once the wait is over.
+     *
+     * @param update the received update.
+     * @param next   the next step of the pipeline.
+     * @param wait   the time to wait, in nanoseconds.
+     */
+    private void delay(Update update, Consumer<Update> next, long wait) {
+        delayed.increment();
+
+        try {
+            delayer.schedule(() -> next.accept(update), wait, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("The update {} was discarded because the bot is stopping", update.getUpdateId());
+        }
+    }
+
+    /**
+     * Returns the amount of updates that exceeded the limit and were not processed.
+     *
+     * @return the amount of limited updates.
+     */
+    public long getLimitedCount() {
+        return limited.sum();
+    }
+
+    /**
+     * Returns the amount of updates that were delayed.
+     *
+     * @return the amount of delayed updates.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * Returns the amount of chats whose state is kept.
+     *
+     * @return the amount of chats.
+     */
+    public int getTrackedChatCount() {
+        return limiter == null ? 0 : limiter.size();
+    }
+
+    /**
+     * Stops the processing of the delayed updates.
+     */
+    @Override
+    public void destroy() {
+        if (delayer != null) {
+            delayer.shutdownNow();
+        }
+    }
+}
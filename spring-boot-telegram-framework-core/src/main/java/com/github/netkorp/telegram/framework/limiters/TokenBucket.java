@@ -0,0 +1,96 @@
+package com.github.netkorp.telegram.framework.limiters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of an action. The bucket is refilled at a constant rate up to its burst size
+ * and every action takes a token from it. When the bucket is empty the tokens are borrowed from the future,
+ * so the caller knows how long it has to wait before acting.
+ */
+public final class TokenBucket {
+
+    /**
+     * The tokens added to the bucket per nanosecond.
+     */
+    private final double tokensPerNano;
+
+    /**
+     * The maximum amount of tokens in the bucket.
+     */
+    private final double burst;
+
+    /**
+     * The current amount of tokens. It's negative when tokens were borrowed from the future.
+     */
+    private double tokens;
+
+    /**
+     * The time of the last refill, in nanoseconds.
+     */
+    private long lastRefill;
+
+    /**
+     * Constructs a new full {@link TokenBucket} instance with the rate and the burst size.
+     *
+     * @param tokensPerSecond the tokens added to the bucket per second.
+     * @param burst           the maximum amount of tokens in the bucket.
+     * @param now             the current time, in nanoseconds.
+     */
+    public TokenBucket(double tokensPerSecond, double burst, long now) {
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes a token from the bucket and returns how long the caller has to wait before acting.
+     *
+     * @param now the current time, in nanoseconds.
+     * @return the time to wait, in nanoseconds. It's {@code 0} if a token was available.
+     */
+    public synchronized long reserve(long now) {
+        refill(now);
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    /**
+     * Takes a token from the bucket if one is available.
+     *
+     * @param now the current time, in nanoseconds.
+     * @return {@code true} if a token was taken; {@code false} otherwise.
+     */
+    public synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Returns how long it takes for the bucket to be full again.
+     *
+     * @param now the current time, in nanoseconds.
+     * @return the time until the bucket is full, in nanoseconds. It's {@code 0} if it's full.
+     */
+    public synchronized long timeUntilFull(long now) {
+        refill(now);
+        return tokens >= burst ? 0 : (long) Math.ceil((burst - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Adds the tokens accumulated since the last refill.
+     *
+     * @param now the current time, in nanoseconds.
+     */
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
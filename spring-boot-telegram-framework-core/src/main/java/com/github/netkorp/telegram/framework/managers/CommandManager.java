@@ -1,21 +1,41 @@
 package com.github.netkorp.telegram.framework.managers;
 
 import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
+import com.github.netkorp.telegram.framework.collections.ConcurrentLongIntMap;
 import com.github.netkorp.telegram.framework.commands.interfaces.Command;
 import com.github.netkorp.telegram.framework.commands.interfaces.HelpCommand;
 import com.github.netkorp.telegram.framework.commands.interfaces.MultistageCommand;
 import com.github.netkorp.telegram.framework.commands.multistage.MultistageCloseCommand;
 import com.github.netkorp.telegram.framework.commands.multistage.MultistageDoneCommand;
+import com.github.netkorp.telegram.framework.descriptors.CommandDescriptor;
 import com.github.netkorp.telegram.framework.properties.CommandProperties;
 import com.github.netkorp.telegram.framework.exceptions.CommandNotActive;
 import com.github.netkorp.telegram.framework.exceptions.CommandNotFound;
+import com.github.netkorp.telegram.framework.routers.CommandRouter;
+import com.github.netkorp.telegram.framework.sessions.SessionStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -25,17 +45,35 @@ import java.util.Optional;
  * Provides the component for managing all of the commands available in the bot.
  * It includes the management of non-secure commands, active command, basic commands and
  * those commands that are involved in the multistage command flow.
+ * It's possible to provide another implementation by declaring a {@link CommandManager} bean.
  */
 @SuppressWarnings("WeakerAccess")
 @Component
+@ConditionalOnMissingBean(CommandManager.class)
 public class CommandManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     /**
-     * The list of the available commands into a map to get a quick access from its name.
+     * The router of the available commands to get a quick access from their names, ignoring case.
      */
-    private final Map<String, Command> commandsByFullName;
+    private final CommandRouter<Command> commandRouter;
+
+    /**
+     * The descriptors of the available commands, in the order in which they were added.
+     */
+    private final Map<Command, CommandDescriptor> descriptors;
+
+    /**
+     * The descriptors of the available commands by their index.
+     */
+    private final List<CommandDescriptor> indexedDescriptors;
+
+    /**
+     * The descriptors of the available commands by the class behind them, so the instance behind a lazy proxy
+     * is also resolved. The classes of several commands are mapped to {@code null}.
+     */
+    private final Map<Class<?>, CommandDescriptor> classDescriptors;
 
     /**
      * The list of the available commands.
@@ -48,9 +86,16 @@ public class CommandManager {
     private final List<Command> nonSecureCommands;
 
     /**
-     * The command that is active for each user.
+     * The storage of the command that is active for each user.
      */
-    private final Map<Long, MultistageCommand> activeCommand;
+    private final SessionStore activeCommand;
+
+    /**
+     * The index of the descriptor of the command that is active for each user, so the active command is resolved
+     * without looking up its name. The {@link #activeCommand} storage is only read for the chats that are not here,
+     * such as the sessions restored after a restart.
+     */
+    private final ConcurrentLongIntMap activeIndexes;
 
     /**
      * The properties of the commands.
@@ -76,24 +121,118 @@ public class CommandManager {
     private HelpCommand helpCommand;
 
     /**
-     * Constructs a new {@link CommandManager} instance with the list of available {@link Command}
-     * and the properties of the commands.
+     * Constructs a new {@link CommandManager} instance with the commands of the bean factory,
+     * the properties of the commands and the storage of the active commands.
+     * The commands whose bean is lazy, for instance because their class is annotated with
+     * {@link org.springframework.context.annotation.Lazy}, are registered through their class and
+     * instantiated on their first invocation.
      *
-     * @param commands          the list of available {@link Command}.
+     * @param beanFactory       the bean factory that contains the {@link Command} beans.
      * @param commandProperties the properties of the commands.
+     * @param sessionStore      the storage of the active commands.
      */
     @Autowired
-    public CommandManager(List<Command> commands, CommandProperties commandProperties) {
-        this.commandsByFullName = new HashMap<>();
+    public CommandManager(ConfigurableListableBeanFactory beanFactory, CommandProperties commandProperties,
+                          SessionStore sessionStore) {
+        this(getCommands(beanFactory), commandProperties, sessionStore);
+    }
+
+    /**
+     * Constructs a new {@link CommandManager} instance with the list of available {@link Command},
+     * the properties of the commands and the storage of the active commands.
+     *
+     * @param commands          the list of available {@link Command}.
+     * @param commandProperties the properties of the commands.
+     * @param sessionStore      the storage of the active commands.
+     */
+    public CommandManager(List<Command> commands, CommandProperties commandProperties, SessionStore sessionStore) {
+        this.descriptors = new LinkedHashMap<>();
+        this.indexedDescriptors = new ArrayList<>();
+        this.classDescriptors = new HashMap<>();
         this.commands = new LinkedList<>();
         this.nonSecureCommands = new LinkedList<>();
 
-        this.activeCommand = new HashMap<>();
+        this.activeCommand = sessionStore;
+        this.activeIndexes = new ConcurrentLongIntMap();
         this.commandProperties = commandProperties;
 
+        CommandRouter.Builder<Command> routes = CommandRouter.builder();
         commands.stream()
-                .filter(item -> item.getClass().isAnnotationPresent(TelegramCommand.class))
-                .forEach(this::addCommand);
+                .filter(CommandDescriptor::isDescribed)
+                .forEach(command -> addCommand(command, routes));
+
+        this.commandRouter = routes.build();
+    }
+
+    /**
+     * Returns the commands of the bean factory, sorted by their order. The lazy commands are replaced by a proxy
+     * that instantiates them on the first invocation, so they are not created when the bot starts.
+     *
+     * @param beanFactory the bean factory that contains the {@link Command} beans.
+     * @return the commands.
+     */
+    private static List<Command> getCommands(ConfigurableListableBeanFactory beanFactory) {
+        String[] beanNames = BeanFactoryUtils.beanNamesForTypeIncludingAncestors(beanFactory, Command.class,
+                true, false);
+        List<Command> commands = new ArrayList<>(beanNames.length);
+        Map<Command, Integer> order = new IdentityHashMap<>(beanNames.length);
+
+        for (String beanName : beanNames) {
+            Class<?> type = beanFactory.getType(beanName);
+            Command command;
+            if (type != null && isLazy(beanFactory, beanName)) {
+                command = lazyCommand(beanFactory, beanName, type);
+                order.put(command, OrderUtils.getOrder(type, Ordered.LOWEST_PRECEDENCE));
+            } else {
+                command = beanFactory.getBean(beanName, Command.class);
+                order.put(command, command instanceof Ordered ? ((Ordered) command).getOrder()
+                        : OrderUtils.getOrder(AopUtils.getTargetClass(command), Ordered.LOWEST_PRECEDENCE));
+            }
+
+            commands.add(command);
+        }
+
+        commands.sort(Comparator.comparing(order::get));
+        return commands;
+    }
+
+    /**
+     * Returns {@code true} if the command bean is a singleton that is not created until it's requested.
+     *
+     * @param beanFactory the bean factory that contains the bean.
+     * @param beanName    the name of the bean.
+     * @return {@code true} if the command is lazy; {@code false} otherwise.
+     */
+    private static boolean isLazy(ConfigurableListableBeanFactory beanFactory, String beanName) {
+        if (!beanFactory.containsBeanDefinition(beanName) || beanFactory.containsSingleton(beanName)) {
+            return false;
+        }
+
+        BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+        return definition.isSingleton() && definition.isLazyInit();
+    }
+
+    /**
+     * Returns the proxy of a lazy command. The proxy extends the class of the command, so the command is still
+     * an instance of its class, unless the class is final. In that case the proxy implements its interfaces.
+     *
+     * @param beanFactory the bean factory that contains the bean.
+     * @param beanName    the name of the bean.
+     * @param type        the class of the command.
+     * @return the proxy of the command.
+     */
+    private static Command lazyCommand(ConfigurableListableBeanFactory beanFactory, String beanName, Class<?> type) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(new LazyCommandTargetSource(beanFactory, beanName, type));
+
+        if (Modifier.isFinal(type.getModifiers())) {
+            proxyFactory.setInterfaces(ClassUtils.getAllInterfacesForClass(type, beanFactory.getBeanClassLoader()));
+        } else {
+            proxyFactory.setProxyTargetClass(true);
+        }
+
+        LOG.debug("The command {} will be instantiated on its first invocation", beanName);
+        return (Command) proxyFactory.getProxy(beanFactory.getBeanClassLoader());
     }
 
     /**
@@ -101,43 +240,68 @@ public class CommandManager {
      * {@link #closeCommand}, {@link #doneCommand} and {@link #helpCommand}.
      *
      * @param command the command to be added.
-     * @see #commandsByFullName
+     * @param routes  the routes of the commands added so far.
+     * @see #commandRouter
+     * @see #descriptors
      * @see #commands
      * @see #nonSecureCommands
      * @see #closeCommand
      * @see #doneCommand
      * @see #helpCommand
      */
-    private void addCommand(Command command) {
+    private void addCommand(Command command, CommandRouter.Builder<Command> routes) {
+        CommandDescriptor descriptor = CommandDescriptor.of(command, commandProperties.getNonSecure(),
+                this.descriptors.size());
+
         // Registering the command for each name
-        for (String name : getCommandNames(command)) {
+        for (int i = 0; i < descriptor.getNames().size(); i++) {
 
-            if (!isValidCommandName(name)) {
+            if (!isValidCommandName(descriptor.getNames().get(i), routes)) {
                 LOG.warn(String.format("Command %s has a duplicate or empty name. It will be discarded.",
-                        command.getClass().getSimpleName()));
+                        ClassUtils.getUserClass(AopUtils.getTargetClass(command)).getSimpleName()));
                 break;
             }
 
-            this.commandsByFullName.put(getCommandFullName(name), command);
+            routes.add(descriptor.getFullNames().get(i), command);
 
-            if (!this.commands.contains(command)) {
-                this.commands.add(command);
+            if (!this.descriptors.containsKey(command)) {
+                registerDescriptor(descriptor);
             }
+        }
+    }
 
-            // Just for keeping a reference of the non-secure commands
-            if ((commandProperties.getNonSecure().contains(name)
-                    || !command.getClass().getAnnotation(TelegramCommand.class).secure())
-                    && !this.nonSecureCommands.contains(command)) {
-                this.nonSecureCommands.add(command);
-            }
+    /**
+     * Registers the descriptor of a command that has at least one valid name.
+     *
+     * @param descriptor the descriptor of the command.
+     */
+    private void registerDescriptor(CommandDescriptor descriptor) {
+        Command command = descriptor.getCommand();
 
-            if (command instanceof MultistageCloseCommand) {
+        this.descriptors.put(command, descriptor);
+        this.indexedDescriptors.add(descriptor);
+        this.commands.add(command);
+
+        Class<?> commandClass = ClassUtils.getUserClass(AopUtils.getTargetClass(command));
+        this.classDescriptors.put(commandClass, this.classDescriptors.containsKey(commandClass) ? null : descriptor);
+
+        // Just for keeping a reference of the non-secure commands
+        if (!descriptor.isSecure()) {
+            this.nonSecureCommands.add(command);
+        }
+
+        switch (descriptor.getKind()) {
+            case CLOSE:
                 closeCommand = (MultistageCloseCommand) command;
-            } else if (command instanceof MultistageDoneCommand) {
+                break;
+            case DONE:
                 doneCommand = (MultistageDoneCommand) command;
-            } else if (command instanceof HelpCommand) {
+                break;
+            case HELP:
                 helpCommand = (HelpCommand) command;
-            }
+                break;
+            default:
+                break;
         }
     }
 
@@ -145,10 +309,11 @@ public class CommandManager {
      * Returns {@code true} if the command name is a valid name for a command.
      *
      * @param commandName the name of the command to validate.
+     * @param routes      the routes of the commands added so far.
      * @return {@code true} if the command name is a valid name for a command; {@code false} otherwise.
      */
-    private boolean isValidCommandName(String commandName) {
-        return !commandName.trim().isEmpty() && !this.commandsByFullName.containsKey(commandName);
+    private boolean isValidCommandName(String commandName, CommandRouter.Builder<Command> routes) {
+        return !commandName.trim().isEmpty() && !routes.contains(getCommandFullName(commandName));
     }
 
     /**
@@ -158,7 +323,33 @@ public class CommandManager {
      * @return {@code true} if the command is non-secure; {@code false} otherwise.
      */
     public boolean isNonSecureCommand(Command command) {
-        return this.nonSecureCommands.contains(command);
+        CommandDescriptor descriptor = this.descriptors.get(command);
+        return descriptor != null && !descriptor.isSecure();
+    }
+
+    /**
+     * Returns the descriptor of the command, if the command is available; {@code null} otherwise.
+     * The instance behind the proxy of a lazy command is resolved to the descriptor of its proxy.
+     *
+     * @param command the command.
+     * @return the descriptor of the command, if any; {@code null} otherwise.
+     */
+    public CommandDescriptor getDescriptor(Command command) {
+        CommandDescriptor descriptor = this.descriptors.get(command);
+        if (descriptor == null && command != null) {
+            descriptor = this.classDescriptors.get(ClassUtils.getUserClass(AopUtils.getTargetClass(command)));
+        }
+
+        return descriptor;
+    }
+
+    /**
+     * Returns the descriptors of the available commands, in the same order as {@link #getAvailableCommands()}.
+     *
+     * @return the descriptors of the available commands.
+     */
+    public Collection<CommandDescriptor> getDescriptors() {
+        return Collections.unmodifiableCollection(this.descriptors.values());
     }
 
     /**
@@ -167,7 +358,9 @@ public class CommandManager {
      *
      * @param command the command from which the names will be identified.
      * @return the names of the command.
+     * @deprecated it reflects on the annotation on every call; use {@link CommandDescriptor#getNames()} instead.
      */
+    @Deprecated
     public static String[] getCommandNames(Command command) {
         return command.getClass().getAnnotation(TelegramCommand.class).name();
     }
@@ -187,7 +380,9 @@ public class CommandManager {
      *
      * @param command the command from which the names will be identified.
      * @return the names of the command.
+     * @deprecated it reflects on the annotation on every call; use {@link CommandDescriptor#getFullNames()} instead.
      */
+    @Deprecated
     public static List<String> getCommandFullNames(Command command) {
         List<String> commandFullNames = new LinkedList<>();
 
@@ -199,18 +394,52 @@ public class CommandManager {
     }
 
     /**
-     * Returns the {@link Command} instance from the command name.
+     * Returns the {@link Command} instance from the command name, ignoring case.
      *
      * @param command the command name.
      * @return the {@link Command} instance.
      * @throws CommandNotFound if the name is not related to any commands.
      */
     public Command getCommand(String command) throws CommandNotFound {
-        if (!this.commandsByFullName.containsKey(command)) {
+        Command found = findCommand(command, 0, command.length());
+        if (found == null) {
             throw new CommandNotFound();
         }
 
-        return this.commandsByFullName.get(command);
+        return found;
+    }
+
+    /**
+     * Returns the {@link Command} instance whose name is in the region of the text, ignoring case.
+     * If the prefix matching is enabled, an unambiguous prefix of the name is enough.
+     * The name is not copied and nothing is thrown, so it's suitable for the text of the messages.
+     *
+     * @param text  the text that contains the command name, including the slash (/).
+     * @param start the position in which the command name starts.
+     * @param end   the position after the command name.
+     * @return the {@link Command} instance, if any; {@code null} otherwise.
+     */
+    public Command findCommand(CharSequence text, int start, int end) {
+        if (commandProperties.isPrefixMatching()) {
+            return this.commandRouter.findByPrefix(text, start, end);
+        }
+
+        return this.commandRouter.find(text, start, end);
+    }
+
+    /**
+     * Returns the names of the commands that are close to the name in the region of the text,
+     * sorted from the closest one.
+     *
+     * @param text  the text that contains the command name, including the slash (/).
+     * @param start the position in which the command name starts.
+     * @param end   the position after the command name.
+     * @param limit the maximum amount of names.
+     * @return the names of the commands, including the slash (/).
+     * @see CommandProperties#getSuggestionDistance()
+     */
+    public List<String> suggestCommands(CharSequence text, int start, int end, int limit) {
+        return this.commandRouter.suggest(text, start, end, commandProperties.getSuggestionDistance(), limit);
     }
 
     /**
@@ -218,9 +447,17 @@ public class CommandManager {
      *
      * @param idChat  the chat identification of the user for whom the multistage command will be active.
      * @param command the command to activate.
+     * @throws IllegalArgumentException if the command is not available.
      */
-    public void setActiveCommand(final Long idChat, final MultistageCommand command) {
-        this.activeCommand.put(idChat, command);
+    public void setActiveCommand(final long idChat, final MultistageCommand command) {
+        CommandDescriptor descriptor = getDescriptor(command);
+        if (descriptor == null) {
+            throw new IllegalArgumentException(String.format("%s is not an available command",
+                    ClassUtils.getUserClass(AopUtils.getTargetClass(command)).getName()));
+        }
+
+        this.activeCommand.put(idChat, descriptor.getFullName());
+        this.activeIndexes.put(idChat, descriptor.getIndex());
     }
 
     /**
@@ -230,12 +467,42 @@ public class CommandManager {
      * @return the active command.
      * @throws CommandNotActive if there is no an active command.
      */
-    public MultistageCommand getActiveCommand(Long idChat) throws CommandNotActive {
-        if (!hasActiveCommand(idChat)) {
+    public MultistageCommand getActiveCommand(long idChat) throws CommandNotActive {
+        MultistageCommand command = findActiveCommand(idChat);
+        if (command == null) {
             throw new CommandNotActive();
         }
 
-        return activeCommand.get(idChat);
+        return command;
+    }
+
+    /**
+     * Returns the active command for the user, if any; {@code null} otherwise.
+     *
+     * @param idChat the chat identification of the user.
+     * @return the active command, if any; {@code null} otherwise.
+     */
+    public MultistageCommand findActiveCommand(long idChat) {
+        int index = activeIndexes.get(idChat, -1);
+        if (index >= 0) {
+            return (MultistageCommand) indexedDescriptors.get(index).getCommand();
+        }
+
+        String commandName = activeCommand.get(idChat);
+        if (commandName == null) {
+            return null;
+        }
+
+        // The session was stored before, so its name is resolved once
+        Command command = this.commandRouter.find(commandName);
+        if (!(command instanceof MultistageCommand)) {
+            // The stored command may be no longer available after a restart
+            activeCommand.remove(idChat);
+            return null;
+        }
+
+        activeIndexes.put(idChat, this.descriptors.get(command).getIndex());
+        return (MultistageCommand) command;
     }
 
     /**
@@ -243,8 +510,9 @@ public class CommandManager {
      *
      * @param idChat the chat identification of the user.
      */
-    public void removeActiveCommand(Long idChat) {
+    public void removeActiveCommand(long idChat) {
         activeCommand.remove(idChat);
+        activeIndexes.remove(idChat);
     }
 
     /**
@@ -253,8 +521,17 @@ public class CommandManager {
      * @param idChat the chat identification of the user.
      * @return {@code true} if there is an active command; {@code false} otherwise.
      */
-    public boolean hasActiveCommand(Long idChat) {
-        return activeCommand.containsKey(idChat);
+    public boolean hasActiveCommand(long idChat) {
+        return findActiveCommand(idChat) != null;
+    }
+
+    /**
+     * Returns the amount of users that have an active command.
+     *
+     * @return the amount of active commands.
+     */
+    public int getActiveCommandCount() {
+        return activeCommand.size();
     }
 
     /**
@@ -0,0 +1,105 @@
+package com.github.netkorp.telegram.framework.managers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.TargetSource;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Provides the command behind the proxy of a lazy command. The command bean is resolved on the first invocation
+ * and kept, so the next invocations only read a volatile field.
+ *
+ * @see CommandManager
+ */
+final class LazyCommandTargetSource implements TargetSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The factory of the command bean.
+     */
+    private final BeanFactory beanFactory;
+
+    /**
+     * The name of the command bean.
+     */
+    private final String beanName;
+
+    /**
+     * The class of the command.
+     */
+    private final Class<?> targetClass;
+
+    /**
+     * The command bean. It's {@code null} until the first invocation.
+     */
+    private volatile Object target;
+
+    /**
+     * Constructs a new {@link LazyCommandTargetSource} instance for the command bean.
+     *
+     * @param beanFactory the factory of the command bean.
+     * @param beanName    the name of the command bean.
+     * @param targetClass the class of the command.
+     */
+    LazyCommandTargetSource(BeanFactory beanFactory, String beanName, Class<?> targetClass) {
+        this.beanFactory = beanFactory;
+        this.beanName = beanName;
+        this.targetClass = targetClass;
+    }
+
+    /**
+     * Returns the class of the command, without resolving it.
+     *
+     * @return the class of the command.
+     */
+    @Override
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * Returns {@code false}, because the command is resolved on the first invocation.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean isStatic() {
+        return false;
+    }
+
+    /**
+     * Returns the command bean, resolving it on the first invocation.
+     *
+     * @return the command bean.
+     */
+    @Override
+    public Object getTarget() {
+        Object current = target;
+        if (current == null) {
+            synchronized (this) {
+                current = target;
+                if (current == null) {
+                    LOG.debug("Instantiating the lazy command {}", beanName);
+                    current = beanFactory.getBean(beanName);
+                    target = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Does nothing, because the command bean is a singleton.
+     *
+     * @param target the command bean.
+     */
+    @Override
+    public void releaseTarget(Object target) {
+        // Nothing to release
+    }
+
+}
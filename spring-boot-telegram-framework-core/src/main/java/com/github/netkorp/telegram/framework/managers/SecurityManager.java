@@ -1,47 +1,313 @@
 package com.github.netkorp.telegram.framework.managers;
 
+import com.github.netkorp.telegram.framework.collections.ConcurrentLongIntMap;
+import com.github.netkorp.telegram.framework.collections.LongHashSet;
+import com.github.netkorp.telegram.framework.collections.LongSet;
+import com.github.netkorp.telegram.framework.collections.LongSets;
 import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.descriptors.CommandDescriptor;
+import com.github.netkorp.telegram.framework.properties.AuthorizedProperties;
+import com.github.netkorp.telegram.framework.properties.RoleProperties;
+import com.github.netkorp.telegram.framework.security.PermissionMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Provides the component for securing the bot by containing the list of authorized chat identifications.
+ * Provides the component for securing the bot by containing the list of authorized chat identifications
+ * and the roles of the chats. Every chat that has a role is authorized as well.
+ * The non-secure commands can be invoked by everyone, the secure commands by the authorized chats and
+ * the secure commands that declare roles on {@link com.github.netkorp.telegram.framework.annotations.TelegramCommand#roles()}
+ * by the chats that have any of those roles.
+ *
+ * It's possible to provide another implementation by declaring a {@link SecurityManager} bean.
+ *
+ * @see PermissionMatrix
  */
 @Service
+@ConditionalOnMissingBean(SecurityManager.class)
 public class SecurityManager {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The set of authorized chat identifications.
+     */
+    private final LongSet authorizedChats;
+
+    /**
+     * The mask of roles of each chat that has a role, including {@link PermissionMatrix#AUTHORIZED}.
+     */
+    private final ConcurrentLongIntMap chatRoles;
+
     /**
-     * The list of authorized chat identification.
+     * The bit of each role, by its name in lower case.
      */
-    private final List<Long> authorizedChats;
+    private final Map<String, Integer> roleBits;
 
     /**
-     * The component for managing all of the available commands in the bot.
+     * The provider of the component for managing all of the available commands in the bot.
      */
-    private final CommandManager commandManager;
+    private final ObjectProvider<CommandManager> commandManagerProvider;
 
     /**
-     * Constructs a new {@link SecurityManager} instance with the list of the authorized chat identifications.
+     * The component for managing all of the available commands in the bot. It's resolved on the first request,
+     * since it depends on this component through the commands.
+     */
+    private volatile CommandManager commandManager;
+
+    /**
+     * The permissions of the available commands. It's built on the first request, once the commands are available.
+     */
+    private volatile PermissionMatrix permissions;
+
+    /**
+     * Constructs a new {@link SecurityManager} instance with the list of the authorized chat identifications
+     * and the file that contains more of them, if any.
      *
-     * @param authorizedChats the list of the authorized chat identifications.
+     * @param authorizedChats      the list of the authorized chat identifications.
+     * @param authorizedProperties the properties of the authorized chats.
+     * @param roleProperties       the properties of the roles.
+     * @param commandManager       the provider of the {@link CommandManager} instance.
      */
     @Autowired
-    public SecurityManager(@Value("${telegram.authorized.idChat}") String authorizedChats, @Lazy CommandManager commandManager) {
-        this.authorizedChats = new LinkedList<>();
-        this.commandManager = commandManager;
+    public SecurityManager(@Value("${telegram.authorized.idChat}") String authorizedChats,
+                           AuthorizedProperties authorizedProperties,
+                           RoleProperties roleProperties,
+                           ObjectProvider<CommandManager> commandManager) {
+        this.commandManagerProvider = commandManager;
+        this.chatRoles = new ConcurrentLongIntMap();
+        this.roleBits = new ConcurrentHashMap<>();
 
+        LongHashSet chats = new LongHashSet();
         for (String chatID : authorizedChats.split(",")) {
             try {
-                this.authorizedChats.add(Long.parseLong(chatID));
+                chats.add(Long.parseLong(chatID.trim()));
             } catch (Exception ex) {
                 // Do nothing
             }
         }
+
+        if (!authorizedProperties.getFile().isEmpty()) {
+            readAuthorizedChats(Paths.get(authorizedProperties.getFile()), authorizedProperties.isMapped(), chats);
+        }
+
+        this.authorizedChats = LongSets.compact(chats);
+        LOG.info("{} authorized chats use {} KB of heap", this.authorizedChats.size(),
+                this.authorizedChats.getHeapSize() / 1024);
+
+        roleProperties.getMembers().forEach((role, members) -> members.forEach(chatId -> grantRole(chatId, role)));
+        roleProperties.getFiles().forEach((role, file) -> {
+            LongHashSet members = new LongHashSet();
+            readAuthorizedChats(Paths.get(file), authorizedProperties.isMapped(), members);
+            members.forEach(chatId -> grantRole(chatId, role));
+        });
+    }
+
+    /**
+     * Reads the authorized chat identifications of the file.
+     *
+     * @param file   the file with the chat identifications.
+     * @param mapped {@code true} if the file is memory-mapped; {@code false} if it's read into the heap.
+     * @param chats  the set in which the chat identifications are added.
+     */
+    private static void readAuthorizedChats(Path file, boolean mapped, LongHashSet chats) {
+        try {
+            int discarded = LongSets.read(file, mapped, chats);
+            if (discarded > 0) {
+                LOG.warn("{} values of {} are not chat identifications. They were discarded.", discarded, file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the amount of authorized chats.
+     *
+     * @return the amount of authorized chats.
+     */
+    public int getAuthorizedChatCount() {
+        return authorizedChats.size();
+    }
+
+    /**
+     * Returns the approximate amount of heap used by the authorized chats, in bytes.
+     *
+     * @return the heap used by the authorized chats.
+     */
+    public long getAuthorizedChatsHeapSize() {
+        return authorizedChats.getHeapSize();
+    }
+
+    /**
+     * Grants the role to the chat, which becomes authorized as well.
+     *
+     * @param chatId the chat identification.
+     * @param role   the name of the role.
+     */
+    public void grantRole(long chatId, String role) {
+        int bit = getRoleBit(role);
+
+        synchronized (chatRoles) {
+            chatRoles.put(chatId, chatRoles.get(chatId, 0) | bit | PermissionMatrix.AUTHORIZED);
+        }
+    }
+
+    /**
+     * Revokes the role from the chat. The chat remains authorized only if it has another role
+     * or it's included in the authorized chats.
+     *
+     * @param chatId the chat identification.
+     * @param role   the name of the role.
+     */
+    public void revokeRole(long chatId, String role) {
+        int bit = findRoleBit(role);
+        if (bit == 0) {
+            return;
+        }
+
+        synchronized (chatRoles) {
+            int roles = chatRoles.get(chatId, 0) & ~bit;
+            if ((roles & ~PermissionMatrix.AUTHORIZED) == 0) {
+                chatRoles.remove(chatId);
+            } else {
+                chatRoles.put(chatId, roles);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the chat has the role.
+     *
+     * @param chatId the chat identification.
+     * @param role   the name of the role.
+     * @return {@code true} if the chat has the role; {@code false} otherwise.
+     */
+    public boolean hasRole(long chatId, String role) {
+        return (getRoles(chatId) & findRoleBit(role)) != 0;
+    }
+
+    /**
+     * Returns the mask of roles of the chat, which always includes {@link PermissionMatrix#EVERYONE}.
+     *
+     * @param chatId the chat identification.
+     * @return the mask of roles.
+     */
+    public int getRoles(long chatId) {
+        int roles = PermissionMatrix.EVERYONE | chatRoles.get(chatId, 0);
+        if (authorizedChats.contains(chatId)) {
+            roles |= PermissionMatrix.AUTHORIZED;
+        }
+
+        return roles;
+    }
+
+    /**
+     * Returns the bit of the role without assigning one, so the queries about unknown roles don't use up the bits.
+     *
+     * @param role the name of the role.
+     * @return the bit of the role, if it was ever used; {@code 0} otherwise.
+     */
+    private int findRoleBit(String role) {
+        Integer bit = roleBits.get(role.trim().toLowerCase());
+        return bit == null ? 0 : bit;
+    }
+
+    /**
+     * Returns the bit of the role, assigning a new one if it's the first time that the role is used.
+     *
+     * @param role the name of the role.
+     * @return the bit of the role.
+     * @throws IllegalStateException if there are too many roles.
+     */
+    private int getRoleBit(String role) {
+        String name = role.trim().toLowerCase();
+        Integer bit = roleBits.get(name);
+        if (bit != null) {
+            return bit;
+        }
+
+        synchronized (roleBits) {
+            return roleBits.computeIfAbsent(name, key -> {
+                // The first bits are reserved for everyone and the authorized chats
+                int position = roleBits.size() + 2;
+                if (position >= Integer.SIZE) {
+                    throw new IllegalStateException(String.format("There are too many roles. The role %s can't be added.", key));
+                }
+                return 1 << position;
+            });
+        }
+    }
+
+    /**
+     * Returns the component for managing all of the available commands in the bot, resolving it on the first call.
+     *
+     * @return the {@link CommandManager} instance.
+     */
+    private CommandManager getCommandManager() {
+        CommandManager current = commandManager;
+        if (current == null) {
+            current = commandManagerProvider.getObject();
+            commandManager = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Returns the permissions of the available commands, building them on the first request.
+     *
+     * @return the permissions of the commands.
+     */
+    private PermissionMatrix getPermissions() {
+        PermissionMatrix current = permissions;
+        if (current == null) {
+            synchronized (this) {
+                current = permissions;
+                if (current == null) {
+                    current = new PermissionMatrix(getCommandManager().getDescriptors(), this::getRoleBit);
+                    permissions = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Returns the commands that the chat can invoke, in the same order as the available commands.
+     *
+     * @param chatId the chat identification.
+     * @return the commands that the chat can invoke.
+     */
+    public List<Command> getAvailableCommands(Long chatId) {
+        return chatId == null ? Collections.emptyList() : getAvailableCommands(getRoles(chatId));
+    }
+
+    /**
+     * Returns the commands that a chat with the mask of roles can invoke, in the same order as the available commands.
+     *
+     * @param roles the mask of roles.
+     * @return the commands that the roles can invoke.
+     * @see #getRoles(long)
+     */
+    public List<Command> getAvailableCommands(int roles) {
+        return getPermissions().getAvailableCommands(roles);
     }
 
     /**
@@ -51,7 +317,7 @@ public class SecurityManager {
      * @return {@code true} if the chat identification is authorized; {@code false} otherwise.
      */
     public boolean isAuthorized(Long chatId) {
-        return this.authorizedChats.contains(chatId);
+        return chatId != null && (getRoles(chatId) & PermissionMatrix.AUTHORIZED) != 0;
     }
 
     /**
@@ -62,10 +328,32 @@ public class SecurityManager {
      * @return {@code true} if the chat identification is authorized to invoke the command; {@code false} otherwise.
      */
     public boolean isAuthorized(Long chatId, Command command) {
-        if (commandManager.isNonSecureCommand(command)) {
+        CommandDescriptor descriptor = getCommandManager().getDescriptor(command);
+        if (descriptor == null) {
+            return false;
+        }
+
+        if (!descriptor.isSecure()) {
             return true;
         }
 
-        return this.authorizedChats.contains(chatId);
+        return chatId != null && getPermissions().isAllowed(getRoles(chatId), descriptor);
+    }
+
+    /**
+     * Returns {@code true} if the roles allow to invoke the command. It's useful for checking several commands
+     * of the same chat, whose roles are resolved once by {@link #getRoles(long)}.
+     *
+     * @param roles   the roles of the chat.
+     * @param command the command to be invoked.
+     * @return {@code true} if the roles allow to invoke the command; {@code false} otherwise.
+     */
+    public boolean isAllowed(int roles, Command command) {
+        CommandDescriptor descriptor = getCommandManager().getDescriptor(command);
+        if (descriptor == null) {
+            return false;
+        }
+
+        return !descriptor.isSecure() || getPermissions().isAllowed(roles, descriptor);
     }
 }
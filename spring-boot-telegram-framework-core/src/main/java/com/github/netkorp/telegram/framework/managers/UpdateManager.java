@@ -0,0 +1,533 @@
+package com.github.netkorp.telegram.framework.managers;
+
+import com.github.netkorp.telegram.framework.bots.TelegramBot;
+import com.github.netkorp.telegram.framework.commands.interfaces.BatchMultistageCommand;
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.commands.interfaces.MultistageCommand;
+import com.github.netkorp.telegram.framework.commands.interfaces.SimpleCommand;
+import com.github.netkorp.telegram.framework.commands.multistage.MultistageCloseCommand;
+import com.github.netkorp.telegram.framework.commands.multistage.MultistageDoneCommand;
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.exceptions.CommandNotFound;
+import com.github.netkorp.telegram.framework.exceptions.UserNotAuthorized;
+import com.github.netkorp.telegram.framework.executors.CommandExecutor;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.parsers.CommandParser;
+import com.github.netkorp.telegram.framework.parsers.ParsedCommand;
+import com.github.netkorp.telegram.framework.security.PermissionMatrix;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Provides the component for routing the incoming updates to the proper command.
+ * It's shared by every kind of bot, regardless of the way in which the updates are received.
+ */
+@Component
+public class UpdateManager {
+
+    /**
+     * The maximum amount of names suggested when a command is not found.
+     */
+    private static final int MAX_SUGGESTIONS = 3;
+
+    /**
+     * The parser of the commands invoked in the messages.
+     */
+    private final CommandParser commandParser;
+
+    /**
+     * The component to know which user is authorized.
+     */
+    private final SecurityManager securityManager;
+
+    /**
+     * The provider of the component for managing all of the available commands in the bot.
+     */
+    private final ObjectProvider<CommandManager> commandManagerProvider;
+
+    /**
+     * The provider of the bot for sharing information with Telegram.
+     */
+    private final ObjectProvider<TelegramBot> botProvider;
+
+    /**
+     * The component for managing all of the available commands in the bot. It's resolved on the first update.
+     */
+    private volatile CommandManager commandManager;
+
+    /**
+     * The bot for sharing information with Telegram. It's resolved on the first update.
+     */
+    private volatile TelegramBot bot;
+
+    /**
+     * The component for executing the commands within their limits.
+     */
+    private final CommandExecutor commandExecutor;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * Constructs a new {@link UpdateManager} instance with the username of the bot,
+     * the {@link SecurityManager} component instance, the providers of the {@link CommandManager} instance
+     * and the {@link TelegramBot} instance, the {@link CommandExecutor} instance
+     * and the {@link TelegramMetrics} instance.
+     * Both the {@link CommandManager} and the {@link TelegramBot} depend on this component, so they are resolved
+     * on the first update and kept, instead of being resolved on every call as a lazy proxy would do.
+     *
+     * @param botUsername     the username of the bot.
+     * @param securityManager the {@link SecurityManager} component instance.
+     * @param commandManager  the provider of the {@link CommandManager} instance.
+     * @param bot             the provider of the {@link TelegramBot} instance.
+     * @param commandExecutor the {@link CommandExecutor} instance.
+     * @param metrics         the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public UpdateManager(@Value("${telegram.bots.username}") String botUsername,
+                         SecurityManager securityManager,
+                         ObjectProvider<CommandManager> commandManager,
+                         ObjectProvider<TelegramBot> bot,
+                         CommandExecutor commandExecutor,
+                         TelegramMetrics metrics) {
+        this.commandParser = new CommandParser(botUsername);
+        this.securityManager = securityManager;
+        this.commandManagerProvider = commandManager;
+        this.botProvider = bot;
+        this.commandExecutor = commandExecutor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Executes the proper command for the update.
+     *
+     * @param update Update received.
+     */
+    public void process(Update update) {
+        process(group(Collections.singletonList(update)));
+    }
+
+    /**
+     * Returns the updates of the same chat received together, so they are parsed and routed once
+     * for being dispatched and processed.
+     *
+     * @param updates the received updates of the same chat, in the order they were received.
+     * @return the updates of the chat.
+     */
+    public ChatUpdates group(List<Update> updates) {
+        return new ChatUpdates(updates);
+    }
+
+    /**
+     * Returns {@code true} if the update must be processed before the rest of the waiting updates,
+     * that is, if its chat is authorized or it invokes a reserved command of the multistage flow.
+     *
+     * @param update the received update.
+     * @return {@code true} if the update has priority; {@code false} otherwise.
+     */
+    public boolean isPriority(Update update) {
+        return isPriority(group(Collections.singletonList(update)));
+    }
+
+    /**
+     * Returns {@code true} if the updates must be processed before the rest of the waiting updates,
+     * that is, if their chat is authorized or any of them invokes a reserved command of the multistage flow.
+     * The messages are only parsed if the chat is not authorized, and they are not parsed again when processed.
+     *
+     * @param updates the received updates of the same chat.
+     * @return {@code true} if the updates have priority; {@code false} otherwise.
+     */
+    public boolean isPriority(ChatUpdates updates) {
+        if ((updates.getRoles() & PermissionMatrix.AUTHORIZED) != 0) {
+            return true;
+        }
+
+        for (int i = 0; i < updates.size(); i++) {
+            if (isReserved(updates.getCommand(i))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Executes the proper commands for the updates of the same chat received together, in the order they were received.
+     * The consecutive messages for an active {@link BatchMultistageCommand} are handed to it at once,
+     * while the rest of the updates are routed one by one.
+     *
+     * @param updates the updates of the same chat, in the order they were received.
+     */
+    public void process(List<Update> updates) {
+        process(group(updates));
+    }
+
+    /**
+     * Executes the proper commands for the updates of the same chat received together, in the order they were received.
+     * Every message is parsed and routed once, and the roles of the chat are resolved once for all of them.
+     * The active command is looked up before each step, since the previous step may have started or ended it.
+     *
+     * @param updates the updates of the same chat, in the order they were received.
+     * @see #process(List)
+     */
+    public void process(ChatUpdates updates) {
+        int next = 0;
+        while (next < updates.size()) {
+            Update update = updates.get(next);
+            if (!update.hasMessage()) {
+                next++;
+                continue;
+            }
+
+            MultistageCommand activeCommand = getCommandManager().findActiveCommand(update.getMessage().getChatId());
+
+            int end = next;
+            if (activeCommand instanceof BatchMultistageCommand) {
+                while (end < updates.size() && updates.get(end).hasMessage() && !isReserved(updates.getCommand(end))) {
+                    end++;
+                }
+            }
+
+            if (end - next < 2) {
+                route(updates, next, activeCommand);
+                next++;
+                continue;
+            }
+
+            BatchMultistageCommand command = (BatchMultistageCommand) activeCommand;
+            List<Update> batch = updates.getUpdates().subList(next, end);
+            long start = metrics.start();
+            try {
+                execute(command, update.getMessage().getChatId(), () -> command.execute(batch));
+            } finally {
+                metrics.commandExecuted(command, start);
+            }
+
+            next = end;
+        }
+    }
+
+    /**
+     * Executes the proper command for a message of the updates.
+     *
+     * @param updates       the updates of the chat.
+     * @param position      the position of the message among the updates.
+     * @param activeCommand the active command of the chat, if any; {@code null} otherwise.
+     */
+    private void route(ChatUpdates updates, int position, MultistageCommand activeCommand) {
+        Update update = updates.get(position);
+        long chatId = update.getMessage().getChatId();
+        ParsedCommand parsedCommand = updates.getParsedCommand(position);
+        Command command = updates.getCommand(position);
+
+        if (activeCommand != null) {
+            long start = metrics.start();
+            if (isReserved(command)) {
+                try {
+                    execute(command, chatId, () -> ((SimpleCommand) command).execute(update));
+                } finally {
+                    metrics.commandExecuted(command, start);
+                }
+            } else {
+                try {
+                    execute(activeCommand, chatId, () -> activeCommand.execute(update));
+                } finally {
+                    metrics.commandExecuted(activeCommand, start);
+                }
+            }
+
+            return;
+        }
+
+        // Checking if this is a command
+        if (parsedCommand == null) {
+            getBot().sendMessage("That is not a command", chatId);
+            return;
+        }
+
+        if (command == null) {
+            metrics.unknownCommand();
+            commandNotFound(parsedCommand, update);
+            return;
+        }
+
+        try {
+            if (!updates.isAllowed(chatId, command)) {
+                throw new UserNotAuthorized();
+            }
+
+            // The session is started out of the execution, so a cancelled init doesn't start it late
+            AtomicBoolean initialized = new AtomicBoolean();
+            long start = metrics.start();
+            try {
+                boolean completed = execute(command, chatId, () -> {
+                    if (command instanceof MultistageCommand) {
+                        initialized.set(((MultistageCommand) command).init(update));
+                    } else if (command instanceof SimpleCommand) {
+                        if (!parsedCommand.hasArgs()) {
+                            ((SimpleCommand) command).execute(update);
+                        } else {
+                            ((SimpleCommand) command).execute(update, parsedCommand.getArgs());
+                        }
+                    }
+                });
+
+                if (completed && initialized.get()) {
+                    getCommandManager().setActiveCommand(chatId, ((MultistageCommand) command));
+                }
+            } finally {
+                metrics.commandExecuted(command, start);
+            }
+        } catch (UserNotAuthorized userNotAuthorized) {
+            metrics.updateRejected(TelegramMetrics.Rejection.UNAUTHORIZED);
+            getBot().sendMessage(userNotAuthorized.getMessage(), chatId);
+        }
+    }
+
+    /**
+     * Tells the user that the command is not valid, suggesting the authorized commands with a similar name,
+     * and shows the help if the user is authorized to see it.
+     *
+     * @param parsedCommand the command invoked by the user.
+     * @param update        the message sent by the user.
+     */
+    private void commandNotFound(ParsedCommand parsedCommand, Update update) {
+        Long chatId = update.getMessage().getChatId();
+        StringJoiner suggestions = new StringJoiner(", ");
+
+        for (String name : getCommandManager().suggestCommands(parsedCommand.getText(), parsedCommand.getNameStart(),
+                parsedCommand.getNameEnd(), MAX_SUGGESTIONS)) {
+            Command command = getCommandManager().findCommand(name, 0, name.length());
+            if (command != null && securityManager.isAuthorized(chatId, command)) {
+                suggestions.add(name);
+            }
+        }
+
+        getBot().sendMessage(suggestions.length() == 0 ? CommandNotFound.MESSAGE
+                : String.format("%s. Did you mean %s?", CommandNotFound.MESSAGE, suggestions.toString()), chatId);
+        getCommandManager().getHelpCommand()
+                .filter(command -> securityManager.isAuthorized(chatId, command))
+                .ifPresent(command -> command.execute(update));
+    }
+
+    /**
+     * Executes the command within its limits.
+     *
+     * @param command   the command.
+     * @param chatId    the chat that invoked the command.
+     * @param execution the execution of the command.
+     * @return {@code true} if the execution ended within the limits; {@code false} if it was skipped or cancelled.
+     */
+    private boolean execute(Command command, long chatId, Runnable execution) {
+        return commandExecutor.execute(getCommandManager().getDescriptor(command), chatId, execution);
+    }
+
+    /**
+     * Returns {@code true} if the command is a reserved command of the multistage flow.
+     *
+     * @param command the command.
+     * @return {@code true} if the command is reserved; {@code false} otherwise.
+     */
+    private static boolean isReserved(Command command) {
+        return command instanceof MultistageCloseCommand || command instanceof MultistageDoneCommand;
+    }
+
+    /**
+     * Returns the component for managing all of the available commands in the bot, resolving it on the first call.
+     *
+     * @return the {@link CommandManager} instance.
+     */
+    private CommandManager getCommandManager() {
+        CommandManager current = commandManager;
+        if (current == null) {
+            current = commandManagerProvider.getObject();
+            commandManager = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Returns the bot for sharing information with Telegram, resolving it on the first call.
+     *
+     * @return the {@link TelegramBot} instance.
+     */
+    private TelegramBot getBot() {
+        TelegramBot current = bot;
+        if (current == null) {
+            current = botProvider.getObject();
+            bot = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Contains the updates of the same chat received together. Each message is parsed and routed once,
+     * the first time it's needed, and the roles of the chat are resolved once for all of them.
+     * It's not thread-safe: it's handed from the thread that receives the updates to the worker that processes them.
+     */
+    public final class ChatUpdates {
+
+        /**
+         * The updates, in the order they were received.
+         */
+        private final List<Update> updates;
+
+        /**
+         * The chat identification of the updates.
+         */
+        private final long chatId;
+
+        /**
+         * The command invoked in each message, if any.
+         */
+        private final ParsedCommand[] parsedCommands;
+
+        /**
+         * The command found for each invoked command, if any.
+         */
+        private final Command[] commands;
+
+        /**
+         * Indicates which updates were parsed and routed.
+         */
+        private final boolean[] routed;
+
+        /**
+         * The roles of the chat, if they were resolved.
+         */
+        private int roles;
+
+        /**
+         * Indicates whether the roles of the chat were resolved.
+         */
+        private boolean rolesResolved;
+
+        /**
+         * Constructs a new {@link ChatUpdates} instance with the updates of the same chat.
+         *
+         * @param updates the updates, in the order they were received.
+         */
+        private ChatUpdates(List<Update> updates) {
+            this.updates = updates;
+            this.chatId = updates.isEmpty() ? 0 : UpdateDispatcher.getChatId(updates.get(0));
+            this.parsedCommands = new ParsedCommand[updates.size()];
+            this.commands = new Command[updates.size()];
+            this.routed = new boolean[updates.size()];
+        }
+
+        /**
+         * Returns the updates, in the order they were received.
+         *
+         * @return the updates.
+         */
+        public List<Update> getUpdates() {
+            return updates;
+        }
+
+        /**
+         * Returns the update in the position.
+         *
+         * @param position the position of the update.
+         * @return the update.
+         */
+        public Update get(int position) {
+            return updates.get(position);
+        }
+
+        /**
+         * Returns the amount of updates.
+         *
+         * @return the amount of updates.
+         */
+        public int size() {
+            return updates.size();
+        }
+
+        /**
+         * Returns the command invoked in the message in the position, if any; {@code null} otherwise.
+         *
+         * @param position the position of the update.
+         * @return the invoked command, if any; {@code null} otherwise.
+         */
+        private ParsedCommand getParsedCommand(int position) {
+            route(position);
+            return parsedCommands[position];
+        }
+
+        /**
+         * Returns the command invoked in the message in the position, if it exists; {@code null} otherwise.
+         *
+         * @param position the position of the update.
+         * @return the {@link Command} instance, if any; {@code null} otherwise.
+         */
+        private Command getCommand(int position) {
+            route(position);
+            return commands[position];
+        }
+
+        /**
+         * Parses the message in the position and finds its command, unless it was done before.
+         *
+         * @param position the position of the update.
+         */
+        private void route(int position) {
+            if (routed[position]) {
+                return;
+            }
+
+            routed[position] = true;
+            Update update = updates.get(position);
+            if (!update.hasMessage()) {
+                return;
+            }
+
+            ParsedCommand parsedCommand = commandParser.parse(update.getMessage());
+            parsedCommands[position] = parsedCommand;
+            if (parsedCommand != null) {
+                commands[position] = getCommandManager().findCommand(parsedCommand.getText(),
+                        parsedCommand.getNameStart(), parsedCommand.getNameEnd());
+            }
+        }
+
+        /**
+         * Returns the roles of the chat, resolving them on the first call.
+         *
+         * @return the roles of the chat.
+         */
+        private int getRoles() {
+            if (!rolesResolved) {
+                roles = securityManager.getRoles(chatId);
+                rolesResolved = true;
+            }
+
+            return roles;
+        }
+
+        /**
+         * Returns {@code true} if the chat is authorized to invoke the command.
+         *
+         * @param messageChatId the chat of the message that invokes the command.
+         * @param command       the command to be invoked.
+         * @return {@code true} if the chat is authorized; {@code false} otherwise.
+         */
+        private boolean isAllowed(long messageChatId, Command command) {
+            if (messageChatId != chatId) {
+                return securityManager.isAuthorized(messageChatId, command);
+            }
+
+            return securityManager.isAllowed(getRoles(), command);
+        }
+    }
+}
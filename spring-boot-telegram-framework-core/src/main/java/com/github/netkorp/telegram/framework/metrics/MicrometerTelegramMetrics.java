@@ -0,0 +1,246 @@
+package com.github.netkorp.telegram.framework.metrics;
+
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.descriptors.CommandDescriptor;
+import com.github.netkorp.telegram.framework.managers.CommandManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the activity of the bot in a Micrometer {@link MeterRegistry}. The meters are created once,
+ * so recording an event is a lookup at most.
+ */
+public class MicrometerTelegramMetrics implements TelegramMetrics {
+
+    /**
+     * The registry of the meters.
+     */
+    private final MeterRegistry registry;
+
+    /**
+     * The component for knowing the name and the kind of the commands.
+     */
+    private final CommandManager commandManager;
+
+    /**
+     * The updates received from Telegram.
+     */
+    private final Counter received;
+
+    /**
+     * The updates that were not processed, by reason.
+     */
+    private final Map<Rejection, Counter> rejected;
+
+    /**
+     * The time that the updates of the priority lane waited to be processed.
+     */
+    private final Timer priorityWaitTimer;
+
+    /**
+     * The time that the rest of the updates waited to be processed.
+     */
+    private final Timer normalWaitTimer;
+
+    /**
+     * The invocations of commands that don't exist.
+     */
+    private final Counter unknownCommands;
+
+    /**
+     * The execution time of each command.
+     */
+    private final Map<Command, Timer> commandTimers = new ConcurrentHashMap<>();
+
+    /**
+     * The invocations of each command rejected because of its bulkhead.
+     */
+    private final Map<Command, Counter> commandRejections = new ConcurrentHashMap<>();
+
+    /**
+     * The executions of each command cancelled because of its timeout.
+     */
+    private final Map<Command, Counter> commandTimeouts = new ConcurrentHashMap<>();
+
+    /**
+     * The time of the requests sent to Telegram.
+     */
+    private final Timer sendTimer;
+
+    /**
+     * The requests sent to Telegram that failed.
+     */
+    private final Counter sendErrors;
+
+    /**
+     * Constructs a new {@link MicrometerTelegramMetrics} instance with the registry of the meters
+     * and the {@link CommandManager} instance, whose active sessions are exposed as a gauge.
+     *
+     * @param registry       the registry of the meters.
+     * @param commandManager the {@link CommandManager} instance.
+     */
+    public MicrometerTelegramMetrics(MeterRegistry registry, CommandManager commandManager) {
+        this.registry = registry;
+        this.commandManager = commandManager;
+        this.received = registry.counter("telegram.updates.received");
+        this.rejected = new EnumMap<>(Rejection.class);
+        for (Rejection rejection : Rejection.values()) {
+            rejected.put(rejection, registry.counter("telegram.updates.rejected",
+                    "reason", rejection.name().toLowerCase(Locale.ROOT)));
+        }
+        this.priorityWaitTimer = waitTimer("priority");
+        this.normalWaitTimer = waitTimer("normal");
+        this.unknownCommands = registry.counter("telegram.commands.unknown");
+        this.sendTimer = Timer.builder("telegram.messages.sent")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.sendErrors = registry.counter("telegram.messages.errors");
+
+        Gauge.builder("telegram.sessions.active", commandManager, CommandManager::getActiveCommandCount)
+                .description("The multistage commands that are active")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Returns the current time in nanoseconds.
+     *
+     * @return the current time.
+     */
+    @Override
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Increments the counter of received updates.
+     */
+    @Override
+    public void updateReceived() {
+        received.increment();
+    }
+
+    /**
+     * Increments the counter of rejected updates for the reason.
+     *
+     * @param rejection the reason for which the update is not processed.
+     */
+    @Override
+    public void updateRejected(Rejection rejection) {
+        rejected.get(rejection).increment();
+    }
+
+    /**
+     * Records the waiting time in the timer of the lane of the update.
+     *
+     * @param priority {@code true} if the update was in the priority lane; {@code false} otherwise.
+     * @param start    the instant returned by {@link #start()} when the update was queued.
+     */
+    @Override
+    public void updateWaited(boolean priority, long start) {
+        (priority ? priorityWaitTimer : normalWaitTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Increments the counter of unknown commands.
+     */
+    @Override
+    public void unknownCommand() {
+        unknownCommands.increment();
+    }
+
+    /**
+     * Records the execution time in the timer of the command, which is tagged by the name and the kind of the command.
+     *
+     * @param command the command.
+     * @param start   the instant returned by {@link #start()} before executing the command.
+     */
+    @Override
+    public void commandExecuted(Command command, long start) {
+        long elapsed = System.nanoTime() - start;
+        commandTimers.computeIfAbsent(command, this::commandTimer).record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Increments the counter of rejected invocations of the command, which is tagged by the name of the command.
+     *
+     * @param command the command.
+     */
+    @Override
+    public void commandRejected(Command command) {
+        commandRejections.computeIfAbsent(command, key -> commandCounter("telegram.commands.rejected", key))
+                .increment();
+    }
+
+    /**
+     * Increments the counter of cancelled executions of the command, which is tagged by the name of the command.
+     *
+     * @param command the command.
+     */
+    @Override
+    public void commandTimedOut(Command command) {
+        commandTimeouts.computeIfAbsent(command, key -> commandCounter("telegram.commands.timeouts", key))
+                .increment();
+    }
+
+    /**
+     * Records the time of the request and increments the counter of errors if it failed.
+     *
+     * @param start  the instant returned by {@link #start()} before sending the request.
+     * @param failed {@code true} if the request failed; {@code false} otherwise.
+     */
+    @Override
+    public void messageSent(long start, boolean failed) {
+        sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (failed) {
+            sendErrors.increment();
+        }
+    }
+
+    /**
+     * Creates the timer of the time that the updates of the lane waited to be processed.
+     *
+     * @param lane the name of the lane.
+     * @return the timer.
+     */
+    private Timer waitTimer(String lane) {
+        return Timer.builder("telegram.updates.wait")
+                .tag("lane", lane)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Creates a counter of the command.
+     *
+     * @param name    the name of the counter.
+     * @param command the command.
+     * @return the counter.
+     */
+    private Counter commandCounter(String name, Command command) {
+        return registry.counter(name, "command", commandManager.getDescriptor(command).getFullName());
+    }
+
+    /**
+     * Creates the timer of the command.
+     *
+     * @param command the command.
+     * @return the timer.
+     */
+    private Timer commandTimer(Command command) {
+        CommandDescriptor descriptor = commandManager.getDescriptor(command);
+        return Timer.builder("telegram.commands.execution")
+                .tag("command", descriptor.getFullName())
+                .tag("kind", descriptor.getKind().name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.netkorp.telegram.framework.metrics;
+
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+
+/**
+ * Records the activity of the bot: the updates received and rejected, the execution of the commands
+ * and the delivery of the messages. The times are taken only when the metrics are enabled, so the
+ * {@link #NOOP} implementation doesn't even read the clock.
+ */
+public interface TelegramMetrics {
+
+    /**
+     * The implementation that records nothing. It's used when the metrics are disabled.
+     */
+    TelegramMetrics NOOP = new TelegramMetrics() {
+    };
+
+    /**
+     * The reasons for which an update is not processed.
+     */
+    enum Rejection {
+
+        /**
+         * The update was already received.
+         */
+        DUPLICATE,
+
+        /**
+         * The chat sent too many updates.
+         */
+        FLOOD,
+
+        /**
+         * The user is not authorized to execute the command.
+         */
+        UNAUTHORIZED,
+
+        /**
+         * The bot had too many updates waiting to be processed.
+         */
+        OVERLOAD,
+
+        /**
+         * The update doesn't fit in a segment of the durable queue.
+         */
+        OVERSIZE
+    }
+
+    /**
+     * Returns the instant in which a measured operation starts.
+     *
+     * @return the current time in nanoseconds, or {@code 0} if the metrics are disabled.
+     */
+    default long start() {
+        return 0;
+    }
+
+    /**
+     * Records an update received from Telegram.
+     */
+    default void updateReceived() {
+    }
+
+    /**
+     * Records an update that is not processed.
+     *
+     * @param rejection the reason for which the update is not processed.
+     */
+    default void updateRejected(Rejection rejection) {
+    }
+
+    /**
+     * Records the time that an update waited to be processed by the dispatcher.
+     *
+     * @param priority {@code true} if the update was in the priority lane; {@code false} otherwise.
+     * @param start    the instant returned by {@link #start()} when the update was queued.
+     */
+    default void updateWaited(boolean priority, long start) {
+    }
+
+    /**
+     * Records the invocation of a command that doesn't exist.
+     */
+    default void unknownCommand() {
+    }
+
+    /**
+     * Records the execution of a command.
+     *
+     * @param command the command.
+     * @param start   the instant returned by {@link #start()} before executing the command.
+     */
+    default void commandExecuted(Command command, long start) {
+    }
+
+    /**
+     * Records an invocation of a command that was rejected because the command reached its maximum
+     * of executions at the same time.
+     *
+     * @param command the command.
+     */
+    default void commandRejected(Command command) {
+    }
+
+    /**
+     * Records an execution of a command that was cancelled because it took longer than its timeout.
+     *
+     * @param command the command.
+     */
+    default void commandTimedOut(Command command) {
+    }
+
+    /**
+     * Records a request sent to Telegram.
+     *
+     * @param start  the instant returned by {@link #start()} before sending the request.
+     * @param failed {@code true} if the request failed; {@code false} otherwise.
+     */
+    default void messageSent(long start, boolean failed) {
+    }
+}
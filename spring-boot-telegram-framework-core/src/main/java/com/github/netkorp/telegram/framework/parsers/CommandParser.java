@@ -0,0 +1,76 @@
+package com.github.netkorp.telegram.framework.parsers;
+
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.MessageEntity;
+
+import java.util.List;
+
+/**
+ * Identifies the command invoked in a message from its {@code bot_command} entity.
+ * It doesn't copy the text of the message: the bot's username is skipped by comparing it in place, ignoring case.
+ */
+public final class CommandParser {
+
+    /**
+     * The type of the entity that contains the command.
+     */
+    private static final String BOT_COMMAND = "bot_command";
+
+    /**
+     * The mention of the bot that could follow the name of the command, such as {@code @mybot}.
+     */
+    private final String botMention;
+
+    /**
+     * Constructs a new {@link CommandParser} instance with the bot's username.
+     *
+     * @param botUsername the bot's username.
+     */
+    public CommandParser(String botUsername) {
+        this.botMention = "@" + botUsername;
+    }
+
+    /**
+     * Returns the command invoked in the message, if the message starts with a command; {@code null} otherwise.
+     *
+     * @param message the received message.
+     * @return the command, if any; {@code null} otherwise.
+     */
+    public ParsedCommand parse(Message message) {
+        String text = message.getText();
+        List<MessageEntity> entities = message.getEntities();
+
+        if (text == null || entities == null) {
+            return null;
+        }
+
+        for (int i = 0; i < entities.size(); i++) {
+            MessageEntity entity = entities.get(i);
+
+            if (entity != null && entity.getOffset() == 0 && BOT_COMMAND.equals(entity.getType())) {
+                int commandEnd = Math.min(text.length(), entity.getLength());
+                return new ParsedCommand(text, 0, getNameEnd(text, commandEnd), commandEnd);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the position after the name of the command, skipping the mention of the bot if present.
+     * The mentions of other bots are kept, so those commands are not found.
+     *
+     * @param text       the text of the message.
+     * @param commandEnd the position after the command.
+     * @return the end of the name of the command.
+     */
+    private int getNameEnd(String text, int commandEnd) {
+        int mentionStart = commandEnd - botMention.length();
+
+        if (mentionStart > 0 && text.regionMatches(true, mentionStart, botMention, 0, botMention.length())) {
+            return mentionStart;
+        }
+
+        return commandEnd;
+    }
+}
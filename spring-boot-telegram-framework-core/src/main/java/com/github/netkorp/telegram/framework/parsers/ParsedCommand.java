@@ -0,0 +1,168 @@
+package com.github.netkorp.telegram.framework.parsers;
+
+/**
+ * Represents the command invoked in a message. It's a view over the text of the message, so the name of the command
+ * is compared in place and the parameters are only split when they are requested.
+ *
+ * @see CommandParser
+ */
+public final class ParsedCommand {
+
+    /**
+     * The value returned when the command has no parameters.
+     */
+    private static final String[] NO_ARGS = new String[0];
+
+    /**
+     * The text of the message.
+     */
+    private final String text;
+
+    /**
+     * The position of the slash (/) that starts the name of the command.
+     */
+    private final int nameStart;
+
+    /**
+     * The position after the name of the command, excluding the bot's username.
+     */
+    private final int nameEnd;
+
+    /**
+     * The position after the command, including the bot's username.
+     */
+    private final int commandEnd;
+
+    /**
+     * The parameters passed to the command. They are split on the first request.
+     */
+    private String[] args;
+
+    /**
+     * Constructs a new {@link ParsedCommand} instance over the text of the message.
+     *
+     * @param text       the text of the message.
+     * @param nameStart  the position of the slash that starts the name of the command.
+     * @param nameEnd    the position after the name of the command, excluding the bot's username.
+     * @param commandEnd the position after the command, including the bot's username.
+     */
+    ParsedCommand(String text, int nameStart, int nameEnd, int commandEnd) {
+        this.text = text;
+        this.nameStart = nameStart;
+        this.nameEnd = nameEnd;
+        this.commandEnd = commandEnd;
+    }
+
+    /**
+     * Returns the text of the message.
+     *
+     * @return the text of the message.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the position of the slash (/) that starts the name of the command.
+     *
+     * @return the start of the name.
+     */
+    public int getNameStart() {
+        return nameStart;
+    }
+
+    /**
+     * Returns the position after the name of the command, excluding the bot's username.
+     *
+     * @return the end of the name.
+     */
+    public int getNameEnd() {
+        return nameEnd;
+    }
+
+    /**
+     * Returns the name of the command in lower case, including the slash (/).
+     * It creates a new String, so the comparisons should use {@link #nameEquals(String)} instead.
+     *
+     * @return the name of the command.
+     */
+    public String getName() {
+        return text.substring(nameStart, nameEnd).toLowerCase();
+    }
+
+    /**
+     * Returns {@code true} if the name of the command is the full name, ignoring case.
+     *
+     * @param fullName the full name of a command, including the slash (/).
+     * @return {@code true} if the name matches; {@code false} otherwise.
+     */
+    public boolean nameEquals(String fullName) {
+        return fullName.length() == nameEnd - nameStart
+                && text.regionMatches(true, nameStart, fullName, 0, fullName.length());
+    }
+
+    /**
+     * Returns {@code true} if there are parameters after the command.
+     *
+     * @return {@code true} if there are parameters; {@code false} otherwise.
+     */
+    public boolean hasArgs() {
+        for (int i = commandEnd; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the parameters passed to the command, which are separated by whitespaces.
+     *
+     * @return the parameters.
+     */
+    public String[] getArgs() {
+        if (args == null) {
+            args = splitArgs();
+        }
+
+        return args;
+    }
+
+    /**
+     * Splits the text after the command by the whitespaces in a single pass, copying only the parameters.
+     *
+     * @return the parameters.
+     */
+    private String[] splitArgs() {
+        int count = 0;
+        for (int i = commandEnd; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))
+                    && (i == commandEnd || Character.isWhitespace(text.charAt(i - 1)))) {
+                count++;
+            }
+        }
+
+        if (count == 0) {
+            return NO_ARGS;
+        }
+
+        String[] result = new String[count];
+        int index = 0;
+        int i = commandEnd;
+        while (index < count) {
+            while (Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+
+            int start = i;
+            while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+
+            result[index++] = text.substring(start, i);
+        }
+
+        return result;
+    }
+}
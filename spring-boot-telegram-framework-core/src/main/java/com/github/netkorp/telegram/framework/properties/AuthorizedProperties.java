@@ -0,0 +1,56 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the authorized chats, in addition to {@code telegram.authorized.idChat}.
+ */
+@ConfigurationProperties("telegram.authorized")
+public class AuthorizedProperties {
+
+    /**
+     * The file with the authorized chat identifications, separated by whitespaces or commas, if any.
+     */
+    private String file = "";
+
+    /**
+     * Indicates whether the file is memory-mapped instead of read into the heap while it's loaded.
+     */
+    private boolean mapped = true;
+
+    /**
+     * Returns the file with the authorized chat identifications.
+     *
+     * @return the path of the file, or an empty String if there is no file.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the file with the authorized chat identifications.
+     *
+     * @param file the path of the file.
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns {@code true} if the file is memory-mapped while it's loaded.
+     *
+     * @return {@code true} if the file is memory-mapped; {@code false} if it's read into the heap.
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Sets whether the file is memory-mapped while it's loaded.
+     *
+     * @param mapped {@code true} if the file is memory-mapped; {@code false} if it's read into the heap.
+     */
+    public void setMapped(boolean mapped) {
+        this.mapped = mapped;
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Contains the properties associated to the distribution of the chats across several instances of the bot.
+ */
+@ConfigurationProperties("telegram.cluster")
+public class ClusterProperties {
+
+    /**
+     * The role of this instance in the cluster.
+     */
+    private Role role = Role.NONE;
+
+    /**
+     * The identification of this instance in the cluster. It must be unique among the workers.
+     */
+    private String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * The kind of coordination between the instances.
+     */
+    private Coordinator coordinator = Coordinator.LOOPBACK;
+
+    /**
+     * The name of the cluster when the instances are coordinated in the same process.
+     */
+    private String name = "telegram";
+
+    /**
+     * The address on which the ingest instance accepts the workers.
+     */
+    private String host = "127.0.0.1";
+
+    /**
+     * The port on which the ingest instance accepts the workers.
+     */
+    private int port = 8444;
+
+    /**
+     * The amount of points of each worker in the hash ring.
+     * The more points, the more even the distribution of the chats.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * Returns the role of this instance in the cluster.
+     *
+     * @return the role of this instance.
+     */
+    public Role getRole() {
+        return role;
+    }
+
+    /**
+     * Sets the role of this instance in the cluster.
+     *
+     * @param role the role of this instance.
+     */
+    public void setRole(Role role) {
+        this.role = role;
+    }
+
+    /**
+     * Returns the identification of this instance in the cluster.
+     *
+     * @return the identification of this instance.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Sets the identification of this instance in the cluster.
+     *
+     * @param nodeId the identification of this instance.
+     */
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Returns the kind of coordination between the instances.
+     *
+     * @return the kind of coordination.
+     */
+    public Coordinator getCoordinator() {
+        return coordinator;
+    }
+
+    /**
+     * Sets the kind of coordination between the instances.
+     *
+     * @param coordinator the kind of coordination.
+     */
+    public void setCoordinator(Coordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Returns the name of the cluster when the instances are coordinated in the same process.
+     *
+     * @return the name of the cluster.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name of the cluster when the instances are coordinated in the same process.
+     *
+     * @param name the name of the cluster.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the address on which the ingest instance accepts the workers.
+     *
+     * @return the address of the ingest instance.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Sets the address on which the ingest instance accepts the workers.
+     *
+     * @param host the address of the ingest instance.
+     */
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Returns the port on which the ingest instance accepts the workers.
+     *
+     * @return the port of the ingest instance.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Sets the port on which the ingest instance accepts the workers.
+     *
+     * @param port the port of the ingest instance.
+     */
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Returns the amount of points of each worker in the hash ring.
+     *
+     * @return the amount of points of each worker.
+     */
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Sets the amount of points of each worker in the hash ring.
+     *
+     * @param virtualNodes the amount of points of each worker.
+     */
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * The roles of an instance in the cluster.
+     */
+    public enum Role {
+
+        /**
+         * The instance receives and processes every update by itself.
+         */
+        NONE,
+
+        /**
+         * The instance receives the updates from Telegram and forwards them to the workers.
+         */
+        INGEST,
+
+        /**
+         * The instance processes the updates of the chats assigned to it by the ingest instance.
+         */
+        WORKER
+    }
+
+    /**
+     * The kinds of coordination between the instances.
+     */
+    public enum Coordinator {
+
+        /**
+         * The instances run in the same process, for instance in the tests.
+         */
+        IN_PROCESS,
+
+        /**
+         * The workers connect to the ingest instance through a socket.
+         */
+        LOOPBACK
+    }
+}
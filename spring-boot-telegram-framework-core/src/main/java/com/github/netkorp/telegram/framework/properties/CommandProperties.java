@@ -1,14 +1,12 @@
 package com.github.netkorp.telegram.framework.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.stereotype.Component;
 
 import java.util.List;
 
 /**
  * Contains the properties associated to the commands.
  */
-@Component
 @ConfigurationProperties("telegram.commands")
 public class CommandProperties {
 
@@ -17,6 +15,16 @@ public class CommandProperties {
      */
     private List<String> nonSecure;
 
+    /**
+     * Indicates whether a command can be invoked by an unambiguous prefix of its name, such as {@code /he} for {@code /help}.
+     */
+    private boolean prefixMatching = false;
+
+    /**
+     * The maximum edit distance of the names suggested when a command is not found. Zero disables the suggestions.
+     */
+    private int suggestionDistance = 2;
+
     /**
      * Returns the list with the names of non-secure commands.
      *
@@ -34,4 +42,40 @@ public class CommandProperties {
     public void setNonSecure(List<String> nonSecure) {
         this.nonSecure = nonSecure;
     }
+
+    /**
+     * Returns {@code true} if a command can be invoked by an unambiguous prefix of its name.
+     *
+     * @return {@code true} if the prefixes are resolved; {@code false} otherwise.
+     */
+    public boolean isPrefixMatching() {
+        return prefixMatching;
+    }
+
+    /**
+     * Sets whether a command can be invoked by an unambiguous prefix of its name.
+     *
+     * @param prefixMatching {@code true} if the prefixes are resolved; {@code false} otherwise.
+     */
+    public void setPrefixMatching(boolean prefixMatching) {
+        this.prefixMatching = prefixMatching;
+    }
+
+    /**
+     * Returns the maximum edit distance of the names suggested when a command is not found.
+     *
+     * @return the maximum edit distance.
+     */
+    public int getSuggestionDistance() {
+        return suggestionDistance;
+    }
+
+    /**
+     * Sets the maximum edit distance of the names suggested when a command is not found.
+     *
+     * @param suggestionDistance the maximum edit distance. Zero disables the suggestions.
+     */
+    public void setSuggestionDistance(int suggestionDistance) {
+        this.suggestionDistance = suggestionDistance;
+    }
 }
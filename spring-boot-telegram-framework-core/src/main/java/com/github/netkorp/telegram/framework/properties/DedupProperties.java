@@ -0,0 +1,104 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the detection of the updates delivered more than once.
+ */
+@ConfigurationProperties("telegram.dedup")
+public class DedupProperties {
+
+    /**
+     * Indicates whether the updates delivered more than once are discarded.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The amount of the most recent update identifications that are remembered.
+     * An update older than the window restarts it, since Telegram restarts the identifications
+     * after a week without updates.
+     */
+    private int window = 65536;
+
+    /**
+     * Indicates whether the window is kept in a memory-mapped file, so it survives the restarts of the bot.
+     */
+    private boolean persist = false;
+
+    /**
+     * The file of the window. If it's empty, the file is placed next to the log of the sessions.
+     */
+    private String file = "";
+
+    /**
+     * Returns {@code true} if the updates delivered more than once are discarded.
+     *
+     * @return {@code true} if the duplicates are discarded; {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the updates delivered more than once are discarded.
+     *
+     * @param enabled {@code true} if the duplicates are discarded; {@code false} otherwise.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the amount of the most recent update identifications that are remembered.
+     *
+     * @return the size of the window.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Sets the amount of the most recent update identifications that are remembered.
+     *
+     * @param window the size of the window.
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    /**
+     * Returns {@code true} if the window is kept in a memory-mapped file.
+     *
+     * @return {@code true} if the window is persisted; {@code false} otherwise.
+     */
+    public boolean isPersist() {
+        return persist;
+    }
+
+    /**
+     * Sets whether the window is kept in a memory-mapped file.
+     *
+     * @param persist {@code true} if the window is persisted; {@code false} otherwise.
+     */
+    public void setPersist(boolean persist) {
+        this.persist = persist;
+    }
+
+    /**
+     * Returns the file of the window.
+     *
+     * @return the path of the file, or an empty String if it's placed next to the log of the sessions.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the file of the window.
+     *
+     * @param file the path of the file.
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import com.github.netkorp.telegram.framework.dispatchers.ExecutionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Contains the properties associated to the dispatching of the incoming updates.
+ */
+@ConfigurationProperties("telegram.dispatcher")
+public class DispatcherProperties {
+
+    /**
+     * Indicates whether the updates are processed by the pool of workers.
+     * If it's disabled the updates are processed by the thread that received them.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The way in which the workers that execute the commands are created.
+     */
+    private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+    /**
+     * The amount of workers that process the updates.
+     * In {@link ExecutionMode#ELASTIC} mode it's the minimum amount of workers.
+     */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The maximum amount of workers in {@link ExecutionMode#ELASTIC} mode.
+     * Only as many workers as {@code stripes} process updates at the same time.
+     */
+    private int maxWorkers = 200;
+
+    /**
+     * The time that an idle worker is kept alive in {@link ExecutionMode#ELASTIC} mode.
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * The amount of stripes in which the chats are distributed.
+     * The updates of the chats that share a stripe are processed one after another, so it's also the maximum
+     * amount of updates processed at the same time: the workers beyond it are never busy.
+     */
+    private int stripes = 64;
+
+    /**
+     * The maximum amount of updates waiting to be processed in each stripe.
+     * What happens when the stripe is full depends on the {@link Overload} policy.
+     */
+    private int queueDepth = 1000;
+
+    /**
+     * Indicates what to do with the incoming updates when their stripe is full.
+     */
+    private Overload overload = Overload.BLOCK;
+
+    /**
+     * Returns {@code true} if the updates are processed by the pool of workers.
+     *
+     * @return {@code true} if the updates are processed by the pool of workers; {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the updates are processed by the pool of workers.
+     *
+     * @param enabled {@code true} if the updates are processed by the pool of workers; {@code false} otherwise.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the way in which the workers that execute the commands are created.
+     *
+     * @return the execution mode.
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the way in which the workers that execute the commands are created.
+     *
+     * @param mode the execution mode.
+     */
+    public void setMode(ExecutionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the amount of workers that process the updates.
+     *
+     * @return the amount of workers.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Sets the amount of workers that process the updates.
+     *
+     * @param workers the amount of workers.
+     */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Returns the maximum amount of workers in {@link ExecutionMode#ELASTIC} mode.
+     *
+     * @return the maximum amount of workers.
+     */
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    /**
+     * Sets the maximum amount of workers in {@link ExecutionMode#ELASTIC} mode.
+     *
+     * @param maxWorkers the maximum amount of workers.
+     */
+    public void setMaxWorkers(int maxWorkers) {
+        this.maxWorkers = maxWorkers;
+    }
+
+    /**
+     * Returns the time that an idle worker is kept alive in {@link ExecutionMode#ELASTIC} mode.
+     *
+     * @return the keep-alive time.
+     */
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Sets the time that an idle worker is kept alive in {@link ExecutionMode#ELASTIC} mode.
+     *
+     * @param keepAlive the keep-alive time.
+     */
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Returns the amount of stripes in which the chats are distributed.
+     *
+     * @return the amount of stripes.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * Sets the amount of stripes in which the chats are distributed.
+     *
+     * @param stripes the amount of stripes.
+     */
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * Returns the maximum amount of updates waiting to be processed in each stripe.
+     *
+     * @return the maximum amount of updates waiting in each stripe.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Sets the maximum amount of updates waiting to be processed in each stripe.
+     *
+     * @param queueDepth the maximum amount of updates waiting in each stripe.
+     */
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Returns what to do with the incoming updates when their stripe is full.
+     *
+     * @return the policy for the full stripes.
+     */
+    public Overload getOverload() {
+        return overload;
+    }
+
+    /**
+     * Sets what to do with the incoming updates when their stripe is full.
+     *
+     * @param overload the policy for the full stripes.
+     */
+    public void setOverload(Overload overload) {
+        this.overload = overload;
+    }
+
+    /**
+     * Indicates what to do with the incoming updates when their stripe is full.
+     * The updates of the authorized chats and the reserved commands of the multistage flow are in the priority lane,
+     * so they are processed before the rest of the updates of the stripe. The waiting updates of their chat
+     * are moved to the priority lane along with them, so the updates of a chat are never reordered.
+     */
+    public enum Overload {
+
+        /**
+         * The thread that receives the updates waits until there is room in the stripe.
+         */
+        BLOCK,
+
+        /**
+         * The oldest update out of the priority lane is discarded. If there is none,
+         * the oldest update of the priority lane is discarded.
+         */
+        DROP_OLDEST,
+
+        /**
+         * The oldest update out of the priority lane is discarded. If there is none, the incoming update
+         * is discarded, or waits if it's in the priority lane.
+         */
+        DROP_UNAUTHORIZED,
+
+        /**
+         * The incoming update is discarded and the chat is told that the bot is busy. An update in the priority lane
+         * takes the place of the oldest update out of the priority lane instead, or waits if there is none.
+         */
+        REPLY_BUSY
+    }
+}
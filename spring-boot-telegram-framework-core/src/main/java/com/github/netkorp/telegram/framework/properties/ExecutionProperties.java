@@ -0,0 +1,162 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contains the properties associated to the limits of the execution of the commands, such as
+ * {@code telegram.execution.timeout=10s} or {@code telegram.execution.commands.report.max-concurrent=2}.
+ * The limits of a command are taken from {@link #getCommands()}, then from its
+ * {@link com.github.netkorp.telegram.framework.annotations.TelegramCommand} annotation, and then from the defaults.
+ */
+@ConfigurationProperties("telegram.execution")
+public class ExecutionProperties {
+
+    /**
+     * The default maximum time that an execution of a command may take. Zero means there is no limit.
+     */
+    private Duration timeout = Duration.ZERO;
+
+    /**
+     * The default maximum amount of executions of a command at the same time. Zero means there is no limit.
+     */
+    private int maxConcurrent = 0;
+
+    /**
+     * Indicates whether the chat is told that its command was rejected or cancelled.
+     */
+    private boolean reply = true;
+
+    /**
+     * The limits of each command by its name, without the slash (/).
+     */
+    private Map<String, Limits> commands = new HashMap<>();
+
+    /**
+     * Returns the default maximum time that an execution of a command may take.
+     *
+     * @return the default maximum time of an execution.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the default maximum time that an execution of a command may take.
+     *
+     * @param timeout the default maximum time of an execution.
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the default maximum amount of executions of a command at the same time.
+     *
+     * @return the default maximum amount of executions at the same time.
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Sets the default maximum amount of executions of a command at the same time.
+     *
+     * @param maxConcurrent the default maximum amount of executions at the same time.
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Returns {@code true} if the chat is told that its command was rejected or cancelled.
+     *
+     * @return {@code true} if the chat is told; {@code false} otherwise.
+     */
+    public boolean isReply() {
+        return reply;
+    }
+
+    /**
+     * Sets whether the chat is told that its command was rejected or cancelled.
+     *
+     * @param reply {@code true} if the chat is told; {@code false} otherwise.
+     */
+    public void setReply(boolean reply) {
+        this.reply = reply;
+    }
+
+    /**
+     * Returns the limits of each command by its name.
+     *
+     * @return the limits by command name.
+     */
+    public Map<String, Limits> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Sets the limits of each command by its name.
+     *
+     * @param commands the limits by command name.
+     */
+    public void setCommands(Map<String, Limits> commands) {
+        this.commands = commands;
+    }
+
+    /**
+     * Contains the limits of the execution of a command. The limits that are not set are taken from the annotation
+     * of the command or the defaults.
+     */
+    public static class Limits {
+
+        /**
+         * The maximum time that an execution of the command may take. Zero means there is no limit.
+         */
+        private Duration timeout;
+
+        /**
+         * The maximum amount of executions of the command at the same time. Zero means there is no limit.
+         */
+        private Integer maxConcurrent;
+
+        /**
+         * Returns the maximum time that an execution of the command may take.
+         *
+         * @return the maximum time of an execution, or {@code null} if it's not set.
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        /**
+         * Sets the maximum time that an execution of the command may take.
+         *
+         * @param timeout the maximum time of an execution.
+         */
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        /**
+         * Returns the maximum amount of executions of the command at the same time.
+         *
+         * @return the maximum amount of executions at the same time, or {@code null} if it's not set.
+         */
+        public Integer getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        /**
+         * Sets the maximum amount of executions of the command at the same time.
+         *
+         * @param maxConcurrent the maximum amount of executions at the same time.
+         */
+        public void setMaxConcurrent(Integer maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
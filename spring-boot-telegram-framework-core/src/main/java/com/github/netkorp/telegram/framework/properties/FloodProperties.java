@@ -0,0 +1,149 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Contains the properties associated to the protection against the chats that send too many updates.
+ */
+@ConfigurationProperties("telegram.flood")
+public class FloodProperties {
+
+    /**
+     * Indicates whether the updates of each chat are limited.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The sustained amount of updates per second of a chat.
+     */
+    private double rate = 1;
+
+    /**
+     * The amount of updates that a chat can send at once.
+     */
+    private int burst = 10;
+
+    /**
+     * What to do with the updates that exceed the limit.
+     */
+    private Policy policy = Policy.DROP;
+
+    /**
+     * The maximum time that an update is delayed with the {@link Policy#DELAY} policy.
+     * The updates that would wait longer are dropped.
+     */
+    private Duration maxDelay = Duration.ofSeconds(5);
+
+    /**
+     * Returns {@code true} if the updates of each chat are limited.
+     *
+     * @return {@code true} if the updates are limited; {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the updates of each chat are limited.
+     *
+     * @param enabled {@code true} if the updates are limited; {@code false} otherwise.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the sustained amount of updates per second of a chat.
+     *
+     * @return the rate of a chat.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the sustained amount of updates per second of a chat.
+     *
+     * @param rate the rate of a chat.
+     */
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * Returns the amount of updates that a chat can send at once.
+     *
+     * @return the burst size of a chat.
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Sets the amount of updates that a chat can send at once.
+     *
+     * @param burst the burst size of a chat.
+     */
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    /**
+     * Returns what to do with the updates that exceed the limit.
+     *
+     * @return the policy.
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets what to do with the updates that exceed the limit.
+     *
+     * @param policy the policy.
+     */
+    public void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Returns the maximum time that an update is delayed with the {@link Policy#DELAY} policy.
+     *
+     * @return the maximum delay.
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets the maximum time that an update is delayed with the {@link Policy#DELAY} policy.
+     *
+     * @param maxDelay the maximum delay.
+     */
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Indicates what to do with the updates that exceed the limit.
+     */
+    public enum Policy {
+
+        /**
+         * The updates are discarded.
+         */
+        DROP,
+
+        /**
+         * The updates are processed later, once the chat is within its rate.
+         */
+        DELAY,
+
+        /**
+         * The updates are discarded and the chat is asked to slow down once.
+         */
+        REPLY
+    }
+}
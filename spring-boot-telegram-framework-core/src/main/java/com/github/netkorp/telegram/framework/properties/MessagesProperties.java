@@ -0,0 +1,36 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Contains the properties associated to the messages of the framework.
+ */
+@ConfigurationProperties("telegram.messages")
+public class MessagesProperties {
+
+    /**
+     * The time that the loaded messages are cached before checking the files again.
+     * If it's not set the messages are loaded once. The help of the commands is rendered again after this time as well.
+     */
+    private Duration cacheDuration;
+
+    /**
+     * Returns the time that the loaded messages are cached.
+     *
+     * @return the cache duration, or {@code null} if the messages are loaded once.
+     */
+    public Duration getCacheDuration() {
+        return cacheDuration;
+    }
+
+    /**
+     * Sets the time that the loaded messages are cached.
+     *
+     * @param cacheDuration the cache duration.
+     */
+    public void setCacheDuration(Duration cacheDuration) {
+        this.cacheDuration = cacheDuration;
+    }
+}
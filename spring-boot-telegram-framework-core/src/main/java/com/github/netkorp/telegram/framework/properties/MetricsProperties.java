@@ -0,0 +1,33 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the metrics of the bot.
+ */
+@ConfigurationProperties("telegram.metrics")
+public class MetricsProperties {
+
+    /**
+     * Indicates whether the metrics are recorded. It requires Micrometer in the classpath.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Returns {@code true} if the metrics are recorded.
+     *
+     * @return {@code true} if the metrics are recorded; {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the metrics are recorded.
+     *
+     * @param enabled {@code true} if the metrics are recorded; {@code false} otherwise.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the delivery of the outgoing messages.
+ */
+@ConfigurationProperties("telegram.outbound")
+public class OutboundProperties {
+
+    /**
+     * Indicates whether the messages are delivered asynchronously by the outbound queue.
+     * If it's disabled the messages are sent by the thread that produced them.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The maximum amount of messages waiting to be delivered.
+     */
+    private int capacity = 10000;
+
+    /**
+     * The amount of threads that deliver the messages.
+     */
+    private int senders = 4;
+
+    /**
+     * The maximum amount of messages per second for the whole bot.
+     */
+    private double globalRate = 30;
+
+    /**
+     * The maximum amount of messages that could be sent at once for the whole bot.
+     */
+    private int globalBurst = 30;
+
+    /**
+     * The maximum amount of messages per second for each chat.
+     */
+    private double chatRate = 1;
+
+    /**
+     * The maximum amount of messages that could be sent at once to a chat.
+     */
+    private int chatBurst = 3;
+
+    /**
+     * The maximum amount of times that a message is retried after Telegram asked to retry it later.
+     */
+    private int maxRetries = 3;
+
+    /**
+     * Returns {@code true} if the messages are delivered asynchronously by the outbound queue.
+     *
+     * @return {@code true} if the outbound queue is enabled; {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the messages are delivered asynchronously by the outbound queue.
+     *
+     * @param enabled {@code true} if the outbound queue is enabled; {@code false} otherwise.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the maximum amount of messages waiting to be delivered.
+     *
+     * @return the capacity of the outbound queue.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum amount of messages waiting to be delivered.
+     *
+     * @param capacity the capacity of the outbound queue.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the amount of threads that deliver the messages.
+     *
+     * @return the amount of sender threads.
+     */
+    public int getSenders() {
+        return senders;
+    }
+
+    /**
+     * Sets the amount of threads that deliver the messages.
+     *
+     * @param senders the amount of sender threads.
+     */
+    public void setSenders(int senders) {
+        this.senders = senders;
+    }
+
+    /**
+     * Returns the maximum amount of messages per second for the whole bot.
+     *
+     * @return the global rate.
+     */
+    public double getGlobalRate() {
+        return globalRate;
+    }
+
+    /**
+     * Sets the maximum amount of messages per second for the whole bot.
+     *
+     * @param globalRate the global rate.
+     */
+    public void setGlobalRate(double globalRate) {
+        this.globalRate = globalRate;
+    }
+
+    /**
+     * Returns the maximum amount of messages that could be sent at once for the whole bot.
+     *
+     * @return the global burst.
+     */
+    public int getGlobalBurst() {
+        return globalBurst;
+    }
+
+    /**
+     * Sets the maximum amount of messages that could be sent at once for the whole bot.
+     *
+     * @param globalBurst the global burst.
+     */
+    public void setGlobalBurst(int globalBurst) {
+        this.globalBurst = globalBurst;
+    }
+
+    /**
+     * Returns the maximum amount of messages per second for each chat.
+     *
+     * @return the rate per chat.
+     */
+    public double getChatRate() {
+        return chatRate;
+    }
+
+    /**
+     * Sets the maximum amount of messages per second for each chat.
+     *
+     * @param chatRate the rate per chat.
+     */
+    public void setChatRate(double chatRate) {
+        this.chatRate = chatRate;
+    }
+
+    /**
+     * Returns the maximum amount of messages that could be sent at once to a chat.
+     *
+     * @return the burst per chat.
+     */
+    public int getChatBurst() {
+        return chatBurst;
+    }
+
+    /**
+     * Sets the maximum amount of messages that could be sent at once to a chat.
+     *
+     * @param chatBurst the burst per chat.
+     */
+    public void setChatBurst(int chatBurst) {
+        this.chatBurst = chatBurst;
+    }
+
+    /**
+     * Returns the maximum amount of times that a message is retried after Telegram asked to retry it later.
+     *
+     * @return the maximum amount of retries.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the maximum amount of times that a message is retried after Telegram asked to retry it later.
+     *
+     * @param maxRetries the maximum amount of retries.
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+}
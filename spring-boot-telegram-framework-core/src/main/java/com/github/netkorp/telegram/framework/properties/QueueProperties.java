@@ -0,0 +1,104 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the durable queue between the receiving and the processing of the updates.
+ */
+@ConfigurationProperties("telegram.queue")
+public class QueueProperties {
+
+    /**
+     * Indicates whether the accepted updates are kept in a durable queue until they are processed.
+     * If it's disabled the updates are handed straight to the dispatcher.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The directory of the queue.
+     */
+    private String directory = "telegram-updates";
+
+    /**
+     * The size in bytes of each file of the queue.
+     */
+    private int segmentSize = 16 * 1024 * 1024;
+
+    /**
+     * Indicates whether every change is flushed to the storage device before continuing.
+     * Without it the queue survives the crashes of the bot but not the crashes of the operating system.
+     */
+    private boolean sync = false;
+
+    /**
+     * Returns {@code true} if the accepted updates are kept in a durable queue.
+     *
+     * @return {@code true} if the updates are queued; {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the accepted updates are kept in a durable queue.
+     *
+     * @param enabled {@code true} if the updates are queued; {@code false} otherwise.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the directory of the queue.
+     *
+     * @return the path of the directory.
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory of the queue.
+     *
+     * @param directory the path of the directory.
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the size in bytes of each file of the queue.
+     *
+     * @return the size of each file.
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size in bytes of each file of the queue.
+     *
+     * @param segmentSize the size of each file.
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Returns {@code true} if every change is flushed to the storage device before continuing.
+     *
+     * @return {@code true} if every change is flushed; {@code false} otherwise.
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Sets whether every change is flushed to the storage device before continuing.
+     *
+     * @param sync {@code true} if every change is flushed; {@code false} otherwise.
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contains the properties associated to the roles of the chats, such as
+ * {@code telegram.roles.members.admin=123,456} or {@code telegram.roles.files.premium=/data/premium.txt}.
+ */
+@ConfigurationProperties("telegram.roles")
+public class RoleProperties {
+
+    /**
+     * The chat identifications that have each role.
+     */
+    private Map<String, List<Long>> members = new HashMap<>();
+
+    /**
+     * The file with the chat identifications that have each role, separated by whitespaces or commas.
+     */
+    private Map<String, String> files = new HashMap<>();
+
+    /**
+     * Returns the chat identifications that have each role.
+     *
+     * @return the chat identifications by role.
+     */
+    public Map<String, List<Long>> getMembers() {
+        return members;
+    }
+
+    /**
+     * Sets the chat identifications that have each role.
+     *
+     * @param members the chat identifications by role.
+     */
+    public void setMembers(Map<String, List<Long>> members) {
+        this.members = members;
+    }
+
+    /**
+     * Returns the file with the chat identifications that have each role.
+     *
+     * @return the path of the file by role.
+     */
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Sets the file with the chat identifications that have each role.
+     *
+     * @param files the path of the file by role.
+     */
+    public void setFiles(Map<String, String> files) {
+        this.files = files;
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the storage of the multistage command sessions.
+ */
+@ConfigurationProperties("telegram.sessions")
+public class SessionProperties {
+
+    /**
+     * The kind of storage for the sessions.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * The log file of the sessions when they are stored in a file.
+     */
+    private String file = "telegram-sessions.log";
+
+    /**
+     * The initial size in bytes of the log file.
+     */
+    private int fileSize = 1024 * 1024;
+
+    /**
+     * Indicates whether every change is flushed to the storage device before continuing.
+     * Without it the changes survive the crashes of the bot but not the crashes of the operating system.
+     */
+    private boolean sync = false;
+
+    /**
+     * Returns the kind of storage for the sessions.
+     *
+     * @return the kind of storage.
+     */
+    public Store getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the kind of storage for the sessions.
+     *
+     * @param store the kind of storage.
+     */
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns the log file of the sessions.
+     *
+     * @return the path of the log file.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the log file of the sessions.
+     *
+     * @param file the path of the log file.
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the initial size in bytes of the log file.
+     *
+     * @return the initial size of the log file.
+     */
+    public int getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Sets the initial size in bytes of the log file.
+     *
+     * @param fileSize the initial size of the log file.
+     */
+    public void setFileSize(int fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Returns {@code true} if every change is flushed to the storage device before continuing.
+     *
+     * @return {@code true} if every change is flushed; {@code false} otherwise.
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Sets whether every change is flushed to the storage device before continuing.
+     *
+     * @param sync {@code true} if every change is flushed; {@code false} otherwise.
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * The kinds of storage for the sessions.
+     */
+    public enum Store {
+
+        /**
+         * The sessions are kept in memory and they are lost when the bot is stopped.
+         */
+        MEMORY,
+
+        /**
+         * The sessions are kept in memory and recorded in a local file.
+         */
+        FILE
+    }
+}
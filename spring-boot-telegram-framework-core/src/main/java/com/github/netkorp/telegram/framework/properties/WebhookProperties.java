@@ -0,0 +1,196 @@
+package com.github.netkorp.telegram.framework.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contains the properties associated to the reception of the updates through a webhook.
+ * They are used when {@code telegram.bots.mode} is {@code webhook}.
+ */
+@ConfigurationProperties("telegram.webhook")
+public class WebhookProperties {
+
+    /**
+     * The address in which the embedded server listens.
+     */
+    private String host = "0.0.0.0";
+
+    /**
+     * The port in which the embedded server listens. If it's {@code 0} a free port is chosen.
+     */
+    private int port = 8443;
+
+    /**
+     * The path that receives the updates.
+     */
+    private String path = "/telegram";
+
+    /**
+     * The secret token that Telegram sends in every request. The requests without it are rejected.
+     */
+    private String secretToken = "";
+
+    /**
+     * The public URL of the embedded server. If it's set the webhook is registered in Telegram on startup.
+     */
+    private String externalUrl = "";
+
+    /**
+     * The maximum amount of simultaneous connections that Telegram opens to deliver the updates.
+     */
+    private int maxConnections = 40;
+
+    /**
+     * The amount of threads of the embedded server. Each request holds a thread while its body is read,
+     * which is short since the update is handed off before it's processed.
+     */
+    private int threads = 2;
+
+    /**
+     * The maximum size in bytes of the body of a request. The larger requests are rejected.
+     */
+    private int maxBodySize = 1024 * 1024;
+
+    /**
+     * Returns the address in which the embedded server listens.
+     *
+     * @return the address of the server.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Sets the address in which the embedded server listens.
+     *
+     * @param host the address of the server.
+     */
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Returns the port in which the embedded server listens.
+     *
+     * @return the port of the server.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Sets the port in which the embedded server listens.
+     *
+     * @param port the port of the server.
+     */
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Returns the path that receives the updates.
+     *
+     * @return the path of the webhook.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the path that receives the updates.
+     *
+     * @param path the path of the webhook.
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the secret token that Telegram sends in every request.
+     *
+     * @return the secret token.
+     */
+    public String getSecretToken() {
+        return secretToken;
+    }
+
+    /**
+     * Sets the secret token that Telegram sends in every request.
+     *
+     * @param secretToken the secret token.
+     */
+    public void setSecretToken(String secretToken) {
+        this.secretToken = secretToken;
+    }
+
+    /**
+     * Returns the public URL of the embedded server.
+     *
+     * @return the public URL.
+     */
+    public String getExternalUrl() {
+        return externalUrl;
+    }
+
+    /**
+     * Sets the public URL of the embedded server.
+     *
+     * @param externalUrl the public URL.
+     */
+    public void setExternalUrl(String externalUrl) {
+        this.externalUrl = externalUrl;
+    }
+
+    /**
+     * Returns the maximum amount of simultaneous connections that Telegram opens to deliver the updates.
+     *
+     * @return the maximum amount of connections.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Sets the maximum amount of simultaneous connections that Telegram opens to deliver the updates.
+     *
+     * @param maxConnections the maximum amount of connections.
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Returns the amount of threads of the embedded server.
+     *
+     * @return the amount of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the amount of threads of the embedded server.
+     *
+     * @param threads the amount of threads.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the maximum size in bytes of the body of a request.
+     *
+     * @return the maximum size of the body.
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Sets the maximum size in bytes of the body of a request.
+     *
+     * @param maxBodySize the maximum size of the body.
+     */
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+}
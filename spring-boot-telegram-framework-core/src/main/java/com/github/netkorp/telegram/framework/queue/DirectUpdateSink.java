@@ -0,0 +1,106 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the updates straight to the {@link UpdateDispatcher}, which processes them with the {@link UpdateManager}.
+ * It's the sink used unless the updates are queued, so an update that hasn't been processed yet is lost
+ * when the bot is stopped.
+ * The updates received together are grouped by chat, and each group is dispatched and routed at once.
+ */
+public class DirectUpdateSink implements UpdateSink {
+
+    /**
+     * The component for dispatching the updates to the pool of workers.
+     */
+    private final UpdateDispatcher updateDispatcher;
+
+    /**
+     * The component for routing the updates to the proper command.
+     */
+    private final UpdateManager updateManager;
+
+    /**
+     * Constructs a new {@link DirectUpdateSink} instance with the {@link UpdateDispatcher} instance
+     * and the {@link UpdateManager} instance.
+     *
+     * @param updateDispatcher the {@link UpdateDispatcher} instance.
+     * @param updateManager    the {@link UpdateManager} instance.
+     */
+    public DirectUpdateSink(UpdateDispatcher updateDispatcher, UpdateManager updateManager) {
+        this.updateDispatcher = updateDispatcher;
+        this.updateManager = updateManager;
+    }
+
+    /**
+     * Dispatches the update to be processed.
+     *
+     * @param update the accepted update.
+     */
+    @Override
+    public void append(Update update) {
+        updateDispatcher.dispatch(updateManager.group(Collections.singletonList(update)), updateManager::process);
+    }
+
+    /**
+     * Groups the updates by chat and dispatches each group to be processed together, keeping the order
+     * of the updates of each chat. The updates that don't belong to a chat are dispatched one by one.
+     *
+     * @param updates the accepted updates.
+     */
+    @Override
+    public void appendAll(List<Update> updates) {
+        appendAll(updates, () -> {
+        });
+    }
+
+    /**
+     * Groups the updates by chat and dispatches each group to be processed together, and runs the callback
+     * once every group is processed.
+     *
+     * @param updates the accepted updates.
+     * @param done    the logic that runs once every update is done with, even if it fails.
+     */
+    @Override
+    public void appendAll(List<Update> updates, Runnable done) {
+        List<List<Update>> groups = new ArrayList<>();
+        Map<Long, List<Update>> chats = new HashMap<>();
+        for (Update update : updates) {
+            long chatId = UpdateDispatcher.getChatId(update);
+            if (chatId == 0) {
+                groups.add(Collections.singletonList(update));
+            } else {
+                chats.computeIfAbsent(chatId, key -> {
+                    List<Update> group = new ArrayList<>();
+                    groups.add(group);
+                    return group;
+                }).add(update);
+            }
+        }
+
+        if (groups.isEmpty()) {
+            done.run();
+            return;
+        }
+
+        AtomicInteger pending = new AtomicInteger(groups.size());
+        Runnable groupDone = () -> {
+            if (pending.decrementAndGet() == 0) {
+                done.run();
+            }
+        };
+
+        for (List<Update> group : groups) {
+            updateDispatcher.dispatch(updateManager.group(group), updateManager::process, groupDone);
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the accepted updates in a durable queue made of memory-mapped append-only segments, so the bot
+ * receives the updates at its own pace while the commands process them at theirs.
+ * The committed position is kept in a file as well, so the updates that were not processed are provided again
+ * when the bot is restarted, while the processed ones are not. The segments whose updates were processed
+ * are deleted.
+ * The queue survives the crashes of the bot. Unless every change is flushed to the storage device,
+ * the last updates may be lost if the operating system crashes. The records of every segment that wasn't processed
+ * are validated when the queue is opened, and the damaged ones are discarded.
+ * The updates that don't fit in a segment are rejected.
+ */
+public class MappedUpdateQueue implements UpdateSink, UpdateSource, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The extension of the segment files, whose name is the position of their first byte.
+     */
+    private static final String SEGMENT_EXTENSION = ".log";
+
+    /**
+     * The name of the file that contains the committed position.
+     */
+    private static final String COMMITTED_FILE = "committed.position";
+
+    /**
+     * The size of the header of a record: the length and the checksum of the update.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The length that marks the end of the records of a segment. The free space after the last record is zero-filled.
+     */
+    private static final int END_OF_SEGMENT = -1;
+
+    /**
+     * The directory of the queue.
+     */
+    private final Path directory;
+
+    /**
+     * The size of each segment in bytes.
+     */
+    private final int segmentSize;
+
+    /**
+     * Indicates whether every change is flushed to the storage device before returning.
+     */
+    private final boolean sync;
+
+    /**
+     * The mapper for writing and reading the updates.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The component for recording the rejected updates.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * The segments by the position of their first byte.
+     */
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+
+    /**
+     * The channel of the file that contains the committed position.
+     */
+    private final FileChannel committedChannel;
+
+    /**
+     * The mapped content of the file that contains the committed position.
+     */
+    private final MappedByteBuffer committedBuffer;
+
+    /**
+     * The position in which the next update is appended.
+     */
+    private long writePosition;
+
+    /**
+     * The position of the next update to be provided.
+     */
+    private long readPosition;
+
+    /**
+     * The position of the first update that hasn't been processed.
+     */
+    private long committedPosition;
+
+    /**
+     * Indicates whether the queue is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructs a new {@link MappedUpdateQueue} instance in the directory, recovering the updates that
+     * were not processed if the directory contains a queue.
+     *
+     * @param directory   the directory of the queue.
+     * @param segmentSize the size of each segment in bytes.
+     * @param sync        {@code true} if every change is flushed to the storage device before returning;
+     *                    {@code false} if it's left to the operating system.
+     * @throws IOException if the queue can't be read.
+     */
+    public MappedUpdateQueue(Path directory, int segmentSize, boolean sync) throws IOException {
+        this(directory, segmentSize, sync, TelegramMetrics.NOOP);
+    }
+
+    /**
+     * Constructs a new {@link MappedUpdateQueue} instance in the directory, recovering the updates that
+     * were not processed if the directory contains a queue, and recording the rejected updates in the metrics.
+     *
+     * @param directory   the directory of the queue.
+     * @param segmentSize the size of each segment in bytes.
+     * @param sync        {@code true} if every change is flushed to the storage device before returning;
+     *                    {@code false} if it's left to the operating system.
+     * @param metrics     the {@link TelegramMetrics} instance.
+     * @throws IOException if the queue can't be read.
+     */
+    public MappedUpdateQueue(Path directory, int segmentSize, boolean sync, TelegramMetrics metrics)
+            throws IOException {
+        this.directory = directory.toAbsolutePath();
+        this.segmentSize = Math.max(segmentSize, HEADER_SIZE * 2);
+        this.sync = sync;
+        this.metrics = metrics;
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        Files.createDirectories(this.directory);
+        committedChannel = FileChannel.open(this.directory.resolve(COMMITTED_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        committedBuffer = committedChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        committedPosition = committedBuffer.getLong(0);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*" + SEGMENT_EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+                segments.put(base, new Segment(base, file, (int) Files.size(file)));
+            }
+        }
+
+        recover();
+        readPosition = committedPosition;
+        if (writePosition > committedPosition) {
+            LOG.info("{} bytes of updates waiting to be processed were restored from {}",
+                    writePosition - committedPosition, this.directory);
+        }
+    }
+
+    /**
+     * Validates the records of the segments from the one that contains the committed position, discarding
+     * the records damaged by a crash, and keeps the committed position at the start of a record within the queue.
+     * The write position is the end of the last valid record.
+     */
+    private void recover() {
+        if (segments.isEmpty()) {
+            writePosition = committedPosition;
+            return;
+        }
+
+        Segment last = segments.lastEntry().getValue();
+        Long from = segments.floorKey(committedPosition);
+        for (Segment segment : segments.tailMap(from == null ? segments.firstKey() : from, true).values()) {
+            long end = segment.base + validate(segment, segment == last);
+            if (segment != last && committedPosition > end && committedPosition < segment.base + segment.size) {
+                LOG.warn("The committed position {} is after the valid records of its segment. "
+                        + "The updates are provided from {}", committedPosition, segment.base + segment.size);
+                committedPosition = segment.base + segment.size;
+            }
+
+            if (segment == last) {
+                writePosition = end;
+            }
+        }
+
+        long first = segments.firstKey();
+        if (committedPosition < first || committedPosition > writePosition) {
+            LOG.warn("The committed position {} is out of the queue. The updates are provided from {}",
+                    committedPosition, Math.max(first, Math.min(committedPosition, writePosition)));
+            committedPosition = Math.max(first, Math.min(committedPosition, writePosition));
+        }
+    }
+
+    /**
+     * Validates the records of the segment and discards the records from the first damaged one.
+     * The free space of the last segment is zero-filled, while the other segments are ended where the damaged
+     * records start. The committed position is moved to the start of the record it points into, if any.
+     *
+     * @param segment the segment.
+     * @param last    {@code true} if it's the segment in which the updates are appended; {@code false} otherwise.
+     * @return the offset after the valid records, or the size of the segment if all its records are valid.
+     */
+    private int validate(Segment segment, boolean last) {
+        int offset = 0;
+        while (segment.size - offset >= HEADER_SIZE) {
+            int length = segment.buffer.getInt(offset);
+            if (length == END_OF_SEGMENT) {
+                return segment.size;
+            }
+
+            boolean valid = length > 0 && length <= segment.size - offset - HEADER_SIZE
+                    && segment.buffer.getInt(offset + Integer.BYTES) == checksum(segment, offset + HEADER_SIZE, length);
+            if (!valid) {
+                // The free space of the last segment is zero-filled; anything else was damaged by a crash
+                if (length != 0 || !last) {
+                    LOG.warn("The damaged records of the queue from the position {} to {} were discarded",
+                            segment.base + offset, segment.base + segment.size);
+                }
+
+                if (last) {
+                    for (int i = offset; i < segment.size; i++) {
+                        segment.buffer.put(i, (byte) 0);
+                    }
+                } else {
+                    segment.buffer.putInt(offset, END_OF_SEGMENT);
+                }
+
+                return offset;
+            }
+
+            long start = segment.base + offset;
+            if (committedPosition > start && committedPosition < start + HEADER_SIZE + length) {
+                LOG.warn("The committed position {} points into a record. The updates are provided from {}",
+                        committedPosition, start);
+                committedPosition = start;
+            }
+
+            offset += HEADER_SIZE + length;
+        }
+
+        return segment.size;
+    }
+
+    /**
+     * Appends the update at the end of the queue.
+     *
+     * @param update the accepted update.
+     */
+    @Override
+    public void append(Update update) {
+        byte[] content;
+        try {
+            content = objectMapper.writeValueAsBytes(update);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (content.length > segmentSize - HEADER_SIZE) {
+            metrics.updateRejected(TelegramMetrics.Rejection.OVERSIZE);
+            LOG.error("The update {} was rejected because its {} bytes don't fit in a segment of {} bytes. "
+                    + "The segment size of the queue should be increased.", update.getUpdateId(), content.length,
+                    segmentSize);
+            return;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                LOG.warn("The update {} was discarded because the queue is closed", update.getUpdateId());
+                return;
+            }
+
+            Segment segment = getWriteSegment();
+            int offset = (int) (writePosition - segment.base);
+            if (segment.size - offset < HEADER_SIZE + content.length) {
+                if (segment.size - offset >= Integer.BYTES) {
+                    segment.buffer.putInt(offset, END_OF_SEGMENT);
+                }
+
+                writePosition = segment.base + segment.size;
+                segment = getWriteSegment();
+                offset = 0;
+            }
+
+            ByteBuffer view = segment.buffer.duplicate();
+            view.position(offset + HEADER_SIZE);
+            view.put(content);
+
+            // The length is written last, since it makes the record visible after a crash
+            segment.buffer.putInt(offset + Integer.BYTES, checksum(segment, offset + HEADER_SIZE, content.length));
+            segment.buffer.putInt(offset, content.length);
+            if (sync) {
+                segment.buffer.force();
+            }
+
+            writePosition += HEADER_SIZE + content.length;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns {@code true}, since the appended updates are provided again when the bot is restarted.
+     *
+     * @return {@code true}.
+     */
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+
+    /**
+     * Returns the next update, waiting for it if there is none.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return the next update, or {@code null} if there was none before the timeout or the queue is closed.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    @Override
+    public QueuedUpdate poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long position;
+            byte[] content;
+
+            synchronized (this) {
+                while (!closed && !skipToRecord()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+
+                if (closed) {
+                    return null;
+                }
+
+                Segment segment = segments.floorEntry(readPosition).getValue();
+                int offset = (int) (readPosition - segment.base);
+                content = new byte[segment.buffer.getInt(offset)];
+                ByteBuffer view = segment.buffer.duplicate();
+                view.position(offset + HEADER_SIZE);
+                view.get(content);
+
+                position = readPosition;
+                readPosition += HEADER_SIZE + content.length;
+            }
+
+            try {
+                return new QueuedUpdate(position, position + HEADER_SIZE + content.length,
+                        objectMapper.readValue(content, Update.class));
+            } catch (IOException e) {
+                LOG.warn("The update at the position {} was discarded because it can't be read: {}",
+                        position, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the read position to the next record, skipping the end of the segments.
+     *
+     * @return {@code true} if there is a record at the read position; {@code false} otherwise.
+     */
+    private boolean skipToRecord() {
+        while (readPosition < writePosition) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(readPosition);
+            Segment segment = entry == null ? null : entry.getValue();
+            if (segment == null || readPosition >= segment.base + segment.size) {
+                readPosition = segments.higherKey(readPosition);
+                continue;
+            }
+
+            int offset = (int) (readPosition - segment.base);
+            if (segment.size - offset < HEADER_SIZE || segment.buffer.getInt(offset) == END_OF_SEGMENT) {
+                readPosition = segment.base + segment.size;
+                continue;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Records that every update before the position has been processed, and deletes the segments
+     * whose updates were all processed.
+     *
+     * @param position the position of the first update that hasn't been processed.
+     */
+    @Override
+    public synchronized void commit(long position) {
+        if (closed || position <= committedPosition) {
+            return;
+        }
+
+        committedPosition = position;
+        committedBuffer.putLong(0, position);
+        if (sync) {
+            committedBuffer.force();
+        }
+
+        while (segments.size() > 1) {
+            Segment first = segments.firstEntry().getValue();
+            if (first.base + first.size > position) {
+                break;
+            }
+
+            segments.remove(first.base);
+            first.delete();
+        }
+    }
+
+    /**
+     * Returns the amount of bytes of the updates that were not processed.
+     *
+     * @return the amount of bytes waiting to be processed.
+     */
+    public synchronized long getBacklog() {
+        return writePosition - committedPosition;
+    }
+
+    /**
+     * Returns the position of the first update that hasn't been processed.
+     *
+     * @return the committed position.
+     */
+    public synchronized long getCommittedPosition() {
+        return committedPosition;
+    }
+
+    /**
+     * Returns the position in which the next update is appended.
+     *
+     * @return the write position.
+     */
+    public synchronized long getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Flushes the queue and closes the files. The consumers waiting for updates are released.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        notifyAll();
+
+        committedBuffer.force();
+        committedChannel.close();
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+    }
+
+    /**
+     * Returns the segment that contains the write position, creating it if needed.
+     *
+     * @return the segment in which the next update is appended.
+     */
+    private Segment getWriteSegment() {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(writePosition);
+        if (entry != null && writePosition < entry.getKey() + entry.getValue().size) {
+            return entry.getValue();
+        }
+
+        Path file = directory.resolve(String.format("%020d%s", writePosition, SEGMENT_EXTENSION));
+        try {
+            Segment segment = new Segment(writePosition, file, segmentSize);
+            segments.put(writePosition, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the checksum of the content of a record.
+     *
+     * @param segment the segment of the record.
+     * @param offset  the offset of the content in the segment.
+     * @param length  the length of the content.
+     * @return the checksum of the content.
+     */
+    private static int checksum(Segment segment, int offset, int length) {
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position(offset).limit(offset + length);
+        CRC32 crc = new CRC32();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Contains a memory-mapped file of the queue.
+     */
+    private static final class Segment {
+
+        /**
+         * The position of the first byte of the segment.
+         */
+        private final long base;
+
+        /**
+         * The file of the segment.
+         */
+        private final Path file;
+
+        /**
+         * The size of the segment in bytes.
+         */
+        private final int size;
+
+        /**
+         * The channel of the file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * The mapped content of the file.
+         */
+        private final MappedByteBuffer buffer;
+
+        /**
+         * Constructs a new {@link Segment} instance, mapping the file and extending it to the size if it's smaller.
+         *
+         * @param base the position of the first byte of the segment.
+         * @param file the file of the segment.
+         * @param size the size of the segment in bytes.
+         * @throws IOException if the file can't be mapped.
+         */
+        private Segment(long base, Path file, int size) throws IOException {
+            this.base = base;
+            this.file = file;
+            this.size = size;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        /**
+         * Closes and deletes the file of the segment.
+         */
+        private void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warn("The processed segment {} couldn't be deleted: {}", file, e.getMessage());
+            }
+        }
+    }
+}
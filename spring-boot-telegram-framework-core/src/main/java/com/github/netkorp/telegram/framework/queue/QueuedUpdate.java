@@ -0,0 +1,66 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Contains an update provided by an {@link UpdateSource} and its position.
+ */
+public final class QueuedUpdate {
+
+    /**
+     * The position of the update.
+     */
+    private final long position;
+
+    /**
+     * The position of the next update.
+     */
+    private final long nextPosition;
+
+    /**
+     * The update.
+     */
+    private final Update update;
+
+    /**
+     * Constructs a new {@link QueuedUpdate} instance with the position of the update, the position of
+     * the next one and the update.
+     *
+     * @param position     the position of the update.
+     * @param nextPosition the position of the next update.
+     * @param update       the update.
+     */
+    public QueuedUpdate(long position, long nextPosition, Update update) {
+        this.position = position;
+        this.nextPosition = nextPosition;
+        this.update = update;
+    }
+
+    /**
+     * Returns the position of the update.
+     *
+     * @return the position of the update.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the position of the next update, which is committed once this update and the previous ones
+     * have been processed.
+     *
+     * @return the position of the next update.
+     */
+    public long getNextPosition() {
+        return nextPosition;
+    }
+
+    /**
+     * Returns the update.
+     *
+     * @return the update.
+     */
+    public Update getUpdate() {
+        return update;
+    }
+}
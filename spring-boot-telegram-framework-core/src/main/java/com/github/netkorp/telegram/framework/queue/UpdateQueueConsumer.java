@@ -0,0 +1,232 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import com.github.netkorp.telegram.framework.dispatchers.UpdateDispatcher;
+import com.github.netkorp.telegram.framework.managers.UpdateManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes the updates from the {@link UpdateSource} and hands them to the {@link UpdateDispatcher}, so the commands
+ * process them at their own pace while the bot goes on receiving.
+ * The updates are processed in parallel, so the committed position is the one of the oldest update
+ * that is still being processed: an update is only provided again after a restart if it wasn't done with.
+ * The consecutive updates of the same chat that are already queued are dispatched and routed together,
+ * as the {@link DirectUpdateSink} does with the updates received together, and they are done with at once.
+ */
+public class UpdateQueueConsumer implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The maximum time that the consumer waits for an update before checking whether it's stopped, in milliseconds.
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    /**
+     * The maximum amount of updates dispatched together, which is the most that Telegram delivers at once.
+     */
+    private static final int MAX_GROUP_SIZE = 100;
+
+    /**
+     * The source of the updates.
+     */
+    private final UpdateSource source;
+
+    /**
+     * The component for dispatching the updates to the pool of workers.
+     */
+    private final UpdateDispatcher updateDispatcher;
+
+    /**
+     * The component for routing the updates to the proper command.
+     */
+    private final UpdateManager updateManager;
+
+    /**
+     * The positions of the updates that are being processed.
+     */
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    /**
+     * The position after the last update taken from the source.
+     */
+    private volatile long nextPosition = -1;
+
+    /**
+     * The update taken from the source that didn't belong to the previous group. It's only used by the thread
+     * that takes the updates.
+     */
+    private QueuedUpdate pending;
+
+    /**
+     * The thread that takes the updates. It's {@code null} while the consumer is stopped.
+     */
+    private Thread thread;
+
+    /**
+     * Indicates whether the consumer is running.
+     */
+    private volatile boolean running;
+
+    /**
+     * Constructs a new {@link UpdateQueueConsumer} instance with the {@link UpdateSource} instance,
+     * the {@link UpdateDispatcher} instance and the {@link UpdateManager} instance.
+     *
+     * @param source           the {@link UpdateSource} instance.
+     * @param updateDispatcher the {@link UpdateDispatcher} instance.
+     * @param updateManager    the {@link UpdateManager} instance.
+     */
+    public UpdateQueueConsumer(UpdateSource source, UpdateDispatcher updateDispatcher, UpdateManager updateManager) {
+        this.source = source;
+        this.updateDispatcher = updateDispatcher;
+        this.updateManager = updateManager;
+    }
+
+    /**
+     * Starts taking the updates.
+     */
+    @Override
+    public synchronized void start() {
+        running = true;
+        thread = new Thread(this::consume, "telegram-update-queue");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops taking the updates. The updates that were taken are still processed by the {@link UpdateDispatcher}.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        thread = null;
+    }
+
+    /**
+     * Returns {@code true} if the consumer is running.
+     *
+     * @return {@code true} if the consumer is running; {@code false} otherwise.
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the amount of updates that are being processed.
+     *
+     * @return the amount of updates in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Takes the updates and dispatches them while the consumer is running.
+     */
+    private void consume() {
+        while (running) {
+            List<QueuedUpdate> group;
+            try {
+                group = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (group.isEmpty()) {
+                continue;
+            }
+
+            // The positions are in flight before the next position is published, so they're never committed too early
+            List<Update> updates = new ArrayList<>(group.size());
+            for (QueuedUpdate queued : group) {
+                inFlight.add(queued.getPosition());
+                updates.add(queued.getUpdate());
+            }
+            nextPosition = group.get(group.size() - 1).getNextPosition();
+
+            try {
+                updateDispatcher.dispatch(updateManager.group(updates), updateManager::process, () -> done(group));
+            } catch (RuntimeException e) {
+                LOG.error("The update {} couldn't be processed", updates.get(0).getUpdateId(), e);
+                done(group);
+            }
+        }
+    }
+
+    /**
+     * Takes the next update and the consecutive updates of the same chat that are already queued.
+     * The first update of another chat is kept for the next group.
+     *
+     * @return the updates of the same chat, in the order they were queued, or an empty list if there was none
+     * before the timeout.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    private List<QueuedUpdate> take() throws InterruptedException {
+        QueuedUpdate first = pending;
+        pending = null;
+        if (first == null) {
+            first = source.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<QueuedUpdate> group = new ArrayList<>();
+        group.add(first);
+        long chatId = UpdateDispatcher.getChatId(first.getUpdate());
+        if (chatId == 0) {
+            return group;
+        }
+
+        while (group.size() < MAX_GROUP_SIZE) {
+            QueuedUpdate next = source.poll(0, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                break;
+            }
+
+            if (UpdateDispatcher.getChatId(next.getUpdate()) != chatId) {
+                pending = next;
+                break;
+            }
+
+            group.add(next);
+        }
+
+        return group;
+    }
+
+    /**
+     * Commits the position of the oldest update that is still being processed.
+     *
+     * @param group the updates that are done with.
+     */
+    private void done(List<QueuedUpdate> group) {
+        long next = nextPosition;
+        for (QueuedUpdate queued : group) {
+            inFlight.remove(queued.getPosition());
+        }
+        Long oldest = inFlight.ceiling(Long.MIN_VALUE);
+        source.commit(oldest == null ? next : Math.min(oldest, next));
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.List;
+
+/**
+ * Receives the updates accepted by the bot, once they have been deduplicated and limited.
+ * It separates the receiving of the updates from their processing: the bot hands the update to the sink and
+ * it goes on receiving, regardless of the time that the commands take.
+ *
+ * @see DirectUpdateSink
+ * @see MappedUpdateQueue
+ */
+public interface UpdateSink {
+
+    /**
+     * Adds the update to be processed.
+     *
+     * @param update the accepted update.
+     */
+    void append(Update update);
+
+    /**
+     * Adds the updates received together to be processed, in the order they were received.
+     *
+     * @param updates the accepted updates.
+     */
+    default void appendAll(List<Update> updates) {
+        for (Update update : updates) {
+            append(update);
+        }
+    }
+
+    /**
+     * Adds the updates received together to be processed, and runs the callback once every update is done with.
+     * By default, the updates are done with once they are added, which suits the sinks that keep the updates
+     * until they are processed.
+     *
+     * @param updates the accepted updates.
+     * @param done    the logic that runs once every update is done with.
+     */
+    default void appendAll(List<Update> updates, Runnable done) {
+        appendAll(updates);
+        done.run();
+    }
+
+    /**
+     * Returns {@code true} if the added updates survive a restart of the bot, so their receipt can be
+     * acknowledged once they are added. By default, the updates are lost if the bot is stopped before
+     * processing them.
+     *
+     * @return {@code true} if the sink keeps the updates across restarts; {@code false} otherwise.
+     */
+    default boolean isDurable() {
+        return false;
+    }
+}
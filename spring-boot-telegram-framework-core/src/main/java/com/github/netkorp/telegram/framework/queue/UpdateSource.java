@@ -0,0 +1,31 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the updates waiting to be processed, in the same order they were appended.
+ * The consumer commits the position up to which the updates were processed, so they are not provided again
+ * when the bot is restarted, while the updates after that position are provided again.
+ *
+ * @see MappedUpdateQueue
+ */
+public interface UpdateSource {
+
+    /**
+     * Returns the next update, waiting for it if there is none.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return the next update, or {@code null} if there was none before the timeout.
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    QueuedUpdate poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Records that every update before the position has been processed.
+     * The positions lower than the committed one are ignored.
+     *
+     * @param position the position of the first update that hasn't been processed.
+     */
+    void commit(long position);
+}
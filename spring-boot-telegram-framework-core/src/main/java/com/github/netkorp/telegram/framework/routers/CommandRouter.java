@@ -0,0 +1,463 @@
+package com.github.netkorp.telegram.framework.routers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Provides an immutable router from the names of the commands to their values, ignoring case.
+ * The names are kept into a character trie flattened into arrays, so the lookups neither allocate nor throw,
+ * and the trie also resolves unambiguous prefixes and suggests the names that are close to an unknown one.
+ * The names are looked up with a region of a {@link CharSequence}, so the text of a message is not copied.
+ *
+ * @param <V> the type of the values.
+ * @see Builder
+ */
+public final class CommandRouter<V> {
+
+    /**
+     * The value of {@link #terminals} and {@link #uniques} when there is no value.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The position of the first edge of each node. The edges of the node {@code n} are between
+     * {@code edgeStarts[n]} and {@code edgeStarts[n + 1]}, sorted by their label.
+     */
+    private final int[] edgeStarts;
+
+    /**
+     * The folded character of each edge.
+     */
+    private final char[] labels;
+
+    /**
+     * The node to which each edge leads.
+     */
+    private final int[] targets;
+
+    /**
+     * The value of the name that ends at each node, or {@link #NONE}.
+     */
+    private final int[] terminals;
+
+    /**
+     * The only value of the names that start with the prefix of each node, or {@link #NONE} if there are several.
+     */
+    private final int[] uniques;
+
+    /**
+     * The name, as it was added, that ends at each node, or {@code null}.
+     */
+    private final String[] names;
+
+    /**
+     * The distinct values.
+     */
+    private final Object[] values;
+
+    /**
+     * Constructs a new {@link CommandRouter} instance from the root of the trie of the builder.
+     *
+     * @param root           the root of the trie.
+     * @param nodeCount      the amount of nodes of the trie.
+     * @param distinctValues the distinct values, in the order of their indexes.
+     */
+    private CommandRouter(Builder.Node root, int nodeCount, List<Object> distinctValues) {
+        this.edgeStarts = new int[nodeCount + 1];
+        this.labels = new char[nodeCount - 1];
+        this.targets = new int[nodeCount - 1];
+        this.terminals = new int[nodeCount];
+        this.uniques = new int[nodeCount];
+        this.names = new String[nodeCount];
+        this.values = distinctValues.toArray();
+
+        // The nodes are numbered breadth-first, so the edges of every node are contiguous
+        Deque<Builder.Node> pending = new ArrayDeque<>();
+        pending.add(root);
+        int node = 0;
+        int edge = 0;
+        int nextNode = 1;
+
+        while (!pending.isEmpty()) {
+            Builder.Node current = pending.poll();
+            edgeStarts[node] = edge;
+            terminals[node] = current.value;
+            uniques[node] = current.unique;
+            names[node] = current.name;
+
+            for (Map.Entry<Character, Builder.Node> child : current.children.entrySet()) {
+                labels[edge] = child.getKey();
+                targets[edge] = nextNode++;
+                pending.add(child.getValue());
+                edge++;
+            }
+
+            node++;
+        }
+
+        edgeStarts[nodeCount] = edge;
+    }
+
+    /**
+     * Returns a new {@link Builder} instance.
+     *
+     * @param <V> the type of the values.
+     * @return the builder.
+     */
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the value of the name, ignoring case, or {@code null} if it's not present.
+     *
+     * @param name the name.
+     * @return the value of the name, if any; {@code null} otherwise.
+     */
+    public V find(CharSequence name) {
+        return find(name, 0, name.length());
+    }
+
+    /**
+     * Returns the value of the name in the region of the text, ignoring case, or {@code null} if it's not present.
+     *
+     * @param text  the text that contains the name.
+     * @param start the position in which the name starts.
+     * @param end   the position after the name.
+     * @return the value of the name, if any; {@code null} otherwise.
+     */
+    public V find(CharSequence text, int start, int end) {
+        int node = walk(text, start, end);
+        return node == NONE ? null : value(terminals[node]);
+    }
+
+    /**
+     * Returns the value of the name in the region of the text, ignoring case, or the value of the only name
+     * that starts with it. It returns {@code null} if the name is not present and the prefix is ambiguous.
+     *
+     * @param text  the text that contains the name or its prefix.
+     * @param start the position in which the name starts.
+     * @param end   the position after the name.
+     * @return the value of the name or the prefix, if any; {@code null} otherwise.
+     */
+    public V findByPrefix(CharSequence text, int start, int end) {
+        int node = walk(text, start, end);
+        if (node == NONE) {
+            return null;
+        }
+
+        return value(terminals[node] != NONE ? terminals[node] : uniques[node]);
+    }
+
+    /**
+     * Returns the names whose edit distance to the region of the text is at most the maximum distance,
+     * ignoring case. The names are sorted by their distance and then alphabetically.
+     *
+     * @param text        the text that contains the name.
+     * @param start       the position in which the name starts.
+     * @param end         the position after the name.
+     * @param maxDistance the maximum amount of insertions, deletions and substitutions.
+     * @param limit       the maximum amount of names.
+     * @return the names close to the region of the text.
+     */
+    public List<String> suggest(CharSequence text, int start, int end, int maxDistance, int limit) {
+        if (maxDistance <= 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int length = end - start;
+        int[] firstRow = new int[length + 1];
+        for (int i = 0; i <= length; i++) {
+            firstRow[i] = i;
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int edge = edgeStarts[0]; edge < edgeStarts[1]; edge++) {
+            suggest(targets[edge], labels[edge], text, start, firstRow, maxDistance, suggestions);
+        }
+
+        suggestions.sort(Comparator.comparingInt((Suggestion suggestion) -> suggestion.distance)
+                .thenComparing(suggestion -> suggestion.name));
+
+        List<String> result = new ArrayList<>(Math.min(limit, suggestions.size()));
+        for (int i = 0; i < suggestions.size() && result.size() < limit; i++) {
+            result.add(suggestions.get(i).name);
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the next row of the edit distance for the node and visits its children while the distance
+     * can still be within the maximum distance.
+     *
+     * @param node        the node.
+     * @param label       the character of the edge that leads to the node.
+     * @param text        the text that contains the name.
+     * @param start       the position in which the name starts.
+     * @param previousRow the row of the parent node.
+     * @param maxDistance the maximum distance.
+     * @param suggestions the names found.
+     */
+    private void suggest(int node, char label, CharSequence text, int start, int[] previousRow,
+                         int maxDistance, List<Suggestion> suggestions) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int minimum = row[0];
+
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previousRow[i - 1] + (fold(text.charAt(start + i - 1)) == label ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(row[i - 1], previousRow[i]) + 1);
+            minimum = Math.min(minimum, row[i]);
+        }
+
+        if (names[node] != null && row[row.length - 1] <= maxDistance) {
+            suggestions.add(new Suggestion(names[node], row[row.length - 1]));
+        }
+
+        if (minimum <= maxDistance) {
+            for (int edge = edgeStarts[node]; edge < edgeStarts[node + 1]; edge++) {
+                suggest(targets[edge], labels[edge], text, start, row, maxDistance, suggestions);
+            }
+        }
+    }
+
+    /**
+     * Returns the node reached by following the region of the text from the root, or {@link #NONE}.
+     *
+     * @param text  the text.
+     * @param start the position in which the region starts.
+     * @param end   the position after the region.
+     * @return the node reached, if any; {@link #NONE} otherwise.
+     */
+    private int walk(CharSequence text, int start, int end) {
+        int node = 0;
+
+        for (int i = start; i < end && node != NONE; i++) {
+            node = child(node, fold(text.charAt(i)));
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the child of the node through the edge with the label, or {@link #NONE}.
+     *
+     * @param node  the node.
+     * @param label the folded character.
+     * @return the child, if any; {@link #NONE} otherwise.
+     */
+    private int child(int node, char label) {
+        int low = edgeStarts[node];
+        int high = edgeStarts[node + 1] - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle] < label) {
+                low = middle + 1;
+            } else if (labels[middle] > label) {
+                high = middle - 1;
+            } else {
+                return targets[middle];
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Returns the value with the index, or {@code null} if the index is {@link #NONE}.
+     *
+     * @param index the index of the value.
+     * @return the value, if any; {@code null} otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private V value(int index) {
+        return index == NONE ? null : (V) values[index];
+    }
+
+    /**
+     * Returns the character folded to a single case, in the same way as {@link String#equalsIgnoreCase(String)}.
+     *
+     * @param character the character.
+     * @return the folded character.
+     */
+    private static char fold(char character) {
+        return Character.toLowerCase(Character.toUpperCase(character));
+    }
+
+    /**
+     * Represents a name close to the one looked up.
+     */
+    private static final class Suggestion {
+
+        /**
+         * The name.
+         */
+        private final String name;
+
+        /**
+         * The edit distance to the name looked up.
+         */
+        private final int distance;
+
+        private Suggestion(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Collects the names and values of a {@link CommandRouter}. It's not thread-safe.
+     *
+     * @param <V> the type of the values.
+     */
+    public static final class Builder<V> {
+
+        /**
+         * The names added, folded, and their values.
+         */
+        private final Map<String, V> entries = new LinkedHashMap<>();
+
+        /**
+         * The names as they were added, by their folded name.
+         */
+        private final Map<String, String> names = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the name and its value, replacing the previous value if the name was already added.
+         *
+         * @param name  the name.
+         * @param value the value.
+         * @return the builder.
+         */
+        public Builder<V> add(String name, V value) {
+            String folded = fold(name);
+            entries.put(folded, value);
+            names.put(folded, name);
+            return this;
+        }
+
+        /**
+         * Returns {@code true} if the name was added, ignoring case.
+         *
+         * @param name the name.
+         * @return {@code true} if the name was added; {@code false} otherwise.
+         */
+        public boolean contains(String name) {
+            return entries.containsKey(fold(name));
+        }
+
+        /**
+         * Returns a new {@link CommandRouter} instance with the names added.
+         *
+         * @return the router.
+         */
+        public CommandRouter<V> build() {
+            Map<Object, Integer> valueIndexes = new IdentityHashMap<>();
+            List<Object> distinctValues = new ArrayList<>();
+            Node root = new Node();
+            int nodeCount = 1;
+
+            for (Map.Entry<String, V> entry : entries.entrySet()) {
+                Node node = root;
+                for (char character : entry.getKey().toCharArray()) {
+                    Node child = node.children.get(character);
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(character, child);
+                        nodeCount++;
+                    }
+                    node = child;
+                }
+
+                Integer index = valueIndexes.get(entry.getValue());
+                if (index == null) {
+                    index = distinctValues.size();
+                    valueIndexes.put(entry.getValue(), index);
+                    distinctValues.add(entry.getValue());
+                }
+
+                node.value = index;
+                node.name = names.get(entry.getKey());
+            }
+
+            root.computeUnique();
+
+            return new CommandRouter<>(root, nodeCount, distinctValues);
+        }
+
+        /**
+         * Returns the name folded to a single case.
+         *
+         * @param name the name.
+         * @return the folded name.
+         */
+        private static String fold(String name) {
+            char[] characters = name.toCharArray();
+            for (int i = 0; i < characters.length; i++) {
+                characters[i] = CommandRouter.fold(characters[i]);
+            }
+
+            return new String(characters);
+        }
+
+        /**
+         * A node of the trie while it's being built.
+         */
+        private static final class Node {
+
+            /**
+             * The children by the folded character of their edge, sorted.
+             */
+            private final Map<Character, Node> children = new TreeMap<>();
+
+            /**
+             * The index of the value of the name that ends at the node, or {@link #NONE}.
+             */
+            private int value = NONE;
+
+            /**
+             * The index of the only value below the node, or {@link #NONE}.
+             */
+            private int unique = NONE;
+
+            /**
+             * The name that ends at the node, or {@code null}.
+             */
+            private String name;
+
+            /**
+             * Computes {@link #unique} for the node and its descendants.
+             *
+             * @return the index of the only value below the node, {@link #NONE} if there are several,
+             * or {@code -2} if there are none.
+             */
+            private int computeUnique() {
+                int found = value == NONE ? -2 : value;
+
+                for (Node child : children.values()) {
+                    int childUnique = child.computeUnique();
+                    if (childUnique == -2) {
+                        continue;
+                    }
+                    found = found == -2 || found == childUnique ? childUnique : NONE;
+                }
+
+                unique = found == -2 ? NONE : found;
+                return found;
+            }
+        }
+    }
+}
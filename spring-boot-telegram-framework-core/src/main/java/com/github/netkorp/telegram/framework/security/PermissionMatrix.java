@@ -0,0 +1,142 @@
+package com.github.netkorp.telegram.framework.security;
+
+import com.github.netkorp.telegram.framework.commands.interfaces.Command;
+import com.github.netkorp.telegram.framework.descriptors.CommandDescriptor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Contains the roles that can invoke each command and the commands that each role can invoke.
+ * The roles are bits of an {@code int} mask, so a chat is allowed to invoke a command if its mask and
+ * the mask of the command have a bit in common. It's built once from the descriptors of the available commands.
+ */
+public final class PermissionMatrix {
+
+    /**
+     * The role of every chat. The non-secure commands have this role.
+     */
+    public static final int EVERYONE = 1;
+
+    /**
+     * The role of the authorized chats. The secure commands without roles have this role.
+     */
+    public static final int AUTHORIZED = 1 << 1;
+
+    /**
+     * The mask of roles of each command, by its index.
+     */
+    private final int[] commandRoles;
+
+    /**
+     * The commands that each role can invoke, by the position of the bit of the role.
+     */
+    private final BitSet[] commandsByRole;
+
+    /**
+     * The available commands, by their index.
+     */
+    private final Command[] commands;
+
+    /**
+     * The commands that each mask of roles can invoke. It's filled on the first request for each mask.
+     */
+    private final Map<Integer, List<Command>> availableCommands = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@link PermissionMatrix} instance from the descriptors of the available commands.
+     *
+     * @param descriptors the descriptors of the available commands.
+     * @param roleBit     the function that returns the bit of a role.
+     */
+    public PermissionMatrix(Collection<CommandDescriptor> descriptors, ToIntFunction<String> roleBit) {
+        this.commandRoles = new int[descriptors.size()];
+        this.commandsByRole = new BitSet[Integer.SIZE];
+        this.commands = new Command[descriptors.size()];
+
+        for (CommandDescriptor descriptor : descriptors) {
+            int roles;
+            if (!descriptor.isSecure()) {
+                roles = EVERYONE;
+            } else if (descriptor.getRoles().isEmpty()) {
+                roles = AUTHORIZED;
+            } else {
+                roles = 0;
+                for (String role : descriptor.getRoles()) {
+                    roles |= roleBit.applyAsInt(role);
+                }
+            }
+
+            commandRoles[descriptor.getIndex()] = roles;
+            commands[descriptor.getIndex()] = descriptor.getCommand();
+
+            for (int role = roles; role != 0; role &= role - 1) {
+                int position = Integer.numberOfTrailingZeros(role);
+                if (commandsByRole[position] == null) {
+                    commandsByRole[position] = new BitSet(commands.length);
+                }
+                commandsByRole[position].set(descriptor.getIndex());
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if a chat with the roles can invoke the command.
+     *
+     * @param roles      the mask of roles of the chat.
+     * @param descriptor the descriptor of the command.
+     * @return {@code true} if the chat can invoke the command; {@code false} otherwise.
+     */
+    public boolean isAllowed(int roles, CommandDescriptor descriptor) {
+        return (commandRoles[descriptor.getIndex()] & roles) != 0;
+    }
+
+    /**
+     * Returns the mask of roles that can invoke the command.
+     *
+     * @param descriptor the descriptor of the command.
+     * @return the mask of roles of the command.
+     */
+    public int getRoles(CommandDescriptor descriptor) {
+        return commandRoles[descriptor.getIndex()];
+    }
+
+    /**
+     * Returns the commands that a chat with the roles can invoke, in the same order as the available commands.
+     *
+     * @param roles the mask of roles of the chat.
+     * @return the commands that the chat can invoke.
+     */
+    public List<Command> getAvailableCommands(int roles) {
+        return availableCommands.computeIfAbsent(roles, this::computeAvailableCommands);
+    }
+
+    /**
+     * Joins the commands of every role of the mask.
+     *
+     * @param roles the mask of roles.
+     * @return the commands that the roles can invoke.
+     */
+    private List<Command> computeAvailableCommands(int roles) {
+        BitSet allowed = new BitSet(commands.length);
+        for (int role = roles; role != 0; role &= role - 1) {
+            BitSet roleCommands = commandsByRole[Integer.numberOfTrailingZeros(role)];
+            if (roleCommands != null) {
+                allowed.or(roleCommands);
+            }
+        }
+
+        List<Command> result = new ArrayList<>(allowed.cardinality());
+        for (int index = allowed.nextSetBit(0); index >= 0; index = allowed.nextSetBit(index + 1)) {
+            result.add(commands[index]);
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+}
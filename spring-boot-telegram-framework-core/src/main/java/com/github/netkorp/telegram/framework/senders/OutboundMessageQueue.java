@@ -0,0 +1,450 @@
+package com.github.netkorp.telegram.framework.senders;
+
+import com.github.netkorp.telegram.framework.limiters.TokenBucket;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.OutboundProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the component for delivering the outgoing messages without blocking the commands.
+ * The messages wait in a bounded queue and they are delivered by a group of sender threads that respect
+ * both the global rate and the rate of each chat. The messages of a chat are delivered in the same order
+ * they were queued. When Telegram answers that a chat is sending too many messages, the chat is paused for
+ * the time indicated by Telegram and the message is retried.
+ */
+@Component
+public class OutboundMessageQueue implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The error code returned by Telegram when the limits are exceeded.
+     */
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * The time to wait for the pending messages when the queue is stopped.
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    /**
+     * The properties of the outbound queue.
+     */
+    private final OutboundProperties outboundProperties;
+
+    /**
+     * The component for recording the metrics.
+     */
+    private final TelegramMetrics metrics;
+
+    /**
+     * The limit of messages for the whole bot.
+     */
+    private final TokenBucket globalBucket;
+
+    /**
+     * The lane of each chat with messages waiting to be delivered.
+     */
+    private final Map<Long, ChatLane> lanes;
+
+    /**
+     * The lanes sorted by the time in which their next message could be delivered.
+     */
+    private final DelayQueue<ChatLane> readyLanes;
+
+    /**
+     * The free places in the queue.
+     */
+    private final Semaphore capacity;
+
+    /**
+     * The threads that deliver the messages.
+     */
+    private final List<Thread> senders;
+
+    /**
+     * Indicates whether the queue accepts new messages.
+     */
+    private volatile boolean running;
+
+    /**
+     * Constructs a new {@link OutboundMessageQueue} instance with the properties of the outbound queue
+     * and the {@link TelegramMetrics} instance. The sender threads are started if the queue is enabled.
+     *
+     * @param outboundProperties the properties of the outbound queue.
+     * @param metrics            the {@link TelegramMetrics} instance.
+     */
+    @Autowired
+    public OutboundMessageQueue(OutboundProperties outboundProperties, TelegramMetrics metrics) {
+        this.outboundProperties = outboundProperties;
+        this.metrics = metrics;
+        this.globalBucket = new TokenBucket(outboundProperties.getGlobalRate(), outboundProperties.getGlobalBurst(),
+                System.nanoTime());
+        this.lanes = new ConcurrentHashMap<>();
+        this.readyLanes = new DelayQueue<>();
+        this.capacity = new Semaphore(Math.max(1, outboundProperties.getCapacity()));
+        this.senders = new ArrayList<>();
+        this.running = outboundProperties.isEnabled();
+
+        if (outboundProperties.isEnabled()) {
+            for (int i = 1; i <= Math.max(1, outboundProperties.getSenders()); i++) {
+                Thread sender = new Thread(this::deliver, "telegram-sender-" + i);
+                sender.setDaemon(true);
+                sender.start();
+                senders.add(sender);
+            }
+        }
+    }
+
+    /**
+     * Queues a request to Telegram related to the chat. If the queue is disabled the request is sent immediately
+     * by the current thread.
+     *
+     * @param chatId  the chat identification to which the request is related.
+     * @param request the logic that sends the request to Telegram.
+     * @param <T>     the type of the response.
+     * @return the future response of Telegram. It fails with {@link RejectedExecutionException} if the queue is full.
+     */
+    public <T> CompletableFuture<T> enqueue(long chatId, Callable<T> request) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        if (!outboundProperties.isEnabled()) {
+            long start = metrics.start();
+            try {
+                future.complete(request.call());
+                metrics.messageSent(start, false);
+            } catch (Exception e) {
+                metrics.messageSent(start, true);
+                LOG.error(e.getMessage(), e);
+                future.completeExceptionally(e);
+            }
+
+            return future;
+        }
+
+        if (!running || !capacity.tryAcquire()) {
+            LOG.warn("The message for the chat {} was rejected because the outbound queue is full", chatId);
+            future.completeExceptionally(new RejectedExecutionException("The outbound queue is full"));
+            return future;
+        }
+
+        Delivery<T> delivery = new Delivery<>(request, future);
+        while (true) {
+            ChatLane lane = lanes.computeIfAbsent(chatId, ChatLane::new);
+
+            synchronized (lane) {
+                // The lane could be discarded after being retrieved
+                if (lane.removed) {
+                    continue;
+                }
+
+                lane.pending.addLast(delivery);
+                if (!lane.scheduled) {
+                    long now = System.nanoTime();
+                    lane.scheduled = true;
+                    lane.tokenReserved = true;
+                    lane.readyAt = now + lane.bucket.reserve(now);
+                    readyLanes.put(lane);
+                }
+            }
+
+            return future;
+        }
+    }
+
+    /**
+     * Returns the amount of messages waiting to be delivered.
+     *
+     * @return the amount of waiting messages.
+     */
+    public int size() {
+        return Math.max(1, outboundProperties.getCapacity()) - capacity.availablePermits();
+    }
+
+    /**
+     * Delivers the messages of the lanes that are ready, until the queue is stopped.
+     */
+    private void deliver() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ChatLane lane = readyLanes.take();
+                Delivery<?> delivery = nextDelivery(lane);
+
+                if (delivery != null) {
+                    long wait = globalBucket.reserve(System.nanoTime());
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+
+                    send(lane, delivery);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the next message of the lane if it could be delivered now. Otherwise, the lane is rescheduled
+     * or discarded, and {@code null} is returned.
+     *
+     * @param lane the ready lane.
+     * @return the next message, if any; {@code null} otherwise.
+     */
+    private Delivery<?> nextDelivery(ChatLane lane) {
+        synchronized (lane) {
+            long now = System.nanoTime();
+
+            if (lane.pending.isEmpty()) {
+                // The lane is kept until its bucket is full, so the rate of the chat is respected
+                long untilFull = lane.bucket.timeUntilFull(now);
+                if (untilFull == 0) {
+                    lane.removed = true;
+                    lanes.remove(lane.chatId, lane);
+                } else {
+                    lane.tokenReserved = false;
+                    lane.readyAt = now + untilFull;
+                    readyLanes.put(lane);
+                }
+
+                return null;
+            }
+
+            if (!lane.tokenReserved) {
+                long wait = lane.bucket.reserve(now);
+                if (wait > 0) {
+                    lane.tokenReserved = true;
+                    lane.readyAt = now + wait;
+                    readyLanes.put(lane);
+                    return null;
+                }
+            }
+
+            lane.tokenReserved = false;
+            return lane.pending.pollFirst();
+        }
+    }
+
+    /**
+     * Sends the message and reschedules the lane. The message is put back at the beginning of the lane
+     * if Telegram asks to retry it later.
+     *
+     * @param lane     the lane of the message.
+     * @param delivery the message.
+     */
+    private void send(ChatLane lane, Delivery<?> delivery) {
+        long retryAfter = 0;
+        long start = metrics.start();
+
+        try {
+            delivery.complete();
+            metrics.messageSent(start, false);
+            capacity.release();
+        } catch (TelegramApiRequestException e) {
+            metrics.messageSent(start, true);
+            retryAfter = getRetryAfter(e);
+            if (retryAfter > 0 && delivery.attempts++ < outboundProperties.getMaxRetries()) {
+                LOG.warn("Telegram asked to wait {} seconds before sending more messages to the chat {}",
+                        TimeUnit.NANOSECONDS.toSeconds(retryAfter), lane.chatId);
+            } else {
+                retryAfter = 0;
+                fail(delivery, e);
+            }
+        } catch (Exception e) {
+            metrics.messageSent(start, true);
+            fail(delivery, e);
+        }
+
+        synchronized (lane) {
+            long now = System.nanoTime();
+
+            if (retryAfter > 0) {
+                lane.pending.addFirst(delivery);
+                lane.tokenReserved = false;
+                lane.readyAt = now + retryAfter;
+            } else if (lane.pending.isEmpty()) {
+                lane.tokenReserved = false;
+                lane.readyAt = now + lane.bucket.timeUntilFull(now);
+            } else {
+                lane.tokenReserved = true;
+                lane.readyAt = now + lane.bucket.reserve(now);
+            }
+
+            readyLanes.put(lane);
+        }
+    }
+
+    /**
+     * Fails the message, releasing its place in the queue.
+     *
+     * @param delivery the message.
+     * @param cause    the cause of the failure.
+     */
+    private void fail(Delivery<?> delivery, Exception cause) {
+        LOG.error(cause.getMessage(), cause);
+        delivery.future.completeExceptionally(cause);
+        capacity.release();
+    }
+
+    /**
+     * Returns the time that Telegram asked to wait before retrying, or {@code 0} if it's not a matter of limits.
+     *
+     * @param exception the exception returned by Telegram.
+     * @return the time to wait, in nanoseconds.
+     */
+    private static long getRetryAfter(TelegramApiRequestException exception) {
+        if (exception.getErrorCode() == null || exception.getErrorCode() != TOO_MANY_REQUESTS) {
+            return 0;
+        }
+
+        Integer retryAfter = exception.getParameters() == null ? null : exception.getParameters().getRetryAfter();
+        return TimeUnit.SECONDS.toNanos(retryAfter == null ? 1 : Math.max(1, retryAfter));
+    }
+
+    /**
+     * Stops the sender threads, waiting for the pending messages to be delivered.
+     * The messages that were not delivered are cancelled.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        while (size() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+
+        senders.forEach(Thread::interrupt);
+        for (Thread sender : senders) {
+            sender.join(TimeUnit.SECONDS.toMillis(1));
+        }
+
+        lanes.values().forEach(lane -> {
+            synchronized (lane) {
+                lane.pending.forEach(delivery -> delivery.future.completeExceptionally(
+                        new CancellationException("The outbound queue was stopped")));
+                lane.pending.clear();
+            }
+        });
+    }
+
+    /**
+     * Contains a request to Telegram and its future response.
+     *
+     * @param <T> the type of the response.
+     */
+    private static final class Delivery<T> {
+
+        /**
+         * The logic that sends the request to Telegram.
+         */
+        private final Callable<T> request;
+
+        /**
+         * The future response.
+         */
+        private final CompletableFuture<T> future;
+
+        /**
+         * The amount of failed attempts because of the limits of Telegram.
+         */
+        private int attempts;
+
+        private Delivery(Callable<T> request, CompletableFuture<T> future) {
+            this.request = request;
+            this.future = future;
+        }
+
+        /**
+         * Sends the request and completes the future with the response.
+         *
+         * @throws Exception if the request fails.
+         */
+        private void complete() throws Exception {
+            future.complete(request.call());
+        }
+    }
+
+    /**
+     * Contains the messages waiting to be delivered to a chat and the limit of the chat.
+     * A lane is either waiting in {@link #readyLanes} or being processed by a sender, so the messages
+     * of a chat are never delivered concurrently.
+     */
+    private final class ChatLane implements Delayed {
+
+        /**
+         * The chat identification.
+         */
+        private final long chatId;
+
+        /**
+         * The limit of messages for the chat.
+         */
+        private final TokenBucket bucket;
+
+        /**
+         * The messages waiting to be delivered.
+         */
+        private final Deque<Delivery<?>> pending;
+
+        /**
+         * The time in which the lane is ready, in nanoseconds.
+         */
+        private volatile long readyAt;
+
+        /**
+         * Indicates whether the token for the next message was already taken from the bucket.
+         */
+        private boolean tokenReserved;
+
+        /**
+         * Indicates whether the lane was handed to the senders.
+         */
+        private boolean scheduled;
+
+        /**
+         * Indicates whether the lane was discarded because it's idle.
+         */
+        private boolean removed;
+
+        private ChatLane(long chatId) {
+            this.chatId = chatId;
+            this.bucket = new TokenBucket(outboundProperties.getChatRate(), outboundProperties.getChatBurst(),
+                    System.nanoTime());
+            this.pending = new ArrayDeque<>();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
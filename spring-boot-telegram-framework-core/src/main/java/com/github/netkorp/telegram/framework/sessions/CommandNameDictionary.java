@@ -0,0 +1,66 @@
+package com.github.netkorp.telegram.framework.sessions;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the command names as small indexes, so the stores keep an {@code int} per chat instead of a reference.
+ * The names are never removed since there are only as many names as multistage commands.
+ */
+final class CommandNameDictionary {
+
+    /**
+     * The index of each name.
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * The names by their index.
+     */
+    private volatile String[] names;
+
+    /**
+     * Constructs a new empty {@link CommandNameDictionary} instance.
+     */
+    CommandNameDictionary() {
+        this.indexes = new ConcurrentHashMap<>();
+        this.names = new String[0];
+    }
+
+    /**
+     * Returns the index of the name, registering it if it's not there.
+     *
+     * @param name the command name.
+     * @return the index of the name.
+     */
+    int indexOf(String name) {
+        Integer index = indexes.get(name);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (this) {
+            index = indexes.get(name);
+            if (index != null) {
+                return index;
+            }
+
+            String[] extended = Arrays.copyOf(names, names.length + 1);
+            extended[names.length] = name;
+            names = extended;
+            indexes.put(name, names.length - 1);
+            return names.length - 1;
+        }
+    }
+
+    /**
+     * Returns the name registered with the index.
+     *
+     * @param index the index of the name.
+     * @return the command name.
+     */
+    String nameOf(int index) {
+        return names[index];
+    }
+}
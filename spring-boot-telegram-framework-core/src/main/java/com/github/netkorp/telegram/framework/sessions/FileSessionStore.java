@@ -0,0 +1,263 @@
+package com.github.netkorp.telegram.framework.sessions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps the active commands in memory and records every change in a memory-mapped append-only log,
+ * so the sessions survive the restarts of the bot. The log is replayed when the store is created and
+ * it's compacted into a snapshot of the live sessions when it runs out of space.
+ * The lookups never touch the log.
+ */
+public class FileSessionStore extends InMemorySessionStore implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The first bytes of a session log.
+     */
+    private static final int MAGIC = 0x54475353;
+
+    /**
+     * The version of the format of the log.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header: the magic number and the version.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The tag of the free space after the last record. The log is zero-filled when it grows.
+     */
+    private static final byte END = 0;
+
+    /**
+     * The tag of a record that sets the active command: chat identification, name length and UTF-8 name.
+     */
+    private static final byte PUT = 1;
+
+    /**
+     * The tag of a record that removes the active command: chat identification.
+     */
+    private static final byte REMOVE = 2;
+
+    /**
+     * The log file.
+     */
+    private final Path file;
+
+    /**
+     * Indicates whether every record is flushed to the storage device before returning.
+     */
+    private final boolean sync;
+
+    /**
+     * The channel of the log file.
+     */
+    private FileChannel channel;
+
+    /**
+     * The mapped content of the log file. Its position is the end of the last record.
+     */
+    private MappedByteBuffer log;
+
+    /**
+     * Constructs a new {@link FileSessionStore} instance, replaying the sessions recorded in the file if it exists.
+     *
+     * @param file        the log file.
+     * @param initialSize the initial size of the log file in bytes.
+     * @param sync        {@code true} if every record is flushed to the storage device before returning;
+     *                    {@code false} if it's left to the operating system.
+     * @throws IOException if the file can't be read or it isn't a session log.
+     */
+    public FileSessionStore(Path file, int initialSize, boolean sync) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.sync = sync;
+
+        boolean exists = Files.exists(this.file) && Files.size(this.file) > 0;
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+
+        map(Math.max(Math.max(initialSize, HEADER_SIZE + 1),
+                exists ? (int) Math.min(Files.size(this.file), Integer.MAX_VALUE) : 0));
+
+        if (exists) {
+            replay();
+            LOG.info("{} sessions were restored from {}", size(), this.file);
+        } else {
+            log.putInt(MAGIC).putInt(VERSION);
+        }
+    }
+
+    /**
+     * Sets the command as the active one for the chat.
+     *
+     * @param chatId      the chat identification.
+     * @param commandName the full name of the command.
+     */
+    @Override
+    public synchronized void put(long chatId, String commandName) {
+        byte[] name = commandName.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(1 + Long.BYTES + Short.BYTES + name.length);
+
+        log.put(PUT).putLong(chatId).putShort((short) name.length).put(name);
+        flush();
+
+        super.put(chatId, commandName);
+    }
+
+    /**
+     * Removes the active command of the chat.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat had an active command; {@code false} otherwise.
+     */
+    @Override
+    public synchronized boolean remove(long chatId) {
+        if (!super.contains(chatId)) {
+            return false;
+        }
+
+        ensureCapacity(1 + Long.BYTES);
+
+        log.put(REMOVE).putLong(chatId);
+        flush();
+
+        return super.remove(chatId);
+    }
+
+    /**
+     * Flushes the log and closes the file.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        log.force();
+        channel.close();
+    }
+
+    /**
+     * Loads the records of the log into memory and leaves the position of the log after the last complete record.
+     *
+     * @throws IOException if the file isn't a session log.
+     */
+    private void replay() throws IOException {
+        if (log.getInt() != MAGIC || log.getInt() != VERSION) {
+            throw new IOException(String.format("%s is not a session log", file));
+        }
+
+        while (log.hasRemaining()) {
+            int start = log.position();
+            byte tag = log.get();
+
+            if (tag == PUT && log.remaining() >= Long.BYTES + Short.BYTES) {
+                long chatId = log.getLong();
+                int length = log.getShort() & 0xFFFF;
+                if (log.remaining() >= length) {
+                    byte[] name = new byte[length];
+                    log.get(name);
+                    super.put(chatId, new String(name, StandardCharsets.UTF_8));
+                    continue;
+                }
+            } else if (tag == REMOVE && log.remaining() >= Long.BYTES) {
+                super.remove(log.getLong());
+                continue;
+            }
+
+            // The end of the log or a record truncated by a crash
+            log.position(start);
+            break;
+        }
+    }
+
+    /**
+     * Makes room for a record of the size, compacting the log if needed.
+     *
+     * @param recordSize the size of the record in bytes.
+     */
+    private void ensureCapacity(int recordSize) {
+        if (log.remaining() >= recordSize) {
+            return;
+        }
+
+        try {
+            compact(recordSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rewrites the log with only the live sessions, doubling its size if they take more than half of it.
+     *
+     * @param recordSize the size of the record that has to fit after the compaction.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void compact(int recordSize) throws IOException {
+        Path snapshot = file.resolveSibling(file.getFileName() + ".tmp");
+
+        int[] liveSize = {HEADER_SIZE};
+        forEach((chatId, commandName) -> liveSize[0] += 1 + Long.BYTES + Short.BYTES
+                + commandName.getBytes(StandardCharsets.UTF_8).length);
+
+        int capacity = log.capacity();
+        while ((long) liveSize[0] + recordSize > capacity / 2 && capacity < Integer.MAX_VALUE / 2) {
+            capacity *= 2;
+        }
+
+        try (FileChannel snapshotChannel = FileChannel.open(snapshot, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = snapshotChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(MAGIC).putInt(VERSION);
+            forEach((chatId, commandName) -> {
+                byte[] name = commandName.getBytes(StandardCharsets.UTF_8);
+                buffer.put(PUT).putLong(chatId).putShort((short) name.length).put(name);
+            });
+            buffer.force();
+        }
+
+        log.force();
+        channel.close();
+        Files.move(snapshot, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        map(capacity);
+        log.position(liveSize[0]);
+        LOG.debug("The session log {} was compacted to {} bytes", file, liveSize[0]);
+    }
+
+    /**
+     * Opens the log file and maps the given amount of bytes, extending the file if it's smaller.
+     *
+     * @param size the amount of bytes to map.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void map(int size) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Flushes the log to the storage device if every record must be synchronized.
+     */
+    private void flush() {
+        if (sync) {
+            log.force();
+        }
+    }
+}
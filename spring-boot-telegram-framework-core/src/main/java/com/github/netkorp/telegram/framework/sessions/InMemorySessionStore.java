@@ -0,0 +1,99 @@
+package com.github.netkorp.telegram.framework.sessions;
+
+import com.github.netkorp.telegram.framework.collections.ConcurrentLongIntMap;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the active commands in memory. The sessions are lost when the bot is stopped.
+ * Every chat costs a {@code long} and an {@code int} in a {@link ConcurrentLongIntMap}.
+ */
+public class InMemorySessionStore implements SessionStore {
+
+    /**
+     * The value that indicates there is no an active command for the chat.
+     */
+    private static final int NO_SESSION = -1;
+
+    /**
+     * The index of the active command name for each chat.
+     */
+    private final ConcurrentLongIntMap sessions;
+
+    /**
+     * The names of the commands by their index.
+     */
+    private final CommandNameDictionary commandNames;
+
+    /**
+     * Constructs a new empty {@link InMemorySessionStore} instance.
+     */
+    public InMemorySessionStore() {
+        this.sessions = new ConcurrentLongIntMap();
+        this.commandNames = new CommandNameDictionary();
+    }
+
+    /**
+     * Sets the command as the active one for the chat.
+     *
+     * @param chatId      the chat identification.
+     * @param commandName the full name of the command.
+     */
+    @Override
+    public void put(long chatId, String commandName) {
+        sessions.put(chatId, commandNames.indexOf(commandName));
+    }
+
+    /**
+     * Returns the full name of the command that is active for the chat.
+     *
+     * @param chatId the chat identification.
+     * @return the full name of the active command, if any; {@code null} otherwise.
+     */
+    @Override
+    public String get(long chatId) {
+        int index = sessions.get(chatId, NO_SESSION);
+        return index == NO_SESSION ? null : commandNames.nameOf(index);
+    }
+
+    /**
+     * Removes the active command of the chat.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat had an active command; {@code false} otherwise.
+     */
+    @Override
+    public boolean remove(long chatId) {
+        return sessions.remove(chatId);
+    }
+
+    /**
+     * Returns {@code true} if the chat has an active command.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat has an active command; {@code false} otherwise.
+     */
+    @Override
+    public boolean contains(long chatId) {
+        return sessions.containsKey(chatId);
+    }
+
+    /**
+     * Returns the amount of chats that have an active command.
+     *
+     * @return the amount of active commands.
+     */
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Performs the action for each chat with an active command.
+     *
+     * @param action the action that receives the chat identification and the full name of the command.
+     */
+    protected void forEach(BiConsumer<Long, String> action) {
+        sessions.forEach((chatId, index) -> action.accept(chatId, commandNames.nameOf(index)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.netkorp.telegram.framework.sessions;
+
+/**
+ * Stores the multistage command that is active for each chat.
+ * The commands are identified by their full name (the first name declared on
+ * {@link com.github.netkorp.telegram.framework.annotations.TelegramCommand#name()}, including the slash).
+ * The implementations must be thread-safe since the chats are processed in parallel.
+ *
+ * @see InMemorySessionStore
+ * @see FileSessionStore
+ */
+public interface SessionStore {
+
+    /**
+     * Sets the command as the active one for the chat.
+     *
+     * @param chatId      the chat identification.
+     * @param commandName the full name of the command.
+     */
+    void put(long chatId, String commandName);
+
+    /**
+     * Returns the full name of the command that is active for the chat.
+     *
+     * @param chatId the chat identification.
+     * @return the full name of the active command, if any; {@code null} otherwise.
+     */
+    String get(long chatId);
+
+    /**
+     * Removes the active command of the chat.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat had an active command; {@code false} otherwise.
+     */
+    boolean remove(long chatId);
+
+    /**
+     * Returns {@code true} if the chat has an active command.
+     *
+     * @param chatId the chat identification.
+     * @return {@code true} if the chat has an active command; {@code false} otherwise.
+     */
+    boolean contains(long chatId);
+
+    /**
+     * Returns the amount of chats that have an active command.
+     *
+     * @return the amount of active commands.
+     */
+    int size();
+}
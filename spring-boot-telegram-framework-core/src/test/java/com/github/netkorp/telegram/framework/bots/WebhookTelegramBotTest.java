@@ -0,0 +1,246 @@
+package com.github.netkorp.telegram.framework.bots;
+
+import com.github.netkorp.telegram.framework.dedup.UpdateDeduplicator;
+import com.github.netkorp.telegram.framework.limiters.InboundFloodLimiter;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import com.github.netkorp.telegram.framework.properties.DedupProperties;
+import com.github.netkorp.telegram.framework.properties.FloodProperties;
+import com.github.netkorp.telegram.framework.properties.OutboundProperties;
+import com.github.netkorp.telegram.framework.properties.SessionProperties;
+import com.github.netkorp.telegram.framework.properties.WebhookProperties;
+import com.github.netkorp.telegram.framework.queue.UpdateSink;
+import com.github.netkorp.telegram.framework.senders.OutboundMessageQueue;
+import org.junit.After;
+import org.junit.Test;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Posts synthetic updates to the embedded HTTP server of the {@link WebhookTelegramBot}.
+ */
+public class WebhookTelegramBotTest {
+
+    private static final String SECRET_TOKEN = "s3cr3t";
+
+    private static final int MAX_BODY_SIZE = 1024;
+
+    private final ExecutorService clients = Executors.newCachedThreadPool();
+
+    private WebhookTelegramBot bot;
+
+    private OutboundMessageQueue outboundMessageQueue;
+
+    private RecordingSink sink;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (sink != null) {
+            sink.release.countDown();
+        }
+
+        if (bot != null) {
+            bot.stop();
+        }
+
+        if (outboundMessageQueue != null) {
+            outboundMessageQueue.destroy();
+        }
+
+        clients.shutdownNow();
+    }
+
+    @Test
+    public void handsTheUpdateOff() throws Exception {
+        start(false);
+        sink.release.countDown();
+
+        assertEquals(200, post(update(7), SECRET_TOKEN));
+        assertEquals(Integer.valueOf(7), sink.appended.poll(5, TimeUnit.SECONDS).getUpdateId());
+    }
+
+    @Test
+    public void discardsTheDuplicates() throws Exception {
+        start(false);
+        sink.release.countDown();
+
+        assertEquals(200, post(update(7), SECRET_TOKEN));
+        assertEquals(200, post(update(7), SECRET_TOKEN));
+        assertEquals(Integer.valueOf(7), sink.appended.poll(5, TimeUnit.SECONDS).getUpdateId());
+        assertNull(sink.appended.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void rejectsAnInvalidSecretToken() throws Exception {
+        start(false);
+
+        assertEquals(401, post(update(7), null));
+        assertEquals(401, post(update(7), "wrong"));
+        assertTrue(sink.appended.isEmpty());
+    }
+
+    @Test
+    public void rejectsOtherMethods() throws Exception {
+        start(false);
+
+        HttpURLConnection connection = open();
+        connection.setRequestMethod("GET");
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    @Test
+    public void rejectsAnInvalidUpdate() throws Exception {
+        start(false);
+
+        assertEquals(400, post("not an update".getBytes(StandardCharsets.UTF_8), SECRET_TOKEN));
+        assertTrue(sink.appended.isEmpty());
+    }
+
+    @Test
+    public void rejectsTheLargerBodies() throws Exception {
+        start(false);
+        byte[] body = new byte[MAX_BODY_SIZE * 2];
+        Arrays.fill(body, (byte) ' ');
+
+        assertEquals(413, post(body, SECRET_TOKEN));
+
+        HttpURLConnection connection = open();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("X-Telegram-Bot-Api-Secret-Token", SECRET_TOKEN);
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(256);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+        assertEquals(413, connection.getResponseCode());
+        assertTrue(sink.appended.isEmpty());
+    }
+
+    @Test
+    public void acknowledgesBeforeTheHandOff() throws Exception {
+        start(false);
+
+        Future<Integer> response = clients.submit(() -> post(update(7), SECRET_TOKEN));
+        assertTrue(sink.entered.await(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(200), response.get(5, TimeUnit.SECONDS));
+        assertTrue(sink.appended.isEmpty());
+    }
+
+    @Test
+    public void acknowledgesAfterTheDurableHandOff() throws Exception {
+        start(true);
+
+        Future<Integer> response = clients.submit(() -> post(update(7), SECRET_TOKEN));
+        assertTrue(sink.entered.await(5, TimeUnit.SECONDS));
+        try {
+            response.get(200, TimeUnit.MILLISECONDS);
+            fail("The request was acknowledged before the update was added to the durable sink");
+        } catch (TimeoutException e) {
+            assertFalse(response.isDone());
+        }
+
+        sink.release.countDown();
+        assertEquals(Integer.valueOf(200), response.get(5, TimeUnit.SECONDS));
+        assertEquals(Integer.valueOf(7), sink.appended.poll(5, TimeUnit.SECONDS).getUpdateId());
+    }
+
+    private void start(boolean durable) {
+        WebhookProperties webhookProperties = new WebhookProperties();
+        webhookProperties.setHost("127.0.0.1");
+        webhookProperties.setPort(0);
+        webhookProperties.setSecretToken(SECRET_TOKEN);
+        webhookProperties.setMaxBodySize(MAX_BODY_SIZE);
+
+        sink = new RecordingSink(durable);
+        outboundMessageQueue = new OutboundMessageQueue(new OutboundProperties(), TelegramMetrics.NOOP);
+        bot = new WebhookTelegramBot("bot", "0:token", "", webhookProperties,
+                new UpdateDeduplicator(new DedupProperties(), new SessionProperties(), TelegramMetrics.NOOP),
+                new InboundFloodLimiter(new FloodProperties(), null, null, TelegramMetrics.NOOP),
+                sink, outboundMessageQueue, TelegramMetrics.NOOP);
+        bot.start();
+    }
+
+    private HttpURLConnection open() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + bot.getPort() + "/telegram")
+                .openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(10000);
+        return connection;
+    }
+
+    private int post(byte[] body, String secretToken) throws IOException {
+        HttpURLConnection connection = open();
+        connection.setRequestMethod("POST");
+        if (secretToken != null) {
+            connection.setRequestProperty("X-Telegram-Bot-Api-Secret-Token", secretToken);
+        }
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+
+        return connection.getResponseCode();
+    }
+
+    private static byte[] update(int updateId) {
+        return ("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":1,\"date\":0,"
+                + "\"chat\":{\"id\":5,\"type\":\"private\"},\"text\":\"/start\"}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Keeps the updates handed off by the bot. Each hand-off waits until it's released.
+     */
+    private static final class RecordingSink implements UpdateSink {
+
+        private final boolean durable;
+
+        private final BlockingQueue<Update> appended = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private RecordingSink(boolean durable) {
+            this.durable = durable;
+        }
+
+        @Override
+        public void append(Update update) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            appended.add(update);
+        }
+
+        @Override
+        public boolean isDurable() {
+            return durable;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.netkorp.telegram.framework.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentLongIntMapTest {
+
+    @Test
+    public void putsGetsAndRemovesTheEntries() {
+        ConcurrentLongIntMap map = new ConcurrentLongIntMap();
+
+        map.put(42, 1);
+        map.put(-7, 2);
+        map.put(42, 3);
+
+        assertEquals(3, map.get(42, 0));
+        assertEquals(2, map.get(-7, 0));
+        assertEquals(-1, map.get(8, -1));
+        assertEquals(2, map.size());
+
+        assertTrue(map.remove(42));
+        assertFalse(map.remove(42));
+        assertFalse(map.containsKey(42));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void keepsTheFreeKeyApart() {
+        ConcurrentLongIntMap map = new ConcurrentLongIntMap(1, 4);
+
+        map.put(0, 9);
+        assertTrue(map.containsKey(0));
+        assertEquals(9, map.get(0, -1));
+        assertEquals(1, map.size());
+
+        assertTrue(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void findsTheRestOfTheProbeSequenceAfterARemoval() {
+        long[] keys = {1, 2, 3, 4};
+        for (long removed : keys) {
+            // A single small segment, so most keys share their probe sequences
+            ConcurrentLongIntMap map = new ConcurrentLongIntMap(1, 4);
+            for (long key : keys) {
+                map.put(key, (int) key * 10);
+            }
+
+            assertTrue(map.remove(removed));
+            for (long key : keys) {
+                assertEquals(key == removed ? -1 : key * 10, map.get(key, -1));
+            }
+            assertEquals(keys.length - 1, map.size());
+        }
+    }
+
+    @Test
+    public void behavesLikeAMapUnderRandomRemovals() {
+        checkAgainstMap(new ConcurrentLongIntMap(1, 4), 6, 1);
+        checkAgainstMap(new ConcurrentLongIntMap(1, 8), 40, 2);
+        checkAgainstMap(new ConcurrentLongIntMap(4, 64), 1000, 3);
+    }
+
+    @Test
+    public void visitsEveryEntry() {
+        ConcurrentLongIntMap map = new ConcurrentLongIntMap(4, 16);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (long key = -50; key <= 50; key++) {
+            map.put(key, (int) key);
+            expected.put(key, (int) key);
+        }
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(7));
+    }
+
+    /**
+     * Applies random puts and removals of keys in a range to the map and to a {@link HashMap},
+     * checking after each removal that every key is still found.
+     */
+    private static void checkAgainstMap(ConcurrentLongIntMap map, int range, long seed) {
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(seed);
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(range);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+                for (long other = 0; other < range; other++) {
+                    Integer value = expected.get(other);
+                    assertEquals(value == null ? -1 : value, map.get(other, -1));
+                }
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+    }
+}
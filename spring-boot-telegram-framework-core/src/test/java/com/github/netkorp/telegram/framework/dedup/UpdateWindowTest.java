@@ -0,0 +1,121 @@
+package com.github.netkorp.telegram.framework.dedup;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UpdateWindowTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void detectsTheRepeatedIdentifications() {
+        UpdateWindow window = new UpdateWindow(64);
+
+        assertTrue(window.add(5));
+        assertFalse(window.add(5));
+        assertTrue(window.add(3));
+        assertFalse(window.add(3));
+        assertEquals(5, window.getHighest());
+    }
+
+    @Test
+    public void remembersTheIdentificationsWithinTheWindow() {
+        UpdateWindow window = new UpdateWindow(64);
+
+        assertTrue(window.add(100));
+        assertTrue(window.add(90));
+        assertTrue(window.add(37));
+        assertFalse(window.add(90));
+        assertFalse(window.add(37));
+        assertEquals(100, window.getHighest());
+    }
+
+    @Test
+    public void forgetsTheIdentificationsSkippedBySliding() {
+        UpdateWindow window = new UpdateWindow(64);
+
+        assertTrue(window.add(10));
+        assertTrue(window.add(60));
+        assertTrue(window.add(74));
+
+        // The bit of 10 is reused by 74, while 60 is still within the window
+        assertFalse(window.add(60));
+        assertFalse(window.add(74));
+        assertEquals(74, window.getHighest());
+    }
+
+    @Test
+    public void restartsWhenTheIdentificationsStartAgain() {
+        UpdateWindow window = new UpdateWindow(64);
+        window.add(1000);
+        window.add(999);
+
+        assertTrue(window.add(5));
+        assertEquals(5, window.getHighest());
+        assertFalse(window.add(5));
+
+        // The identifications before the restart are forgotten
+        assertTrue(window.add(999));
+        assertTrue(window.add(1000));
+    }
+
+    @Test
+    public void acceptsTheNegativeIdentifications() {
+        UpdateWindow window = new UpdateWindow(64);
+
+        assertTrue(window.add(-1));
+        assertTrue(window.add(-1));
+        assertEquals(-1, window.getHighest());
+    }
+
+    @Test
+    public void copiesTheIdentifications() {
+        UpdateWindow source = new UpdateWindow(64);
+        source.add(20);
+        source.add(7);
+
+        UpdateWindow copy = new UpdateWindow(source);
+        assertFalse(copy.add(20));
+        assertFalse(copy.add(7));
+        assertTrue(copy.add(8));
+        assertTrue(source.add(8));
+    }
+
+    @Test
+    public void restoresThePersistedIdentifications() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("window.bin");
+        try (UpdateWindow window = new UpdateWindow(100, file)) {
+            window.add(500);
+            window.add(450);
+        }
+
+        try (UpdateWindow window = new UpdateWindow(100, file)) {
+            assertEquals(500, window.getHighest());
+            assertFalse(window.add(500));
+            assertFalse(window.add(450));
+            assertTrue(window.add(451));
+        }
+    }
+
+    @Test
+    public void discardsAFileOfAnotherSize() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("window.bin");
+        try (UpdateWindow window = new UpdateWindow(64, file)) {
+            window.add(500);
+        }
+
+        try (UpdateWindow window = new UpdateWindow(256, file)) {
+            assertEquals(-1, window.getHighest());
+            assertTrue(window.add(500));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.netkorp.telegram.framework.queue;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.netkorp.telegram.framework.metrics.TelegramMetrics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedUpdateQueueTest {
+
+    private static final int SEGMENT_SIZE = 1200;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void providesTheUpdatesInOrderAcrossSegments() throws IOException, InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            append(queue, 1, 20);
+
+            List<QueuedUpdate> polled = pollAll(queue);
+            assertEquals(ids(1, 20), idsOf(polled));
+            assertTrue(segmentFiles(directory) > 1);
+
+            for (int i = 1; i < polled.size(); i++) {
+                assertTrue(polled.get(i - 1).getNextPosition() <= polled.get(i).getPosition());
+            }
+            assertEquals(queue.getWritePosition(), polled.get(polled.size() - 1).getNextPosition());
+        }
+    }
+
+    @Test
+    public void deletesTheProcessedSegments() throws IOException, InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            append(queue, 1, 20);
+            List<QueuedUpdate> polled = pollAll(queue);
+
+            queue.commit(polled.get(polled.size() - 1).getNextPosition());
+            assertEquals(0, queue.getBacklog());
+            assertEquals(1, segmentFiles(directory));
+
+            // The queue goes on in the segment that was kept, and in new ones once it's full
+            append(queue, 21, 30);
+            assertEquals(ids(21, 30), idsOf(pollAll(queue)));
+        }
+    }
+
+    @Test
+    public void restoresTheUpdatesAfterTheCommittedPosition() throws IOException, InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        long committed;
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            append(queue, 1, 10);
+            List<QueuedUpdate> polled = pollAll(queue);
+            committed = polled.get(3).getNextPosition();
+            queue.commit(committed);
+
+            // A position behind the committed one is ignored
+            queue.commit(polled.get(1).getNextPosition());
+            assertEquals(committed, queue.getCommittedPosition());
+        }
+
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            assertEquals(committed, queue.getCommittedPosition());
+            assertEquals(ids(5, 10), idsOf(pollAll(queue)));
+        }
+    }
+
+    @Test
+    public void movesBackACommittedPositionInsideARecord() throws IOException, InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        long start;
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            append(queue, 1, 3);
+            start = pollAll(queue).get(1).getPosition();
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("committed.position").toFile(), "rw")) {
+            file.writeLong(start + 3);
+        }
+
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            assertEquals(start, queue.getCommittedPosition());
+            assertEquals(ids(2, 3), idsOf(pollAll(queue)));
+        }
+    }
+
+    @Test
+    public void discardsATornRecordAtTheEnd() throws IOException, InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        QueuedUpdate torn;
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            append(queue, 1, 3);
+            torn = pollAll(queue).get(2);
+        }
+
+        damage(directory, torn);
+
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            assertEquals(torn.getPosition(), queue.getWritePosition());
+            assertEquals(ids(1, 2), idsOf(pollAll(queue)));
+
+            // The new updates take the place of the torn one
+            append(queue, 4, 5);
+            assertEquals(ids(4, 5), idsOf(pollAll(queue)));
+        }
+    }
+
+    @Test
+    public void discardsTheRestOfADamagedSegment() throws IOException, InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        List<QueuedUpdate> polled;
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            append(queue, 1, 20);
+            polled = pollAll(queue);
+        }
+
+        QueuedUpdate damaged = polled.get(1);
+        assertTrue(damaged.getNextPosition() < SEGMENT_SIZE);
+        damage(directory, damaged);
+
+        // The records of the first segment after the damaged one are lost, but not the following segments
+        List<Integer> expected = new ArrayList<>();
+        for (QueuedUpdate update : polled) {
+            if (update.getPosition() < damaged.getPosition() || update.getPosition() >= SEGMENT_SIZE) {
+                expected.add(update.getUpdate().getUpdateId());
+            }
+        }
+        assertTrue(expected.size() > 1 && expected.size() < polled.size() - 1);
+
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(directory, SEGMENT_SIZE, false)) {
+            assertEquals(expected, idsOf(pollAll(queue)));
+        }
+    }
+
+    @Test
+    public void rejectsTheUpdatesLargerThanASegment() throws IOException, InterruptedException {
+        AtomicInteger oversize = new AtomicInteger();
+        TelegramMetrics metrics = new TelegramMetrics() {
+            @Override
+            public void updateRejected(Rejection rejection) {
+                if (rejection == Rejection.OVERSIZE) {
+                    oversize.incrementAndGet();
+                }
+            }
+        };
+
+        try (MappedUpdateQueue queue = new MappedUpdateQueue(folder.getRoot().toPath(), SEGMENT_SIZE, false,
+                metrics)) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < SEGMENT_SIZE) {
+                text.append("long text ");
+            }
+
+            queue.append(update(1, text.toString()));
+            queue.append(update(2, "short"));
+
+            assertEquals(1, oversize.get());
+            assertEquals(ids(2, 2), idsOf(pollAll(queue)));
+        }
+    }
+
+    /**
+     * Flips a byte of the content of the record, as a crash in the middle of a write would leave it.
+     */
+    private static void damage(Path directory, QueuedUpdate record) throws IOException {
+        long base = record.getPosition() / SEGMENT_SIZE * SEGMENT_SIZE;
+        Path segment = directory.resolve(String.format("%020d.log", base));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long offset = record.getPosition() - base + 8 + 2;
+            file.seek(offset);
+            int value = file.read();
+            file.seek(offset);
+            file.write(value ^ 0xFF);
+        }
+    }
+
+    private static void append(MappedUpdateQueue queue, int from, int to) throws IOException {
+        for (int id = from; id <= to; id++) {
+            queue.append(update(id, "message " + id));
+        }
+    }
+
+    private static List<QueuedUpdate> pollAll(MappedUpdateQueue queue) throws InterruptedException {
+        List<QueuedUpdate> updates = new ArrayList<>();
+        QueuedUpdate update;
+        while ((update = queue.poll(50, TimeUnit.MILLISECONDS)) != null) {
+            updates.add(update);
+        }
+
+        assertNull(queue.poll(0, TimeUnit.MILLISECONDS));
+        return updates;
+    }
+
+    private static List<Integer> idsOf(List<QueuedUpdate> updates) {
+        return updates.stream().map(update -> update.getUpdate().getUpdateId()).collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(int from, int to) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = from; id <= to; id++) {
+            ids.add(id);
+        }
+
+        return ids;
+    }
+
+    private static long segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    private static Update update(int updateId, String text) throws IOException {
+        return OBJECT_MAPPER.readValue("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":" + updateId
+                + ",\"date\":0,\"chat\":{\"id\":5,\"type\":\"private\"},\"text\":\"" + text + "\"}}", Update.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.netkorp.telegram.framework.routers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CommandRouterTest {
+
+    private final CommandRouter<String> router = CommandRouter.<String>builder()
+            .add("/help", "help")
+            .add("/h", "help")
+            .add("/hello", "hello")
+            .add("/Close", "close")
+            .add("/start", "start")
+            .add("/st", "start")
+            .add("/stop", "stop")
+            .build();
+
+    @Test
+    public void findsTheNamesIgnoringCase() {
+        assertEquals("help", router.find("/help"));
+        assertEquals("help", router.find("/HELP"));
+        assertEquals("help", router.find("/h"));
+        assertEquals("close", router.find("/close"));
+        assertNull(router.find("/he"));
+        assertNull(router.find("/unknown"));
+    }
+
+    @Test
+    public void findsTheNamesInARegion() {
+        String text = "/hello@bot world";
+
+        assertEquals("hello", router.find(text, 0, 6));
+        assertNull(router.find(text, 0, text.length()));
+    }
+
+    @Test
+    public void resolvesTheUniquePrefixes() {
+        assertEquals("close", router.findByPrefix("/c", 0, 2));
+        assertEquals("close", router.findByPrefix("/CLO", 0, 4));
+        assertEquals("stop", router.findByPrefix("/sto", 0, 4));
+        assertEquals("start", router.findByPrefix("/sta", 0, 4));
+    }
+
+    @Test
+    public void prefersTheExactNameToThePrefix() {
+        assertEquals("help", router.findByPrefix("/h", 0, 2));
+        assertEquals("start", router.findByPrefix("/st", 0, 3));
+    }
+
+    @Test
+    public void rejectsTheAmbiguousPrefixes() {
+        assertNull(router.findByPrefix("/he", 0, 3));
+        assertNull(router.findByPrefix("/hel", 0, 4));
+        assertNull(router.findByPrefix("/x", 0, 2));
+    }
+
+    @Test
+    public void suggestsTheCloseNames() {
+        assertEquals(Arrays.asList("/hello", "/help"), router.suggest("/hepl", 0, 5, 2, 3));
+        assertEquals(Collections.singletonList("/Close"), router.suggest("/clsoe", 0, 6, 2, 3));
+        assertEquals(Collections.singletonList("/stop"), router.suggest("/stoq", 0, 5, 1, 3));
+    }
+
+    @Test
+    public void sortsTheSuggestionsByDistance() {
+        assertEquals(Arrays.asList("/stop", "/st", "/start"), router.suggest("/stopp", 0, 6, 3, 3));
+    }
+
+    @Test
+    public void limitsTheSuggestions() {
+        assertEquals(Collections.singletonList("/hello"), router.suggest("/hepl", 0, 5, 2, 1));
+        assertEquals(Collections.emptyList(), router.suggest("/hepl", 0, 5, 0, 3));
+        assertEquals(Collections.emptyList(), router.suggest("/zzzzzz", 0, 7, 2, 3));
+    }
+
+    @Test
+    public void findsNothingInAnEmptyRouter() {
+        CommandRouter<String> empty = CommandRouter.<String>builder().build();
+
+        assertNull(empty.find("/a"));
+        assertNull(empty.findByPrefix("/a", 0, 2));
+        assertEquals(Collections.emptyList(), empty.suggest("/a", 0, 2, 2, 3));
+    }
+}
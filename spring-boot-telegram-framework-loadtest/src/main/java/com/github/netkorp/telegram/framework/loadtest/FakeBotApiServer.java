@@ -0,0 +1,423 @@
+package com.github.netkorp.telegram.framework.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Provides an embedded server that behaves like the Bot API of Telegram for a single bot.
+ * The updates offered by the load generator are served by {@code getUpdates}, with long polling and the
+ * confirmation by offset of Telegram. The {@code sendMessage} requests are answered after the configured latency,
+ * a fraction of them with {@code 429 Too Many Requests}, and the accepted ones are handed to a {@link SendListener}.
+ * Any other method succeeds with {@code true}.
+ */
+public class FakeBotApiServer implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * The maximum amount of updates returned by {@code getUpdates}, as in Telegram.
+     */
+    private static final int MAX_LIMIT = 100;
+
+    /**
+     * The mapper of the requests.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The embedded HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * The threads of the embedded HTTP server.
+     */
+    private final ExecutorService threads;
+
+    /**
+     * The latency added to every {@code sendMessage}, in nanoseconds.
+     */
+    private final long latency;
+
+    /**
+     * The fraction of {@code sendMessage} requests answered with {@code 429 Too Many Requests}.
+     */
+    private final double throttleRatio;
+
+    /**
+     * The seconds that the bot is asked to wait when a request is throttled.
+     */
+    private final int retryAfter;
+
+    /**
+     * The listener of the accepted messages.
+     */
+    private final SendListener listener;
+
+    /**
+     * The updates that were not confirmed by the bot, sorted by identification.
+     */
+    private final Deque<PendingUpdate> pending = new ArrayDeque<>();
+
+    /**
+     * The identification of the next update.
+     */
+    private long nextUpdateId = 1;
+
+    /**
+     * Indicates whether the server is stopped.
+     */
+    private boolean closed;
+
+    /**
+     * The amount of updates confirmed by the bot.
+     */
+    private final LongAdder confirmed = new LongAdder();
+
+    /**
+     * The amount of messages accepted.
+     */
+    private final LongAdder sent = new LongAdder();
+
+    /**
+     * The amount of messages answered with {@code 429 Too Many Requests}.
+     */
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * Constructs and starts a new {@link FakeBotApiServer} instance on the loopback interface.
+     *
+     * @param port          the port of the server, or {@code 0} for any free port.
+     * @param latency       the latency added to every {@code sendMessage}, in milliseconds.
+     * @param throttleRatio the fraction of {@code sendMessage} requests answered with {@code 429}.
+     * @param retryAfter    the seconds that the bot is asked to wait when a request is throttled.
+     * @param listener      the listener of the accepted messages.
+     * @throws IOException if the server can't be started.
+     */
+    public FakeBotApiServer(int port, long latency, double throttleRatio, int retryAfter, SendListener listener)
+            throws IOException {
+        // Otherwise the headers and the body of the responses are delayed by Nagle's algorithm
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        this.latency = TimeUnit.MILLISECONDS.toNanos(latency);
+        this.throttleRatio = throttleRatio;
+        this.retryAfter = retryAfter;
+        this.listener = listener;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.threads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-bot-api-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(threads);
+        server.start();
+    }
+
+    /**
+     * Returns the URL of the server to be set in {@code telegram.bots.api-url}.
+     *
+     * @return the URL of the server.
+     */
+    public String getApiUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/bot";
+    }
+
+    /**
+     * Offers a text message from a private chat to the bot. If the text starts with a slash,
+     * the first word is marked as a {@code bot_command} entity.
+     *
+     * @param chatId the chat identification.
+     * @param text   the text of the message.
+     * @return the update identification.
+     */
+    public synchronized long offer(long chatId, String text) {
+        long updateId = nextUpdateId++;
+        pending.addLast(new PendingUpdate(updateId, toJson(updateId, chatId, text)));
+        notifyAll();
+        return updateId;
+    }
+
+    /**
+     * Returns the amount of updates that were not confirmed by the bot.
+     *
+     * @return the amount of pending updates.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the amount of updates confirmed by the bot.
+     *
+     * @return the amount of confirmed updates.
+     */
+    public long getConfirmedCount() {
+        return confirmed.sum();
+    }
+
+    /**
+     * Returns the amount of messages accepted.
+     *
+     * @return the amount of messages.
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Returns the amount of messages answered with {@code 429 Too Many Requests}.
+     *
+     * @return the amount of throttled messages.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * Stops the server, releasing the pending long polls.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    /**
+     * Receives a request from the bot.
+     *
+     * @param exchange the HTTP request and response.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        }
+
+        try {
+            switch (method) {
+                case "getupdates":
+                    respond(exchange, 200, getUpdates(request));
+                    break;
+                case "sendmessage":
+                    sendMessage(exchange, request);
+                    break;
+                default:
+                    respond(exchange, 200, "{\"ok\":true,\"result\":true}");
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        } catch (RuntimeException e) {
+            LOG.error("The request {} failed", method, e);
+            respond(exchange, 500, "{\"ok\":false,\"error_code\":500,\"description\":\"Internal Server Error\"}");
+        }
+    }
+
+    /**
+     * Returns the updates after the offset, waiting for them up to the timeout of the request.
+     * The updates before the offset are confirmed and discarded.
+     *
+     * @param request the request.
+     * @return the response.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    private String getUpdates(JsonNode request) throws InterruptedException {
+        long offset = request == null ? 0 : request.path("offset").asLong(0);
+        int limit = request == null ? MAX_LIMIT : request.path("limit").asInt(MAX_LIMIT);
+        long timeout = TimeUnit.SECONDS.toNanos(request == null ? 0 : request.path("timeout").asLong(0));
+        limit = limit <= 0 || limit > MAX_LIMIT ? MAX_LIMIT : limit;
+
+        StringJoiner result = new StringJoiner(",", "{\"ok\":true,\"result\":[", "]}");
+
+        synchronized (this) {
+            while (!pending.isEmpty() && pending.peekFirst().updateId < offset) {
+                pending.removeFirst();
+                confirmed.increment();
+            }
+
+            long deadline = System.nanoTime() + timeout;
+            long remaining = timeout;
+            while (pending.isEmpty() && !closed && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+
+            for (PendingUpdate update : pending) {
+                if (limit-- == 0) {
+                    break;
+                }
+
+                result.add(update.json);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Answers a message after the latency, throttling a fraction of them.
+     *
+     * @param exchange the HTTP request and response.
+     * @param request  the request.
+     * @throws IOException          if an I/O error occurs.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    private void sendMessage(HttpExchange exchange, JsonNode request) throws IOException, InterruptedException {
+        if (latency > 0) {
+            TimeUnit.NANOSECONDS.sleep(latency);
+        }
+
+        if (throttleRatio > 0 && ThreadLocalRandom.current().nextDouble() < throttleRatio) {
+            throttled.increment();
+            respond(exchange, 429, String.format("{\"ok\":false,\"error_code\":429,"
+                    + "\"description\":\"Too Many Requests: retry after %d\",\"parameters\":{\"retry_after\":%d}}",
+                    retryAfter, retryAfter));
+            return;
+        }
+
+        long chatId = request.path("chat_id").asLong();
+        String text = request.path("text").asText();
+        long messageId;
+        synchronized (this) {
+            messageId = nextUpdateId++;
+        }
+
+        sent.increment();
+        listener.onMessage(chatId, text, System.nanoTime());
+
+        respond(exchange, 200, "{\"ok\":true,\"result\":{\"message_id\":" + messageId + ",\"date\":0,"
+                + "\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"},\"text\":" + quote(objectMapper, text) + "}}");
+    }
+
+    /**
+     * Writes the response.
+     *
+     * @param exchange the HTTP request and response.
+     * @param status   the status code.
+     * @param body     the JSON body.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Returns the update as Telegram would send it.
+     *
+     * @param updateId the update identification.
+     * @param chatId   the chat identification.
+     * @param text     the text of the message.
+     * @return the JSON of the update.
+     */
+    private String toJson(long updateId, long chatId, String text) {
+        StringBuilder json = new StringBuilder()
+                .append("{\"update_id\":").append(updateId)
+                .append(",\"message\":{\"message_id\":").append(updateId)
+                .append(",\"date\":").append(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()))
+                .append(",\"from\":{\"id\":").append(chatId).append(",\"is_bot\":false,\"first_name\":\"Load\"}")
+                .append(",\"chat\":{\"id\":").append(chatId).append(",\"type\":\"private\",\"first_name\":\"Load\"}")
+                .append(",\"text\":").append(quote(objectMapper, text));
+
+        if (text.startsWith("/")) {
+            int space = text.indexOf(' ');
+            json.append(",\"entities\":[{\"type\":\"bot_command\",\"offset\":0,\"length\":")
+                    .append(space < 0 ? text.length() : space).append("}]");
+        }
+
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Returns the text as a JSON string.
+     *
+     * @param mapper the mapper.
+     * @param text   the text.
+     * @return the JSON string.
+     */
+    private static String quote(ObjectMapper mapper, String text) {
+        try {
+            return mapper.writeValueAsString(text);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Receives the messages accepted by the server.
+     */
+    @FunctionalInterface
+    public interface SendListener {
+
+        /**
+         * Invoked when a message is accepted.
+         *
+         * @param chatId     the chat to which the message is sent.
+         * @param text       the text of the message.
+         * @param receivedAt the instant in which the message was received, in nanoseconds.
+         */
+        void onMessage(long chatId, String text, long receivedAt);
+    }
+
+    /**
+     * Contains an update that was not confirmed by the bot.
+     */
+    private static final class PendingUpdate {
+
+        /**
+         * The update identification.
+         */
+        private final long updateId;
+
+        /**
+         * The JSON of the update.
+         */
+        private final String json;
+
+        private PendingUpdate(long updateId, String json) {
+            this.updateId = updateId;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.netkorp.telegram.framework.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records the reply latency of the updates offered to the bot.
+ * The generated workload asks the bot to echo the sequence number of each update, so every reply is matched
+ * with its update by the sequence number. The replies that don't carry a known sequence number are only counted.
+ */
+public class LatencyRecorder {
+
+    /**
+     * The instant in which each update was offered, in nanoseconds, indexed by sequence number.
+     * It's {@code 0} for the updates that were not offered or were already answered.
+     */
+    private final long[] offeredAt;
+
+    /**
+     * The latency of each reply received during the measurement, in nanoseconds.
+     */
+    private final long[] latencies;
+
+    /**
+     * The amount of latencies recorded.
+     */
+    private int latencyCount;
+
+    /**
+     * The amount of replies received.
+     */
+    private long replies;
+
+    /**
+     * The sequence number from which the replies are measured. The previous ones belong to the warmup.
+     */
+    private long measuredFrom = Long.MAX_VALUE;
+
+    /**
+     * The instant in which the last measured reply was received, in nanoseconds.
+     */
+    private long lastReplyAt;
+
+    /**
+     * Constructs a new {@link LatencyRecorder} instance for the amount of updates.
+     *
+     * @param capacity the maximum amount of updates to be offered.
+     */
+    public LatencyRecorder(int capacity) {
+        this.offeredAt = new long[capacity];
+        this.latencies = new long[capacity];
+    }
+
+    /**
+     * Records that the update was offered to the bot.
+     *
+     * @param sequence  the sequence number of the update.
+     * @param timestamp the instant in which the update was offered, in nanoseconds.
+     */
+    public synchronized void offered(int sequence, long timestamp) {
+        offeredAt[sequence] = timestamp;
+    }
+
+    /**
+     * Starts the measurement from the sequence number on.
+     *
+     * @param sequence the first sequence number to be measured.
+     */
+    public synchronized void startMeasurement(long sequence) {
+        measuredFrom = sequence;
+    }
+
+    /**
+     * Records a reply of the bot.
+     *
+     * @param text       the text of the reply.
+     * @param receivedAt the instant in which the reply was received, in nanoseconds.
+     */
+    public synchronized void replied(String text, long receivedAt) {
+        replies++;
+
+        int sequence = parseSequence(text);
+        if (sequence < 0 || sequence >= offeredAt.length || offeredAt[sequence] == 0) {
+            return;
+        }
+
+        long latency = receivedAt - offeredAt[sequence];
+        offeredAt[sequence] = 0;
+        if (sequence >= measuredFrom) {
+            latencies[latencyCount++] = latency;
+            lastReplyAt = receivedAt;
+        }
+    }
+
+    /**
+     * Returns the amount of replies received.
+     *
+     * @return the amount of replies.
+     */
+    public synchronized long getReplyCount() {
+        return replies;
+    }
+
+    /**
+     * Returns the instant in which the last measured reply was received.
+     *
+     * @return the instant, in nanoseconds, or {@code 0} if no reply was measured.
+     */
+    public synchronized long getLastReplyAt() {
+        return lastReplyAt;
+    }
+
+    /**
+     * Returns the latencies recorded during the measurement, sorted in ascending order.
+     *
+     * @return the latencies, in nanoseconds.
+     */
+    public synchronized long[] getSortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Returns the percentile of the sorted latencies.
+     *
+     * @param sorted     the latencies, sorted in ascending order.
+     * @param percentile the percentile, between {@code 0} and {@code 100}.
+     * @return the latency of the percentile, in nanoseconds, or {@code 0} if there is no latency.
+     */
+    public static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Returns the sequence number carried by the reply.
+     *
+     * @param text the text of the reply.
+     * @return the sequence number, or {@code -1} if the reply doesn't carry one.
+     */
+    private static int parseSequence(String text) {
+        if (text.isEmpty() || text.length() > 9) {
+            return -1;
+        }
+
+        int sequence = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            sequence = sequence * 10 + (c - '0');
+        }
+
+        return sequence;
+    }
+}
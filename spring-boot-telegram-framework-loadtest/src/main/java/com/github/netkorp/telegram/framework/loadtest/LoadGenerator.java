@@ -0,0 +1,234 @@
+package com.github.netkorp.telegram.framework.loadtest;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load-tests the bot end to end. It starts a {@link FakeBotApiServer}, points the {@code PollingTelegramBot}
+ * of the {@link LoadTestApplication} to it, offers the updates of the {@link Workload} at a fixed rate
+ * and reports the updates per second and the reply latency.
+ *
+ * <pre>
+ * java -jar loadtest.jar --rate=2000 --duration=30 --chats=500 --latency-ms=20 --throttle=0.01
+ * </pre>
+ * <p>
+ * The arguments starting with {@code --telegram.} are passed to the bot, so the framework can be tuned as usual.
+ */
+public final class LoadGenerator {
+
+    /**
+     * The time to wait for the last replies, in seconds.
+     */
+    private static final long DRAIN_TIMEOUT = 30;
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the arguments of the load test, and the properties of the bot.
+     * @throws IOException          if the server can't be started or the script can't be read.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options = new Options(args);
+
+        int warmupUpdates = (int) (options.rate * options.warmup);
+        int total = warmupUpdates + (int) (options.rate * options.duration);
+        Workload workload = options.script == null ? Workload.generated(options.chats)
+                : Workload.scripted(Paths.get(options.script));
+        LatencyRecorder recorder = new LatencyRecorder(total);
+
+        try (FakeBotApiServer server = new FakeBotApiServer(options.port, options.latency, options.throttle,
+                options.retryAfter, (chatId, text, receivedAt) -> recorder.replied(text, receivedAt))) {
+
+            List<String> properties = new ArrayList<>(options.botArgs);
+            properties.add("--telegram.bots.api-url=" + server.getApiUrl());
+
+            try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(LoadTestApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(properties.toArray(new String[0]))) {
+
+                System.out.printf("Offering %d updates at %.0f/s to %s%n", total, options.rate, server.getApiUrl());
+
+                long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate);
+                long start = System.nanoTime();
+                long measurementStart = start;
+                for (int sequence = 0; sequence < total; sequence++) {
+                    long due = start + sequence * interval;
+                    long now;
+                    while ((now = System.nanoTime()) < due) {
+                        LockSupport.parkNanos(due - now);
+                    }
+
+                    if (sequence == warmupUpdates) {
+                        recorder.startMeasurement(sequence);
+                        measurementStart = now;
+                    }
+
+                    recorder.offered(sequence, now);
+                    server.offer(workload.chatId(sequence), workload.text(sequence));
+                }
+
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT);
+                long expected = options.script == null ? total : 0;
+                while ((server.getPendingCount() > 0 || recorder.getReplyCount() < expected)
+                        && System.nanoTime() < deadline) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+
+                report(options, server, recorder, total - warmupUpdates,
+                        Math.max(0, recorder.getLastReplyAt() - measurementStart));
+            }
+        }
+    }
+
+    /**
+     * Prints the results of the load test.
+     *
+     * @param options  the options of the load test.
+     * @param server   the fake server.
+     * @param recorder the recorder of the latency.
+     * @param measured the amount of updates offered during the measurement.
+     * @param elapsed  the time from the start of the measurement to the last measured reply, in nanoseconds.
+     */
+    private static void report(Options options, FakeBotApiServer server, LatencyRecorder recorder,
+                               int measured, long elapsed) {
+        long[] latencies = recorder.getSortedLatencies();
+        double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+
+        System.out.printf("Target rate:        %.0f updates/s%n", options.rate);
+        System.out.printf("Updates confirmed:  %d (%d pending)%n", server.getConfirmedCount(), server.getPendingCount());
+        System.out.printf("Replies:            %d (%d throttled with 429)%n", recorder.getReplyCount(),
+                server.getThrottledCount());
+        System.out.printf("Throughput:         %.1f replies/s%n", seconds == 0 ? 0 : latencies.length / seconds);
+        System.out.printf("Measured replies:   %d of %d%n", latencies.length, measured);
+        System.out.printf("Latency p50:        %.2f ms%n", millis(LatencyRecorder.percentile(latencies, 50)));
+        System.out.printf("Latency p90:        %.2f ms%n", millis(LatencyRecorder.percentile(latencies, 90)));
+        System.out.printf("Latency p99:        %.2f ms%n", millis(LatencyRecorder.percentile(latencies, 99)));
+        System.out.printf("Latency max:        %.2f ms%n", millis(LatencyRecorder.percentile(latencies, 100)));
+    }
+
+    /**
+     * Converts the nanoseconds into milliseconds.
+     *
+     * @param nanos the nanoseconds.
+     * @return the milliseconds.
+     */
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Contains the options of the load test.
+     */
+    private static final class Options {
+
+        /**
+         * The updates offered per second.
+         */
+        private double rate = 1000;
+
+        /**
+         * The seconds of the measurement.
+         */
+        private double duration = 10;
+
+        /**
+         * The seconds of the warmup, whose replies are not measured.
+         */
+        private double warmup = 5;
+
+        /**
+         * The amount of chats of the generated workload.
+         */
+        private int chats = 100;
+
+        /**
+         * The latency added to every {@code sendMessage}, in milliseconds.
+         */
+        private long latency;
+
+        /**
+         * The fraction of {@code sendMessage} requests answered with {@code 429 Too Many Requests}.
+         */
+        private double throttle;
+
+        /**
+         * The seconds that the bot is asked to wait when a request is throttled.
+         */
+        private int retryAfter = 1;
+
+        /**
+         * The script of the workload, or {@code null} for the generated workload.
+         */
+        private String script;
+
+        /**
+         * The port of the fake server, or {@code 0} for any free port.
+         */
+        private int port;
+
+        /**
+         * The arguments passed to the bot.
+         */
+        private final List<String> botArgs = new ArrayList<>();
+
+        private Options(String[] args) {
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("The argument " + arg + " must be --name=value");
+                }
+
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+                switch (name) {
+                    case "rate":
+                        rate = Double.parseDouble(value);
+                        break;
+                    case "duration":
+                        duration = Double.parseDouble(value);
+                        break;
+                    case "warmup":
+                        warmup = Double.parseDouble(value);
+                        break;
+                    case "chats":
+                        chats = Integer.parseInt(value);
+                        break;
+                    case "latency-ms":
+                        latency = Long.parseLong(value);
+                        break;
+                    case "throttle":
+                        throttle = Double.parseDouble(value);
+                        break;
+                    case "retry-after":
+                        retryAfter = Integer.parseInt(value);
+                        break;
+                    case "script":
+                        script = value;
+                        break;
+                    case "port":
+                        port = Integer.parseInt(value);
+                        break;
+                    default:
+                        botArgs.add(arg);
+                        break;
+                }
+            }
+
+            if (rate <= 0) {
+                throw new IllegalArgumentException("The rate must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.netkorp.telegram.framework.loadtest;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The bot under test. It contains the framework and the {@link com.github.netkorp.telegram.framework.loadtest.commands.EchoCommand}.
+ */
+@SpringBootApplication
+public class LoadTestApplication {
+}
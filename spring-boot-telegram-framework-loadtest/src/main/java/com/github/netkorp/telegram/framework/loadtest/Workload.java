@@ -0,0 +1,104 @@
+package com.github.netkorp.telegram.framework.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Provides the messages offered to the bot. The generated workload spreads {@code /echo <sequence>} over
+ * the chats, so every reply is matched with its update. The scripted workload repeats the lines of a file,
+ * each one with the chat identification followed by the text of the message.
+ */
+public abstract class Workload {
+
+    /**
+     * Returns the chat of the message.
+     *
+     * @param sequence the sequence number of the message.
+     * @return the chat identification.
+     */
+    public abstract long chatId(int sequence);
+
+    /**
+     * Returns the text of the message.
+     *
+     * @param sequence the sequence number of the message.
+     * @return the text.
+     */
+    public abstract String text(int sequence);
+
+    /**
+     * Returns the generated workload.
+     *
+     * @param chats the amount of chats.
+     * @return the workload.
+     */
+    public static Workload generated(int chats) {
+        if (chats <= 0) {
+            throw new IllegalArgumentException("The amount of chats must be positive");
+        }
+
+        return new Workload() {
+            @Override
+            public long chatId(int sequence) {
+                return 1 + sequence % chats;
+            }
+
+            @Override
+            public String text(int sequence) {
+                return "/echo " + sequence;
+            }
+        };
+    }
+
+    /**
+     * Returns the scripted workload. The empty lines and the ones starting with {@code #} are ignored.
+     *
+     * @param file the script.
+     * @return the workload.
+     * @throws IOException if the script can't be read.
+     */
+    public static Workload scripted(Path file) throws IOException {
+        List<Long> chatIds = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+
+        int number = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int space = line.indexOf(' ');
+            if (space < 0) {
+                throw new IllegalArgumentException(String.format("The line %d of %s has no text", number, file));
+            }
+
+            chatIds.add(Long.parseLong(line.substring(0, space)));
+            texts.add(line.substring(space + 1).trim());
+        }
+
+        if (texts.isEmpty()) {
+            throw new IllegalArgumentException(String.format("The script %s has no message", file));
+        }
+
+        List<Long> scriptChatIds = Collections.unmodifiableList(chatIds);
+        List<String> scriptTexts = Collections.unmodifiableList(texts);
+        return new Workload() {
+            @Override
+            public long chatId(int sequence) {
+                return scriptChatIds.get(sequence % scriptChatIds.size());
+            }
+
+            @Override
+            public String text(int sequence) {
+                return scriptTexts.get(sequence % scriptTexts.size());
+            }
+        };
+    }
+}
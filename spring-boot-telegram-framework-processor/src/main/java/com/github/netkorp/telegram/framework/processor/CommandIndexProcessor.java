@@ -0,0 +1,294 @@
+package com.github.netkorp.telegram.framework.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Generates the index of the commands annotated with {@code @TelegramCommand}, so the framework describes
+ * the commands without reflecting on their annotations when the bot starts.
+ * The index is written to {@value #LOCATION} and it contains, for each command, its names, group, description,
+ * secure flag, roles, limits of execution and kind. It's enabled by adding this artifact as an optional dependency of the bot,
+ * in the same way as {@code spring-boot-configuration-processor}.
+ */
+@SupportedAnnotationTypes(CommandIndexProcessor.TELEGRAM_COMMAND)
+public class CommandIndexProcessor extends AbstractProcessor {
+
+    /**
+     * The location of the index in the classpath.
+     */
+    public static final String LOCATION = "META-INF/telegram-commands.properties";
+
+    /**
+     * The name of the annotation of the commands.
+     */
+    static final String TELEGRAM_COMMAND = "com.github.netkorp.telegram.framework.annotations.TelegramCommand";
+
+    /**
+     * The package of the interfaces of the commands.
+     */
+    private static final String INTERFACES = "com.github.netkorp.telegram.framework.commands.interfaces.";
+
+    /**
+     * The package of the commands involved in the multistage command flow.
+     */
+    private static final String MULTISTAGE = "com.github.netkorp.telegram.framework.commands.multistage.";
+
+    /**
+     * The types that identify the kind of a command, sorted by precedence, and the name of the kind.
+     */
+    private static final String[][] KINDS = {
+            {MULTISTAGE + "MultistageCloseCommand", "CLOSE"},
+            {MULTISTAGE + "MultistageDoneCommand", "DONE"},
+            {INTERFACES + "HelpCommand", "HELP"},
+            {INTERFACES + "MultistageCommand", "MULTISTAGE"},
+            {INTERFACES + "Command", "SIMPLE"}
+    };
+
+    /**
+     * The entries of the index, sorted by key, so the index is the same on every build.
+     */
+    private final Map<String, String> index = new TreeMap<>();
+
+    /**
+     * Returns the latest source version, since the processor only reads the annotations.
+     *
+     * @return the latest supported source version.
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Indexes the commands of the round, and writes the index once the processing is over.
+     *
+     * @param annotations the annotation types requested to be processed.
+     * @param roundEnv    the environment for information about the current and prior round.
+     * @return {@code false}, so other processors can claim the annotation.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(TELEGRAM_COMMAND);
+        if (annotation == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                indexCommand((TypeElement) element, annotation);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the command to the index.
+     *
+     * @param command    the class of the command.
+     * @param annotation the annotation of the commands.
+     */
+    private void indexCommand(TypeElement command, TypeElement annotation) {
+        String kind = getKind(command);
+        if (kind == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "The class is annotated with @TelegramCommand but it doesn't implement Command", command);
+            return;
+        }
+
+        Map<String, String> values = new TreeMap<>();
+        for (AnnotationMirror mirror : command.getAnnotationMirrors()) {
+            if (!processingEnv.getTypeUtils().isSameType(mirror.getAnnotationType(), annotation.asType())) {
+                continue;
+            }
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+                values.put(value.getKey().getSimpleName().toString(), toString(value.getValue()));
+            }
+        }
+
+        String prefix = processingEnv.getElementUtils().getBinaryName(command).toString() + ".";
+        index.put(prefix + "names", values.get("name"));
+        index.put(prefix + "group", values.get("group"));
+        index.put(prefix + "description", values.get("description"));
+        index.put(prefix + "secure", values.get("secure"));
+        index.put(prefix + "roles", values.get("roles"));
+        index.put(prefix + "timeout", values.get("timeout"));
+        index.put(prefix + "maxConcurrent", values.get("maxConcurrent"));
+        index.put(prefix + "kind", kind);
+    }
+
+    /**
+     * Returns the kind of the command, as it's named by the framework.
+     *
+     * @param command the class of the command.
+     * @return the kind of the command, or {@code null} if the class is not a command.
+     */
+    private String getKind(TypeElement command) {
+        for (String[] kind : KINDS) {
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(kind[0]);
+            if (type != null && processingEnv.getTypeUtils().isAssignable(command.asType(),
+                    processingEnv.getTypeUtils().erasure(type.asType()))) {
+                return kind[1];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the value of an attribute as it's written in the index. The arrays are separated by commas.
+     *
+     * @param value the value of the attribute.
+     * @return the value in the index.
+     */
+    private static String toString(AnnotationValue value) {
+        if (value.getValue() instanceof List) {
+            StringJoiner joiner = new StringJoiner(",");
+            for (Object item : (List<?>) value.getValue()) {
+                joiner.add(String.valueOf(((AnnotationValue) item).getValue()));
+            }
+
+            return joiner.toString();
+        }
+
+        return String.valueOf(value.getValue());
+    }
+
+    /**
+     * Writes the index. On an incremental build, the commands indexed by the previous build whose classes
+     * were not compiled again are kept.
+     */
+    private void writeIndex() {
+        if (index.isEmpty()) {
+            return;
+        }
+
+        mergePreviousIndex();
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by spring-boot-telegram-framework-processor");
+                writer.write(System.lineSeparator());
+                for (Map.Entry<String, String> entry : index.entrySet()) {
+                    writer.write(escape(entry.getKey(), true));
+                    writer.write('=');
+                    writer.write(escape(entry.getValue(), false));
+                    writer.write(System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Unable to write the index of the commands: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Adds the entries of the previous index whose classes still exist and were not indexed in this build.
+     */
+    private void mergePreviousIndex() {
+        Properties previous = new Properties();
+        try (InputStream input = processingEnv.getFiler()
+                .getResource(StandardLocation.CLASS_OUTPUT, "", LOCATION).openInputStream()) {
+            previous.load(input);
+        } catch (IOException e) {
+            // There is no previous index
+            return;
+        }
+
+        List<String> classes = new ArrayList<>();
+        for (String key : previous.stringPropertyNames()) {
+            if (key.endsWith(".names")) {
+                classes.add(key.substring(0, key.length() - ".names".length()));
+            }
+        }
+
+        for (String className : classes) {
+            if (index.containsKey(className + ".names")
+                    || processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) == null) {
+                continue;
+            }
+
+            for (String key : previous.stringPropertyNames()) {
+                if (key.startsWith(className + ".") && key.indexOf('.', className.length() + 1) < 0) {
+                    index.put(key, previous.getProperty(key));
+                }
+            }
+        }
+    }
+
+    /**
+     * Escapes the text for a properties file, which is read in ISO 8859-1.
+     *
+     * @param text the text.
+     * @param key  {@code true} if the text is a key; {@code false} if it's a value.
+     * @return the escaped text.
+     */
+    private static String escape(String text, boolean key) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    escaped.append('\\').append(c);
+                    break;
+                case ' ':
+                    escaped.append(key || i == 0 ? "\\ " : " ");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                    break;
+            }
+        }
+
+        return escaped.toString();
+    }
+}
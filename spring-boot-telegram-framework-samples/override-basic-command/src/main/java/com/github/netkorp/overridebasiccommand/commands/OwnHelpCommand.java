@@ -3,7 +3,6 @@ package com.github.netkorp.overridebasiccommand.commands;
 import com.github.netkorp.telegram.framework.annotations.TelegramCommand;
 import com.github.netkorp.telegram.framework.commands.abstracts.AbstractSimpleCommand;
 import com.github.netkorp.telegram.framework.commands.interfaces.HelpCommand;
-import com.github.netkorp.telegram.framework.managers.CommandManager;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
@@ -23,10 +22,10 @@ public class OwnHelpCommand extends AbstractSimpleCommand implements HelpCommand
         StringJoiner stringJoiner = new StringJoiner(System.lineSeparator());
         stringJoiner.add(String.format("%s:", messageSource.getMessage("commands.ownhelp.title", null,
                 LocaleContextHolder.getLocale())));
-        commandManager.getAvailableNonSecureCommands()
-                .forEach(command -> stringJoiner.add(String.format("%s - <b>%s</b>", CommandManager.getCommandFullNames(command),
-                        messageSource.getMessage(command.getClass().getAnnotation(TelegramCommand.class).description(),
-                                null, LocaleContextHolder.getLocale()))));
+        commandManager.getAvailableNonSecureCommands().stream()
+                .map(commandManager::getDescriptor)
+                .forEach(descriptor -> stringJoiner.add(String.format("%s - <b>%s</b>", descriptor.getFullNames(),
+                        messageSource.getMessage(descriptor.getDescriptionKey(), null, LocaleContextHolder.getLocale()))));
         bot.sendMessage(stringJoiner.toString(), update.getMessage().getChatId(), true);
     }
 }